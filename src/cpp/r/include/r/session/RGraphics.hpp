@@ -118,6 +118,12 @@ public:
    virtual core::Error setActivePlot(int index) = 0;
    virtual core::Error removePlot(int index) = 0;
 
+   // render any plot in the list as a png (without making it active)
+   virtual core::Error savePlotPreview(int index,
+                                       const core::FilePath& filePath,
+                                       int widthPx,
+                                       int heightPx) = 0;
+
    // actions on active plot   
    virtual core::Error savePlotAsImage(const core::FilePath& filePath,
                                        const std::string& format,
@@ -219,6 +219,21 @@ Error Plot::renderToDisplay()
       return Success();
 }
    
+// replay the plot onto whichever device is active (used to render plots
+// other than the one on the display)
+Error Plot::renderToActiveDevice()
+{
+   if (!hasValidStorage())
+      return Error(errc::PlotFileError, ERROR_LOCATION);
+
+   Error error = r::exec::RFunction(".rs.restoreGraphics",
+         string_utils::utf8ToSystem(snapshotFilePath().absolutePath())).call();
+   if (error)
+      return Error(errc::PlotRenderingError, error, ERROR_LOCATION);
+   else
+      return Success();
+}
+
 Error Plot::removeFiles()
 {
    // bail if we don't have any storage
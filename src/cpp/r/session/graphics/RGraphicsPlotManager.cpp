@@ -285,11 +285,56 @@ Error PlotManager::savePlotAsImage(const FilePath& filePath,
    }
 }
 
+// NOTE: unlike the other actions this isn't restricted to the active plot.
+// Other plots are replayed from their snapshots onto a png device, leaving
+// the display as it is (the client uses this to prefetch the plots next to
+// the one being viewed).
+Error PlotManager::savePlotPreview(int index,
+                                   const FilePath& filePath,
+                                   int widthPx,
+                                   int heightPx)
+{
+   if (!isValidPlotIndex(index))
+      return plotIndexError(index, ERROR_LOCATION);
+
+   // the active plot can simply be copied from the display
+   if (index == activePlot_)
+      return savePlotAsBitmapFile(filePath, kPngFormat, widthPx, heightPx, true);
+
+   // restore previous device after invoking file device
+   RestorePreviousGraphicsDeviceScope restoreScope;
+
+   Error error = r::exec::executeString(
+         bitmapDeviceCreationCode(filePath, kPngFormat, widthPx, heightPx, true));
+   if (error)
+      return error;
+
+   // replay the plot onto the png device then close it to save the file
+   error = plots_[index]->renderToActiveDevice();
+   Error closeError = r::exec::RFunction("dev.off").call();
+   return error ? error : closeError;
+}
+
 Error PlotManager::savePlotAsBitmapFile(const FilePath& targetPath,
                                         const std::string& bitmapFileType,
                                         int width,
                                         int height,
                                         bool useDevicePixelRatio)
+{
+   // save the file
+   return savePlotAsFile(bitmapDeviceCreationCode(targetPath,
+                                                  bitmapFileType,
+                                                  width,
+                                                  height,
+                                                  useDevicePixelRatio));
+}
+
+std::string PlotManager::bitmapDeviceCreationCode(
+                                        const FilePath& targetPath,
+                                        const std::string& bitmapFileType,
+                                        int width,
+                                        int height,
+                                        bool useDevicePixelRatio)
 {
    // default res
    int res = 96;
@@ -317,15 +362,12 @@ Error PlotManager::savePlotAsBitmapFile(const FilePath& targetPath,
    boost::format fmt(
       "{ require(grDevices, quietly=TRUE); "
       "  %1%(filename=\"%2%\", width=%3%, height=%4%, res = %5% %6%); }");
-   std::string deviceCreationCode = boost::str(fmt % bitmapFileType %
-                                                     string_utils::utf8ToSystem(targetPath.absolutePath()) %
-                                                     width %
-                                                     height %
-                                                     res %
-                                                     extraParams);
-
-   // save the file
-   return savePlotAsFile(deviceCreationCode);
+   return boost::str(fmt % bitmapFileType %
+                           string_utils::utf8ToSystem(targetPath.absolutePath()) %
+                           width %
+                           height %
+                           res %
+                           extraParams);
 }
 
 Error PlotManager::savePlotAsPdf(const FilePath& filePath, 
@@ -73,6 +73,10 @@ public:
    virtual int activePlotIndex() const;
    virtual core::Error setActivePlot(int index) ;
    virtual core::Error removePlot(int index);
+   virtual core::Error savePlotPreview(int index,
+                                       const core::FilePath& filePath,
+                                       int widthPx,
+                                       int heightPx);
    
    // actions on active plot
    virtual core::Error savePlotAsImage(const core::FilePath& filePath,
@@ -157,6 +161,12 @@ private:
                                     int height,
                                     bool useDevicePixelRatio);
 
+   std::string bitmapDeviceCreationCode(const core::FilePath& targetPath,
+                                        const std::string& bitmapFileType,
+                                        int width,
+                                        int height,
+                                        bool useDevicePixelRatio);
+
    core::Error savePlotAsSvg(const core::FilePath& targetPath,
                              int width,
                              int height);
@@ -16,6 +16,7 @@
 #include "SessionClientEventService.hpp"
 
 #include <algorithm>
+#include <sstream>
 
 #include <boost/function.hpp>
 
@@ -29,6 +30,7 @@
 
 
 #include <core/http/Request.hpp>
+#include <core/http/Response.hpp>
 
 #include <session/SessionOptions.hpp>
 #include <session/SessionHttpConnectionListener.hpp>
@@ -44,6 +46,16 @@ namespace {
 
 const int kLastChanceWaitSeconds = 4;
 
+// how often a stream with no events checks whether another events request
+// is waiting for the service thread
+const int kStreamPollSeconds = 1;
+
+bool haveQueuedEventsConnection()
+{
+   return !httpConnectionListener().eventsConnectionQueue()
+                                       .peekNextConnectionUri().empty();
+}
+
 bool hasEventIdLessThanOrEqualTo(const json::Value& event, int targetId)
 {
    const json::Object& eventJSON = event.get_obj();
@@ -185,6 +197,120 @@ void ClientEventService::setClientEventResult(
 }
 
 
+// stream events to the client over a single connection (each chunk is a
+// json-rpc response holding a batch of events, terminated by a newline).
+// the first chunk is sent immediately (so the client can confirm that the
+// stream isn't being buffered) and includes any events not yet acknowledged.
+// events remain in clientEvents_ until the client acknowledges them with
+// the lastEventId of its next request, so if the connection is dropped they
+// will be delivered again when the client reconnects. the stream also ends
+// as soon as another events request arrives (e.g. a client which gave up
+// on the stream and fell back to the long-poll) since that request can't
+// be served until this one finishes. returns true if the service thread
+// was interrupted while streaming.
+bool ClientEventService::streamClientEvents(
+                     boost::shared_ptr<HttpConnection> ptrConnection,
+                     const std::string& clientId,
+                     int* pNextEventId,
+                     const boost::posix_time::time_duration& maxRequest,
+                     const boost::posix_time::time_duration& batchDelay,
+                     const boost::posix_time::time_duration& maxBatch)
+{
+   ClientEventQueue& clientEventQueue = session::clientEventQueue();
+   boost::system_time endTime = boost::get_system_time() + maxRequest;
+
+   bool interrupted = false;
+   bool firstChunk = true;
+   while (true)
+   {
+      try
+      {
+         if (!firstChunk)
+         {
+            boost::posix_time::time_duration remaining =
+                                       endTime - boost::get_system_time();
+            if (remaining.is_negative())
+               break;
+
+            // wake periodically to check for another events request
+            boost::posix_time::time_duration wait =
+                              boost::posix_time::seconds(kStreamPollSeconds);
+            if (remaining < wait)
+               wait = remaining;
+            if (clientEventQueue.hasEvents() ||
+                clientEventQueue.waitForEvent(wait))
+            {
+               // wait for additional events that occur in rapid succession
+               boost::system_time maxBatchDelayTime =
+                                       boost::get_system_time() + maxBatch;
+               while ( clientEventQueue.waitForEvent(batchDelay) &&
+                       (boost::get_system_time() < maxBatchDelayTime) )
+               {
+               }
+            }
+         }
+      }
+      catch(const boost::thread_interrupted&)
+      {
+         // still send any remaining events (e.g. the quit event)
+         interrupted = true;
+      }
+
+      // a new client has connected -- leave the events for it
+      if (clientId != this->clientId())
+         break;
+
+      // another events request is waiting -- pending events (if any) will
+      // be delivered to it
+      if (!firstChunk && !interrupted && haveQueuedEventsConnection())
+         break;
+
+      // the first chunk includes events which are not yet acknowledged
+      json::Array events;
+      if (firstChunk)
+      {
+         LOCK_MUTEX(mutex_)
+         {
+            events = clientEvents_;
+         }
+         END_LOCK_MUTEX
+      }
+
+      std::vector<ClientEvent> queuedEvents;
+      clientEventQueue.remove(&queuedEvents);
+      for (std::vector<ClientEvent>::const_iterator
+           it = queuedEvents.begin(); it != queuedEvents.end(); ++it)
+      {
+         json::Object event;
+         it->asJsonObject((*pNextEventId)++, &event);
+         addClientEvent(event);
+         events.push_back(event);
+      }
+
+      if (firstChunk || !events.empty())
+      {
+         json::JsonRpcResponse response;
+         response.setResult(events);
+         response.setField(kEventsPending, "false");
+         std::ostringstream ostr;
+         response.write(ostr);
+         ostr << std::endl;
+
+         // stop if the client has gone away
+         if (!ptrConnection->sendResponseChunk(ostr.str()))
+            return interrupted;
+
+         firstChunk = false;
+      }
+
+      if (interrupted)
+         break;
+   }
+
+   ptrConnection->endStreamingResponse();
+   return interrupted;
+}
+
 void ClientEventService::run()
 {
    try
@@ -275,6 +401,18 @@ void ClientEventService::run()
             ptrConnection->sendJsonRpcError(paramError);
             continue;
          }
+
+         // does the client want the events streamed? (optional param)
+         bool stream = false;
+         if (request.params.size() > 1)
+         {
+            paramError = json::readParam(request.params, 1, &stream);
+            if (paramError)
+            {
+               ptrConnection->sendJsonRpcError(paramError);
+               continue;
+            }
+         }
            
          // remove all events already seen by the client from our internal list
          erasePreviouslyDeliveredEvents(lastClientEventIdSeen);
@@ -285,6 +423,31 @@ void ClientEventService::run()
          // would never see any events!)
          nextEventId = std::max(nextEventId, lastClientEventIdSeen + 1);
 
+         // stream events if requested (and supported by the connection),
+         // otherwise fall through to a standard long-poll response. in
+         // server mode we're behind the rserver proxy, which buffers the
+         // response, so a stream would only hold up the service thread
+         if (stream &&
+             options().programMode() == kSessionProgramModeDesktop)
+         {
+            http::Response response;
+            response.setNoCacheHeaders();
+            response.setContentType("application/json");
+            if (ptrConnection->beginStreamingResponse(&response))
+            {
+               if (streamClientEvents(ptrConnection,
+                                      request.clientId,
+                                      &nextEventId,
+                                      maxRequestSec,
+                                      batchDelay,
+                                      maxTotalBatchDelay))
+               {
+                  stopServer = true;
+               }
+               continue;
+            }
+         }
+
          // check for events (and wait a specified internal if there are none)
          try
          {
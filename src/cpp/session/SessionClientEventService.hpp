@@ -19,6 +19,8 @@
 #include <string>
 
 #include <boost/utility.hpp>
+#include <boost/shared_ptr.hpp>
+#include <boost/date_time/posix_time/posix_time.hpp>
 
 #include <core/BoostThread.hpp>
 
@@ -34,6 +36,8 @@ namespace core {
 namespace rstudio {
 namespace session {
 
+class HttpConnection;
+
 // singleton
 class ClientEventService;
 ClientEventService& clientEventService();
@@ -63,6 +67,13 @@ private:
    void addClientEvent(const core::json::Object& eventObject);
    void setClientEventResult(core::json::JsonRpcResponse* pResponse);
 
+   bool streamClientEvents(boost::shared_ptr<HttpConnection> ptrConnection,
+                           const std::string& clientId,
+                           int* pNextEventId,
+                           const boost::posix_time::time_duration& maxRequest,
+                           const boost::posix_time::time_duration& batchDelay,
+                           const boost::posix_time::time_duration& maxBatch);
+
   
 private:
    boost::mutex mutex_ ;
@@ -0,0 +1,232 @@
+/*
+ * SessionConditionalResponse.cpp
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+#include "SessionConditionalResponse.hpp"
+
+#include <deque>
+#include <map>
+
+#include <boost/bind.hpp>
+#include <boost/foreach.hpp>
+#include <boost/lexical_cast.hpp>
+
+#include <core/Error.hpp>
+#include <core/Hash.hpp>
+
+using namespace rstudio::core;
+
+namespace rstudio {
+namespace session {
+
+namespace {
+
+const char * const kIfNoneMatch = "if_none_match";
+const char * const kConditionalResponse = "cr";
+
+// the last result sent for each (method, params), so that we can send
+// deltas against it. we only keep a handful since only a few methods opt in
+struct ConditionalResult
+{
+   std::string hash;
+   json::Value result;
+};
+
+std::map<std::string, ConditionalResult> s_results;
+std::deque<std::string> s_resultOrder;
+const std::size_t kMaxResults = 32;
+
+void storeResult(const std::string& key,
+                 const std::string& hash,
+                 const json::Value& result)
+{
+   if (s_results.find(key) == s_results.end())
+   {
+      s_resultOrder.push_back(key);
+      if (s_resultOrder.size() > kMaxResults)
+      {
+         s_results.erase(s_resultOrder.front());
+         s_resultOrder.pop_front();
+      }
+   }
+
+   ConditionalResult& entry = s_results[key];
+   entry.hash = hash;
+   entry.result = result;
+}
+
+// Computes a delta which transforms prev into next. Arrays are diffed by
+// their common prefix and suffix (so a few inserted, removed or changed
+// elements are sent as a single splice); objects are diffed by key, with
+// nested arrays and objects diffed recursively. Returns false if the
+// values aren't both arrays or both objects.
+bool computeDelta(const json::Value& prev,
+                  const json::Value& next,
+                  json::Value* pDelta)
+{
+   if (json::isType<json::Array>(prev) && json::isType<json::Array>(next))
+   {
+      const json::Array& prevArray = prev.get_array();
+      const json::Array& nextArray = next.get_array();
+
+      std::size_t prefix = 0;
+      while (prefix < prevArray.size() &&
+             prefix < nextArray.size() &&
+             prevArray[prefix] == nextArray[prefix])
+      {
+         prefix++;
+      }
+
+      std::size_t suffix = 0;
+      while (suffix < prevArray.size() - prefix &&
+             suffix < nextArray.size() - prefix &&
+             prevArray[prevArray.size() - 1 - suffix] ==
+                                 nextArray[nextArray.size() - 1 - suffix])
+      {
+         suffix++;
+      }
+
+      json::Array insert(nextArray.begin() + prefix,
+                         nextArray.end() - suffix);
+
+      json::Object delta;
+      delta["t"] = "a";
+      delta["start"] = static_cast<int>(prefix);
+      delta["remove"] = static_cast<int>(prevArray.size() - prefix - suffix);
+      delta["insert"] = insert;
+      *pDelta = delta;
+      return true;
+   }
+   else if (json::isType<json::Object>(prev) &&
+            json::isType<json::Object>(next))
+   {
+      const json::Object& prevObject = prev.get_obj();
+      const json::Object& nextObject = next.get_obj();
+
+      json::Object set, patch;
+      json::Array remove;
+      BOOST_FOREACH(const json::Member& member, nextObject)
+      {
+         json::Object::const_iterator it = prevObject.find(member.first);
+         if (it == prevObject.end())
+         {
+            set[member.first] = member.second;
+         }
+         else if (!(it->second == member.second))
+         {
+            json::Value subDelta;
+            if (computeDelta(it->second, member.second, &subDelta))
+               patch[member.first] = subDelta;
+            else
+               set[member.first] = member.second;
+         }
+      }
+
+      BOOST_FOREACH(const json::Member& member, prevObject)
+      {
+         if (nextObject.find(member.first) == nextObject.end())
+            remove.push_back(member.first);
+      }
+
+      json::Object delta;
+      delta["t"] = "o";
+      delta["set"] = set;
+      delta["patch"] = patch;
+      delta["remove"] = remove;
+      *pDelta = delta;
+      return true;
+   }
+
+   return false;
+}
+
+void applyConditionalResponse(const std::string& key,
+                              const std::string& clientHash,
+                              json::JsonRpcResponse* pResponse)
+{
+   json::Value result = pResponse->result();
+   std::string resultJson = json::write(result);
+   std::string hash = hash::crc32HexHash(resultJson) + "-" +
+                      boost::lexical_cast<std::string>(resultJson.size());
+
+   json::Object conditional;
+   conditional["hash"] = hash;
+
+   if (!clientHash.empty() && clientHash == hash)
+   {
+      conditional["status"] = "unchanged";
+      pResponse->setResult(json::Value());
+   }
+   else
+   {
+      // send a delta if we know what the client has and it's worthwhile
+      std::map<std::string, ConditionalResult>::const_iterator it =
+                                                         s_results.find(key);
+      json::Value delta;
+      if (!clientHash.empty() &&
+          it != s_results.end() &&
+          it->second.hash == clientHash &&
+          computeDelta(it->second.result, result, &delta) &&
+          json::write(delta).size() < resultJson.size() / 2)
+      {
+         conditional["status"] = "delta";
+         pResponse->setResult(delta);
+      }
+      else
+      {
+         conditional["status"] = "full";
+      }
+   }
+
+   pResponse->setField(kConditionalResponse, conditional);
+   storeResult(key, hash, result);
+}
+
+void endConditionalResponse(
+               const std::string& key,
+               const std::string& clientHash,
+               const json::JsonRpcFunctionContinuation& continuation,
+               const Error& error,
+               json::JsonRpcResponse* pResponse)
+{
+   if (!error && pResponse)
+      applyConditionalResponse(key, clientHash, pResponse);
+
+   continuation(error, pResponse);
+}
+
+} // anonymous namespace
+
+json::JsonRpcFunctionContinuation conditionalResponseContinuation(
+               const json::JsonRpcRequest& request,
+               const json::JsonRpcFunctionContinuation& continuation)
+{
+   json::Object::const_iterator it = request.kwparams.find(kIfNoneMatch);
+   if (it == request.kwparams.end() ||
+       !json::isType<std::string>(it->second))
+   {
+      return continuation;
+   }
+
+   std::string key = request.method + ":" + json::write(request.params);
+   return boost::bind(endConditionalResponse,
+                      key,
+                      it->second.get_str(),
+                      continuation,
+                      _1,
+                      _2);
+}
+
+} // namespace session
+} // namespace rstudio
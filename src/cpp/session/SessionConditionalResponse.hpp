@@ -0,0 +1,40 @@
+/*
+ * SessionConditionalResponse.hpp
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+#ifndef SESSION_SESSION_CONDITIONAL_RESPONSE_HPP
+#define SESSION_SESSION_CONDITIONAL_RESPONSE_HPP
+
+#include <core/json/JsonRpc.hpp>
+
+namespace rstudio {
+namespace session {
+
+// Clients can opt in to conditional responses for a request by passing the
+// hash of the last result they received for the same method and params
+// (or an empty string if they have none) as the "if_none_match" kwparam.
+// The response then carries a "cr" field with the hash of the new result
+// and a status of "unchanged" (the result is omitted), "delta" (the result
+// is a delta against the client's previous result) or "full".
+//
+// Returns a continuation which applies this to the response before
+// passing it on (or the passed continuation if the request didn't opt in).
+core::json::JsonRpcFunctionContinuation conditionalResponseContinuation(
+               const core::json::JsonRpcRequest& request,
+               const core::json::JsonRpcFunctionContinuation& continuation);
+
+} // namespace session
+} // namespace rstudio
+
+#endif // SESSION_SESSION_CONDITIONAL_RESPONSE_HPP
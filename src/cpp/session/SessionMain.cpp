@@ -101,6 +101,7 @@ extern "C" const char *locale2charset(const char *);
 
 #include "SessionClientEventQueue.hpp"
 #include "SessionClientEventService.hpp"
+#include "SessionConditionalResponse.hpp"
 
 #include <session/SessionRUtil.hpp>
 
@@ -243,6 +244,7 @@ const char * const kHandleUnsavedChangesCompleted = "handle_unsaved_changes_comp
 const char * const kQuitSession = "quit_session" ;   
 const char * const kSuspendSession = "suspend_session";
 const char * const kInterrupt = "interrupt";
+const char * const kRpcBatch = "rpc_batch";
 
 // convenience function for disallowing suspend (note still doesn't override
 // the presence of s_forceSuspend = 1)
@@ -797,11 +799,13 @@ void handleRpcRequest(const core::json::JsonRpcRequest& request,
       {
          // direct return
          handlerFunction(request,
-                         boost::bind(endHandleRpcRequestDirect,
-                                     ptrConnection,
-                                     executeStartTime,
-                                     _1,
-                                     _2));
+                         conditionalResponseContinuation(
+                            request,
+                            boost::bind(endHandleRpcRequestDirect,
+                                        ptrConnection,
+                                        executeStartTime,
+                                        _1,
+                                        _2)));
       }
       else
       {
@@ -862,6 +866,221 @@ bool isWaitForMethodUri(const std::string& uri)
    return false;
 }
 
+// state shared by all of the requests within a batch -- the batch response
+// is sent once the last of its requests has completed
+struct RpcBatchState
+{
+   RpcBatchState(boost::shared_ptr<HttpConnection> ptrConnection,
+                 boost::posix_time::ptime executeStartTime,
+                 std::size_t count)
+      : ptrConnection(ptrConnection),
+        executeStartTime(executeStartTime),
+        responses(count),
+        pending(count)
+   {
+   }
+
+   boost::shared_ptr<HttpConnection> ptrConnection;
+   boost::posix_time::ptime executeStartTime;
+   std::vector<json::JsonRpcResponse> responses;
+   std::size_t pending;
+};
+
+void endHandleRpcBatchItem(boost::shared_ptr<RpcBatchState> pState,
+                           std::size_t index,
+                           const core::Error& executeError,
+                           json::JsonRpcResponse* pJsonRpcResponse)
+{
+   // record the response for this request
+   json::JsonRpcResponse& itemResponse = pState->responses[index];
+   if (executeError)
+      itemResponse.setError(executeError);
+   else if (pJsonRpcResponse)
+      itemResponse = *pJsonRpcResponse;
+
+   // wait for the rest of the batch
+   if (--pState->pending > 0)
+      return;
+
+   bool detect = false;
+   bool hasAfterResponse = false;
+   BOOST_FOREACH(json::JsonRpcResponse& response, pState->responses)
+   {
+      detect = detect || !response.suppressDetectChanges();
+      hasAfterResponse = hasAfterResponse || response.hasAfterResponse();
+   }
+
+   // allow modules to detect changes after rpc calls (once for the batch)
+   if (detect)
+      detectChanges(module_context::ChangeSourceRPC);
+
+   // are there (or will there likely be) events pending?
+   bool eventsPending =
+         clientEventQueue().eventAddedSince(pState->executeStartTime) ||
+         hasAfterResponse;
+
+   // collect the individual responses (in request order)
+   json::Array results;
+   BOOST_FOREACH(json::JsonRpcResponse& response, pState->responses)
+   {
+      if (!eventsPending)
+         response.setField(kEventsPending, "false");
+      results.push_back(response.getRawResponse());
+   }
+
+   json::JsonRpcResponse batchResponse;
+   batchResponse.setResult(results);
+   if (!eventsPending)
+      batchResponse.setField(kEventsPending, "false");
+   pState->ptrConnection->sendJsonRpcResponse(batchResponse);
+
+   // run after responses (then detect changes again)
+   if (hasAfterResponse)
+   {
+      BOOST_FOREACH(json::JsonRpcResponse& response, pState->responses)
+      {
+         if (response.hasAfterResponse())
+            response.runAfterResponse();
+      }
+      if (detect)
+         detectChanges(module_context::ChangeSourceRPC);
+   }
+}
+
+Error parseRpcBatchItem(const json::Value& item,
+                        const json::JsonRpcRequest& batchRequest,
+                        json::JsonRpcRequest* pRequest)
+{
+   if (!json::isType<json::Object>(item))
+      return Error(json::errc::InvalidRequest, ERROR_LOCATION);
+
+   const json::Object& itemObject = item.get_obj();
+   json::Object::const_iterator it = itemObject.find("method");
+   if (it == itemObject.end() || !json::isType<std::string>(it->second))
+      return Error(json::errc::InvalidRequest, ERROR_LOCATION);
+   pRequest->method = it->second.get_str();
+
+   it = itemObject.find("params");
+   if (it != itemObject.end())
+   {
+      if (!json::isType<json::Array>(it->second))
+         return Error(json::errc::ParamTypeMismatch, ERROR_LOCATION);
+      pRequest->params = it->second.get_array();
+   }
+
+   it = itemObject.find("kwparams");
+   if (it != itemObject.end())
+   {
+      if (!json::isType<json::Object>(it->second))
+         return Error(json::errc::ParamTypeMismatch, ERROR_LOCATION);
+      pRequest->kwparams = it->second.get_obj();
+   }
+
+   it = itemObject.find("sourceWnd");
+   if (it != itemObject.end() && json::isType<std::string>(it->second))
+      pRequest->sourceWindow = it->second.get_str();
+
+   // the remaining fields were validated for the batch as a whole
+   pRequest->clientId = batchRequest.clientId;
+   pRequest->version = batchRequest.version;
+   pRequest->clientVersion = batchRequest.clientVersion;
+   pRequest->isBackgroundConnection = batchRequest.isBackgroundConnection;
+
+   return Success();
+}
+
+// execute each of the requests within a batch, responding with an array of
+// their responses (in the same order) once all of them have completed
+void handleRpcBatchRequest(const core::json::JsonRpcRequest& request,
+                           boost::shared_ptr<HttpConnection> ptrConnection)
+{
+   json::Array items;
+   Error error = json::readParams(request.params, &items);
+   if (error)
+   {
+      ptrConnection->sendJsonRpcError(error);
+      return;
+   }
+
+   using namespace boost::posix_time;
+   ptime executeStartTime = microsec_clock::universal_time();
+
+   if (items.empty())
+   {
+      json::JsonRpcResponse response;
+      response.setResult(json::Array());
+      response.setField(kEventsPending, "false");
+      ptrConnection->sendJsonRpcResponse(response);
+      return;
+   }
+
+   boost::shared_ptr<RpcBatchState> pState(
+         new RpcBatchState(ptrConnection, executeStartTime, items.size()));
+
+   for (std::size_t i = 0; i < items.size(); i++)
+   {
+      json::JsonRpcRequest itemRequest;
+      Error error = parseRpcBatchItem(items[i], request, &itemRequest);
+      if (error)
+      {
+         endHandleRpcBatchItem(pState, i, error, NULL);
+         continue;
+      }
+
+      // methods with special handling are never valid within a batch
+      if (itemRequest.method == kClientInit ||
+          itemRequest.method == kConsoleInput ||
+          itemRequest.method == kQuitSession ||
+          itemRequest.method == kSuspendSession ||
+          itemRequest.method == kInterrupt ||
+          itemRequest.method == kRpcBatch ||
+          isWaitForMethodUri("/rpc/" + itemRequest.method))
+      {
+         Error error(json::errc::MethodUnexpected, ERROR_LOCATION);
+         error.addProperty("method", itemRequest.method);
+         endHandleRpcBatchItem(pState, i, error, NULL);
+         continue;
+      }
+
+      json::JsonRpcAsyncMethods::const_iterator it =
+                                 s_jsonRpcMethods.find(itemRequest.method);
+      if (it == s_jsonRpcMethods.end())
+      {
+         Error error(json::errc::MethodNotFound, ERROR_LOCATION);
+         error.addProperty("method", itemRequest.method);
+         LOG_ERROR(error);
+         endHandleRpcBatchItem(pState, i, error, NULL);
+         continue;
+      }
+
+      std::pair<bool, json::JsonRpcAsyncFunction> reg = it->second;
+      json::JsonRpcAsyncFunction handlerFunction = reg.second;
+      if (reg.first)
+      {
+         // direct return
+         handlerFunction(itemRequest,
+                         conditionalResponseContinuation(
+                            itemRequest,
+                            boost::bind(endHandleRpcBatchItem,
+                                        pState, i, _1, _2)));
+      }
+      else
+      {
+         // indirect return (asyncHandle style)
+         std::string handle = core::system::generateUuid(true);
+         json::JsonRpcResponse response;
+         response.setAsyncHandle(handle);
+         endHandleRpcBatchItem(pState, i, Success(), &response);
+
+         handlerFunction(itemRequest,
+                         boost::bind(endHandleRpcRequestIndirect,
+                                     handle,
+                                     _1,
+                                     _2));
+      }
+   }
+}
+
 bool parseAndValidateJsonRpcConnection(
          boost::shared_ptr<HttpConnection> ptrConnection,
          json::JsonRpcRequest* pJsonRpcRequest)
@@ -1086,6 +1305,9 @@ void handleConnection(boost::shared_ptr<HttpConnection> ptrConnection,
             while (!s_consoleInputBuffer.empty())
                s_consoleInputBuffer.pop();
 
+            // let modules discard any input they've queued
+            module_context::events().onUserInterrupt();
+
             // aknowledge request
             ptrConnection->sendJsonRpcResponse();
 
@@ -1094,6 +1316,14 @@ void handleConnection(boost::shared_ptr<HttpConnection> ptrConnection,
                rstudio::r::exec::setInterruptsPending(true);
          }
 
+         // batch of rpc methods
+         else if (jsonRpcRequest.method == kRpcBatch)
+         {
+            jsonRpcRequest.isBackgroundConnection =
+                  (connectionType == BackgroundConnection);
+            handleRpcBatchRequest(jsonRpcRequest, ptrConnection);
+         }
+
          // other rpc method, handle it
          else
          {
@@ -1381,6 +1611,12 @@ bool waitForMethod(const std::string& method,
    // wait until we get the method we are looking for
    while(true)
    {
+      // console input may also be queued by the session itself (e.g. when
+      // running a queue of notebook chunks); if it has been there's no need
+      // to wait for the client to send any
+      if (method == kConsoleInput && !s_consoleInputBuffer.empty())
+         break;
+
       // suspend if necessary (does not return if a suspend occurs)
       suspendIfRequested(allowSuspend);
 
@@ -2024,17 +2260,25 @@ bool rConsoleRead(const std::string& prompt,
       if (!succeeded)
          return false;
 
-      // extract console input. if there is an error during extraction we log it
+      // extract console input (unless we stopped waiting because the session
+      // queued some). if there is an error during extraction we log it
       // but still return and empty string and true (returning false will cause R
       // to abort)
-      Error error = extractConsoleInput(request);
-      if (error)
+      if (!request.method.empty())
+      {
+         Error error = extractConsoleInput(request);
+         if (error)
+            LOG_ERROR(error);
+      }
+      if (!s_consoleInputBuffer.empty())
+      {
+         *pConsoleInput = s_consoleInputBuffer.front();
+         s_consoleInputBuffer.pop();
+      }
+      else
       {
-         LOG_ERROR(error);
          *pConsoleInput = rstudio::r::session::RConsoleInput("", "");
       }
-      *pConsoleInput = s_consoleInputBuffer.front();
-      s_consoleInputBuffer.pop();
    }
 
    // fire onBeforeExecute and onConsoleInput events if this isn't a cancel
@@ -2791,6 +3035,12 @@ void waitForMethodInitFunction(const ClientEvent& initEvent)
 namespace rstudio {
 namespace session { 
 namespace module_context {
+
+void queueConsoleInput(const std::string& input, const std::string& consoleId)
+{
+   addToConsoleInputBuffer(rstudio::r::session::RConsoleInput(input,
+                                                              consoleId));
+}
    
 Error registerRBrowseUrlHandler(const RBrowseUrlHandler& handler)
 {
@@ -17,6 +17,8 @@
 #define SESSION_HTTP_CONNECTION_IMPL_HPP
 
 
+#include <sstream>
+
 #include <boost/array.hpp>
 
 #include <boost/utility.hpp>
@@ -107,6 +109,41 @@ public:
       CATCH_UNEXPECTED_EXCEPTION
    }
 
+   virtual bool beginStreamingResponse(core::http::Response* pResponse)
+   {
+      pResponse->removeHeader("Content-Length");
+      pResponse->setHeader("Transfer-Encoding", "chunked");
+      return writeBuffers(pResponse->toBuffers(
+                                 core::http::Header::connectionClose()));
+   }
+
+   virtual bool sendResponseChunk(const std::string& chunk)
+   {
+      // nothing to write (an empty chunk would terminate the response)
+      if (chunk.empty())
+         return true;
+
+      std::ostringstream ostr;
+      ostr << std::hex << chunk.size() << "\r\n" << chunk << "\r\n";
+      std::string data = ostr.str();
+      return writeBuffers(std::vector<boost::asio::const_buffer>(
+                                       1, boost::asio::buffer(data)));
+   }
+
+   virtual void endStreamingResponse()
+   {
+      std::string lastChunk("0\r\n\r\n");
+      writeBuffers(std::vector<boost::asio::const_buffer>(
+                                       1, boost::asio::buffer(lastChunk)));
+
+      // always close connection
+      try
+      {
+         close();
+      }
+      CATCH_UNEXPECTED_EXCEPTION
+   }
+
    // close (occurs automatically after writeResponse, here in case it
    // need to be closed in other circumstances
    virtual void close()
@@ -133,6 +170,28 @@ public:
 
 private:
 
+   bool writeBuffers(const std::vector<boost::asio::const_buffer>& buffers)
+   {
+      try
+      {
+         boost::asio::write(socket_, buffers);
+         return true;
+      }
+      catch(const boost::system::system_error& e)
+      {
+         // establish error
+         core::Error error = core::Error(e.code(), ERROR_LOCATION);
+         error.addProperty("request-uri", request_.uri());
+
+         // log the error if it wasn't connection terminated
+         if (!core::http::isConnectionTerminatedError(error))
+            LOG_ERROR(error);
+      }
+      CATCH_UNEXPECTED_EXCEPTION
+
+      return false;
+   }
+
    // async request reading interface
    void readSome()
    {
@@ -68,6 +68,22 @@ public:
                   const core::json::JsonRpcResponse& jsonRpcResponse);
 
 
+   // streaming responses (sent using chunked transfer encoding). connections
+   // which can't stream return false from beginStreamingResponse, in which
+   // case the caller should fall back to sendResponse. once streaming has
+   // begun the response is completed by calling endStreamingResponse
+   virtual bool beginStreamingResponse(core::http::Response* pResponse)
+   {
+      return false;
+   }
+   virtual bool sendResponseChunk(const std::string& chunk)
+   {
+      return false;
+   }
+   virtual void endStreamingResponse()
+   {
+   }
+
    // close (occurs automatically after writeResponse, here in case it
    // need to be closed in other circumstances
    virtual void close() = 0;
@@ -314,6 +314,7 @@ struct Events : boost::noncopyable
    boost::signal<void ()>                    onBeforeExecute;
    boost::signal<void(const std::string&)>   onConsolePrompt;
    boost::signal<void(const std::string&)>   onConsoleInput;
+   boost::signal<void ()>                    onUserInterrupt;
    boost::signal<void(const std::string&, const std::string&)>  
                                              onActiveConsoleChanged;
    boost::signal<void (ConsoleOutputType, const std::string&)>
@@ -426,6 +427,10 @@ typedef boost::function<void(const core::system::FileChangeEvent&)> OnFileChange
 core::FilePath registerMonitoredUserScratchDir(const std::string& dirName,
                                                const OnFileChange& onFileChange);
 
+// queue input to be read by the console (as though the client had sent it);
+// the input is discarded if the user interrupts R
+void queueConsoleInput(const std::string& input, const std::string& consoleId);
+
 // write output to the console (convenience wrapper for enquing a 
 // kConsoleWriteOutput event)
 void consoleWriteOutput(const std::string& output);   
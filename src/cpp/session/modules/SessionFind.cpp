@@ -16,10 +16,13 @@
 #include "SessionFind.hpp"
 
 #include <algorithm>
+#include <map>
+#include <vector>
 
 #include <boost/algorithm/string.hpp>
 #include <boost/bind.hpp>
 #include <boost/enable_shared_from_this.hpp>
+#include <boost/foreach.hpp>
 
 #include <core/Exec.hpp>
 #include <core/StringUtils.hpp>
@@ -42,8 +45,16 @@ namespace find {
 
 namespace {
 
-// This must be the same as MAX_COUNT in FindOutputPane.java
-const size_t MAX_COUNT = 1000;
+// This must be the same as MAX_COUNT in FindOutputPane.java. Results are
+// no longer limited by what the client can display (it pages through them),
+// this just bounds the memory used by a runaway search
+const size_t MAX_COUNT = 100000;
+
+// The number of results which are streamed to the client as they're found
+// (and included in the session state); the client requests the rest of the
+// results a page at a time as they're scrolled into view. This must be the
+// same as STREAMED_COUNT in FindOutputPresenter.java
+const size_t STREAMED_COUNT = 1000;
 
 // Reflects the current set of Find results that are being
 // displayed, in case they need to be re-fetched (i.e. browser
@@ -88,6 +99,7 @@ public:
       std::copy(contents.begin(), contents.end(), std::back_inserter(contents_));
       std::copy(matchOns.begin(), matchOns.end(), std::back_inserter(matchOns_));
       std::copy(matchOffs.begin(), matchOffs.end(), std::back_inserter(matchOffs_));
+      countFiles(files);
       return true;
    }
 
@@ -117,6 +129,8 @@ public:
       contents_.clear();
       matchOns_.clear();
       matchOffs_.clear();
+      fileCounts_.clear();
+      fileOrder_.clear();
    }
 
    Error readFromJson(const json::Object& asJson)
@@ -148,10 +162,49 @@ public:
          contents_.clear();
       }
 
+      fileCounts_.clear();
+      fileOrder_.clear();
+      countFiles(files_);
+
       return Success();
    }
 
-   json::Object asJson()
+   // the results in [offset, offset + count), in the same columnar form in
+   // which they're streamed to the client
+   json::Object resultsAsJson(std::size_t offset, std::size_t count) const
+   {
+      std::size_t begin = std::min(offset, files_.size());
+      std::size_t end = std::min(begin + count, files_.size());
+
+      json::Object results;
+      results["file"] = slice(files_, begin, end);
+      results["line"] = slice(lineNums_, begin, end);
+      results["lineValue"] = slice(contents_, begin, end);
+      results["matchOn"] = slice(matchOns_, begin, end);
+      results["matchOff"] = slice(matchOffs_, begin, end);
+      return results;
+   }
+
+   // the number of results in each file (in the order in which the files
+   // were first found)
+   json::Object summaryAsJson() const
+   {
+      json::Array files, counts;
+      BOOST_FOREACH(const std::string& file, fileOrder_)
+      {
+         files.push_back(file);
+         counts.push_back(fileCounts_.find(file)->second);
+      }
+
+      json::Object summary;
+      summary["files"] = files;
+      summary["counts"] = counts;
+      summary["total"] = resultCount();
+      return summary;
+   }
+
+   // the state, including at most maxResults of the results
+   json::Object asJson(std::size_t maxResults = MAX_COUNT + 1) const
    {
       json::Object obj;
       obj["handle"] = handle_;
@@ -159,13 +212,8 @@ public:
       obj["path"] = path_;
       obj["regex"] = regex_;
 
-      json::Object results;
-      results["file"] = files_;
-      results["line"] = lineNums_;
-      results["lineValue"] = contents_;
-      results["matchOn"] = matchOns_;
-      results["matchOff"] = matchOffs_;
-      obj["results"] = results;
+      obj["results"] = resultsAsJson(0, maxResults);
+      obj["total"] = resultCount();
 
       obj["running"] = running_;
 
@@ -173,6 +221,40 @@ public:
    }
 
 private:
+   static json::Array slice(const json::Array& array,
+                            std::size_t begin,
+                            std::size_t end)
+   {
+      if (begin == 0 && end == array.size())
+         return array;
+
+      json::Array result;
+      if (begin < end && end <= array.size())
+         result.insert(result.end(), array.begin() + begin, array.begin() + end);
+      return result;
+   }
+
+   void countFiles(const json::Array& files)
+   {
+      BOOST_FOREACH(const json::Value& file, files)
+      {
+         if (!json::isType<std::string>(file))
+            continue;
+
+         const std::string& path = file.get_str();
+         std::map<std::string, int>::iterator it = fileCounts_.find(path);
+         if (it == fileCounts_.end())
+         {
+            fileCounts_[path] = 1;
+            fileOrder_.push_back(path);
+         }
+         else
+         {
+            it->second++;
+         }
+      }
+   }
+
    std::string handle_;
    std::string input_;
    std::string path_;
@@ -182,6 +264,8 @@ private:
    json::Array contents_;
    json::Array matchOns_;
    json::Array matchOffs_;
+   std::map<std::string, int> fileCounts_;
+   std::vector<std::string> fileOrder_;
    bool running_;
 };
 
@@ -366,15 +450,7 @@ private:
 
       if (files.size() > 0)
       {
-         json::Object result;
-         result["handle"] = handle();
-         json::Object results;
-         results["file"] = files;
-         results["line"] = lineNums;
-         results["lineValue"] = contents;
-         results["matchOn"] = matchOns;
-         results["matchOff"] = matchOffs;
-         result["results"] = results;
+         std::size_t previousCount = findResults().resultCount();
 
          findResults().addResult(handle(),
                                  files,
@@ -383,6 +459,17 @@ private:
                                  matchOns,
                                  matchOffs);
 
+         // stream the results which fall within the first page; past that
+         // we just let the client know how many results there are
+         std::size_t streamed = previousCount < STREAMED_COUNT ?
+                                   STREAMED_COUNT - previousCount : 0;
+
+         json::Object result;
+         result["handle"] = handle();
+         result["results"] = findResults().resultsAsJson(previousCount,
+                                                         streamed);
+         result["total"] = findResults().resultCount();
+
          module_context::enqueClientEvent(
                   ClientEvent(client_events::kFindResult, result));
       }
@@ -533,6 +620,42 @@ core::Error stopFind(const json::JsonRpcRequest& request,
    return Success();
 }
 
+core::Error getFindResults(const json::JsonRpcRequest& request,
+                           json::JsonRpcResponse* pResponse)
+{
+   std::string handle;
+   int offset, count;
+   Error error = json::readParams(request.params, &handle, &offset, &count);
+   if (error)
+      return error;
+
+   if (findResults().handle() != handle || offset < 0 || count < 0)
+      return Error(json::errc::ParamInvalid, ERROR_LOCATION);
+
+   json::Object result;
+   result["results"] = findResults().resultsAsJson(offset, count);
+   result["total"] = findResults().resultCount();
+   pResponse->setResult(result);
+
+   return Success();
+}
+
+core::Error getFindSummary(const json::JsonRpcRequest& request,
+                           json::JsonRpcResponse* pResponse)
+{
+   std::string handle;
+   Error error = json::readParams(request.params, &handle);
+   if (error)
+      return error;
+
+   if (findResults().handle() != handle)
+      return Error(json::errc::ParamInvalid, ERROR_LOCATION);
+
+   pResponse->setResult(findResults().summaryAsJson());
+
+   return Success();
+}
+
 core::Error clearFindResults(const json::JsonRpcRequest& request,
                              json::JsonRpcResponse* pResponse)
 {
@@ -567,7 +690,8 @@ void onResume(const core::Settings& settings)
 
 json::Object findInFilesStateAsJson()
 {
-   return findResults().asJson();
+   // the client fetches results beyond those streamed to it as needed
+   return findResults().asJson(STREAMED_COUNT);
 }
 
 core::Error initialize()
@@ -583,6 +707,8 @@ core::Error initialize()
    initBlock.addFunctions()
       (bind(registerRpcMethod, "begin_find", beginFind))
       (bind(registerRpcMethod, "stop_find", stopFind))
+      (bind(registerRpcMethod, "get_find_results", getFindResults))
+      (bind(registerRpcMethod, "get_find_summary", getFindSummary))
       (bind(registerRpcMethod, "clear_find_results", clearFindResults));
    return initBlock.execute();
 }
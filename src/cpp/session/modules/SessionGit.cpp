@@ -43,6 +43,7 @@
 #include <core/Exec.hpp>
 #include <core/FileSerializer.hpp>
 #include <core/GitGraph.hpp>
+#include <core/Hash.hpp>
 #include <core/Scope.hpp>
 #include <core/StringUtils.hpp>
 
@@ -1542,6 +1543,29 @@ Error vcsPull(const json::JsonRpcRequest& request,
    return Success();
 }
 
+// computes the diff of a file (as UTF-8), returning the encoding assumed
+// for the file (or an empty string if none could be)
+Error diffFileOutput(const std::string& path,
+                     int mode,
+                     int contextLines,
+                     std::string* pOutput,
+                     std::string* pSourceEncoding)
+{
+   Error error = s_git_.diffFile(resolveAliasedPath(path),
+                                 static_cast<PatchMode>(mode),
+                                 contextLines,
+                                 pOutput);
+   if (error)
+      return error;
+
+   std::string sourceEncoding = projects::projectContext().defaultEncoding();
+   bool usedSourceEncoding;
+   *pOutput = convertDiff(*pOutput, sourceEncoding, "UTF-8", false,
+                          &usedSourceEncoding);
+   *pSourceEncoding = usedSourceEncoding ? sourceEncoding : std::string();
+   return Success();
+}
+
 Error vcsDiffFile(const json::JsonRpcRequest& request,
                   json::JsonRpcResponse* pResponse)
 {
@@ -1562,21 +1586,11 @@ Error vcsDiffFile(const json::JsonRpcRequest& request,
 
    splitRename(path, NULL, &path);
 
-   std::string output;
-   error = s_git_.diffFile(resolveAliasedPath(path),
-                                 static_cast<PatchMode>(mode),
-                                 contextLines,
-                                 &output);
+   std::string output, sourceEncoding;
+   error = diffFileOutput(path, mode, contextLines, &output, &sourceEncoding);
    if (error)
       return error;
 
-   std::string sourceEncoding = projects::projectContext().defaultEncoding();
-   bool usedSourceEncoding;
-   output = convertDiff(output, sourceEncoding, "UTF-8", false,
-                        &usedSourceEncoding);
-   if (!usedSourceEncoding)
-      sourceEncoding = "";
-
    if (!noSizeWarning && output.size() > source_control::WARN_SIZE)
    {
       error = systemError(boost::system::errc::file_too_large,
@@ -1594,6 +1608,115 @@ Error vcsDiffFile(const json::JsonRpcRequest& request,
    return Success();
 }
 
+// The diff being read a page at a time by git_diff_file_page. Later pages
+// are taken from the diff computed for the first page (rather than running
+// git again) so that the pages are consistent with each other.
+struct PagedDiff
+{
+   PagedDiff() : mode(0), contextLines(0) {}
+
+   std::string path;
+   int mode;
+   int contextLines;
+   std::string id;
+   std::string sourceEncoding;
+   std::string output;
+};
+
+PagedDiff s_pagedDiff;
+
+// pages end at the first chunk boundary after this many bytes
+const std::size_t kDiffPageSize = 128 * 1024;
+
+// diffs larger than this still require confirmation before being shown
+const std::size_t kMaxPagedDiffSize = 50 * 1024 * 1024;
+
+Error vcsDiffFilePage(const json::JsonRpcRequest& request,
+                      json::JsonRpcResponse* pResponse)
+{
+   std::string path;
+   int mode;
+   int contextLines;
+   bool noSizeWarning;
+   int offset;
+   std::string diffId;
+   Error error = json::readParams(request.params,
+                                  &path,
+                                  &mode,
+                                  &contextLines,
+                                  &noSizeWarning,
+                                  &offset,
+                                  &diffId);
+   if (error)
+      return error;
+
+   if (contextLines < 0)
+      contextLines = 999999999;
+
+   splitRename(path, NULL, &path);
+
+   // compute the diff for the first page, or if we no longer have the diff
+   // the client is reading (if the new diff differs, the client will see a
+   // new id and start over)
+   if (offset <= 0 ||
+       s_pagedDiff.id != diffId ||
+       s_pagedDiff.path != path ||
+       s_pagedDiff.mode != mode ||
+       s_pagedDiff.contextLines != contextLines)
+   {
+      PagedDiff diff;
+      diff.path = path;
+      diff.mode = mode;
+      diff.contextLines = contextLines;
+      error = diffFileOutput(path, mode, contextLines,
+                             &diff.output, &diff.sourceEncoding);
+      if (error)
+         return error;
+
+      diff.id = hash::crc32HexHash(diff.output) + "-" +
+                boost::lexical_cast<std::string>(diff.output.size());
+      s_pagedDiff = diff;
+   }
+
+   const std::string& output = s_pagedDiff.output;
+   if (!noSizeWarning && output.size() > kMaxPagedDiffSize)
+   {
+      error = systemError(boost::system::errc::file_too_large,
+                          ERROR_LOCATION);
+      pResponse->setError(error,
+                          json::Value(static_cast<boost::uint64_t>(output.size())));
+      return Success();
+   }
+
+   std::size_t begin = std::min(static_cast<std::size_t>(std::max(offset, 0)),
+                                output.size());
+
+   // end the page at the start of a chunk, so that pages contain only whole
+   // chunks (after the file header on the first page)
+   std::size_t end = output.size();
+   if (begin + kDiffPageSize < output.size())
+   {
+      std::size_t chunkStart = output.find("\n@@", begin + kDiffPageSize);
+      if (chunkStart != std::string::npos)
+         end = chunkStart + 1;
+   }
+
+   json::Object result;
+   result["source_encoding"] = s_pagedDiff.sourceEncoding;
+   result["decoded_value"] = output.substr(begin, end - begin);
+   result["diff_id"] = s_pagedDiff.id;
+   result["offset"] = static_cast<int>(begin);
+   result["next_offset"] = end < output.size() ? static_cast<int>(end) : -1;
+   result["total_size"] = static_cast<boost::uint64_t>(output.size());
+   pResponse->setResult(result);
+
+   // release the diff once the client has read all of it
+   if (end == output.size())
+      s_pagedDiff = PagedDiff();
+
+   return Success();
+}
+
 Error vcsApplyPatch(const json::JsonRpcRequest& request,
                     json::JsonRpcResponse* pResponse)
 {
@@ -2918,6 +3041,7 @@ core::Error initialize()
       (bind(registerRpcMethod, "git_push", vcsPush))
       (bind(registerRpcMethod, "git_pull", vcsPull))
       (bind(registerRpcMethod, "git_diff_file", vcsDiffFile))
+      (bind(registerRpcMethod, "git_diff_file_page", vcsDiffFilePage))
       (bind(registerRpcMethod, "git_apply_patch", vcsApplyPatch))
       (bind(registerRpcMethod, "git_history_count", vcsHistoryCount))
       (bind(registerRpcMethod, "git_history", vcsHistory))
@@ -66,6 +66,17 @@ Error previousPlot(const json::JsonRpcRequest& request,
    return display.setActivePlot(display.activePlotIndex() - 1);
 }  
 
+Error setActivePlot(const json::JsonRpcRequest& request,
+                    json::JsonRpcResponse* pResponse)
+{
+   int index;
+   Error error = json::readParam(request.params, 0, &index);
+   if (error)
+      return error;
+
+   return r::session::graphics::display().setActivePlot(index);
+}
+
    
 Error removePlot(const json::JsonRpcRequest& request,
                  json::JsonRpcResponse* pResponse)
@@ -628,6 +639,48 @@ void handlePngRequest(const http::Request& request,
    setTemporaryFileResponse(imagePath, request, pResponse);
 }
 
+// renders any plot in the history (not just the active one) -- the client
+// uses this to prefetch the plots on either side of the one being viewed
+void handlePreviewPngRequest(const http::Request& request,
+                             http::Response* pResponse)
+{
+   // get the index, width and height parameters
+   int index;
+   if (!request.queryParamValue("index",
+                                predicate::range(0, 100000),
+                                &index))
+   {
+      pResponse->setError(http::status::BadRequest, "invalid index");
+      return;
+   }
+   int width, height;
+   if (!extractSizeParams(request, 100, 5000, &width, &height, pResponse))
+      return ;
+
+   // generate the image
+   using namespace rstudio::r::session;
+   FilePath imagePath = module_context::tempFile("plot", "png");
+   Error error = graphics::display().savePlotPreview(index,
+                                                     imagePath,
+                                                     width,
+                                                     height);
+   if (error)
+   {
+      pResponse->setError(http::status::InternalServerError,
+                          error.code().message());
+      return;
+   }
+
+   // the client asks for a new url whenever the plots it has seen might
+   // have changed, so the image can be cached (in the user's browser only)
+   pResponse->setPrivateCacheForeverHeaders();
+   setImageFileResponse(imagePath, request, pResponse);
+
+   // delete the temp file
+   error = imagePath.remove();
+   if (error)
+      LOG_ERROR(error);
+}
 
 // NOTE: this function assumes it is retreiving the image for the currently
 // active plot (the assumption is implied by the fact that file not found
@@ -879,6 +932,7 @@ Error initialize()
    initBlock.addFunctions()
       (bind(registerRpcMethod, "next_plot", nextPlot))
       (bind(registerRpcMethod, "previous_plot", previousPlot))
+      (bind(registerRpcMethod, "set_active_plot", setActivePlot))
       (bind(registerRpcMethod, "remove_plot", removePlot))
       (bind(registerRpcMethod, "clear_plots", clearPlots))
       (bind(registerRpcMethod, "refresh_plot", refreshPlot))
@@ -894,6 +948,7 @@ Error initialize()
       (bind(registerUriHandler, kGraphics "/plot_zoom_png", handleZoomPngRequest))
       (bind(registerUriHandler, kGraphics "/plot_zoom", handleZoomRequest))
       (bind(registerUriHandler, kGraphics "/plot.png", handlePngRequest))
+      (bind(registerUriHandler, kGraphics "/plot_preview.png", handlePreviewPngRequest))
       (bind(registerUriHandler, kGraphics, handleGraphicsRequest))
       (bind(module_context::sourceModuleRFile, "SessionPlots.R"));
 
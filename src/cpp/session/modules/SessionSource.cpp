@@ -18,6 +18,7 @@
 
 #include <string>
 #include <map>
+#include <algorithm>
 
 #include <boost/bind.hpp>
 #include <boost/foreach.hpp>
@@ -412,6 +413,91 @@ Error saveDocument(const json::JsonRpcRequest& request,
    return Success();
 }
 
+// Converts a (row, column) position in the document (column in characters)
+// to a byte offset into its UTF-8 contents
+bool positionToOffset(const std::string& contents,
+                      int row,
+                      int column,
+                      std::string::size_type* pOffset)
+{
+   std::string::size_type lineStart = 0;
+   for (int i = 0; i < row; i++)
+   {
+      lineStart = contents.find('\n', lineStart);
+      if (lineStart == std::string::npos)
+         return false;
+      lineStart++;
+   }
+
+   std::string::size_type lineEnd = contents.find('\n', lineStart);
+   if (lineEnd == std::string::npos)
+      lineEnd = contents.size();
+
+   std::string::const_iterator pos = contents.begin() + lineStart;
+   Error error = string_utils::utf8Advance(pos,
+                                           column,
+                                           contents.begin() + lineEnd,
+                                           &pos);
+   if (error)
+      return false;
+
+   *pOffset = pos - contents.begin();
+   return true;
+}
+
+// Applies a list of edits expressed in document (row, column) coordinates
+// to the contents, in order. Each delta is an array of the form
+// [action, startRow, startColumn, endRow, endColumn, text], where action is
+// "i" (insert text at the start position) or "r" (remove the range). Returns
+// false if any delta does not apply or the result does not have the
+// expected number of lines, in which case the client should fall back to
+// a full save.
+bool applyDocumentDeltas(const json::Array& deltas,
+                         int expectedLines,
+                         std::string* pContents)
+{
+   BOOST_FOREACH(const json::Value& deltaJson, deltas)
+   {
+      if (!json::isType<json::Array>(deltaJson))
+         return false;
+      const json::Array& delta = deltaJson.get_array();
+      if (delta.size() != 6)
+         return false;
+
+      std::string action, text;
+      int startRow, startColumn, endRow, endColumn;
+      Error error = json::readParams(delta, &action, &startRow, &startColumn,
+                                     &endRow, &endColumn, &text);
+      if (error)
+         return false;
+
+      std::string::size_type startOffset;
+      if (!positionToOffset(*pContents, startRow, startColumn, &startOffset))
+         return false;
+
+      if (action == "i")
+      {
+         pContents->insert(startOffset, text);
+      }
+      else if (action == "r")
+      {
+         std::string::size_type endOffset;
+         if (!positionToOffset(*pContents, endRow, endColumn, &endOffset))
+            return false;
+         if (endOffset < startOffset)
+            return false;
+         pContents->erase(startOffset, endOffset - startOffset);
+      }
+      else
+      {
+         return false;
+      }
+   }
+
+   int lines = std::count(pContents->begin(), pContents->end(), '\n') + 1;
+   return lines == expectedLines;
+}
+
 Error saveDocumentDiff(const json::JsonRpcRequest& request,
                        json::JsonRpcResponse* pResponse)
 {
@@ -445,6 +531,23 @@ Error saveDocumentDiff(const json::JsonRpcRequest& request,
                                   &hash);
    if (error)
       return error ;
+
+   // Optionally, the edits made since the version with the above hash, as
+   // a list of deltas (see applyDocumentDeltas) along with the number of
+   // lines the document should have once they're applied. When present
+   // these are used instead of the replacement range.
+   bool hasDeltas = request.params.size() > 11;
+   json::Array deltas;
+   int expectedLines = 0;
+   if (hasDeltas)
+   {
+      error = json::readParam(request.params, 10, &deltas);
+      if (error)
+         return error;
+      error = json::readParam(request.params, 11, &expectedLines);
+      if (error)
+         return error;
+   }
    
    // if this has no path then it is an autosave, in this case
    // suppress change detection
@@ -463,20 +566,28 @@ Error saveDocumentDiff(const json::JsonRpcRequest& request,
    {
       std::string contents(pDoc->contents());
 
-      // Offset and length are specified in characters, but contents
-      // is in UTF8 bytes. Convert before using.
-      std::string::iterator rangeBegin = contents.begin();
-      error = utf8Advance(rangeBegin, offset, contents.end(), &rangeBegin);
-      if (error)
-         return Success(); // UTF8 decoding failed. Abort differential save.
+      if (hasDeltas)
+      {
+         if (!applyDocumentDeltas(deltas, expectedLines, &contents))
+            return Success(); // Deltas didn't apply. Abort differential save.
+      }
+      else
+      {
+         // Offset and length are specified in characters, but contents
+         // is in UTF8 bytes. Convert before using.
+         std::string::iterator rangeBegin = contents.begin();
+         error = utf8Advance(rangeBegin, offset, contents.end(), &rangeBegin);
+         if (error)
+            return Success(); // UTF8 decoding failed. Abort differential save.
 
-      std::string::iterator rangeEnd = rangeBegin;
-      error = utf8Advance(rangeEnd, length, contents.end(), &rangeEnd);
-      if (error)
-         return Success(); // UTF8 decoding failed. Abort differential save.
+         std::string::iterator rangeEnd = rangeBegin;
+         error = utf8Advance(rangeEnd, length, contents.end(), &rangeEnd);
+         if (error)
+            return Success(); // UTF8 decoding failed. Abort differential save.
 
-      contents.erase(rangeBegin, rangeEnd);
-      contents.insert(rangeBegin, replacement.begin(), replacement.end());
+         contents.erase(rangeBegin, rangeEnd);
+         contents.insert(rangeBegin, replacement.begin(), replacement.end());
+      }
       
       error = saveDocumentCore(contents, jsonPath, jsonType, jsonEncoding,
                                jsonFoldSpec, jsonChunkOutput, pDoc);
@@ -19,6 +19,7 @@
 #include <algorithm>
 
 #include <core/Exec.hpp>
+#include <core/StringUtils.hpp>
 #include <core/RecursionGuard.hpp>
 
 #define INTERNAL_R_FUNCTIONS
@@ -489,30 +490,64 @@ json::Array callFramesAsJson(LineDebugState* pLineDebugState)
    return listFrames;
 }
 
-json::Array environmentListAsJson()
+// environments with more objects than this are sent to the client a page at
+// a time (see listEnvironmentPage) rather than all at once
+const std::size_t kMaxUnpagedObjects = 5000;
+
+// object categories (these match RObjectEntry.Categories on the client)
+const int kCategoryData = 0;
+const int kCategoryValue = 1;
+const int kCategoryFunction = 2;
+
+// sort columns (these match ObjectGridColumn on the client; kSortAuto is
+// the list view's order, by category and then name)
+const int kSortAuto = -1;
+const int kSortType = 1;
+const int kSortLength = 2;
+
+void listMonitoredEnvironment(r::sexp::Protect* pProtect,
+                              std::vector<r::sexp::Variable>* pVars,
+                              SEXP* pEnv)
+{
+   *pEnv = NULL;
+   if (s_pEnvironmentMonitor->hasEnvironment())
+   {
+      *pEnv = s_pEnvironmentMonitor->getMonitoredEnvironment();
+      if (*pEnv != NULL)
+         r::sexp::listEnvironment(*pEnv,
+                                  false,
+                                  userSettings().showLastDotValue(),
+                                  pProtect,
+                                  pVars);
+   }
+}
+
+// returns the list of objects in the environment; if pPaged is supplied and
+// the environment is too large to send at once, returns an empty list and
+// sets pPaged (the client then requests the objects a page at a time)
+json::Array environmentListAsJson(bool* pPaged = NULL)
 {
     using namespace rstudio::r::sexp;
     Protect rProtect;
     std::vector<Variable> vars;
     json::Array listJson;
+    SEXP env = NULL;
+
+    listMonitoredEnvironment(&rProtect, &vars, &env);
 
-    if (s_pEnvironmentMonitor->hasEnvironment())
+    if (pPaged)
     {
-       SEXP env = s_pEnvironmentMonitor->getMonitoredEnvironment();
-       if (env != NULL)
-          listEnvironment(env,
-                          false,
-                          userSettings().showLastDotValue(),
-                          &rProtect,
-                          &vars);
-
-       // get object details and transform to json
-       std::transform(vars.begin(),
-                      vars.end(),
-                      std::back_inserter(listJson),
-                      boost::bind(varToJson, env, _1));
+       *pPaged = vars.size() > kMaxUnpagedObjects;
+       if (*pPaged)
+          return listJson;
     }
 
+    // get object details and transform to json
+    std::transform(vars.begin(),
+                   vars.end(),
+                   std::back_inserter(listJson),
+                   boost::bind(varToJson, env, _1));
+
     return listJson;
 }
 
@@ -525,6 +560,155 @@ Error listEnvironment(boost::shared_ptr<int> pContextDepth,
    return Success();
 }
 
+// an object in a paged listing, along with the attributes we sort on (which
+// are cheap to compute, unlike the full description from varToJson)
+struct PagedObject
+{
+   const r::sexp::Variable* pVar;
+   int category;
+   std::string type;
+   int length;
+};
+
+// returns the first element of class(var), which is what the client shows as
+// the object's type (see .rs.describeObject); objects without a class
+// attribute get the implicit classes R would report for them
+std::string objectClass(SEXP var)
+{
+   if (TYPEOF(var) == PROMSXP)
+      var = PRVALUE(var);
+
+   SEXP classSEXP = Rf_getAttrib(var, R_ClassSymbol);
+   if (TYPEOF(classSEXP) == STRSXP && Rf_length(classSEXP) > 0)
+      return std::string(Rf_translateChar(STRING_ELT(classSEXP, 0)));
+   else if (r::sexp::isMatrix(var))
+      return "matrix";
+   else if (Rf_isFunction(var))
+      return "function";
+   else
+      return r::sexp::typeAsString(var);
+}
+
+// classifies the object the same way as RObjectEntry.getCategory on the
+// client, so the page boundaries agree with the client's grouping
+int objectCategory(SEXP var)
+{
+   // active bindings are listed with a nil value, and unevaluated promises
+   // are described as "promise"; the client shows both as values
+   if (var == R_NilValue || isUnevaluatedPromise(var))
+      return kCategoryValue;
+
+   SEXP value = TYPEOF(var) == PROMSXP ? PRVALUE(var) : var;
+   std::string type = objectClass(var);
+   if (Rf_inherits(value, "data.frame") ||
+       type == "matrix" ||
+       type == "data.table" ||
+       type == "cast_df" ||
+       type == "xts" ||
+       type == "DataFrame")
+      return kCategoryData;
+   else if (type == "function" || type == "functionWithTrace")
+      return kCategoryFunction;
+   else
+      return kCategoryValue;
+}
+
+std::string objectType(SEXP var)
+{
+   if (isUnevaluatedPromise(var))
+      return "promise";
+   return objectClass(var);
+}
+
+bool comparePagedObjects(int sortColumn,
+                         const PagedObject& first,
+                         const PagedObject& second)
+{
+   if (sortColumn == kSortAuto && first.category != second.category)
+      return first.category < second.category;
+   else if (sortColumn == kSortType && first.type != second.type)
+      return first.type < second.type;
+   else if (sortColumn == kSortLength && first.length != second.length)
+      return first.length < second.length;
+
+   // everything else (including size and value, which can be expensive to
+   // compute for every object) is ordered by name
+   return first.pVar->first < second.pVar->first;
+}
+
+// Returns one page of the objects in the environment, filtered by name and
+// sorted over the whole environment, along with the number of objects in the
+// environment and the number which match the filter. Only the objects on the
+// page are described (see varToJson).
+Error listEnvironmentPage(const json::JsonRpcRequest& request,
+                          json::JsonRpcResponse* pResponse)
+{
+   int offset, count, sortColumn;
+   std::string filter;
+   bool ascending;
+   Error error = json::readParams(request.params,
+                                  &offset,
+                                  &count,
+                                  &filter,
+                                  &sortColumn,
+                                  &ascending);
+   if (error)
+      return error;
+
+   using namespace rstudio::r::sexp;
+   Protect rProtect;
+   std::vector<Variable> vars;
+   SEXP env = NULL;
+   listMonitoredEnvironment(&rProtect, &vars, &env);
+
+   // filter by name
+   std::vector<PagedObject> objects;
+   objects.reserve(vars.size());
+   std::string lowerFilter = string_utils::toLower(filter);
+   BOOST_FOREACH(const Variable& var, vars)
+   {
+      if (!lowerFilter.empty() &&
+          string_utils::toLower(var.first).find(lowerFilter) ==
+                                                         std::string::npos)
+      {
+         continue;
+      }
+
+      PagedObject object;
+      object.pVar = &var;
+      object.category = sortColumn == kSortAuto ?
+                                    objectCategory(var.second) : 0;
+      object.type = sortColumn == kSortType ?
+                                    objectType(var.second) : std::string();
+      object.length = sortColumn == kSortLength ?
+                                    r::sexp::length(var.second) : 0;
+      objects.push_back(object);
+   }
+
+   // sort (the list view's order is always ascending)
+   std::sort(objects.begin(),
+             objects.end(),
+             boost::bind(comparePagedObjects, sortColumn, _1, _2));
+   if (!ascending && sortColumn != kSortAuto)
+      std::reverse(objects.begin(), objects.end());
+
+   // describe the objects on the requested page
+   json::Array objectsJson;
+   std::size_t begin = std::min(static_cast<std::size_t>(std::max(offset, 0)),
+                                objects.size());
+   std::size_t end = std::min(begin + std::max(count, 0), objects.size());
+   for (std::size_t i = begin; i < end; i++)
+      objectsJson.push_back(varToJson(env, *objects[i].pVar));
+
+   json::Object result;
+   result["objects"] = objectsJson;
+   result["offset"] = static_cast<int>(begin);
+   result["total_count"] = static_cast<int>(vars.size());
+   result["matched_count"] = static_cast<int>(objects.size());
+   pResponse->setResult(result);
+   return Success();
+}
+
 // Sets an environment by name. Used when the environment can be reliably
 // identified by its name (e.g. package environments).
 Error setEnvironmentName(int contextDepth,
@@ -698,7 +882,9 @@ json::Object commonEnvironmentStateData(
    bool inFunctionEnvironment = false;
 
    varJson["context_depth"] = depth;
-   varJson["environment_list"] = environmentListAsJson();
+   bool environmentPaged = false;
+   varJson["environment_list"] = environmentListAsJson(&environmentPaged);
+   varJson["environment_paged"] = environmentPaged;
    varJson["call_frames"] = callFramesAsJson(pLineDebugState);
    varJson["function_name"] = "";
 
@@ -1191,6 +1377,7 @@ Error initialize()
    initBlock.addFunctions()
       (bind(registerRBrowseFileHandler, handleRBrowseEnv))
       (bind(registerRpcMethod, "list_environment", listEnv))
+      (bind(registerRpcMethod, "list_environment_page", listEnvironmentPage))
       (bind(registerRpcMethod, "set_context_depth", setCtxDepth))
       (bind(registerRpcMethod, "set_environment", setEnvName))
       (bind(registerRpcMethod, "set_environment_frame", setEnvironmentFrame))
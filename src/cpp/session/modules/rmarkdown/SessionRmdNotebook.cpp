@@ -23,6 +23,8 @@
 #include "NotebookExec.hpp"
 
 #include <iostream>
+#include <algorithm>
+#include <deque>
 
 #include <boost/foreach.hpp>
 #include <boost/format.hpp>
@@ -58,12 +60,42 @@ namespace {
 std::string s_activeConsole;
 boost::shared_ptr<ChunkExecContext> s_execContext;
 
+// when set, the execution context is connected when R next reads input
+// (rather than when the chunk's console becomes active)
+bool s_connectOnExecute = false;
+
+// chunks submitted by the client to be run one after another; each is run
+// when R prompts after running the one before it
+struct QueuedChunk
+{
+   std::string docId;
+   std::string chunkId;
+   std::string code;
+};
+std::deque<QueuedChunk> s_chunkQueue;
+bool s_queueExecuting = false;
+
 void replayChunkOutputs(const std::string& docPath, const std::string& docId,
-      const std::string& requestId, const json::Array& chunkOutputs) 
+      const std::string& requestId, const json::Array& chunkOutputs,
+      const std::vector<std::string>& requestedIds) 
 {
    std::vector<std::string> chunkIds;
    extractChunkIds(chunkOutputs, &chunkIds);
 
+   // if the client asked for specific chunks, play back just those (in the
+   // order it asked for them, so the ones it needs first arrive first)
+   if (!requestedIds.empty())
+   {
+      std::vector<std::string> knownIds;
+      BOOST_FOREACH(const std::string& chunkId, requestedIds)
+      {
+         if (std::find(chunkIds.begin(), chunkIds.end(), chunkId) != 
+             chunkIds.end())
+            knownIds.push_back(chunkId);
+      }
+      chunkIds = knownIds;
+   }
+
    // find all the chunks and play them back to the client
    BOOST_FOREACH(const std::string& chunkId, chunkIds)
    {
@@ -79,17 +111,26 @@ void replayChunkOutputs(const std::string& docPath, const std::string& docId,
    module_context::enqueClientEvent(event);
 }
 
-// called by the client to inject output into a recently opened document 
+// called by the client to inject output into a recently opened document; the
+// client may name the chunks it wants (otherwise all are played back)
 Error refreshChunkOutput(const json::JsonRpcRequest& request,
                          json::JsonRpcResponse* pResponse)
 {
    // extract path to doc to be refreshed
    std::string docPath, docId, nbCtxId, requestId;
+   json::Array chunkIdsJson;
    Error error = json::readParams(request.params, &docPath, &docId, &nbCtxId,
-         &requestId);
+         &requestId, &chunkIdsJson);
    if (error)
       return error;
 
+   std::vector<std::string> requestedIds;
+   BOOST_FOREACH(const json::Value& chunkId, chunkIdsJson)
+   {
+      if (chunkId.type() == json::StringType)
+         requestedIds.push_back(chunkId.get_str());
+   }
+
    // use our own context ID if none supplied
    if (nbCtxId.empty())
       nbCtxId = notebookCtxId();
@@ -103,7 +144,7 @@ Error refreshChunkOutput(const json::JsonRpcRequest& request,
    {
       pResponse->setAfterResponse(
             boost::bind(replayChunkOutputs, docPath, docId, requestId, 
-                        chunkDefs.get_array()));
+                        chunkDefs.get_array(), requestedIds));
    }
 
    return Success();
@@ -120,6 +161,79 @@ void emitOutputFinished(const std::string& docId, const std::string& chunkId)
    module_context::enqueClientEvent(event);
 }
 
+void beginChunkExecution(const std::string& docId, const std::string& chunkId)
+{
+   cleanChunkOutput(docId, chunkId, true);
+
+   // end any previous execution context before replacing it (ending it may
+   // emit events which refer to the current context)
+   s_execContext.reset();
+
+   s_execContext.reset(new ChunkExecContext(docId, chunkId));
+}
+
+// tells the client which queued chunk is now running, and which of the
+// document's chunks are still waiting to run after it
+void emitExecStarted(const std::string& docId, const std::string& chunkId)
+{
+   json::Array queued;
+   BOOST_FOREACH(const QueuedChunk& chunk, s_chunkQueue)
+   {
+      if (chunk.docId == docId)
+         queued.push_back(chunk.chunkId);
+   }
+
+   json::Object result;
+   result["doc_id"] = docId;
+   result["chunk_id"] = chunkId;
+   result["queued"] = queued;
+   ClientEvent event(client_events::kChunkExecStarted, result);
+   module_context::enqueClientEvent(event);
+}
+
+void executeNextQueuedChunk()
+{
+   if (s_chunkQueue.empty())
+   {
+      s_queueExecuting = false;
+      return;
+   }
+
+   QueuedChunk chunk = s_chunkQueue.front();
+   s_chunkQueue.pop_front();
+   s_queueExecuting = true;
+   emitExecStarted(chunk.docId, chunk.chunkId);
+
+   // if the chunk's console is already active (i.e. it ran last) the
+   // console won't change when its input is read; connect it then instead
+   // (connecting now would see the prompt we're handling)
+   beginChunkExecution(chunk.docId, chunk.chunkId);
+   s_connectOnExecute = s_activeConsole == chunk.chunkId;
+
+   module_context::queueConsoleInput(chunk.code, chunk.chunkId);
+}
+
+void onConsolePrompt(const std::string&)
+{
+   // R has finished with the previous chunk; run the next one
+   if (s_queueExecuting)
+      executeNextQueuedChunk();
+}
+
+void onBeforeExecute()
+{
+   if (s_connectOnExecute && s_execContext && !s_execContext->connected())
+      s_execContext->connect();
+   s_connectOnExecute = false;
+}
+
+void onUserInterrupt()
+{
+   // an interrupt abandons the rest of the queue
+   s_chunkQueue.clear();
+   s_queueExecuting = false;
+}
+
 void onActiveConsoleChanged(const std::string& consoleId, 
                             const std::string& text)
 {
@@ -167,16 +281,62 @@ Error setChunkConsole(const json::JsonRpcRequest& request,
    if (error)
       return error;
 
-   cleanChunkOutput(docId, chunkId, true);
-
    // create the execution context and connect it immediately if necessary
-   s_execContext.reset(new ChunkExecContext(docId, chunkId));
+   beginChunkExecution(docId, chunkId);
    if (s_activeConsole == chunkId)
       s_execContext->connect();
 
    return Success();
 }
 
+// called by the client to run a series of chunks; each chunk is run when R
+// has finished with the one before it (without waiting for the client), and
+// its output is streamed back as it would be if the client had run it. 
+// chunks which are already waiting in the queue are updated in place, and
+// the client follows the queue through chunk_exec_started events.
+Error executeNotebookChunks(const json::JsonRpcRequest& request,
+                            json::JsonRpcResponse*)
+{
+   std::string docId;
+   json::Array units;
+   Error error = json::readParams(request.params, &docId, &units);
+   if (error)
+      return error;
+
+   BOOST_FOREACH(const json::Value& unit, units)
+   {
+      if (unit.type() != json::ObjectType)
+         continue;
+
+      QueuedChunk chunk;
+      chunk.docId = docId;
+      error = json::readObject(unit.get_obj(), 
+            "chunk_id", &chunk.chunkId,
+            "code",     &chunk.code);
+      if (error)
+         return error;
+
+      bool queued = false;
+      BOOST_FOREACH(QueuedChunk& existing, s_chunkQueue)
+      {
+         if (existing.docId == docId && existing.chunkId == chunk.chunkId)
+         {
+            existing.code = chunk.code;
+            queued = true;
+            break;
+         }
+      }
+      if (!queued)
+         s_chunkQueue.push_back(chunk);
+   }
+
+   // start running the queue if it isn't already
+   if (!s_queueExecuting)
+      executeNextQueuedChunk();
+
+   return Success();
+}
+
 } // anonymous namespace
 
 Events& events()
@@ -203,6 +363,9 @@ Error initialize()
 
    module_context::events().onActiveConsoleChanged.connect(
          onActiveConsoleChanged);
+   module_context::events().onConsolePrompt.connect(onConsolePrompt);
+   module_context::events().onBeforeExecute.connect(onBeforeExecute);
+   module_context::events().onUserInterrupt.connect(onUserInterrupt);
 
    events().onChunkExecCompleted.connect(onChunkExecCompleted);
 
@@ -210,6 +373,8 @@ Error initialize()
    initBlock.addFunctions()
       (bind(registerRpcMethod, "refresh_chunk_output", refreshChunkOutput))
       (bind(registerRpcMethod, "set_chunk_console", setChunkConsole))
+      (bind(registerRpcMethod, "execute_notebook_chunks", 
+            executeNotebookChunks))
       (bind(module_context::sourceModuleRFile, "SessionRmdNotebook.R"))
       (bind(initOutput))
       (bind(initCache))
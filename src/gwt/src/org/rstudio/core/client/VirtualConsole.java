@@ -21,12 +21,19 @@ import org.rstudio.core.client.regex.Pattern;
 
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.SpanElement;
 import com.google.gwt.dom.client.Text;
 
 /**
  * Simulates a console that behaves like the R console, specifically with
  * regard to \r (carriage return) and \b (backspace) characters.
+ * 
+ * Character classes are stored as a list of runs (contiguous ranges of
+ * characters sharing a class) rather than per character, and rendering is
+ * incremental: only the DOM nodes at or after the first modified character
+ * are rebuilt. Since the final line is always rendered into its own node, 
+ * a \r-driven progress meter only ever re-renders the line it's drawn on.
  */
 public class VirtualConsole
 {
@@ -81,7 +88,7 @@ public class VirtualConsole
                appendOnly = false;
                break;
             case '\n':
-               newline();
+               newline(className);
                break;
             case '\f':
                formfeed();
@@ -106,6 +113,8 @@ public class VirtualConsole
       if (pos_ == 0)
          return;
       o.deleteCharAt(--pos_);
+      deleteClassAt(pos_);
+      dirtyPos_ = Math.min(dirtyPos_, pos_);
    }
 
    private void carriageReturn()
@@ -117,53 +126,166 @@ public class VirtualConsole
       // Now we're either at the beginning of the buffer, or just past a '\n'
    }
 
-   private void newline()
+   private void newline(String className)
    {
       while (pos_ < o.length() && o.charAt(pos_) != '\n')
          pos_++;
       // Now we're either at the end of the buffer, or on top of a '\n'
-      text("\n", null);
+      text("\n", className);
    }
 
    private void formfeed()
    {
       o.setLength(0);
       pos_ = 0;
-      charClass.clear();
+      runs_.clear();
+      dirtyPos_ = 0;
    }
 
    private void text(String text, String className)
    {
       assert text.indexOf('\r') < 0 && text.indexOf('\b') < 0;
+      if (text.length() == 0)
+         return;
 
       int endPos = pos_ + text.length();
       
       o.replace(pos_, endPos, text);
+      setClass(pos_, endPos, className);
+      dirtyPos_ = Math.min(dirtyPos_, pos_);
+
+      pos_ = endPos;
+   }
+   
+   // assigns the given class to the characters in [start, end), which may
+   // extend past the end of the existing runs
+   private void setClass(int start, int end, String className)
+   {
+      // fast path: appending to the end of the buffer
+      int length = getRunsLength();
+      if (start == length)
+      {
+         ClassRange last = runs_.isEmpty() ? null : runs_.get(runs_.size() - 1);
+         if (last != null && sameClass(last.clazz, className))
+            last.length += end - start;
+         else
+            runs_.add(new ClassRange(start, end - start, className));
+         return;
+      }
       
-      // record the class of each character emitted
-      if (className != null) 
+      // split the runs so that there are boundaries at start and end, then
+      // replace the runs between them with a single run
+      int first = splitAt(start);
+      int last = end >= length ? runs_.size() : splitAt(end);
+      for (int i = last - 1; i >= first; i--)
+         runs_.remove(i);
+      runs_.add(first, new ClassRange(start, end - start, className));
+      mergeAround(first);
+   }
+   
+   private void deleteClassAt(int pos)
+   {
+      int index = findRun(pos);
+      if (index < 0)
+         return;
+      
+      ClassRange run = runs_.get(index);
+      run.length--;
+      for (int i = index + 1; i < runs_.size(); i++)
+         runs_.get(i).start--;
+      
+      if (run.length == 0)
       {
-         padCharClass(endPos);
-         for (int i = pos_; i < endPos; i++)
+         runs_.remove(index);
+         if (index > 0 && index < runs_.size())
+            mergeAround(index);
+      }
+   }
+   
+   // ensures a run begins at the given position and returns its index
+   private int splitAt(int pos)
+   {
+      int index = findRun(pos);
+      ClassRange run = runs_.get(index);
+      if (run.start == pos)
+         return index;
+      
+      ClassRange rest = new ClassRange(pos, run.start + run.length - pos, 
+                                       run.clazz);
+      run.length = pos - run.start;
+      runs_.add(index + 1, rest);
+      return index + 1;
+   }
+   
+   // merges the run at the given index with its neighbors if they share its
+   // class
+   private void mergeAround(int index)
+   {
+      if (index + 1 < runs_.size())
+      {
+         ClassRange run = runs_.get(index);
+         ClassRange next = runs_.get(index + 1);
+         if (sameClass(run.clazz, next.clazz))
          {
-            charClass.set(i, className);
+            run.length += next.length;
+            runs_.remove(index + 1);
+         }
+      }
+      if (index > 0)
+      {
+         ClassRange prev = runs_.get(index - 1);
+         ClassRange run = runs_.get(index);
+         if (sameClass(prev.clazz, run.clazz))
+         {
+            prev.length += run.length;
+            runs_.remove(index);
          }
       }
-
-      pos_ = endPos;
    }
    
-   // ensures that the character class mapping buffer is at least 'len' 
-   // characters long (note that ensureCapacity just reallocs the underlying
-   // JavaScript array if necessary)
-   private void padCharClass(int len)
+   // returns the index of the run containing the given position (binary
+   // search), or -1 if the position is past the end of the runs
+   private int findRun(int pos)
    {
-      int curSize = charClass.size();
-      if (curSize >= len)
-         return;
-      charClass.ensureCapacity(len);
-      for (int i = 0; i < (len - curSize); i++)
-         charClass.add(null);
+      int low = 0;
+      int high = runs_.size() - 1;
+      while (low <= high)
+      {
+         int mid = (low + high) >>> 1;
+         ClassRange run = runs_.get(mid);
+         if (pos < run.start)
+            high = mid - 1;
+         else if (pos >= run.start + run.length)
+            low = mid + 1;
+         else
+            return mid;
+      }
+      return -1;
+   }
+   
+   private int getRunsLength()
+   {
+      if (runs_.isEmpty())
+         return 0;
+      ClassRange last = runs_.get(runs_.size() - 1);
+      return last.start + last.length;
+   }
+   
+   private static boolean sameClass(String a, String b)
+   {
+      return a == null ? b == null : a.equals(b);
+   }
+   
+   // the number of class runs used to represent the buffer
+   int getRunCount()
+   {
+      return runs_.size();
+   }
+   
+   // the number of DOM nodes emitted by the most recent render
+   int getRenderedNodeCount()
+   {
+      return rendered_.size();
    }
    
    @Override
@@ -179,20 +301,8 @@ public class VirtualConsole
    
    public void submitAndRender(String data, String clazz, Element parent)
    {
-      if (!submit(data, clazz))
-      {
-         // output isn't append-only; redraw the whole thing
-         // (note that even this isn't technically necessary but control 
-         // characters are relatively infrequent and additional bookkeeping
-         // would be required to determine the invalidated range when 
-         // control characters are used)
-         redraw(parent);
-      }
-      else
-      {
-         // consolify just the data to be rendered
-         emitRange(consolify(data), clazz, parent);
-      }
+      submit(data, clazz);
+      render(parent);
    }
    
    public void clear()
@@ -207,64 +317,122 @@ public class VirtualConsole
       return console.toString();
    }
 
-   private void emitRange(String text, String clazz, Element parent)
+   // brings the DOM up to date with the buffer, rebuilding only the nodes
+   // which cover characters modified since the last render
+   private void render(Element parent)
    {
-      if (StringUtil.isNullOrEmpty(text))
+      // if the DOM isn't the one we last rendered into (or was cleared out
+      // from under us) we can't trust the nodes we've recorded
+      if (parent != parent_ || 
+          (!rendered_.isEmpty() && 
+           rendered_.get(0).node.getParentNode() != parent))
+      {
+         redraw(parent);
          return;
-      Text textNode = Document.get().createTextNode(text);
-      if (clazz != null)
+      }
+      
+      // find the first node which covers a modified character; it and
+      // everything after it needs to be re-rendered
+      int index = rendered_.size();
+      while (index > 0 && rendered_.get(index - 1).end > dirtyPos_)
+         index--;
+      int start = index > 0 ? rendered_.get(index - 1).end : 0;
+      for (int i = rendered_.size() - 1; i >= index; i--)
       {
-         SpanElement span = Document.get().createSpanElement();
-         span.addClassName(clazz);
-         parent.appendChild(span);
-         parent = span;
+         rendered_.get(i).node.removeFromParent();
+         rendered_.remove(i);
       }
-      parent.appendChild(textNode);
+      
+      emitFrom(start, parent);
    }
    
    public void redraw(Element parent)
    {
-      // convert to a plain-text string
-      String plainText = toString();
-      int len = plainText.length();
-      String lastClass = null;
-      padCharClass(len);
-      
       // clean existing content
       parent.setInnerHTML("");
+      rendered_.clear();
+      parent_ = parent;
       
-      // for performance reasons, we don't emit one character at a time;
-      // instead, we keep track of the string indices that correspond to
-      // contiguous runs of characters to emit into the stream
-      int accumulateBegin = 0;
-      int accumulateEnd = 0;
-
-      // iterate in lockstep over the plain-text string and character class
-      // assignment list; emit the appropriate tags when switching classes
-      for (int i = 0; i < len; i++)
+      emitFrom(0, parent);
+   }
+   
+   // emits the buffer from the given position onwards, one node per run of
+   // characters sharing a class. the final line is split into its own node 
+   // since it's the one most likely to be overwritten.
+   private void emitFrom(int start, Element parent)
+   {
+      String plainText = toString();
+      int len = plainText.length();
+      int lastLine = plainText.lastIndexOf('\n') + 1;
+      
+      int index = start < len ? findRun(start) : runs_.size();
+      for (int i = Math.max(0, index); i < runs_.size(); i++)
       {
-         if (!charClass.get(i).equals(lastClass))
+         ClassRange run = runs_.get(i);
+         int begin = Math.max(start, run.start);
+         int end = Math.min(len, run.start + run.length);
+         if (begin < lastLine && lastLine < end)
          {
-            emitRange(
-                  plainText.substring(accumulateBegin, accumulateEnd),
-                  lastClass, parent);
-            
-            // begin accumulating from the emitted point
-            accumulateBegin = accumulateEnd;
+            emitRange(plainText, begin, lastLine, run.clazz, parent);
+            begin = lastLine;
          }
-         lastClass = charClass.get(i);
-         accumulateEnd = i;
+         emitRange(plainText, begin, end, run.clazz, parent);
       }
+      
+      dirtyPos_ = len;
+   }
 
-      // finishing up--emit accumulated text into stream
-      emitRange(
-            plainText.substring(accumulateBegin),
-            lastClass, parent);
-      return;
+   private void emitRange(String plainText, int start, int end, String clazz,
+                          Element parent)
+   {
+      if (start >= end)
+         return;
+      Node node = Document.get().createTextNode(
+            plainText.substring(start, end));
+      if (clazz != null)
+      {
+         SpanElement span = Document.get().createSpanElement();
+         span.addClassName(clazz);
+         span.appendChild(node);
+         node = span;
+      }
+      parent.appendChild(node);
+      rendered_.add(new RenderedRange(end, node));
+   }
+   
+   private static class ClassRange
+   {
+      ClassRange(int start, int length, String clazz)
+      {
+         this.start = start;
+         this.length = length;
+         this.clazz = clazz;
+      }
+      
+      int start;
+      int length;
+      final String clazz;
    }
+   
+   private static class RenderedRange
+   {
+      RenderedRange(int end, Node node)
+      {
+         this.end = end;
+         this.node = node;
+      }
+      
+      final int end;
+      final Node node;
+   }
+   
    private final StringBuilder o = new StringBuilder();
-   private final ArrayList<String> charClass = new ArrayList<String>();
+   private final ArrayList<ClassRange> runs_ = new ArrayList<ClassRange>();
+   private final ArrayList<RenderedRange> rendered_ = 
+                                          new ArrayList<RenderedRange>();
+   private Element parent_ = null;
    private int pos_ = 0;
+   private int dirtyPos_ = 0;
    private static final Pattern CONTROL = Pattern.create("[\r\b\f\n]");
    private static final Pattern CONTROL_SPECIAL = Pattern.create("[\r\b\f]");
 }
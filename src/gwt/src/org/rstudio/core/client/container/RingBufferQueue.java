@@ -0,0 +1,91 @@
+/*
+ * RingBufferQueue.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.container;
+
+// A FIFO queue backed by a circular array. Both add and poll are O(1)
+// (amortized for add, as the array doubles in size when full).
+public class RingBufferQueue<T>
+{
+   public RingBufferQueue()
+   {
+      this(16);
+   }
+
+   public RingBufferQueue(int initialCapacity)
+   {
+      items_ = new Object[Math.max(1, initialCapacity)];
+   }
+
+   public void add(T item)
+   {
+      if (size_ == items_.length)
+         grow();
+
+      items_[(head_ + size_) % items_.length] = item;
+      size_++;
+   }
+
+   // removes and returns the item at the head of the queue (null if empty)
+   public T poll()
+   {
+      if (size_ == 0)
+         return null;
+
+      T item = peek();
+      items_[head_] = null;
+      head_ = (head_ + 1) % items_.length;
+      size_--;
+      return item;
+   }
+
+   @SuppressWarnings("unchecked")
+   public T peek()
+   {
+      if (size_ == 0)
+         return null;
+      return (T) items_[head_];
+   }
+
+   public int size()
+   {
+      return size_;
+   }
+
+   public boolean isEmpty()
+   {
+      return size_ == 0;
+   }
+
+   public void clear()
+   {
+      for (int i = 0; i < items_.length; i++)
+         items_[i] = null;
+      head_ = 0;
+      size_ = 0;
+   }
+
+   private void grow()
+   {
+      Object[] items = new Object[items_.length * 2];
+      for (int i = 0; i < size_; i++)
+         items[i] = items_[(head_ + i) % items_.length];
+      items_ = items;
+      head_ = 0;
+   }
+
+   private Object[] items_;
+   private int head_ = 0;
+   private int size_ = 0;
+}
@@ -0,0 +1,152 @@
+/*
+ * EventChannelStats.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.jsonrpc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+// Counters for the client event channel (used to compare the streaming and
+// long-poll transports) along with the time spent dispatching each type of
+// client event
+public class EventChannelStats
+{
+   public static final String MODE_LONG_POLL = "long-poll";
+   public static final String MODE_STREAMING = "streaming";
+
+   public static void setMode(String mode)
+   {
+      mode_ = mode;
+   }
+
+   public static String getMode()
+   {
+      return mode_;
+   }
+
+   public static void recordConnection()
+   {
+      connectionCount_++;
+   }
+
+   public static int getReconnectCount()
+   {
+      return Math.max(0, connectionCount_ - 1);
+   }
+
+   public static void recordEvents(int count)
+   {
+      long second = System.currentTimeMillis() / 1000;
+      int index = (int) (second % WINDOW_SECONDS);
+      if (bucketSeconds_[index] != second)
+      {
+         bucketSeconds_[index] = second;
+         bucketCounts_[index] = 0;
+      }
+      bucketCounts_[index] += count;
+      totalEvents_ += count;
+   }
+
+   public static int getTotalEvents()
+   {
+      return totalEvents_;
+   }
+
+   // events per second over the last WINDOW_SECONDS seconds
+   public static double getEventsPerSecond()
+   {
+      long second = System.currentTimeMillis() / 1000;
+      int count = 0;
+      for (int i = 0; i < WINDOW_SECONDS; i++)
+      {
+         if (second - bucketSeconds_[i] < WINDOW_SECONDS)
+            count += bucketCounts_[i];
+      }
+      return count / (double) WINDOW_SECONDS;
+   }
+
+   public static String getSummary()
+   {
+      return "Event channel: " + mode_ + ", " +
+             (Math.round(getEventsPerSecond() * 10) / 10.0) +
+             " events/sec (last " + WINDOW_SECONDS + "s), " +
+             totalEvents_ + " events, " +
+             getReconnectCount() + " reconnects";
+   }
+
+   public static void recordDispatch(String type, double millis)
+   {
+      DispatchTiming timing = dispatchTimings_.get(type);
+      if (timing == null)
+      {
+         timing = new DispatchTiming(type);
+         dispatchTimings_.put(type, timing);
+      }
+      timing.count++;
+      timing.totalMillis += millis;
+      timing.maxMillis = Math.max(timing.maxMillis, millis);
+   }
+
+   // the event types which have consumed the most dispatch time
+   public static String getDispatchSummary(int maxTypes)
+   {
+      ArrayList<DispatchTiming> timings =
+            new ArrayList<DispatchTiming>(dispatchTimings_.values());
+      Collections.sort(timings, new Comparator<DispatchTiming>() {
+         @Override
+         public int compare(DispatchTiming a, DispatchTiming b)
+         {
+            return Double.compare(b.totalMillis, a.totalMillis);
+         }
+      });
+
+      StringBuilder summary = new StringBuilder("Event dispatch:");
+      for (int i = 0; i < Math.min(maxTypes, timings.size()); i++)
+      {
+         DispatchTiming timing = timings.get(i);
+         summary.append(i == 0 ? " " : ", ");
+         summary.append(timing.type + " " + timing.count + "x " +
+                        Math.round(timing.totalMillis) + "ms (max " +
+                        Math.round(timing.maxMillis) + "ms)");
+      }
+      if (timings.isEmpty())
+         summary.append(" none");
+      return summary.toString();
+   }
+
+   private static class DispatchTiming
+   {
+      DispatchTiming(String type)
+      {
+         this.type = type;
+      }
+
+      final String type;
+      int count = 0;
+      double totalMillis = 0;
+      double maxMillis = 0;
+   }
+
+   private static final int WINDOW_SECONDS = 10;
+
+   private static String mode_ = MODE_LONG_POLL;
+   private static int connectionCount_ = 0;
+   private static int totalEvents_ = 0;
+   private static final long[] bucketSeconds_ = new long[WINDOW_SECONDS];
+   private static final int[] bucketCounts_ = new int[WINDOW_SECONDS];
+   private static final HashMap<String, DispatchTiming> dispatchTimings_ =
+                                       new HashMap<String, DispatchTiming>();
+}
@@ -0,0 +1,184 @@
+/*
+ * JsonArrayChunkDecoder.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.jsonrpc;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
+
+// Decodes the text of a json array a chunk of elements at a time, yielding
+// to the browser between chunks, so that a large result can be processed
+// without blocking the UI for the whole parse. Only the top level of the
+// array is scanned by hand (to find the boundaries between elements); each
+// chunk is then handed to the browser's json parser.
+public class JsonArrayChunkDecoder<T extends JavaScriptObject>
+{
+   public interface Handler<T extends JavaScriptObject>
+   {
+      void onChunk(JsArray<T> chunk);
+      void onComplete();
+      void onError(String message);
+   }
+
+   public static boolean isArray(String json)
+   {
+      return json != null && json.trim().startsWith("[");
+   }
+
+   public JsonArrayChunkDecoder(String json)
+   {
+      json_ = json;
+      pos_ = json.indexOf('[') + 1;
+   }
+
+   public void start(final int chunkSize, final Handler<T> handler)
+   {
+      Scheduler.get().scheduleIncremental(new RepeatingCommand()
+      {
+         @Override
+         public boolean execute()
+         {
+            if (cancelled_)
+               return false;
+
+            Duration duration = new Duration();
+            while (!done_ && duration.elapsedMillis() < MAX_SLICE_MS)
+            {
+               if (!decodeChunk(chunkSize, handler))
+                  return false;
+               if (cancelled_)
+                  return false;
+            }
+
+            if (done_)
+               handler.onComplete();
+            return !done_;
+         }
+      });
+   }
+
+   public void cancel()
+   {
+      cancelled_ = true;
+   }
+
+   private boolean decodeChunk(int chunkSize, Handler<T> handler)
+   {
+      int end = scan(json_, pos_, chunkSize);
+      if (end == -1)
+      {
+         handler.onError("Unexpected end of array");
+         return false;
+      }
+
+      String elements = json_.substring(pos_, end);
+      if (elements.trim().length() > 0)
+      {
+         JsArray<T> chunk = parseElements(elements);
+         if (chunk == null)
+         {
+            handler.onError("Unable to parse array elements");
+            return false;
+         }
+         handler.onChunk(chunk);
+      }
+
+      if (json_.charAt(end) == ']')
+         done_ = true;
+      else
+         pos_ = end + 1;
+      return true;
+   }
+
+   private static native <T extends JavaScriptObject> JsArray<T> parseElements(
+                                                         String elements) /*-{
+      var json = "[" + elements + "]";
+      try
+      {
+         return JSON.parse(json);
+      }
+      catch (e)
+      {
+         // see RpcResponse.parse for why this can be necessary
+         try
+         {
+            return eval("(" + json + ")");
+         }
+         catch (e2)
+         {
+            return null;
+         }
+      }
+   }-*/;
+
+   // Returns the position of the separator following the maxElements'th top
+   // level element (or of the closing bracket if the array ends first) after
+   // the given position, or -1 if the text ends before either is found.
+   private static native int scan(String text, int from, int maxElements) /*-{
+      var depth = 0;
+      var count = 0;
+      var re = /["\[\]{},]/g;
+      re.lastIndex = from;
+      var match;
+      while ((match = re.exec(text)) !== null)
+      {
+         var ch = match[0];
+         var pos = match.index;
+         if (ch === '"')
+         {
+            // skip to the (unescaped) end of the string
+            var end = pos;
+            for (;;)
+            {
+               end = text.indexOf('"', end + 1);
+               if (end === -1)
+                  return -1;
+               var backslashes = 0;
+               for (var k = end - 1; text.charAt(k) === '\\'; k--)
+                  backslashes++;
+               if (backslashes % 2 === 0)
+                  break;
+            }
+            re.lastIndex = end + 1;
+         }
+         else if (ch === '[' || ch === '{')
+         {
+            depth++;
+         }
+         else if (ch === ']' || ch === '}')
+         {
+            if (depth === 0)
+               return pos;
+            depth--;
+         }
+         else if (depth === 0)
+         {
+            count++;
+            if (count >= maxElements)
+               return pos;
+         }
+      }
+      return -1;
+   }-*/;
+
+   private final String json_;
+   private int pos_;
+   private boolean done_ = false;
+   private boolean cancelled_ = false;
+
+   private static final int MAX_SLICE_MS = 20;
+}
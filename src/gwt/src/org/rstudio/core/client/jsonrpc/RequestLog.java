@@ -15,38 +15,84 @@
 package org.rstudio.core.client.jsonrpc;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 
+// Keeps the most recent requests in a fixed size ring buffer (so logging
+// is O(1)), along with any requests still awaiting a response, and feeds
+// request/response timings and sizes into RpcMetrics.
 public class RequestLog
 {
    public static RequestLogEntry log(String requestId, String requestData)
    {
       RequestLogEntry entry = new RequestLogEntry(System.currentTimeMillis(),
                                                   requestId, requestData);
-      entries_.add(entry);
+      return log(entry, entry.getRequestMethodName(), requestData.length());
+   }
+
+   public static RequestLogEntry log(String requestId,
+                                     String method,
+                                     String requestData,
+                                     int requestBytes)
+   {
+      RequestLogEntry entry = new RequestLogEntry(System.currentTimeMillis(),
+                                                  requestId, requestData);
+      return log(entry, method, requestBytes);
+   }
+
+   public static RequestLogEntry[] getEntries()
+   {
+      HashSet<RequestLogEntry> recent = new HashSet<RequestLogEntry>();
+      for (int i = 0; i < count_; i++)
+         recent.add(entries_[(head_ - count_ + i + MAX_ENTRIES) % MAX_ENTRIES]);
 
-      for (int i = 0; entries_.size() > MAX_ENTRIES && i < entries_.size(); i++)
+      // requests still in flight which have been pushed out of the ring
+      // buffer are older than everything in it
+      ArrayList<RequestLogEntry> result = new ArrayList<RequestLogEntry>();
+      for (RequestLogEntry entry : inFlight_)
+         if (!recent.contains(entry))
+            result.add(entry.clone());
+
+      for (int i = 0; i < count_; i++)
       {
-         RequestLogEntry oldEntry = entries_.get(i);
-         if (!oldEntry.isAlive())
-         {
-            entries_.remove(i);
-            i--;
-         }
+         int index = (head_ - count_ + i + MAX_ENTRIES) % MAX_ENTRIES;
+         result.add(entries_[index].clone());
       }
 
-      return entry;
+      return result.toArray(new RequestLogEntry[result.size()]);
    }
 
-   public static RequestLogEntry[] getEntries()
+   static void onResponse(RequestLogEntry entry, int responseBytes)
    {
-      RequestLogEntry[] entries = new RequestLogEntry[entries_.size()];
-      for (int i = 0; i < entries.length; i++)
-         entries[i] = entries_.get(i).clone();
-      return entries;
+      inFlight_.remove(entry);
+      RpcMetrics.requestCompleted(
+            entry.getMethod(),
+            entry.getResponseTime() - entry.getRequestTime(),
+            responseBytes,
+            entry.getResponseType());
+   }
+
+   private static RequestLogEntry log(RequestLogEntry entry,
+                                      String method,
+                                      int requestBytes)
+   {
+      entry.setMethod(method);
+      entries_[head_] = entry;
+      head_ = (head_ + 1) % MAX_ENTRIES;
+      count_ = Math.min(count_ + 1, MAX_ENTRIES);
+
+      inFlight_.add(entry);
+      RpcMetrics.requestStarted(method, requestBytes);
+
+      return entry;
    }
 
-   private static final ArrayList<RequestLogEntry> entries_ =
-         new ArrayList<RequestLogEntry>();
+   private static final int MAX_ENTRIES = 200;
 
-   private static final int MAX_ENTRIES = 50;
+   private static final RequestLogEntry[] entries_ =
+         new RequestLogEntry[MAX_ENTRIES];
+   private static int head_ = 0;
+   private static int count_ = 0;
+   private static final LinkedHashSet<RequestLogEntry> inFlight_ =
+         new LinkedHashSet<RequestLogEntry>();
 }
@@ -63,11 +63,29 @@ public class RequestLogEntry
       return responseData_;
    }
 
+   public String getMethod()
+   {
+      return method_;
+   }
+
+   void setMethod(String method)
+   {
+      method_ = method;
+   }
+
    public void logResponse(int responseType, String data)
    {
+      logResponse(responseType, data, data == null ? 0 : data.length());
+   }
+
+   public void logResponse(int responseType, String data, int responseBytes)
+   {
+      boolean wasAlive = isAlive();
       responseType_ = responseType;
       responseTime_ = System.currentTimeMillis();
       responseData_ = data;
+      if (wasAlive)
+         RequestLog.onResponse(this, responseBytes);
    }
 
    public int getResponseType()
@@ -100,6 +118,7 @@ public class RequestLogEntry
       clone.responseType_ = responseType_;
       clone.responseData_ = responseData_;
       clone.responseTime_ = responseTime_;
+      clone.method_ = method_;
       return clone;
    }
 
@@ -143,6 +162,7 @@ public class RequestLogEntry
    private final long requestTime_;
    private final String requestId_;
    private final String requestData_;
+   private String method_;
    private Long responseTime_;
    private String responseData_;
    private int responseType_ = ResponseType.None;
@@ -0,0 +1,181 @@
+/*
+ * RpcBatchRequest.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.core.client.jsonrpc;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.jsonrpc.RequestLogEntry.ResponseType;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONObject;
+
+// Packs several RpcRequests into a single HTTP round trip. The individual
+// requests are sent as an array (the sole parameter of the batch method) and
+// the server replies with an array of raw json-rpc responses in the same
+// order, each of which is delivered to the callback of its request. Errors
+// which apply to the batch as a whole (e.g. transmission errors or an
+// invalid client id) are first offered to the batch's error handler, and
+// are delivered to every callback only if it doesn't handle them.
+public class RpcBatchRequest
+{
+   public static final String METHOD = "rpc_batch";
+
+   public interface ErrorHandler
+   {
+      // returns true if the error was handled for the batch as a whole
+      // (e.g. by sending it again once the error is resolved)
+      boolean onBatchError(RpcBatchRequest batch, RpcError error);
+   }
+
+   public RpcBatchRequest(String url,
+                          String clientId,
+                          String clientVersion,
+                          ErrorHandler errorHandler)
+   {
+      url_ = url;
+      clientId_ = clientId;
+      clientVersion_ = clientVersion;
+      errorHandler_ = errorHandler;
+   }
+
+   public void add(RpcRequest request, RpcRequestCallback callback)
+   {
+      requests_.add(request);
+      callbacks_.add(callback);
+   }
+
+   public int size()
+   {
+      return requests_.size();
+   }
+
+   public void send()
+   {
+      // nothing to gain from the batch protocol for a single request
+      if (requests_.size() == 1)
+      {
+         requests_.get(0).send(callbacks_.get(0));
+         return;
+      }
+      else if (requests_.isEmpty())
+      {
+         return;
+      }
+
+      // the batch as a whole is logged as a single request, so record the
+      // metrics for the requests within it separately
+      JSONArray items = new JSONArray();
+      for (int i = 0; i < requests_.size(); i++)
+      {
+         JSONObject item = requests_.get(i).toBatchItem();
+         items.set(i, item);
+         RpcMetrics.requestStarted(requests_.get(i).getMethod(),
+                                   item.toString().length());
+      }
+      final double startTime = Duration.currentTimeMillis();
+      JSONArray params = new JSONArray();
+      params.set(0, items);
+
+      RpcRequest batchRequest = new RpcRequest(url_,
+                                               METHOD,
+                                               params,
+                                               null,
+                                               false,
+                                               null,
+                                               clientId_,
+                                               clientVersion_);
+
+      batchRequest.send(new RpcRequestCallback() {
+
+         @Override
+         public void onError(RpcRequest request, RpcError error)
+         {
+            recordCompleted(ResponseType.Error);
+            if (errorHandler_ != null &&
+                errorHandler_.onBatchError(RpcBatchRequest.this, error))
+            {
+               return;
+            }
+
+            for (int i = 0; i < requests_.size(); i++)
+               callbacks_.get(i).onError(requests_.get(i), error);
+         }
+
+         @Override
+         public void onResponseReceived(RpcRequest request,
+                                        RpcResponse response)
+         {
+            // an error for the batch itself applies to all of its requests
+            if (response.getError() != null)
+            {
+               recordCompleted(ResponseType.Error);
+               if (errorHandler_ != null &&
+                   errorHandler_.onBatchError(RpcBatchRequest.this,
+                                              response.getError()))
+               {
+                  return;
+               }
+
+               for (int i = 0; i < requests_.size(); i++)
+               {
+                  callbacks_.get(i).onResponseReceived(requests_.get(i),
+                                                       response);
+               }
+               return;
+            }
+
+            JsArray<RpcResponse> responses = response.getResult();
+            if (responses == null || responses.length() != requests_.size())
+            {
+               // onError records the failure
+               onError(request, RpcError.create(
+                     RpcError.TRANSMISSION_ERROR,
+                     "Unexpected response to batched request"));
+               return;
+            }
+
+            recordCompleted(ResponseType.Normal);
+            for (int i = 0; i < requests_.size(); i++)
+            {
+               callbacks_.get(i).onResponseReceived(requests_.get(i),
+                                                    responses.get(i));
+            }
+         }
+
+         private void recordCompleted(int responseType)
+         {
+            double latency = Duration.currentTimeMillis() - startTime;
+            for (int i = 0; i < requests_.size(); i++)
+            {
+               RpcMetrics.requestCompleted(requests_.get(i).getMethod(),
+                                           latency,
+                                           -1,
+                                           responseType);
+            }
+         }
+      });
+   }
+
+   private final String url_;
+   private final String clientId_;
+   private final String clientVersion_;
+   private final ErrorHandler errorHandler_;
+   private final ArrayList<RpcRequest> requests_ = new ArrayList<RpcRequest>();
+   private final ArrayList<RpcRequestCallback> callbacks_ =
+                                       new ArrayList<RpcRequestCallback>();
+}
@@ -0,0 +1,306 @@
+/*
+ * RpcMetrics.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.jsonrpc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+// Per-method latency and payload size metrics for json-rpc requests. Each
+// method keeps log-scale histograms (four buckets per power of two, so
+// percentiles are accurate to within ~25%) of its latency, request size
+// and response size, so recording is O(1) and memory use doesn't grow with
+// the number of requests.
+public class RpcMetrics
+{
+   public static class Histogram
+   {
+      public void record(double value)
+      {
+         value = Math.max(0, value);
+         buckets_[bucketIndex(value)]++;
+         if (count_ == 0 || value < min_)
+            min_ = value;
+         if (value > max_)
+            max_ = value;
+         count_++;
+         sum_ += value;
+      }
+
+      public int getCount()
+      {
+         return count_;
+      }
+
+      public double getSum()
+      {
+         return sum_;
+      }
+
+      public double getMean()
+      {
+         return count_ == 0 ? 0 : sum_ / count_;
+      }
+
+      public double getMax()
+      {
+         return max_;
+      }
+
+      // estimated value at the given percentile (0-100); this is the upper
+      // bound of the bucket containing it, clamped to the observed range
+      public double getPercentile(double percentile)
+      {
+         if (count_ == 0)
+            return 0;
+
+         int rank = (int) Math.ceil(count_ * percentile / 100.0);
+         rank = Math.max(1, Math.min(count_, rank));
+
+         int seen = 0;
+         for (int i = 0; i < buckets_.length; i++)
+         {
+            seen += buckets_[i];
+            if (seen >= rank)
+               return Math.max(min_, Math.min(max_, bucketUpperBound(i)));
+         }
+         return max_;
+      }
+
+      private static int bucketIndex(double value)
+      {
+         if (value < 1)
+            return 0;
+
+         int exponent = (int) Math.floor(Math.log(value) / LN2);
+
+         // guard against rounding in the log computation
+         if (Math.pow(2, exponent) > value)
+            exponent--;
+         else if (Math.pow(2, exponent + 1) <= value)
+            exponent++;
+
+         int sub = (int) ((value / Math.pow(2, exponent) - 1) *
+                          SUB_BUCKETS);
+         sub = Math.max(0, Math.min(SUB_BUCKETS - 1, sub));
+         return Math.min(BUCKET_COUNT - 1,
+                         1 + exponent * SUB_BUCKETS + sub);
+      }
+
+      private static double bucketUpperBound(int index)
+      {
+         if (index == 0)
+            return 1;
+
+         int exponent = (index - 1) / SUB_BUCKETS;
+         int sub = (index - 1) % SUB_BUCKETS;
+         return Math.pow(2, exponent) * (1 + (sub + 1) / (double) SUB_BUCKETS);
+      }
+
+      private final int[] buckets_ = new int[BUCKET_COUNT];
+      private int count_ = 0;
+      private double sum_ = 0;
+      private double min_ = 0;
+      private double max_ = 0;
+
+      private static final int SUB_BUCKETS = 4;
+      private static final int BUCKET_COUNT = 1 + 40 * SUB_BUCKETS;
+      private static final double LN2 = Math.log(2);
+   }
+
+   public static class MethodStats
+   {
+      MethodStats(String method)
+      {
+         method_ = method;
+      }
+
+      public String getMethod()
+      {
+         return method_;
+      }
+
+      public int getInFlight()
+      {
+         return inFlight_;
+      }
+
+      public int getErrorCount()
+      {
+         return errors_;
+      }
+
+      public int getCancelledCount()
+      {
+         return cancelled_;
+      }
+
+      public Histogram getLatency()
+      {
+         return latency_;
+      }
+
+      public Histogram getRequestBytes()
+      {
+         return requestBytes_;
+      }
+
+      public Histogram getResponseBytes()
+      {
+         return responseBytes_;
+      }
+
+      public String toString()
+      {
+         return method_ +
+                ": n=" + latency_.getCount() +
+                " inflight=" + inFlight_ +
+                " errors=" + errors_ +
+                " cancelled=" + cancelled_ +
+                " latency(ms) p50=" + format(latency_.getPercentile(50)) +
+                " p90=" + format(latency_.getPercentile(90)) +
+                " p99=" + format(latency_.getPercentile(99)) +
+                " max=" + format(latency_.getMax()) +
+                " req(bytes) p50=" + format(requestBytes_.getPercentile(50)) +
+                " max=" + format(requestBytes_.getMax()) +
+                " resp(bytes) p50=" + format(responseBytes_.getPercentile(50)) +
+                " p99=" + format(responseBytes_.getPercentile(99)) +
+                " max=" + format(responseBytes_.getMax());
+      }
+
+      private final String method_;
+      private int inFlight_ = 0;
+      private int errors_ = 0;
+      private int cancelled_ = 0;
+      private final Histogram latency_ = new Histogram();
+      private final Histogram requestBytes_ = new Histogram();
+      private final Histogram responseBytes_ = new Histogram();
+   }
+
+   public static void requestStarted(String method, int requestBytes)
+   {
+      MethodStats stats = getStats(method);
+      stats.inFlight_++;
+      stats.requestBytes_.record(requestBytes);
+      inFlight_++;
+   }
+
+   public static void requestCompleted(String method,
+                                       double latencyMs,
+                                       int responseBytes,
+                                       int responseType)
+   {
+      MethodStats stats = getStats(method);
+      stats.inFlight_ = Math.max(0, stats.inFlight_ - 1);
+      inFlight_ = Math.max(0, inFlight_ - 1);
+
+      // a cancelled request's duration says nothing about the server
+      if (responseType == RequestLogEntry.ResponseType.Cancelled)
+      {
+         stats.cancelled_++;
+         return;
+      }
+
+      if (responseType != RequestLogEntry.ResponseType.Normal)
+         stats.errors_++;
+      stats.latency_.record(latencyMs);
+
+      // the size of individual responses within a batch isn't known
+      if (responseBytes >= 0)
+         stats.responseBytes_.record(responseBytes);
+   }
+
+   public static int getInFlightCount()
+   {
+      return inFlight_;
+   }
+
+   // all methods seen so far, those with the most total time first
+   public static ArrayList<MethodStats> getMethodStats()
+   {
+      ArrayList<MethodStats> result =
+            new ArrayList<MethodStats>(stats_.values());
+      Collections.sort(result, new Comparator<MethodStats>()
+      {
+         @Override
+         public int compare(MethodStats a, MethodStats b)
+         {
+            return Double.compare(b.latency_.getSum(), a.latency_.getSum());
+         }
+      });
+      return result;
+   }
+
+   public static String getSummary()
+   {
+      int requests = 0;
+      for (MethodStats stats : stats_.values())
+         requests += stats.latency_.getCount();
+
+      return "RPC: " + requests + " requests completed, " +
+             inFlight_ + " in flight, " + stats_.size() + " methods";
+   }
+
+   // one line per method (at most maxMethods), suitable for the server log
+   public static ArrayList<String> getReport(int maxMethods)
+   {
+      ArrayList<String> lines = new ArrayList<String>();
+      lines.add(getSummary());
+      ArrayList<MethodStats> methods = getMethodStats();
+      for (int i = 0; i < methods.size() && i < maxMethods; i++)
+         lines.add(methods.get(i).toString());
+      return lines;
+   }
+
+   public static void reset()
+   {
+      // keep in-flight counts so that outstanding requests still balance
+      HashMap<String, MethodStats> stats = new HashMap<String, MethodStats>();
+      for (MethodStats old : stats_.values())
+      {
+         if (old.inFlight_ > 0)
+         {
+            MethodStats fresh = new MethodStats(old.method_);
+            fresh.inFlight_ = old.inFlight_;
+            stats.put(old.method_, fresh);
+         }
+      }
+      stats_ = stats;
+   }
+
+   private static MethodStats getStats(String method)
+   {
+      if (method == null)
+         method = "(unknown)";
+
+      MethodStats stats = stats_.get(method);
+      if (stats == null)
+      {
+         stats = new MethodStats(method);
+         stats_.put(method, stats);
+      }
+      return stats;
+   }
+
+   private static String format(double value)
+   {
+      return Long.toString(Math.round(value));
+   }
+
+   private static HashMap<String, MethodStats> stats_ =
+         new HashMap<String, MethodStats>();
+   private static int inFlight_ = 0;
+}
@@ -15,6 +15,7 @@
 
 package org.rstudio.core.client.jsonrpc;
 
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.http.client.*;
 import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONObject;
@@ -31,6 +32,8 @@ public class RpcRequest
 {
    public static final boolean TRACE = false ;
    
+   private static final int MAX_LOGGED_RESPONSE_SIZE = 64 * 1024;
+   
    public RpcRequest(String url, 
                      String method, 
                      JSONArray params, 
@@ -56,6 +59,31 @@ public class RpcRequest
       clientVersion_ = new JSONString(clientVersion);
    }
    
+   public String getMethod()
+   {
+      return method_;
+   }
+   
+   public boolean getRedactLog()
+   {
+      return redactLog_;
+   }
+   
+   // json representation of this request when submitted as one element of
+   // an RpcBatchRequest (client id and version are supplied by the batch)
+   JSONObject toBatchItem()
+   {
+      JSONObject item = new JSONObject();
+      item.put("method", new JSONString(method_));
+      if (params_ != null)
+         item.put("params", params_);
+      if (kwparams_ != null)
+         item.put("kwparams", kwparams_);
+      if (sourceWindow_ != null)
+         item.put("sourceWnd", sourceWindow_);
+      return item;
+   }
+   
    public void send(RpcRequestCallback callback)
    {
       // final references for access from anonymous class
@@ -63,23 +91,7 @@ public class RpcRequest
       final RpcRequestCallback requestCallback = callback ;
       
       // build json request object
-      JSONObject request = new JSONObject() ;
-      request.put("method", new JSONString(method_)) ;
-      if ( params_ != null )
-         request.put("params", params_);  
-      if ( kwparams_ != null)
-         request.put("kwparams", kwparams_);
-      
-      // add src window if we have it
-      if (sourceWindow_ != null)
-         request.put("sourceWnd", sourceWindow_);
-      
-      // add client id if we have it
-      if (clientId_ != null)
-         request.put("clientId", clientId_);
-      
-      // add client version
-      request.put("clientVersion", clientVersion_);
+      JSONObject request = createRequestObject();
       
       // configure request builder
       RequestBuilder builder = new RequestBuilder(RequestBuilder.POST, url_);
@@ -96,8 +108,10 @@ public class RpcRequest
             Debug.log("Request: " + requestString) ;
 
          requestLogEntry_ = RequestLog.log(requestId,
+                                           method_,
                                            redactLog_ ? "[REDACTED]"
-                                                      : requestString);
+                                                      : requestString,
+                                           requestString.length());
 
          request_ = builder.sendRequest(requestString, new RequestCallback() {
             
@@ -126,8 +140,20 @@ public class RpcRequest
                      String responseText = response.getText();
                      if (TRACE)
                         Debug.log("Response: " + responseText) ;
-                     requestLogEntry_.logResponse(ResponseType.Normal,
-                                                 responseText);
+                     // don't hold on to large responses in the log
+                     if (responseText.length() > MAX_LOGGED_RESPONSE_SIZE)
+                     {
+                        requestLogEntry_.logResponse(
+                              ResponseType.Normal,
+                              "[Response of " + responseText.length() +
+                              " characters not logged]",
+                              responseText.length());
+                     }
+                     else
+                     {
+                        requestLogEntry_.logResponse(ResponseType.Normal,
+                                                    responseText);
+                     }
                      rpcResponse = RpcResponse.parse(responseText);
                      
                      // response received and validated, process it!
@@ -184,8 +210,34 @@ public class RpcRequest
       }
    }
    
+   // send the request, receiving the response incrementally. the response
+   // consists of one or more json-rpc responses separated by newlines, each
+   // of which is delivered to the callback as soon as it arrives
+   public void stream(RpcStreamCallback callback)
+   {
+      String requestString = createRequestObject().toString();
+      if (TRACE)
+         Debug.log("Request: " + requestString) ;
+      
+      String requestId = Integer.toString(Random.nextInt());
+      requestLogEntry_ = RequestLog.log(requestId,
+                                        method_,
+                                        redactLog_ ? "[REDACTED]"
+                                                   : requestString,
+                                        requestString.length());
+      streamChunkCount_ = 0;
+      streamBytes_ = 0;
+      xhr_ = sendStreamingRequest(url_, requestId, requestString, callback);
+   }
+   
    public void cancel()
    {
+      if (xhr_ != null)
+      {
+         abortStreamingRequest(xhr_);
+         xhr_ = null;
+      }
+      
       if (request_ != null)
       {
          request_.cancel();
@@ -199,6 +251,132 @@ public class RpcRequest
       }
    }
      
+   private JSONObject createRequestObject()
+   {
+      JSONObject request = new JSONObject() ;
+      request.put("method", new JSONString(method_)) ;
+      if ( params_ != null )
+         request.put("params", params_);  
+      if ( kwparams_ != null)
+         request.put("kwparams", kwparams_);
+      
+      // add src window if we have it
+      if (sourceWindow_ != null)
+         request.put("sourceWnd", sourceWindow_);
+      
+      // add client id if we have it
+      if (clientId_ != null)
+         request.put("clientId", clientId_);
+      
+      // add client version
+      request.put("clientVersion", clientVersion_);
+      
+      return request;
+   }
+   
+   private void onStreamChunkReceived(RpcStreamCallback callback, String text)
+   {
+      if (TRACE)
+         Debug.log("Response chunk: " + text) ;
+      
+      RpcResponse response = RpcResponse.parse(text);
+      if (response == null)
+      {
+         cancel();
+         callback.onError(this, RpcError.create(
+                                       RpcError.TRANSMISSION_ERROR,
+                                       "Unable to parse streamed response"));
+         return;
+      }
+      
+      streamChunkCount_++;
+      streamBytes_ += text.length();
+      callback.onChunkReceived(this, response);
+   }
+   
+   private void onStreamEnded(RpcStreamCallback callback, int status)
+   {
+      xhr_ = null;
+      if (status == 200)
+      {
+         if (requestLogEntry_ != null)
+         {
+            requestLogEntry_.logResponse(ResponseType.Normal,
+                  "[Streamed " + streamChunkCount_ + " chunk(s)]",
+                  streamBytes_);
+         }
+         callback.onStreamEnded(this);
+      }
+      else
+      {
+         String message = status == 0 ?
+               "Unable to establish connection with R session" :
+               "Status code " + Integer.toString(status) + " returned";
+         if (requestLogEntry_ != null)
+            requestLogEntry_.logResponse(ResponseType.Unknown, message);
+         callback.onError(this, RpcError.create(RpcError.TRANSMISSION_ERROR,
+                                                message));
+      }
+   }
+   
+   private final native JavaScriptObject sendStreamingRequest(
+                                       String url,
+                                       String requestId,
+                                       String requestString,
+                                       RpcStreamCallback callback) /*-{
+      var self = this;
+      var xhr = new XMLHttpRequest();
+      var offset = 0;
+      
+      // deliver each complete line received so far (at the end of the
+      // response any trailing text is delivered as well)
+      var consume = function(complete) {
+         var text = xhr.responseText;
+         var end;
+         while (!xhr.rsCancelled && (end = text.indexOf("\n", offset)) !== -1)
+         {
+            var line = text.substring(offset, end);
+            offset = end + 1;
+            if (line.length > 0)
+               self.@org.rstudio.core.client.jsonrpc.RpcRequest::onStreamChunkReceived(Lorg/rstudio/core/client/jsonrpc/RpcStreamCallback;Ljava/lang/String;)(callback, line);
+         }
+         if (complete && !xhr.rsCancelled && offset < text.length)
+         {
+            var rest = text.substring(offset);
+            offset = text.length;
+            self.@org.rstudio.core.client.jsonrpc.RpcRequest::onStreamChunkReceived(Lorg/rstudio/core/client/jsonrpc/RpcStreamCallback;Ljava/lang/String;)(callback, rest);
+         }
+      };
+      
+      xhr.onprogress = $entry(function() {
+         if (xhr.status === 200)
+            consume(false);
+      });
+      
+      xhr.onreadystatechange = $entry(function() {
+         if (xhr.readyState !== 4 || xhr.rsCancelled)
+            return;
+         var status = xhr.status;
+         if (status === 200)
+            consume(true);
+         if (!xhr.rsCancelled)
+            self.@org.rstudio.core.client.jsonrpc.RpcRequest::onStreamEnded(Lorg/rstudio/core/client/jsonrpc/RpcStreamCallback;I)(callback, status);
+      });
+      
+      xhr.open("POST", url, true);
+      xhr.setRequestHeader("Content-Type", "application/json");
+      xhr.setRequestHeader("Accept", "application/json");
+      xhr.setRequestHeader("X-RS-RID", requestId);
+      xhr.send(requestString);
+      return xhr;
+   }-*/;
+   
+   private static final native void abortStreamingRequest(
+                                             JavaScriptObject xhr) /*-{
+      xhr.rsCancelled = true;
+      xhr.abort();
+   }-*/;
+     
    final private String url_ ;
    final private String method_ ;
    final private JSONArray params_ ;
@@ -209,6 +387,9 @@ public class RpcRequest
    final private JSONString clientVersion_;
    private Request request_ = null;
    private RequestLogEntry requestLogEntry_ = null;
+   private JavaScriptObject xhr_ = null;
+   private int streamChunkCount_ = 0;
+   private int streamBytes_ = 0;
    
      
 }
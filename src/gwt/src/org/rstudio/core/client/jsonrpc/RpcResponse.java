@@ -26,8 +26,26 @@ public class RpcResponse extends JavaScriptObject
       
    }
    
+   // responses at least this large are parsed lazily: the envelope (error,
+   // async handle, etc.) is parsed up front but parsing the result is
+   // deferred until it's first accessed (or decoded in chunks, see
+   // getUnparsedResult)
+   public static final int LAZY_PARSE_THRESHOLD = 64 * 1024;
+   
    public final static RpcResponse parse(String json) 
    {      
+      if (json.length() >= LAZY_PARSE_THRESHOLD)
+      {
+         RpcResponse response = parseLazy(json);
+         if (response != null)
+            return response;
+      }
+      
+      return parseFull(json);
+   }
+   
+   private static RpcResponse parseFull(String json)
+   {
       try
       {
          // we first call parseStrict so we can use the browser
@@ -53,6 +71,77 @@ public class RpcResponse extends JavaScriptObject
       }
    }
     
+   // the server writes the fields of a response in sorted order so when
+   // there's a result it's always the last field, which lets us split the
+   // response without parsing the result. if anything looks unexpected we
+   // return null and the response is parsed in full.
+   private static native RpcResponse parseLazy(String json) /*-{
+      var end = json.length - 1;
+      while (end > 0 && /\s/.test(json.charAt(end)))
+         end--;
+      if (json.charAt(end) !== '}')
+         return null;
+      
+      var start = json.indexOf('"result":');
+      if (start === -1 || start > 1024)
+         return null;
+      
+      var envelope;
+      try
+      {
+         envelope = JSON.parse(json.substring(0, start) + '"result":null}');
+      }
+      catch (e)
+      {
+         return null;
+      }
+      if (envelope === null || typeof envelope !== 'object')
+         return null;
+      
+      var raw = json.substring(start + 9, end);
+      var parseResult = function() {
+         try
+         {
+            return JSON.parse(raw);
+         }
+         catch (e)
+         {
+            var response = @org.rstudio.core.client.jsonrpc.RpcResponse::parseFull(Ljava/lang/String;)(json);
+            return response ? response.result : null;
+         }
+      };
+      
+      Object.defineProperty(envelope, "result", {
+         configurable: true,
+         enumerable: true,
+         get: function() {
+            var value = parseResult();
+            raw = null;
+            Object.defineProperty(envelope, "result", {
+               configurable: true,
+               enumerable: true,
+               writable: true,
+               value: value
+            });
+            return value;
+         }
+      });
+      
+      Object.defineProperty(envelope, "__rsUnparsedResult", {
+         configurable: true,
+         enumerable: false,
+         value: function() { return raw; }
+      });
+      
+      return envelope;
+   }-*/;
+   
+   // returns the text of the result if it was deferred (see parse) and
+   // hasn't been accessed yet, or null otherwise
+   public final native String getUnparsedResult() /*-{
+      return this.__rsUnparsedResult ? this.__rsUnparsedResult() : null;
+   }-*/;
+   
    public final native static RpcResponse create(RpcError error) /*-{
       var response = new Object();
       response.error = error ;
@@ -0,0 +1,23 @@
+/*
+ * RpcStreamCallback.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.core.client.jsonrpc;
+
+public interface RpcStreamCallback
+{
+   void onChunkReceived(RpcRequest request, RpcResponse response);
+   void onStreamEnded(RpcRequest request);
+   void onError(RpcRequest request, RpcError error);
+}
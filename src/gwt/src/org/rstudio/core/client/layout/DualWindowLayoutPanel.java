@@ -97,11 +97,6 @@ public class DualWindowLayoutPanel extends SimplePanel
    private class WindowStateChangeManager
          implements WindowStateChangeHandler
    {
-      public WindowStateChangeManager(Session session)
-      {
-         session_ = session;
-      }
-
       public void onWindowStateChange(WindowStateChangeEvent event)
       {
          switch (event.getNewState())
@@ -138,12 +133,10 @@ public class DualWindowLayoutPanel extends SimplePanel
          {
             public void execute()
             {
-               session_.persistClientState();
+               markLayoutDirty();
             }
          });
       }
-
-      private final Session session_;
    }
 
    private static class State extends JavaScriptObject
@@ -333,6 +326,13 @@ public class DualWindowLayoutPanel extends SimplePanel
          return state.cast();
       }
 
+      @Override
+      protected boolean pollsForChanges()
+      {
+         // marked dirty when the panes are resized or change state
+         return false;
+      }
+
       @Override
       protected boolean hasChanged()
       {
@@ -369,14 +369,13 @@ public class DualWindowLayoutPanel extends SimplePanel
    {
       windowA_ = windowA;
       windowB_ = windowB;
-      session_ = session;
       setSize("100%", "100%");
       layout_ = new BinarySplitLayoutPanel(new Widget[] {
             windowA.getNormal(), windowA.getMinimized(),
             windowB.getNormal(), windowB.getMinimized()}, 3);
       layout_.setSize("100%", "100%");
 
-      topWindowStateChangeManager_ = new WindowStateChangeManager(session);
+      topWindowStateChangeManager_ = new WindowStateChangeManager();
       bottomWindowStateChangeManager_ = new WindowStateChangeHandler()
       {
          public void onWindowStateChange(WindowStateChangeEvent event)
@@ -410,7 +409,8 @@ public class DualWindowLayoutPanel extends SimplePanel
 
       hookEvents();
 
-      new WindowLayoutStateValue(session.getSessionInfo().getClientState(),
+      stateValue_ = new WindowLayoutStateValue(
+                                 session.getSessionInfo().getClientState(),
                                  clientStateKeyName,
                                  topWindowDefaultState,
                                  defaultSplitterPos);
@@ -483,11 +483,17 @@ public class DualWindowLayoutPanel extends SimplePanel
                                           Window.getClientHeight());
       }
       
-      session_.persistClientState();
+      markLayoutDirty();
       
       return topState;
    }
 
+   private void markLayoutDirty()
+   {
+      if (stateValue_ != null)
+         stateValue_.markDirty();
+   }
+
   
    
    private void hookEvents()
@@ -533,6 +539,7 @@ public class DualWindowLayoutPanel extends SimplePanel
       if (layout_ != null)
       {
          layout_.onResize();
+         markLayoutDirty();
       }
    }
    
@@ -622,7 +629,7 @@ public class DualWindowLayoutPanel extends SimplePanel
    private NormalHeight normalHeight_;
    private LogicalWindow windowA_;
    private LogicalWindow windowB_;
-   private final Session session_;
+   private WindowLayoutStateValue stateValue_;
    private WindowStateChangeManager topWindowStateChangeManager_;
    private WindowStateChangeHandler bottomWindowStateChangeManager_;
    private HandlerRegistrations registrations_ = new HandlerRegistrations();
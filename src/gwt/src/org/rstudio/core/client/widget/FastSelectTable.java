@@ -19,6 +19,7 @@ import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.*;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Style.Cursor;
+import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.DOM;
@@ -33,8 +34,7 @@ import org.rstudio.core.client.widget.events.SelectionChangedEvent;
 import org.rstudio.core.client.widget.events.SelectionChangedHandler;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.TreeSet;
 
 public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widget
    implements HasAllMouseHandlers, HasClickHandlers, HasAllKeyHandlers
@@ -53,6 +53,22 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       int getLogicalRowCount(TableElement table);
    }
 
+   // Codecs for virtualized tables (see setVirtualized) describe their
+   // non-value rows in terms of items, since rows are only created for the
+   // items in view (onRowsChanged isn't called for virtualized tables).
+   public interface VirtualItemCodec<T, TItemOutput, TItemOutput2>
+         extends ItemCodec<T, TItemOutput, TItemOutput2>
+   {
+      // returns true if a non-value row should separate the item from the
+      // one before it (prevItem is null for the first item)
+      boolean needsBreak(T prevItem, T item);
+
+      // returns false for items which render as non-value rows
+      boolean isValueItem(T item);
+
+      TableRowElement getBreakRowForItem(T item);
+   }
+
    public FastSelectTable(ItemCodec<TItemInput, TItemOutput, TItemOutput2> codec,
                           String selectedClassName,
                           boolean focusable,
@@ -88,8 +104,9 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
             if (cell == null)
                return;
             TableRowElement row = (TableRowElement) cell.getParentElement();
-            if (codec_.isValueRow(row))
-               handleRowClick(event, row);
+            Integer rowIndex = getRowIndex(row);
+            if (rowIndex != null && isValueRow(rowIndex))
+               handleRowClick(event, rowIndex);
          }
       });
       addClickHandler(new ClickHandler()
@@ -122,9 +139,39 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    public void setOwningScrollPanel(ScrollPanel scrollPanel)
    {
       scrollPanel_ = scrollPanel;
+      if (virtualized_)
+         attachScrollHandler();
+   }
+
+   // A virtualized table creates rows only for the items in (or near) the
+   // owning scroll panel's view; the rows above and below are stood in for
+   // by spacer rows. Rows are assumed to be of (roughly) equal height. Must
+   // be called before any items are added, with a VirtualItemCodec.
+   public void setVirtualized(boolean virtualized)
+   {
+      assert !virtualized || codec_ instanceof VirtualItemCodec :
+         "Virtualized tables require a VirtualItemCodec";
+      assert getPhysicalRowCount() == 0 :
+         "Tables must be virtualized before items are added";
+
+      virtualized_ = virtualized;
+      if (virtualized_ && scrollPanel_ != null)
+         attachScrollHandler();
+   }
+
+   // re-creates the rows in view of a virtualized table (e.g. when the
+   // codec's rendering of the items has changed)
+   public void redrawRows()
+   {
+      if (!virtualized_ || renderedBody_ == null)
+         return;
+
+      renderStart_ = 0;
+      renderEnd_ = 0;
+      renderVirtualRows();
    }
 
-   private void handleRowClick(MouseDownEvent event, TableRowElement row)
+   private void handleRowClick(MouseDownEvent event, int row)
    {
       int modifiers = KeyboardShortcut.getModifierValue(event.getNativeEvent());
       modifiers &= ~KeyboardShortcut.ALT; // ALT has no effect
@@ -141,25 +188,24 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       {
          // Select only the target row
          clearSelection();
-         setSelected(row, true);
+         setSelectedRow(row, true);
       }
       else if (modifiers == KeyboardShortcut.CTRL)
       {
          // Toggle the target row
-         setSelected(row, !isSelected(row));
+         setSelectedRow(row, !selectedRows_.contains(row));
       }
       else
       {
          // SHIFT or CTRL+SHIFT
 
-         int target = row.getRowIndex();
+         int target = row;
          Integer min = null;
          Integer max = null;
-         for (TableRowElement selectedRow : selectedRows_)
+         if (!selectedRows_.isEmpty())
          {
-            if (min == null)
-               min = selectedRow.getRowIndex();
-            max = selectedRow.getRowIndex();
+            min = selectedRows_.first();
+            max = selectedRows_.last();
          }
 
          int offset; // selection offset
@@ -232,13 +278,12 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
             return;
       }
 
-      sortSelectedRows();
-      int min = table_.getRows().getLength();
+      int min = getPhysicalRowCount();
       int max = -1;
       if (selectedRows_.size() > 0)
       {
-         min = selectedRows_.get(0).getRowIndex();
-         max = selectedRows_.get(selectedRows_.size() - 1).getRowIndex();
+         min = selectedRows_.first();
+         max = selectedRows_.last();
       }
 
       switch (event.getNativeKeyCode())
@@ -251,7 +296,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
                if (modifiers != KeyboardShortcut.SHIFT)
                   clearSelection();
                setSelectedPhysical(row, 1, true);
-               ensureRowVisible(row);
+               ensureRowVisible(row, 0);
             }
             break;
          }
@@ -263,26 +308,52 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
                if (modifiers != KeyboardShortcut.SHIFT)
                   clearSelection();
                setSelectedPhysical(row, 1, true);
-               ensureRowVisible(row);
+               ensureRowVisible(row, 0);
             }
             break;
          }
       }
    }
 
-   private void ensureRowVisible(final int row)
+   // scrolls the owning scroll panel so that the first selected row is
+   // visible (with the given amount of padding around it)
+   public void ensureSelectionVisible(int padding)
+   {
+      if (!selectedRows_.isEmpty())
+         ensureRowVisible(selectedRows_.first(), padding);
+   }
+
+   private void ensureRowVisible(final int row, int padding)
    {
-      if (scrollPanel_ != null)
-         DomUtils.ensureVisibleVert(scrollPanel_.getElement(), getRow(row), 0);
+      if (scrollPanel_ == null)
+         return;
+
+      if (!virtualized_)
+      {
+         DomUtils.ensureVisibleVert(scrollPanel_.getElement(),
+                                    getRow(row),
+                                    padding);
+         return;
+      }
+
+      int top = row * rowHeight_;
+      int bottom = top + rowHeight_;
+      int scrollTop = scrollPanel_.getVerticalScrollPosition();
+      int height = scrollPanel_.getOffsetHeight();
+      if (top - padding < scrollTop)
+         scrollPanel_.setVerticalScrollPosition(Math.max(0, top - padding));
+      else if (bottom + padding > scrollTop + height)
+         scrollPanel_.setVerticalScrollPosition(bottom + padding - height);
+      renderVirtualRows();
    }
 
    private Integer findNextValueRow(int physicalRowIndex, boolean up)
    {
-      int limit = up ? -1 : table_.getRows().getLength();
+      int limit = up ? -1 : getPhysicalRowCount();
       int increment = up ? -1 : 1;
       for (int i = physicalRowIndex + increment; i != limit; i += increment)
       {
-         if (codec_.isValueRow(getRow(i)))
+         if (isValueRow(i))
             return i;
       }
       return null;
@@ -291,11 +362,17 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    public void clearSelection()
    {
       while (selectedRows_.size() > 0)
-         setSelected(selectedRows_.get(0), false);
+         setSelectedRow(selectedRows_.first(), false);
    }
 
    public void addItems(Iterable<TItemInput> items, boolean top)
    {
+      if (virtualized_)
+      {
+         addVirtualItems(items, top);
+         return;
+      }
+
       TableSectionElement tbody = Document.get().createTBodyElement();
       for (TItemInput item : items)
          tbody.appendChild(codec_.getRowForItem(item));
@@ -305,6 +382,10 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
          getElement().appendChild(tbody);
 
       codec_.onRowsChanged(tbody);
+
+      // rows added at the top move the selected rows down
+      if (top)
+         syncSelectedRows();
    }
 
    protected void addToTop(TableSectionElement tbody)
@@ -316,6 +397,12 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    {
       table_.setInnerText("");
       selectedRows_.clear();
+      items_.clear();
+      rows_.clear();
+      itemRows_.clear();
+      renderedBody_ = null;
+      renderStart_ = 0;
+      renderEnd_ = 0;
    }
    
    public void focus()
@@ -326,6 +413,8 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    
    public int getRowCount()
    {
+      if (virtualized_)
+         return items_.size();
       return codec_.getLogicalRowCount(table_);
    }
    
@@ -334,13 +423,23 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       if (rowCount <= 0)
          return;
 
+      if (virtualized_)
+      {
+         ArrayList<TItemInput> items = new ArrayList<TItemInput>(
+               items_.subList(Math.min(rowCount, items_.size()),
+                              items_.size()));
+         setVirtualItems(items, -rowCount);
+         return;
+      }
+
       NodeList<TableSectionElement> tBodies = table_.getTBodies();
       for (int i = 0; i < tBodies.getLength(); i++)
       {
          rowCount = removeTopRows(tBodies.getItem(i), rowCount);
          if (rowCount == 0)
-            return;
+            break;
       }
+      syncSelectedRows();
    }
 
    private int removeTopRows(TableSectionElement tbody, int rowCount)
@@ -350,7 +449,6 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
          TableRowElement topRow = tbody.getRows().getItem(0);
          if (codec_.isValueRow(topRow))
             rowCount--;
-         selectedRows_.remove(topRow);
          topRow.removeFromParent();
       }
 
@@ -364,29 +462,37 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public ArrayList<Integer> getSelectedRowIndexes()
    {
-      sortSelectedRows();
-
       ArrayList<Integer> results = new ArrayList<Integer>();
-      for (TableRowElement row : selectedRows_)
-         results.add(codec_.physicalOffsetToLogicalOffset(table_,
-                                                          row.getRowIndex()));
+      for (Integer row : selectedRows_)
+      {
+         if (virtualized_)
+            results.add(rows_.get(row));
+         else
+            results.add(codec_.physicalOffsetToLogicalOffset(table_, row));
+      }
       return results;
    }
    
-   private boolean isSelected(TableRowElement tr)
-   {
-      return tr.getClassName().contains(selectedClassName_);
-   }
-
    @Deprecated
    public void setSelected(int row, boolean selected)
    {
-      setSelected(getRow(row), selected);
+      setSelectedRow(row, selected);
    }
 
    public void setSelected(int offset, int length, boolean selected)
    {
-      if (codec_.hasNonValueRows())
+      if (virtualized_)
+      {
+         if (offset < 0 || offset + length > items_.size())
+            return;
+
+         int start = itemRows_.get(offset);
+         int end = offset + length < items_.size() ?
+                        itemRows_.get(offset + length) : rows_.size();
+         offset = start;
+         length = end - start;
+      }
+      else if (codec_.hasNonValueRows())
       {
          // If the codec might have stuck in some non-value rows, we need
          // to translate the given offset/length to the actual row
@@ -411,7 +517,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    private void setSelectedPhysical(int offset, int length, boolean selected)
    {
       for (int i = 0; i < length; i++)
-         setSelected(getRow(offset + i), selected);
+         setSelectedRow(offset + i, selected);
    }
 
    public void setSelected(TableRowElement row, boolean selected)
@@ -426,14 +532,28 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
          return;
       }
 
-      boolean isCurrentlySelected = isSelected(row);
+      Integer rowIndex = getRowIndex(row);
+      if (rowIndex != null)
+         setSelectedRow(rowIndex, selected);
+   }
+
+   // selection is tracked by (physical) row index, so that it's independent
+   // of which rows currently exist in the DOM
+   private void setSelectedRow(int row, boolean selected)
+   {
+      if (row < 0 || row >= getPhysicalRowCount())
+         return;
+
+      boolean isCurrentlySelected = selectedRows_.contains(row);
       if (isCurrentlySelected == selected)
          return;
 
-      if (selected && !codec_.isValueRow(row))
+      if (selected && !isValueRow(row))
          return;
 
-      setStyleName(row, selectedClassName_, selected);
+      TableRowElement rowElement = getRenderedRow(row);
+      if (rowElement != null)
+         setStyleName(rowElement, selectedClassName_, selected);
       if (selected)
          selectedRows_.add(row);
       else
@@ -453,32 +573,17 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public ArrayList<TItemOutput> getSelectedValues()
    {
-      sortSelectedRows();
-
       ArrayList<TItemOutput> results = new ArrayList<TItemOutput>();
-      for (TableRowElement row : selectedRows_)
-         results.add(codec_.getOutputForRow(row));
+      for (Integer row : selectedRows_)
+         results.add(codec_.getOutputForRow(getOutputRow(row)));
       return results;
    }
 
-   private void sortSelectedRows()
-   {
-      Collections.sort(selectedRows_, new Comparator<TableRowElement>()
-      {
-         public int compare(TableRowElement r1, TableRowElement r2)
-         {
-            return r1.getRowIndex() - r2.getRowIndex();
-         }
-      });
-   }
-
    public ArrayList<TItemOutput2> getSelectedValues2()
    {
-      sortSelectedRows();
-
       ArrayList<TItemOutput2> results = new ArrayList<TItemOutput2>();
-      for (TableRowElement row : selectedRows_)
-         results.add(codec_.getOutputForRow2(row));
+      for (Integer row : selectedRows_)
+         results.add(codec_.getOutputForRow2(getOutputRow(row)));
       return results;
    }
 
@@ -487,25 +592,12 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       if (selectedRows_.size() == 0)
          return false;
 
-      sortSelectedRows();
-      int top = selectedRows_.get(0).getRowIndex();
-
-      NodeList<TableRowElement> rows = table_.getRows();
-      TableRowElement rowToSelect = null;
-      while (--top >= 0)
-      {
-         TableRowElement row = rows.getItem(top);
-         if (codec_.isValueRow(row))
-         {
-            rowToSelect = row;
-            break;
-         }
-      }
+      Integer rowToSelect = findNextValueRow(selectedRows_.first(), true);
       if (rowToSelect == null)
          return false;
 
       clearSelection();
-      setSelected(rowToSelect, true);
+      setSelectedRow(rowToSelect, true);
       return true;
    }
 
@@ -514,25 +606,12 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       if (selectedRows_.size() == 0)
          return false;
 
-      sortSelectedRows();
-      int bottom = selectedRows_.get(selectedRows_.size() - 1).getRowIndex();
-
-      NodeList<TableRowElement> rows = table_.getRows();
-      TableRowElement rowToSelect = null;
-      while (++bottom < rows.getLength())
-      {
-         TableRowElement row = rows.getItem(bottom);
-         if (codec_.isValueRow(row))
-         {
-            rowToSelect = row;
-            break;
-         }
-      }
+      Integer rowToSelect = findNextValueRow(selectedRows_.last(), false);
       if (rowToSelect == null)
          return false;
 
       clearSelection();
-      setSelected(rowToSelect, true);
+      setSelectedRow(rowToSelect, true);
       return true;
    }
 
@@ -543,15 +622,24 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public TableRowElement getTopRow()
    {
-      if (table_.getRows().getLength() > 0)
-         return getRow(0);
+      if (getPhysicalRowCount() > 0)
+         return getRenderedRow(0);
       else
          return null;
    }
 
+   // returns the selected rows which exist in the DOM (for virtualized
+   // tables, selected rows out of view aren't included)
    public ArrayList<TableRowElement> getSelectedRows()
    {
-      return new ArrayList<TableRowElement>(selectedRows_);
+      ArrayList<TableRowElement> rows = new ArrayList<TableRowElement>();
+      for (Integer row : selectedRows_)
+      {
+         TableRowElement rowElement = getRenderedRow(row);
+         if (rowElement != null)
+            rows.add(rowElement);
+      }
+      return rows;
    }
 
    public Rectangle getSelectionRect()
@@ -559,10 +647,15 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       if (selectedRows_.size() == 0)
          return null;
 
-      sortSelectedRows();
+      if (virtualized_)
+      {
+         int top = selectedRows_.first() * rowHeight_;
+         int bottom = (selectedRows_.last() + 1) * rowHeight_;
+         return new Rectangle(0, top, table_.getOffsetWidth(), bottom - top);
+      }
 
-      TableRowElement first = selectedRows_.get(0);
-      TableRowElement last = selectedRows_.get(selectedRows_.size() - 1);
+      TableRowElement first = getRow(selectedRows_.first());
+      TableRowElement last = getRow(selectedRows_.last());
       int top = first.getOffsetTop();
       int bottom = last.getOffsetTop() + last.getOffsetHeight();
       int left = first.getOffsetLeft();
@@ -570,6 +663,255 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       return new Rectangle(left, top, width, bottom - top);
    }
 
+   // Row access --------------------------------------------------------------
+
+   private int getPhysicalRowCount()
+   {
+      if (virtualized_)
+         return rows_.size();
+      return table_.getRows().getLength();
+   }
+
+   private boolean isValueRow(int row)
+   {
+      if (virtualized_)
+      {
+         int item = rows_.get(row);
+         return item >= 0 && virtualCodec().isValueItem(items_.get(item));
+      }
+      return codec_.isValueRow(getRow(row));
+   }
+
+   // returns the physical index of a row in the table (null for the spacer
+   // rows of a virtualized table)
+   private Integer getRowIndex(TableRowElement row)
+   {
+      if (!virtualized_)
+         return row.getRowIndex();
+
+      int sectionIndex = row.getSectionRowIndex();
+      if (sectionIndex < 1 || sectionIndex > renderEnd_ - renderStart_)
+         return null;
+      return renderStart_ + sectionIndex - 1;
+   }
+
+   // returns the row's element, or null if the row is out of view in a
+   // virtualized table
+   private TableRowElement getRenderedRow(int row)
+   {
+      if (!virtualized_)
+         return getRow(row);
+
+      if (renderedBody_ == null || row < renderStart_ || row >= renderEnd_)
+         return null;
+      return renderedBody_.getRows().getItem(row - renderStart_ + 1);
+   }
+
+   // returns an element for the row from which the codec can read output
+   // (rows out of view in a virtualized table are created for the purpose)
+   private TableRowElement getOutputRow(int row)
+   {
+      TableRowElement rowElement = getRenderedRow(row);
+      if (rowElement == null)
+         rowElement = createVirtualRow(row);
+      return rowElement;
+   }
+
+   // rebuilds the set of selected rows from the rows' styles, after rows
+   // have been added or removed above them
+   private void syncSelectedRows()
+   {
+      selectedRows_.clear();
+      NodeList<TableRowElement> rows = table_.getRows();
+      for (int i = 0; i < rows.getLength(); i++)
+      {
+         if (rows.getItem(i).getClassName().contains(selectedClassName_))
+            selectedRows_.add(i);
+      }
+   }
+
+   // Virtualized rows --------------------------------------------------------
+
+   @SuppressWarnings("unchecked")
+   private VirtualItemCodec<TItemInput, TItemOutput, TItemOutput2>
+                                                            virtualCodec()
+   {
+      return (VirtualItemCodec<TItemInput, TItemOutput, TItemOutput2>) codec_;
+   }
+
+   private void addVirtualItems(Iterable<TItemInput> items, boolean top)
+   {
+      if (top)
+      {
+         ArrayList<TItemInput> allItems = new ArrayList<TItemInput>();
+         for (TItemInput item : items)
+            allItems.add(item);
+         int added = allItems.size();
+         allItems.addAll(items_);
+         setVirtualItems(allItems, added);
+         return;
+      }
+
+      for (TItemInput item : items)
+         appendVirtualItem(item);
+      scheduleRenderVirtualRows();
+   }
+
+   private void appendVirtualItem(TItemInput item)
+   {
+      TItemInput prevItem = items_.isEmpty() ?
+                               null : items_.get(items_.size() - 1);
+      int itemIndex = items_.size();
+      items_.add(item);
+      if (virtualCodec().needsBreak(prevItem, item))
+         rows_.add(-1 - itemIndex);
+      itemRows_.add(rows_.size());
+      rows_.add(itemIndex);
+   }
+
+   // replaces the items, keeping the selected items selected (the selected
+   // items' indexes move by itemShift)
+   private void setVirtualItems(ArrayList<TItemInput> items, int itemShift)
+   {
+      ArrayList<Integer> selectedItems = new ArrayList<Integer>();
+      for (Integer row : selectedRows_)
+         selectedItems.add(rows_.get(row) + itemShift);
+
+      clear();
+      for (TItemInput item : items)
+         appendVirtualItem(item);
+
+      for (Integer item : selectedItems)
+      {
+         if (item >= 0 && item < items_.size())
+            selectedRows_.add(itemRows_.get(item));
+      }
+      renderVirtualRows();
+   }
+
+   private TableRowElement createVirtualRow(int row)
+   {
+      int item = rows_.get(row);
+      if (item >= 0)
+         return codec_.getRowForItem(items_.get(item));
+      else
+         return virtualCodec().getBreakRowForItem(items_.get(-1 - item));
+   }
+
+   private TableRowElement createSpacerRow(int height)
+   {
+      TableRowElement tr = Document.get().createTRElement();
+      TableCellElement td = Document.get().createTDElement();
+      td.setColSpan(1000);
+      td.getStyle().setPadding(0, Unit.PX);
+      td.getStyle().setHeight(height, Unit.PX);
+      tr.getStyle().setHeight(height, Unit.PX);
+      tr.appendChild(td);
+      return tr;
+   }
+
+   private void attachScrollHandler()
+   {
+      if (scrollRegistration_ != null)
+         scrollRegistration_.removeHandler();
+      scrollRegistration_ = scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            scheduleRenderVirtualRows();
+         }
+      });
+   }
+
+   private void scheduleRenderVirtualRows()
+   {
+      if (renderScheduled_)
+         return;
+      renderScheduled_ = true;
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            renderScheduled_ = false;
+            renderVirtualRows();
+         }
+      });
+   }
+
+   private void renderVirtualRows()
+   {
+      int rowCount = rows_.size();
+      int scrollTop = scrollPanel_ != null ?
+                           scrollPanel_.getVerticalScrollPosition() : 0;
+      int height = scrollPanel_ != null ?
+                           scrollPanel_.getOffsetHeight() : 0;
+      int firstVisible = Math.min(rowCount, scrollTop / rowHeight_);
+      int lastVisible = Math.min(rowCount,
+                                 (scrollTop + height) / rowHeight_ + 1);
+
+      // if the rows in view are already rendered, we just need to make sure
+      // the bottom spacer accounts for any rows added since
+      if (renderedBody_ != null &&
+          renderStart_ <= firstVisible &&
+          renderEnd_ >= lastVisible)
+      {
+         NodeList<TableRowElement> rows = renderedBody_.getRows();
+         TableRowElement spacer = rows.getItem(rows.getLength() - 1);
+         int spacerHeight = (rowCount - renderEnd_) * rowHeight_;
+         spacer.getStyle().setHeight(spacerHeight, Unit.PX);
+         spacer.getCells().getItem(0).getStyle().setHeight(spacerHeight,
+                                                           Unit.PX);
+         return;
+      }
+
+      int start = Math.max(0, firstVisible - OVERSCAN_ROWS);
+      int end = Math.min(rowCount, lastVisible + OVERSCAN_ROWS);
+
+      TableSectionElement tbody = Document.get().createTBodyElement();
+      tbody.appendChild(createSpacerRow(start * rowHeight_));
+      for (int i = start; i < end; i++)
+      {
+         TableRowElement tr = createVirtualRow(i);
+         if (selectedRows_.contains(i))
+            setStyleName(tr, selectedClassName_, true);
+         tbody.appendChild(tr);
+      }
+      tbody.appendChild(createSpacerRow((rowCount - end) * rowHeight_));
+
+      if (renderedBody_ != null)
+         table_.replaceChild(tbody, renderedBody_);
+      else
+         table_.appendChild(tbody);
+      renderedBody_ = tbody;
+      renderStart_ = start;
+      renderEnd_ = end;
+
+      // the spacers are sized using the height of the first rows rendered
+      // (once there are enough of them that the table's height isn't being
+      // stretched to fill its container)
+      if (!rowHeightMeasured_ && end > start)
+      {
+         TableRowElement first = tbody.getRows().getItem(1);
+         TableRowElement last = tbody.getRows().getItem(end - start);
+         int renderedHeight = last.getOffsetTop() + last.getOffsetHeight() -
+                              first.getOffsetTop();
+         if (renderedHeight > height)
+         {
+            rowHeightMeasured_ = true;
+            int rowHeight = Math.max(1, renderedHeight / (end - start));
+            if (rowHeight != rowHeight_)
+            {
+               rowHeight_ = rowHeight;
+               renderedBody_ = null;
+               table_.setInnerText("");
+               renderVirtualRows();
+            }
+         }
+      }
+   }
+
    protected Element getEventTargetCell(Event event) {
      Element td = DOM.eventGetTarget(event);
      for (; td != null; td = DOM.getParent(td)) {
@@ -651,11 +993,28 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       return addHandler(handler, SelectionChangedEvent.TYPE);
    }
 
-   private final ArrayList<TableRowElement> selectedRows_ = new ArrayList<TableRowElement>();
+   private final TreeSet<Integer> selectedRows_ = new TreeSet<Integer>();
    private final ItemCodec<TItemInput, TItemOutput, TItemOutput2> codec_;
    private final TableElement table_;
    private final String selectedClassName_;
    private final boolean allowMultiSelect_;
    private ScrollPanel scrollPanel_;
    private final boolean focusable_;
+
+   // virtualized tables: the items, the physical rows (each the index of an
+   // item, or -1 - index for the non-value row preceding an item), the
+   // physical row of each item, and the range of rows currently rendered
+   private boolean virtualized_ = false;
+   private final ArrayList<TItemInput> items_ = new ArrayList<TItemInput>();
+   private final ArrayList<Integer> rows_ = new ArrayList<Integer>();
+   private final ArrayList<Integer> itemRows_ = new ArrayList<Integer>();
+   private TableSectionElement renderedBody_;
+   private int renderStart_ = 0;
+   private int renderEnd_ = 0;
+   private int rowHeight_ = 20;
+   private boolean rowHeightMeasured_ = false;
+   private boolean renderScheduled_ = false;
+   private HandlerRegistration scrollRegistration_;
+
+   private static final int OVERSCAN_ROWS = 50;
 }
\ No newline at end of file
@@ -14,6 +14,8 @@
  */
 package org.rstudio.core.client.widget;
 
+import org.rstudio.core.client.Size;
+
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.Frame;
@@ -45,6 +47,7 @@ public class ImageFrame extends Frame
                String sizing = "width=\"100%\" height=\"100%\"";
                setupContent(getElement(), sizing);
                replaceLocation(getElement(), url_);
+               setImageSize(getElement(), size_);
             }
          }
       }.schedule(100);
@@ -69,6 +72,37 @@ public class ImageFrame extends Frame
          replaceLocation(getElement(), url);
    }
 
+   /**
+    * Shows the image at the given size rather than stretched to fill the
+    * frame (pass null to fill the frame again).
+    */
+   public void setImageSize(Size size)
+   {
+      size_ = size;
+      if (isAttached())
+         setImageSize(getElement(), size);
+   }
+
+   private void setImageSize(Element el, Size size)
+   {
+      if (size == null)
+         setImageStyleSize(el, "", "");
+      else
+         setImageStyleSize(el, size.width + "px", size.height + "px");
+   }
+
+   private native final void setImageStyleSize(Element el,
+                                               String width,
+                                               String height) /*-{
+      if (!el.contentWindow || !el.contentWindow.document)
+         return;
+      var img = el.contentWindow.document.getElementById('img');
+      if (!img)
+         return;
+      img.style.width = width;
+      img.style.height = height;
+   }-*/;
+
    private native final boolean replaceLocation(Element el, String url) /*-{
       if (!el.contentWindow.document)
          return false;
@@ -110,4 +144,5 @@ public class ImageFrame extends Frame
    }-*/;
 
    private String url_ = "javascript:false";
+   private Size size_ = null;
 }
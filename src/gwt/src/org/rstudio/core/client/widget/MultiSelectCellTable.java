@@ -171,8 +171,7 @@ public class MultiSelectCellTable<T> extends CellTable<T>
                   event.preventDefault();
                   event.stopPropagation();
 
-                  for (T item : getVisibleItems())
-                     getSelectionModel().setSelected(item, true);
+                  selectAll();
                }
             }
             break;
@@ -316,6 +315,14 @@ public class MultiSelectCellTable<T> extends CellTable<T>
       return true;
    }
 
+   // selects all of the table's items (tables which render only some of
+   // their items can override this to select the others too)
+   protected void selectAll()
+   {
+      for (T item : getVisibleItems())
+         getSelectionModel().setSelected(item, true);
+   }
+
    @Override
    public HandlerRegistration addClickHandler(ClickHandler handler)
    {
@@ -79,6 +79,7 @@ import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 import org.rstudio.studio.client.workbench.snippets.SnippetHelper;
 import org.rstudio.studio.client.workbench.snippets.ui.EditSnippetsDialog;
 import org.rstudio.studio.client.workbench.ui.ConsoleTabPanel;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionCache;
 import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester;
 import org.rstudio.studio.client.workbench.views.console.shell.assist.HelpStrategy;
 import org.rstudio.studio.client.workbench.views.console.shell.assist.RCompletionManager;
@@ -205,4 +206,5 @@ public interface RStudioGinjector extends Ginjector
    SourceWindowManager getSourceWindowManager();
    SourceWindow getSourceWindow();
    Server getServer();
+   CompletionCache getCompletionCache();
 }
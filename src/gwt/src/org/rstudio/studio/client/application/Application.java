@@ -15,6 +15,8 @@
 
 package org.rstudio.studio.client.application;
 
+import java.util.ArrayList;
+
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.RunAsyncCallback;
 import com.google.gwt.dom.client.Element;
@@ -41,6 +43,7 @@ import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.dom.WindowEx;
+import org.rstudio.core.client.jsonrpc.RpcMetrics;
 import org.rstudio.core.client.widget.Operation;
 import org.rstudio.studio.client.application.ApplicationQuit.QuitContext;
 import org.rstudio.studio.client.application.events.*;
@@ -319,6 +322,26 @@ public class Application implements ApplicationEventHandlers
       });
    }
 
+   @Handler
+   public void onLogRpcMetrics()
+   {
+      // the server log takes one line per entry
+      ArrayList<String> lines = RpcMetrics.getReport(MAX_METRICS_METHODS);
+      if (clientStateUpdaterInstance_ != null)
+         lines.add(clientStateUpdaterInstance_.getMetricsSummary());
+      for (String line : lines)
+      {
+         Debug.log(line);
+         server_.log(LogEntryType.INFO,
+                     "RPC metrics: " + line,
+                     new VoidServerRequestCallback());
+      }
+      
+      globalDisplay_.showMessage(GlobalDisplay.MSG_INFO,
+                                 "RPC Metrics",
+                                 StringUtil.join(lines, "\n"));
+   }
+
    @Handler
    public void onLogFocusedElement()
    {
@@ -912,4 +935,6 @@ public class Application implements ApplicationEventHandlers
    private final Provider<AceThemes> pAceThemes_;
 
    private ClientStateUpdater clientStateUpdaterInstance_;
+   
+   private static final int MAX_METRICS_METHODS = 25;
 }
@@ -27,6 +27,7 @@ import com.google.gwt.event.logical.shared.CloseEvent;
 import com.google.gwt.event.logical.shared.CloseHandler;
 import com.google.gwt.event.logical.shared.HasCloseHandlers;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.safehtml.shared.SafeHtmlUtils;
 import com.google.gwt.user.client.Event;
 import com.google.gwt.user.client.Event.NativePreviewEvent;
 import com.google.gwt.user.client.Event.NativePreviewHandler;
@@ -35,12 +36,15 @@ import com.google.gwt.user.client.ui.*;
 import org.rstudio.core.client.CsvReader;
 import org.rstudio.core.client.CsvWriter;
 import org.rstudio.core.client.command.KeyboardShortcut;
+import org.rstudio.core.client.jsonrpc.EventChannelStats;
 import org.rstudio.core.client.jsonrpc.RequestLog;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry.ResponseType;
+import org.rstudio.core.client.jsonrpc.RpcMetrics;
 import org.rstudio.core.client.widget.ModalDialog;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.core.client.widget.ScrollPanelWithClick;
+import org.rstudio.studio.client.RStudioGinjector;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -106,16 +110,6 @@ public class RequestLogVisualization extends Composite
       detail_.getElement().getStyle().setBackgroundColor("#FFE");
 
       instructions_ = new HTML();
-      instructions_.setHTML("<p>Click on a request to see details. Click on the " +
-                            "background to show these instructions again.</p>" +
-                            "<h4>Available commands:</h4>" +
-                            "<ul>" +
-                            "<li>Esc: Close</li>" +
-                            "<li>P: Play/pause</li>" +
-                            "<li>E: Export</li>" +
-                            "<li>I: Import</li>" +
-                            "<li>+/-: Zoom in/out</li>" +
-                            "</ul>");
       detail_.setWidget(instructions_);
 
       outerPanel.addSouth(detail_, 200);
@@ -149,6 +143,7 @@ public class RequestLogVisualization extends Composite
       {
          entries_ = RequestLog.getEntries();
          now_ = System.currentTimeMillis();
+         updateInstructions();
       }
 
       overviewPanel_.clear();
@@ -173,6 +168,41 @@ public class RequestLogVisualization extends Composite
       }
    }
 
+   private void updateInstructions()
+   {
+      instructions_.setHTML("<p>Click on a request to see details. Click on the " +
+                            "background to show these instructions again.</p>" +
+                            "<p>" + SafeHtmlUtils.htmlEscape(
+                                       EventChannelStats.getSummary()) + 
+                            "</p>" +
+                            "<p>" + SafeHtmlUtils.htmlEscape(
+                                 EventChannelStats.getDispatchSummary(5)) +
+                            "</p>" +
+                            "<p>" + SafeHtmlUtils.htmlEscape(
+                                 RStudioGinjector.INSTANCE.getCompletionCache()
+                                                          .getSummary()) +
+                            "</p>" +
+                            getMetricsHtml() +
+                            "<h4>Available commands:</h4>" +
+                            "<ul>" +
+                            "<li>Esc: Close</li>" +
+                            "<li>P: Play/pause</li>" +
+                            "<li>E: Export</li>" +
+                            "<li>I: Import</li>" +
+                            "<li>+/-: Zoom in/out</li>" +
+                            "</ul>");
+   }
+
+   private String getMetricsHtml()
+   {
+      ArrayList<String> lines = RpcMetrics.getReport(10);
+      StringBuilder html = new StringBuilder("<pre>");
+      for (String line : lines)
+         html.append(SafeHtmlUtils.htmlEscape(line)).append("\n");
+      html.append("</pre>");
+      return html.toString();
+   }
+
    @Override
    protected void onLoad()
    {
@@ -121,7 +121,7 @@ public class DesktopApplicationHeader implements ApplicationHeader
             
             toolbar_.completeInitialization(sessionInfo);
             
-            new JSObjectStateValue(
+            ignoredUpdatesState_ = new JSObjectStateValue(
                   "updates",
                   "ignoredUpdates",
                   ClientState.PERSISTENT,
@@ -138,14 +138,20 @@ public class DesktopApplicationHeader implements ApplicationHeader
                @Override
                protected JsObject getValue()
                {
-                  ignoredUpdatesDirty_ = false;
                   return ignoredUpdates_.cast();
                }
                
+               @Override
+               protected boolean pollsForChanges()
+               {
+                  return false;
+               }
+               
                @Override
                protected boolean hasChanged()
                {
-                  return ignoredUpdatesDirty_;
+                  // only asked once we've marked it dirty
+                  return true;
                }
             };
 
@@ -370,7 +376,7 @@ public class DesktopApplicationHeader implements ApplicationHeader
                public void execute()
                {
                   ignoredUpdates_.addIgnoredUpdate(result.getUpdateVersion());
-                  ignoredUpdatesDirty_ = true;
+                  ignoredUpdatesState_.markDirty();
                }
             });
          }
@@ -404,7 +410,7 @@ public class DesktopApplicationHeader implements ApplicationHeader
    Provider<UIPrefs> pUIPrefs_;
    private ApplicationServerOperations server_;
    private IgnoredUpdates ignoredUpdates_;
-   private boolean ignoredUpdatesDirty_ = false;
+   private JSObjectStateValue ignoredUpdatesState_;
    private ApplicationQuit appQuit_; 
    private HandlerRegistration keyListener_;
 }
@@ -225,7 +225,7 @@ public class BreakpointManager
          });
       }
       
-      breakpointStateDirty_ = true;
+      markBreakpointStateDirty();
       return breakpoint;
    }
    
@@ -251,7 +251,7 @@ public class BreakpointManager
       // because of Java(Script)'s reference semantics, the editor's instance
       // of the breakpoint object is the same one we have here, so we don't
       // need to update the line number--we just need to persist the new state.
-      breakpointStateDirty_ = true;
+      markBreakpointStateDirty();
       
       // the breakpoint knows its position in the function, which needs to be
       // recalculated; do that the next time we set breakpoints on this function
@@ -284,7 +284,7 @@ public class BreakpointManager
       // Establish a persistent object for the breakpoints. Note that this 
       // object is read by the server on init, so the scope/name pair here 
       // needs to match the pair on the server. 
-      new JSObjectStateValue(
+      breakpointState_ = new JSObjectStateValue(
             "debug-breakpoints",
             "debugBreakpointsState",
             ClientState.PROJECT_PERSISTENT,
@@ -332,14 +332,20 @@ public class BreakpointManager
              {
                 state.addPersistedBreakpoint(breakpoint);
              }
-             breakpointStateDirty_ = false;
              return state.cast();
           }
    
+          @Override
+          protected boolean pollsForChanges()
+          {
+             return false;
+          }
+   
           @Override
           protected boolean hasChanged()
           {
-             return breakpointStateDirty_;
+             // only asked once we've marked it dirty
+             return true;
           }
        };
    }
@@ -687,7 +693,7 @@ public class BreakpointManager
          ArrayList<Breakpoint> breakpoints, 
          boolean saved)
    {
-      breakpointStateDirty_ = true;
+      markBreakpointStateDirty();
       events_.fireEvent(
             new BreakpointsSavedEvent(breakpoints, saved));
    }
@@ -781,9 +787,17 @@ public class BreakpointManager
       onBreakpointAddOrRemove();
    }
    
+   private void markBreakpointStateDirty()
+   {
+      // breakpoints restored while the state is being initialized needn't
+      // be saved again
+      if (breakpointState_ != null)
+         breakpointState_.markDirty();
+   }
+   
    private void onBreakpointAddOrRemove()
    {
-      breakpointStateDirty_ = true;
+      markBreakpointStateDirty();
       commands_.debugClearBreakpoints().setEnabled(breakpoints_.size() > 0);
    }
    
@@ -893,6 +907,6 @@ public class BreakpointManager
    private Set<FileFunction> activeFunctions_ = new TreeSet<FileFunction>();
    private String activeSource_;
 
-   private boolean breakpointStateDirty_ = false;
+   private JSObjectStateValue breakpointState_;
    private int currentBreakpointId_ = 0;
 }
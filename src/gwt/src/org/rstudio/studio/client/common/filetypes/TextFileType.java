@@ -351,6 +351,7 @@ public class TextFileType extends EditableFileType
          results.add(commands.restartRRunAllChunks());
          results.add(commands.notebookCollapseAllOutput());
          results.add(commands.notebookExpandAllOutput());
+         results.add(commands.notebookClearCachedResults());
          results.add(commands.executeSetupChunk());
       }
       if (canKnitToHTML() || canCompileNotebook())
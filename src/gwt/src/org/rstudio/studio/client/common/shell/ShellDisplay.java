@@ -34,6 +34,7 @@ public interface ShellDisplay extends ShellOutputWriter,
    void ensureInputVisible() ;
    InputEditorDisplay getInputEditorDisplay() ;
    void clearOutput() ;
+   boolean findInOutput(String text, boolean caseSensitive);
    String processCommandEntry() ;
    int getCharacterWidth() ;
    boolean isPromptEmpty();
@@ -172,6 +172,9 @@ public class ShellWidget extends Composite implements ShellDisplay,
       scrollPanel_.addStyleName("ace_scroller");
       scrollPanel_.addClickHandler(secondaryInputHandler);
       scrollPanel_.addKeyDownHandler(secondaryInputHandler);
+      
+      outputBuffer_ = new VirtualizedOutputBuffer(output_.getElement(),
+                                                  scrollPanel_);
 
       secondaryInputHandler.setInput(editor);
 
@@ -250,16 +253,17 @@ public class ShellWidget extends Composite implements ShellDisplay,
 
       // Pick up the last element emitted to the console. If we get extended
       // information for this error, we'll need to swap out the simple error
-      // element for the extended error element. 
-      Element outputElement = output_.getElement();
-      Node errorNode = outputElement.getChild(
-            outputElement.getChildCount() - 1);
+      // element for the extended error element (so keep it rendered until
+      // then).
+      Node errorNode = outputBuffer_.getLastNode();
       if (clearErrors_)
       {
          errorNodes_.clear();
+         outputBuffer_.clearPinnedNodes();
          clearErrors_ = false;
       }
       errorNodes_.put(error, errorNode);
+      outputBuffer_.pin(errorNode);
    }
    
    public void consoleWriteExtendedError(
@@ -277,15 +281,15 @@ public class ShellWidget extends Composite implements ShellDisplay,
             errorWidget.setTracebackVisible(true);
          
          // The widget must be added to the root panel to have its event handlers
-         // wired properly, but this isn't an ideal structure; consider showing
-         // console output as cell widgets in a virtualized scrolling CellTable
-         // so we can easily add arbitrary controls. 
+         // wired properly; its element is then moved into the output (where 
+         // the output buffer keeps it intact when its block is collapsed)
          RootPanel.get().add(errorWidget);
-         output_.getElement().replaceChild(errorWidget.getElement(), 
-                                           errorNode);
+         errorNode.getParentElement().replaceChild(errorWidget.getElement(), 
+                                                   errorNode);
          
          scrollPanel_.onContentSizeChanged();
          errorNodes_.remove(error);
+         outputBuffer_.unpin(errorNode);
       }
    }
    
@@ -383,15 +387,29 @@ public class ShellWidget extends Composite implements ShellDisplay,
 
          int oldLineCount = DomUtils.countLines(trailingOutput_, true);
          trailingOutputConsole_.submit(text);
-         trailingOutput_.setNodeValue(
-               ensureNewLine(trailingOutputConsole_.toString()));
+         String consoleText = trailingOutputConsole_.toString();
+         trailingOutput_.setNodeValue(ensureNewLine(consoleText));
          int newLineCount = DomUtils.countLines(trailingOutput_, true);
-         lines_ += newLineCount - oldLineCount;
+         outputBuffer_.onTailLinesChanged(newLineCount - oldLineCount);
+         
+         // Don't let a long stream of output accumulate in a single text
+         // node (which couldn't be virtualized); once it's large enough, 
+         // freeze the complete lines and continue with just the last one
+         if (newLineCount > VirtualizedOutputBuffer.BLOCK_LINES)
+         {
+            int lastLine = consoleText.lastIndexOf('\n') + 1;
+            trailingOutput_.setNodeValue(consoleText.substring(0, lastLine));
+            trailingOutput_ = null;
+            trailingOutputConsole_ = null;
+            outputBuffer_.onTailLinesChanged(
+               DomUtils.countLines(outputBuffer_.getLastNode(), true) - 
+               newLineCount);
+            if (lastLine < consoleText.length())
+               return output(consoleText.substring(lastLine), className, false);
+         }
       }
       else
       {
-         Element outEl = output_.getElement();
-
          text = VirtualConsole.consolify(text);
          if (isOutput)
          {
@@ -413,9 +431,7 @@ public class ShellWidget extends Composite implements ShellDisplay,
             // If we're prepending output to the top of the console, then
             // it's safe to add a newline if the next chunk (which is already
             // there) is something besides output.
-            if (!addToTop ||
-                (!outEl.hasChildNodes()
-                 || outEl.getFirstChild().getNodeType() != Node.TEXT_NODE))
+            if (!addToTop || !outputBuffer_.startsWithText())
             {
                consoleSnapshot = ensureNewLine(consoleSnapshot);
             }
@@ -441,11 +457,9 @@ public class ShellWidget extends Composite implements ShellDisplay,
          }
 
          if (addToTop)
-            outEl.insertFirst(node);
+            outputBuffer_.insertFirst(node);
          else
-            outEl.appendChild(node);
-
-         lines_ += DomUtils.countLines(node, true);
+            outputBuffer_.append(node);
       }
       boolean result = !trimExcess();
 
@@ -469,11 +483,10 @@ public class ShellWidget extends Composite implements ShellDisplay,
       if (maxLines_ <= 0)
          return false;  // No limit in effect
 
-      int linesToTrim = lines_ - maxLines_;
+      int linesToTrim = outputBuffer_.getLineCount() - maxLines_;
       if (linesToTrim > 0)
       {
-         lines_ -= DomUtils.trimLines(output_.getElement(),
-                                      lines_ - maxLines_);
+         outputBuffer_.trimLines(linesToTrim);
          return true;
       }
 
@@ -640,13 +653,22 @@ public class ShellWidget extends Composite implements ShellDisplay,
 
    public void clearOutput()
    {
-      output_.setText("") ;
-      lines_ = 0;
+      outputBuffer_.clear();
       cleared_ = true;
       trailingOutput_ = null;
       trailingOutputConsole_ = null;
    }
    
+   /**
+    * Selects the next occurrence of the given text in the console output
+    * (including output which has been scrolled out of view). Returns false
+    * if there is no such occurrence.
+    */
+   public boolean findInOutput(String text, boolean caseSensitive)
+   {
+      return outputBuffer_.find(text, caseSensitive);
+   }
+   
    public InputEditorDisplay getInputEditorDisplay()
    {
       return input_ ;
@@ -777,10 +799,12 @@ public class ShellWidget extends Composite implements ShellDisplay,
       scrollPanel_.onContentSizeChanged();
    }
    
-   private int lines_ = 0;
    private int maxLines_ = -1;
    private boolean cleared_ = false;
    private final PreWidget output_ ;
+   // Holds the console output; only the blocks of output near the viewport
+   // are rendered
+   private final VirtualizedOutputBuffer outputBuffer_;
    private PreWidget pendingInput_ ;
    // Save a reference to the most recent output text node in case the
    // next bit of output contains \b or \r control characters
@@ -0,0 +1,637 @@
+/*
+ * VirtualizedOutputBuffer.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.shell;
+
+import java.util.ArrayList;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.dom.client.SpanElement;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.dom.client.Text;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+import org.rstudio.core.client.TimeBufferedCommand;
+import org.rstudio.core.client.dom.DomUtils;
+
+/**
+ * Holds console output as a sequence of blocks of (roughly) BLOCK_LINES lines
+ * each. Blocks which are scrolled well out of view are collapsed: their
+ * content is saved as a compact list of (text, class) segments and the block
+ * element is emptied and given a fixed height, so the DOM only contains the
+ * visible window plus overscan no matter how much history is kept. The text
+ * of collapsed blocks remains available for search and copy.
+ */
+public class VirtualizedOutputBuffer
+{
+   public VirtualizedOutputBuffer(Element container, ScrollPanel scrollPanel)
+   {
+      container_ = container;
+      scrollPanel_ = scrollPanel;
+      scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            updateWindowCommand_.nudge();
+         }
+      });
+      addCopyHandler(container_);
+   }
+
+   public void append(Node node)
+   {
+      // only start a new block at a line boundary; a partial line split
+      // across two blocks would be rendered as two lines
+      Block tail = getTail();
+      if (tail == null ||
+          (tail.lines >= BLOCK_LINES &&
+           endsWithNewline(tail.element.getLastChild())))
+      {
+         tail = new Block();
+         container_.appendChild(tail.element);
+         blocks_.add(tail);
+      }
+      tail.element.appendChild(node);
+      addLines(tail, DomUtils.countLines(node, true));
+      updateWindowCommand_.nudge();
+   }
+
+   public void insertFirst(Node node)
+   {
+      // as in append, a node which doesn't end its line has to go in the
+      // same block as the line it continues
+      Block head = blocks_.isEmpty() ? null : blocks_.get(0);
+      if (head == null ||
+          (head.lines >= BLOCK_LINES && endsWithNewline(node)))
+      {
+         head = new Block();
+         container_.insertFirst(head.element);
+         blocks_.add(0, head);
+      }
+      render(head);
+      head.element.insertFirst(node);
+      addLines(head, DomUtils.countLines(node, true));
+      updateWindowCommand_.nudge();
+   }
+
+   // the most recently appended node (the tail block is never collapsed)
+   public Node getLastNode()
+   {
+      Block tail = getTail();
+      return tail == null ? null : tail.element.getLastChild();
+   }
+
+   // whether the output begins with a plain (unstyled) text node
+   public boolean startsWithText()
+   {
+      if (blocks_.isEmpty())
+         return false;
+
+      Block head = blocks_.get(0);
+      if (head.segments != null)
+      {
+         return !head.segments.isEmpty() &&
+                head.segments.get(0).node == null &&
+                head.segments.get(0).className == null;
+      }
+
+      Node first = head.element.getFirstChild();
+      return first != null && first.getNodeType() == Node.TEXT_NODE;
+   }
+
+   // records a change in the number of lines in the tail block (e.g. when
+   // the last text node is rewritten in place)
+   public void onTailLinesChanged(int delta)
+   {
+      Block tail = getTail();
+      if (tail != null)
+         addLines(tail, delta);
+      updateWindowCommand_.nudge();
+   }
+
+   public int getLineCount()
+   {
+      return lineCount_;
+   }
+
+   // removes the given number of lines from the top of the output and
+   // returns the number of lines actually removed
+   public int trimLines(int count)
+   {
+      int trimmed = 0;
+      int blocksRemoved = 0;
+      while (blocks_.size() > 1 && blocks_.get(0).lines <= count - trimmed)
+      {
+         Block head = blocks_.remove(0);
+         head.element.removeFromParent();
+         trimmed += head.lines;
+         blocksRemoved++;
+      }
+
+      // keep the last match pointing at the same block (or forget it if
+      // that block is gone)
+      lastMatchBlock_ -= blocksRemoved;
+      if (lastMatchBlock_ < 0)
+      {
+         lastMatchBlock_ = -1;
+         lastMatchOffset_ = -1;
+      }
+
+      if (trimmed < count && !blocks_.isEmpty())
+      {
+         Block head = blocks_.get(0);
+         render(head);
+         int length = lastMatchBlock_ == 0 ? getText(head).length() : 0;
+         int headTrimmed = DomUtils.trimLines(head.element, count - trimmed);
+         head.lines -= headTrimmed;
+         trimmed += headTrimmed;
+
+         // the match's offset within the head block moves up by the amount
+         // of text trimmed from it
+         if (lastMatchBlock_ == 0)
+         {
+            lastMatchOffset_ -= length - getText(head).length();
+            if (lastMatchOffset_ < 0)
+               lastMatchOffset_ = -1;
+         }
+      }
+
+      lineCount_ -= trimmed;
+      return trimmed;
+   }
+
+   public void clear()
+   {
+      container_.setInnerHTML("");
+      blocks_.clear();
+      pinnedNodes_.clear();
+      lineCount_ = 0;
+      lastMatchBlock_ = -1;
+      lastMatchOffset_ = -1;
+   }
+
+   // keeps the block containing the given node rendered until unpinned
+   public void pin(Node node)
+   {
+      pinnedNodes_.add(node);
+   }
+
+   public void unpin(Node node)
+   {
+      pinnedNodes_.remove(node);
+   }
+
+   public void clearPinnedNodes()
+   {
+      pinnedNodes_.clear();
+   }
+
+   public String getText()
+   {
+      StringBuilder text = new StringBuilder();
+      for (Block block : blocks_)
+         text.append(getText(block));
+      return text.toString();
+   }
+
+   // selects the next occurrence of the given text (wrapping around to the
+   // top of the output) and scrolls it into view; returns false if the
+   // text doesn't occur anywhere in the output
+   public boolean find(String term, boolean caseSensitive)
+   {
+      if (term == null || term.length() == 0 || blocks_.isEmpty())
+         return false;
+
+      if (!caseSensitive)
+         term = term.toLowerCase();
+
+      int startBlock = Math.max(0, Math.min(lastMatchBlock_,
+                                            blocks_.size() - 1));
+      for (int i = 0; i <= blocks_.size(); i++)
+      {
+         int index = (startBlock + i) % blocks_.size();
+         String text = getText(blocks_.get(index));
+         if (!caseSensitive)
+            text = text.toLowerCase();
+
+         int from = (i == 0 && index == lastMatchBlock_) ?
+                    lastMatchOffset_ + 1 : 0;
+         int offset = text.indexOf(term, from);
+         if (offset < 0)
+            continue;
+
+         lastMatchBlock_ = index;
+         lastMatchOffset_ = offset;
+         selectMatch(blocks_.get(index), text, offset, term.length());
+         return true;
+      }
+
+      lastMatchBlock_ = -1;
+      lastMatchOffset_ = -1;
+      return false;
+   }
+
+   private void selectMatch(Block block, String text, int offset, int length)
+   {
+      render(block);
+
+      // scroll to the line containing the match, estimating line height
+      // from the height of the block
+      int line = 0;
+      for (int i = text.indexOf('\n'); i >= 0 && i < offset;
+           i = text.indexOf('\n', i + 1))
+      {
+         line++;
+      }
+      int lineHeight = block.lines > 0 ?
+                       block.element.getOffsetHeight() / block.lines : 0;
+      int top = block.element.getAbsoluteTop() -
+                scrollPanel_.getElement().getAbsoluteTop() +
+                scrollPanel_.getVerticalScrollPosition();
+      scrollPanel_.setVerticalScrollPosition(Math.max(
+            0, top + (line * lineHeight) - scrollPanel_.getOffsetHeight() / 2));
+
+      selectText(block.element, offset, offset + length);
+      updateWindow();
+   }
+
+   private static native void selectText(Element element,
+                                         int start,
+                                         int end) /*-{
+      var doc = element.ownerDocument;
+      if (!doc.createRange || !doc.defaultView.getSelection)
+         return;
+
+      // walk the text nodes of the element to find the ones containing the
+      // start and end offsets
+      var range = doc.createRange();
+      var walker = doc.createTreeWalker(element, 4, null, false);
+      var pos = 0;
+      var startSet = false;
+      var node;
+      while ((node = walker.nextNode()))
+      {
+         var len = node.data.length;
+         if (!startSet && start < pos + len)
+         {
+            range.setStart(node, start - pos);
+            startSet = true;
+         }
+         if (startSet && end <= pos + len)
+         {
+            range.setEnd(node, end - pos);
+            var selection = doc.defaultView.getSelection();
+            selection.removeAllRanges();
+            selection.addRange(range);
+            return;
+         }
+         pos += len;
+      }
+   }-*/;
+
+   private Block getTail()
+   {
+      return blocks_.isEmpty() ? null : blocks_.get(blocks_.size() - 1);
+   }
+
+   // whether the node's output ends at a line boundary (a missing node, as
+   // in an empty block, trivially does)
+   private static boolean endsWithNewline(Node node)
+   {
+      if (node == null)
+         return true;
+
+      switch (node.getNodeType())
+      {
+         case Node.TEXT_NODE:
+            return ((Text) node).getData().endsWith("\n");
+         case Node.ELEMENT_NODE:
+            Element el = (Element) node;
+            return el.getTagName().equalsIgnoreCase("br") ||
+                   el.getInnerText().endsWith("\n");
+         default:
+            return false;
+      }
+   }
+
+   private void addLines(Block block, int lines)
+   {
+      block.lines += lines;
+      lineCount_ += lines;
+   }
+
+   private String getText(Block block)
+   {
+      if (block.segments == null)
+         return block.element.getInnerText();
+
+      StringBuilder text = new StringBuilder();
+      for (Segment segment : block.segments)
+      {
+         if (segment.node != null)
+            text.append(((Element) segment.node).getInnerText());
+         else
+            text.append(segment.text);
+      }
+      return text.toString();
+   }
+
+   // renders the blocks within (or near) the viewport and collapses the
+   // others
+   private void updateWindow()
+   {
+      int viewHeight = scrollPanel_.getOffsetHeight();
+      if (viewHeight == 0 || blocks_.size() < 2)
+         return;
+
+      // don't collapse anything while the user has a selection, since
+      // removing the selected nodes would destroy it
+      boolean canCollapse = !DomUtils.selectionExists();
+
+      int viewTop = scrollPanel_.getVerticalScrollPosition();
+      int overscan = viewHeight;
+      int top = container_.getAbsoluteTop() -
+                scrollPanel_.getElement().getAbsoluteTop() + viewTop;
+      for (int i = 0; i < blocks_.size(); i++)
+      {
+         Block block = blocks_.get(i);
+         int height = block.element.getOffsetHeight();
+         boolean nearView = top + height >= viewTop - overscan &&
+                            top <= viewTop + viewHeight + overscan;
+         if (nearView)
+         {
+            if (block.segments != null)
+            {
+               render(block);
+               height = block.element.getOffsetHeight();
+            }
+         }
+         else if (canCollapse && i < blocks_.size() - 1 && !isPinned(block))
+         {
+            collapse(block, height);
+         }
+         top += height;
+      }
+   }
+
+   private boolean isPinned(Block block)
+   {
+      for (Node node : pinnedNodes_)
+      {
+         if (block.element.isOrHasChild(node))
+            return true;
+      }
+      return false;
+   }
+
+   private void collapse(Block block, int height)
+   {
+      if (block.segments != null)
+         return;
+
+      ArrayList<Segment> segments = new ArrayList<Segment>();
+      for (Node child = block.element.getFirstChild();
+           child != null;
+           child = child.getNextSibling())
+      {
+         if (child.getNodeType() == Node.TEXT_NODE)
+         {
+            segments.add(new Segment(((Text) child).getData(), null, null));
+         }
+         else if (child.getNodeType() == Node.ELEMENT_NODE)
+         {
+            Element el = (Element) child;
+            if (el.getTagName().equalsIgnoreCase("span") &&
+                el.getChildCount() == 1 &&
+                el.getFirstChild().getNodeType() == Node.TEXT_NODE)
+            {
+               segments.add(new Segment(el.getInnerText(),
+                                        el.getClassName(),
+                                        null));
+            }
+            else
+            {
+               // anything richer (e.g. an error with a traceback) is kept
+               // as is and re-attached when the block is rendered
+               segments.add(new Segment(null, null, el));
+            }
+         }
+      }
+
+      // remove children one at a time rather than with innerHTML so the
+      // nodes we're holding onto are left intact
+      while (block.element.getFirstChild() != null)
+         block.element.removeChild(block.element.getFirstChild());
+
+      block.element.getStyle().setHeight(height, Unit.PX);
+      block.segments = segments;
+   }
+
+   private void render(Block block)
+   {
+      if (block.segments == null)
+         return;
+
+      Document doc = Document.get();
+      for (Segment segment : block.segments)
+      {
+         Node node;
+         if (segment.node != null)
+         {
+            node = segment.node;
+         }
+         else if (segment.className == null)
+         {
+            node = doc.createTextNode(segment.text);
+         }
+         else
+         {
+            SpanElement span = doc.createSpanElement();
+            span.setClassName(segment.className);
+            span.setInnerText(segment.text);
+            node = span;
+         }
+         block.element.appendChild(node);
+      }
+
+      block.element.getStyle().clearHeight();
+      block.segments = null;
+   }
+
+   private native void addCopyHandler(Element element) /*-{
+      var self = this;
+      element.addEventListener("copy", $entry(function(e) {
+         self.@org.rstudio.studio.client.common.shell.VirtualizedOutputBuffer::onCopy(Lcom/google/gwt/core/client/JavaScriptObject;)(e);
+      }), false);
+   }-*/;
+
+   // if the selection spans collapsed blocks, their text won't be in the
+   // DOM for the browser to copy, so we supply it ourselves (or, if the
+   // browser doesn't let us write to the clipboard, render those blocks
+   // before the copy happens)
+   private void onCopy(JavaScriptObject event)
+   {
+      JavaScriptObject range = getSelectionRange(container_);
+      if (range == null)
+         return;
+
+      int startBlock = indexOfBlock(getRangeNode(range, true));
+      int endBlock = indexOfBlock(getRangeNode(range, false));
+
+      boolean spansCollapsed = false;
+      int first = startBlock < 0 ? 0 : startBlock;
+      int last = endBlock < 0 ? blocks_.size() - 1 : endBlock;
+      for (int i = first; i <= last; i++)
+      {
+         if (blocks_.get(i).segments != null)
+            spansCollapsed = true;
+      }
+      if (!spansCollapsed)
+         return;
+
+      if (startBlock >= 0 && endBlock >= 0 && canSetClipboardData(event))
+      {
+         StringBuilder text = new StringBuilder();
+         text.append(getRangeText(range, blocks_.get(startBlock).element,
+                                  true));
+         for (int i = startBlock + 1; i < endBlock; i++)
+            text.append(getText(blocks_.get(i)));
+         text.append(getRangeText(range, blocks_.get(endBlock).element,
+                                  false));
+         setClipboardData(event, text.toString());
+      }
+      else
+      {
+         for (int i = first; i <= last; i++)
+            render(blocks_.get(i));
+      }
+   }
+
+   private int indexOfBlock(Node node)
+   {
+      // find the child of the container that holds the node
+      while (node != null && node.getParentNode() != container_)
+         node = node.getParentNode();
+      if (node == null)
+         return -1;
+
+      for (int i = 0; i < blocks_.size(); i++)
+      {
+         if (blocks_.get(i).element == node)
+            return i;
+      }
+      return -1;
+   }
+
+   private static native JavaScriptObject getSelectionRange(
+                                                   Element container) /*-{
+      var win = container.ownerDocument.defaultView;
+      if (!win.getSelection)
+         return null;
+      var selection = win.getSelection();
+      if (selection.rangeCount == 0 || selection.isCollapsed)
+         return null;
+      return selection.getRangeAt(0);
+   }-*/;
+
+   private static native Node getRangeNode(JavaScriptObject range,
+                                           boolean start) /*-{
+      return start ? range.startContainer : range.endContainer;
+   }-*/;
+
+   // the text of the part of the range which lies within the block (the
+   // range is assumed to start or end within it)
+   private static native String getRangeText(JavaScriptObject range,
+                                             Element block,
+                                             boolean start) /*-{
+      var r = block.ownerDocument.createRange();
+      if (start)
+      {
+         r.setStart(range.startContainer, range.startOffset);
+         r.setEnd(block, block.childNodes.length);
+      }
+      else
+      {
+         r.setStart(block, 0);
+         r.setEnd(range.endContainer, range.endOffset);
+      }
+      return r.toString();
+   }-*/;
+
+   private static native boolean canSetClipboardData(
+                                             JavaScriptObject event) /*-{
+      return !!(event.clipboardData && event.clipboardData.setData);
+   }-*/;
+
+   private static native void setClipboardData(JavaScriptObject event,
+                                               String text) /*-{
+      event.clipboardData.setData("text/plain", text);
+      event.preventDefault();
+   }-*/;
+
+   private static class Segment
+   {
+      Segment(String text, String className, Node node)
+      {
+         this.text = text;
+         this.className = className;
+         this.node = node;
+      }
+
+      final String text;
+      final String className;
+      final Node node;
+   }
+
+   private static class Block
+   {
+      Block()
+      {
+         element = Document.get().createDivElement();
+      }
+
+      final DivElement element;
+      int lines = 0;
+
+      // non-null when the block is collapsed
+      ArrayList<Segment> segments = null;
+   }
+
+   private final TimeBufferedCommand updateWindowCommand_ =
+                                             new TimeBufferedCommand(50)
+   {
+      @Override
+      protected void performAction(boolean shouldSchedulePassive)
+      {
+         updateWindow();
+      }
+   };
+
+   private final Element container_;
+   private final ScrollPanel scrollPanel_;
+   private final ArrayList<Block> blocks_ = new ArrayList<Block>();
+   private final ArrayList<Node> pinnedNodes_ = new ArrayList<Node>();
+   private int lineCount_ = 0;
+   private int lastMatchBlock_ = -1;
+   private int lastMatchOffset_ = -1;
+
+   public static final int BLOCK_LINES = 200;
+}
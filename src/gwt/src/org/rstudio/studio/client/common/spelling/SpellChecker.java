@@ -69,10 +69,12 @@ public class SpellChecker
       }));
       
       // subscribe to spelling prefs changes (invalidateAll on changes)
-      uiPrefs_.ignoreWordsInUppercase().addValueChangeHandler(
-                                                         prefChangedHandler_);
-      uiPrefs_.ignoreWordsWithNumbers().addValueChangeHandler(
-                                                         prefChangedHandler_);
+      context_.releaseOnDismiss(
+            uiPrefs_.ignoreWordsInUppercase().addValueChangeHandler(
+                                                         prefChangedHandler_));
+      context_.releaseOnDismiss(
+            uiPrefs_.ignoreWordsWithNumbers().addValueChangeHandler(
+                                                         prefChangedHandler_));
       
       // subscribe to user dictionary changes
       context_.releaseOnDismiss(userDictionary_.addListChangedHandler(
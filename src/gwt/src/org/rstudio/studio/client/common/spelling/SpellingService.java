@@ -16,8 +16,11 @@
 package org.rstudio.studio.client.common.spelling;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.rstudio.core.client.js.JsUtil;
 import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
@@ -28,6 +31,8 @@ import org.rstudio.studio.client.workbench.prefs.model.SpellingPrefsContext;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 
 import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.event.dom.client.ChangeEvent;
@@ -104,6 +109,35 @@ public class SpellingService implements HasChangeHandlers
          return;
       }
       
+      // queue the words to be checked along with those of any other 
+      // requests made during this event loop (e.g. by other documents)
+      pendingRequests_.add(new PendingRequest(wordsToCheck, 
+                                              spellCheckerResult, 
+                                              callback));
+      if (pendingRequests_.size() == 1)
+      {
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               checkPendingWords();
+            }
+         });
+      }
+   }
+   
+   private void checkPendingWords()
+   {
+      final ArrayList<PendingRequest> requests = pendingRequests_;
+      pendingRequests_ = new ArrayList<PendingRequest>();
+      
+      // send each distinct word once
+      LinkedHashSet<String> uniqueWords = new LinkedHashSet<String>();
+      for (PendingRequest request : requests)
+         uniqueWords.addAll(request.words);
+      final ArrayList<String> wordsToCheck = new ArrayList<String>(uniqueWords);
+      
       // hit the server
       server_.checkSpelling(JsUtil.toJsArrayString(wordsToCheck), 
                             new ServerRequestCallback<JsArrayInteger>() {
@@ -111,35 +145,34 @@ public class SpellingService implements HasChangeHandlers
          @Override
          public void onResponseReceived(JsArrayInteger result)
          {
-            // get misspelled indexes
-            ArrayList<Integer> misspelledIndexes = new ArrayList<Integer>();
+            // get misspelled words
+            HashSet<String> misspelled = new HashSet<String>();
             for (int i=0; i<result.length(); i++)
-               misspelledIndexes.add(result.get(i));
+               misspelled.add(wordsToCheck.get(result.get(i)));
+            
+            // populate cache
+            for (String word : wordsToCheck)
+               previousResults_.put(word, !misspelled.contains(word));
             
-            // determine correct/incorrect status and populate result & cache
-            for (int i=0; i<wordsToCheck.size(); i++)
+            // determine correct/incorrect status and return results
+            for (PendingRequest request : requests)
             {
-               String word = wordsToCheck.get(i);
-               if (misspelledIndexes.contains(i))
+               for (String word : request.words)
                {
-                  spellCheckerResult.getIncorrect().add(word);
-                  previousResults_.put(word, false);
-               }
-               else
-               {
-                  spellCheckerResult.getCorrect().add(word);
-                  previousResults_.put(word,  true);
+                  if (misspelled.contains(word))
+                     request.result.getIncorrect().add(word);
+                  else
+                     request.result.getCorrect().add(word);
                }
+               request.callback.onResponseReceived(request.result);
             }
-            
-            // return result
-            callback.onResponseReceived(spellCheckerResult);     
          }
          
          @Override
          public void onError(ServerError error)
          {
-            callback.onError(error);
+            for (PendingRequest request : requests)
+               request.callback.onError(error);
          }
       });
    }
@@ -225,8 +258,38 @@ public class SpellingService implements HasChangeHandlers
    private final SpellingServerOperations server_;
    private final UIPrefs uiPrefs_;
    
-   private HashMap<String,Boolean> previousResults_ = 
-                                             new HashMap<String,Boolean>();
+   private static class PendingRequest
+   {
+      PendingRequest(List<String> words,
+                     SpellCheckerResult result,
+                     ServerRequestCallback<SpellCheckerResult> callback)
+      {
+         this.words = words;
+         this.result = result;
+         this.callback = callback;
+      }
+      
+      final List<String> words;
+      final SpellCheckerResult result;
+      final ServerRequestCallback<SpellCheckerResult> callback;
+   }
+   
+   // verdicts for recently checked words (shared by all documents)
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String,Boolean> previousResults_ = 
+                     new LinkedHashMap<String,Boolean>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String,Boolean> eldest)
+      {
+         return size() > MAX_CACHED_WORDS;
+      }
+   };
+   
+   private ArrayList<PendingRequest> pendingRequests_ = 
+                                          new ArrayList<PendingRequest>();
+   
+   private static final int MAX_CACHED_WORDS = 20000;
    
    HandlerManager handlerManager_ = new HandlerManager(this);
    
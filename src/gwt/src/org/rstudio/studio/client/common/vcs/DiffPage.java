@@ -0,0 +1,47 @@
+/*
+ * DiffPage.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.vcs;
+
+/**
+ * A page of a diff. The first page starts with the file header; pages
+ * after it start at a chunk boundary.
+ */
+public class DiffPage extends DiffResult
+{
+   protected DiffPage() {}
+
+   /**
+    * Identifies the diff the page belongs to (pages are only consistent with
+    * pages of the same diff).
+    */
+   public native final String getDiffId() /*-{
+      return this.diff_id;
+   }-*/;
+
+   public native final int getOffset() /*-{
+      return this.offset;
+   }-*/;
+
+   /**
+    * The offset of the next page, or -1 if this is the last page.
+    */
+   public native final int getNextOffset() /*-{
+      return this.next_offset;
+   }-*/;
+
+   public native final double getTotalSize() /*-{
+      return this.total_size;
+   }-*/;
+}
@@ -81,6 +81,19 @@ public interface GitServerOperations extends VCSServerOperations
                     boolean noSizeWarning,
                     ServerRequestCallback<DiffResult> requestCallback);
 
+   /**
+    * Returns the page of the diff starting at offset (0 for the first page).
+    * diffId is the id of the diff the previous pages belong to (or null for
+    * the first page).
+    */
+   void gitDiffFilePage(String path,
+                        PatchMode patchMode,
+                        int contextLines,
+                        boolean noSizeWarning,
+                        int offset,
+                        String diffId,
+                        ServerRequestCallback<DiffPage> requestCallback);
+
    /**
     * @param patch The patch, in UTF-8 encoding
     * @param mode Whether the patch should be applied to working copy or index
@@ -198,7 +198,7 @@ public class HTMLPreviewPresenter implements IsWidget
          }
       });
 
-      new StringStateValue(
+      savePreviewDirState_ = new StringStateValue(
             MODULE_HTML_PREVIEW,
             KEY_SAVEAS_DIR,
             ClientState.PERSISTENT,
@@ -215,6 +215,12 @@ public class HTMLPreviewPresenter implements IsWidget
          {
             return savePreviewDir_;
          }
+         
+         @Override
+         protected boolean pollsForChanges()
+         {
+            return false;
+         }
       };
    }
    
@@ -294,7 +300,7 @@ public class HTMLPreviewPresenter implements IsWidget
                                    new VoidServerRequestCallback(indicator));
                   
                   savePreviewDir_ = targetFile.getParentPathString();
-                  session_.persistClientState();
+                  savePreviewDirState_.markDirty();
                }
          });
       }
@@ -331,6 +337,7 @@ public class HTMLPreviewPresenter implements IsWidget
    private StringBuilder lastPreviewOutput_ = new StringBuilder();
    
    private String savePreviewDir_;
+   private final StringStateValue savePreviewDirState_;
    private static final String MODULE_HTML_PREVIEW = "html_preview";
    private static final String KEY_SAVEAS_DIR = "saveAsDir";
    
@@ -14,11 +14,14 @@
  */
 package org.rstudio.studio.client.rmarkdown.model;
 
+import java.util.List;
+
 import org.rstudio.studio.client.common.crypto.CryptoServerOperations;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.Void;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
 
 public interface RMarkdownServerOperations extends CryptoServerOperations
 {
@@ -63,11 +66,18 @@ public interface RMarkdownServerOperations extends CryptoServerOperations
    void getRmdOutputInfo(String target,
                 ServerRequestCallback<RmdOutputInfo> resultCallback);
    
+   // plays back the output of the given chunks (or all chunks, if none are
+   // given) in the order given
    void refreshChunkOutput(String docPath, String docId, String contextId,
-                           String requestId, 
+                           String requestId, List<String> chunkIds,
                            ServerRequestCallback<Void> requestCallback);
    
    void setChunkConsole(String docId, String chunkId, String options, 
                         boolean replace,
                         ServerRequestCallback<Void> requestCallback);
+   
+   // adds the chunks to the server's execution queue (or updates their code
+   // if they're already waiting in it); the server runs them in turn
+   void executeNotebookChunks(String docId, JsArray<RmdChunkQueueUnit> units,
+                              ServerRequestCallback<Void> requestCallback);
 }
@@ -0,0 +1,37 @@
+/*
+ * RmdChunkQueueUnit.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rmarkdown.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+// a chunk submitted to the server's chunk execution queue
+public class RmdChunkQueueUnit extends JavaScriptObject
+{
+   protected RmdChunkQueueUnit()
+   {
+   }
+   
+   public static final native RmdChunkQueueUnit create(String chunkId,
+                                                       String code) /*-{
+      return {
+         chunk_id: chunkId,
+         code:     code
+      };
+   }-*/;
+
+   public final native String getChunkId() /*-{
+      return this.chunk_id;
+   }-*/;
+}
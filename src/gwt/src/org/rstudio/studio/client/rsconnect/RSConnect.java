@@ -57,8 +57,7 @@ import org.rstudio.studio.client.rsconnect.model.RSConnectPublishSource;
 import org.rstudio.studio.client.rsconnect.model.RSConnectServerOperations;
 import org.rstudio.studio.client.rsconnect.model.RmdPublishDetails;
 import org.rstudio.studio.client.rsconnect.ui.RSAccountConnector;
-import org.rstudio.studio.client.rsconnect.ui.RSConnectDeployDialog;
-import org.rstudio.studio.client.rsconnect.ui.RSConnectPublishWizard;
+import org.rstudio.studio.client.rsconnect.ui.RSConnectPublishLauncher;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.commands.Commands;
@@ -107,7 +106,8 @@ public class RSConnect implements SessionInitHandler,
                     RPubsServerOperations rpubsServer,
                     RSAccountConnector connector,
                     Provider<UIPrefs> pUiPrefs,
-                    PlotPublishMRUList plotMru)
+                    PlotPublishMRUList plotMru,
+                    RSConnectPublishLauncher.Shim publishLauncher)
                     
    {
       commands_ = commands;
@@ -121,6 +121,7 @@ public class RSConnect implements SessionInitHandler,
       connector_ = connector;
       pUiPrefs_ = pUiPrefs;
       plotMru_ = plotMru;
+      publishLauncher_ = publishLauncher;
 
       binder.bind(commands, this);
 
@@ -402,19 +403,12 @@ public class RSConnect implements SessionInitHandler,
    private void publishAsFiles(RSConnectActionEvent event,
          RSConnectPublishSource source)
    {
-      RSConnectDeployDialog dialog = 
-            new RSConnectDeployDialog(
-                      event.getContentType(),
-                      server_, this, display_, 
-                      source,
-                      event.getFromPrevious());
-      dialog.showModal();
+      publishLauncher_.showDeployDialog(event, this, source);
    }
    
    private void publishWithWizard(final RSConnectPublishInput input)
    {
-      RSConnectPublishWizard wizard = 
-            new RSConnectPublishWizard(input, 
+      publishLauncher_.showPublishWizard(input, 
                   new ProgressOperationWithInput<RSConnectPublishResult>()
             {
                @Override
@@ -437,7 +431,6 @@ public class RSConnect implements SessionInitHandler,
                   }
                }
             });
-      wizard.showModal();
    }
    
    @Override
@@ -611,7 +604,7 @@ public class RSConnect implements SessionInitHandler,
       // This object keeps track of the most recent deployment we made of each
       // directory, and is used to default directory deployments to last-used
       // settings.
-      new JSObjectStateValue(
+      dirStateValue_ = new JSObjectStateValue(
             "rsconnect",
             "rsconnectDirectories",
             ClientState.PERSISTENT,
@@ -629,16 +622,22 @@ public class RSConnect implements SessionInitHandler,
           @Override
           protected JsObject getValue()
           {
-             dirStateDirty_ = false;
              return (JsObject) (dirState_ == null ?
                    RSConnectDirectoryState.create().cast() :
                    dirState_.cast());
           }
    
+          @Override
+          protected boolean pollsForChanges()
+          {
+             return false;
+          }
+   
           @Override
           protected boolean hasChanged()
           {
-             return dirStateDirty_;
+             // only asked once we've marked it dirty
+             return true;
           }
        };
        
@@ -798,7 +797,7 @@ public class RSConnect implements SessionInitHandler,
             {
                dirState_.addDeployment(event.getSource().getDeployDir(), 
                      event.getRecord());
-               dirStateDirty_ = true;
+               dirStateValue_.markDirty();
                if (event.getSource().getContentCategory() == 
                      RSConnect.CONTENT_CATEGORY_PLOT)
                {
@@ -1028,6 +1027,7 @@ public class RSConnect implements SessionInitHandler,
    private final GlobalDisplay display_;
    private final Session session_;
    private final RSConnectServerOperations server_;
+   private final RSConnectPublishLauncher.Shim publishLauncher_;
    private final RPubsServerOperations rpubsServer_;
    private final SourceServerOperations sourceServer_;
    private final DependencyManager dependencyManager_;
@@ -1045,7 +1045,7 @@ public class RSConnect implements SessionInitHandler,
    private static int rpubsCount_ = 0;
    
    private RSConnectDirectoryState dirState_;
-   private boolean dirStateDirty_ = false;
+   private JSObjectStateValue dirStateValue_;
    
    public final static String CLOUD_SERVICE_NAME = "ShinyApps.io";
    
@@ -0,0 +1,72 @@
+/*
+ * RSConnectPublishLauncher.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.rsconnect.ui;
+
+import com.google.inject.Inject;
+
+import org.rstudio.core.client.AsyncShim;
+import org.rstudio.core.client.widget.ProgressOperationWithInput;
+import org.rstudio.studio.client.common.GlobalDisplay;
+import org.rstudio.studio.client.rsconnect.RSConnect;
+import org.rstudio.studio.client.rsconnect.events.RSConnectActionEvent;
+import org.rstudio.studio.client.rsconnect.model.RSConnectPublishInput;
+import org.rstudio.studio.client.rsconnect.model.RSConnectPublishResult;
+import org.rstudio.studio.client.rsconnect.model.RSConnectPublishSource;
+import org.rstudio.studio.client.rsconnect.model.RSConnectServerOperations;
+
+// Keeps the publishing wizard and deployment dialog out of the initial
+// download; they're loaded the first time something is published.
+public class RSConnectPublishLauncher
+{
+   public abstract static class Shim
+                        extends AsyncShim<RSConnectPublishLauncher>
+   {
+      public abstract void showDeployDialog(RSConnectActionEvent event,
+                                            RSConnect connect,
+                                            RSConnectPublishSource source);
+
+      public abstract void showPublishWizard(
+                  RSConnectPublishInput input,
+                  ProgressOperationWithInput<RSConnectPublishResult> onPublish);
+   }
+
+   @Inject
+   RSConnectPublishLauncher(RSConnectServerOperations server,
+                            GlobalDisplay display)
+   {
+      server_ = server;
+      display_ = display;
+   }
+
+   public void showDeployDialog(RSConnectActionEvent event,
+                                RSConnect connect,
+                                RSConnectPublishSource source)
+   {
+      new RSConnectDeployDialog(event.getContentType(),
+                                server_, connect, display_,
+                                source,
+                                event.getFromPrevious()).showModal();
+   }
+
+   public void showPublishWizard(
+                  RSConnectPublishInput input,
+                  ProgressOperationWithInput<RSConnectPublishResult> onPublish)
+   {
+      new RSConnectPublishWizard(input, onPublish).showModal();
+   }
+
+   private final RSConnectServerOperations server_;
+   private final GlobalDisplay display_;
+}
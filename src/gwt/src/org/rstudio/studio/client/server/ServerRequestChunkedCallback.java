@@ -0,0 +1,44 @@
+/*
+ * ServerRequestChunkedCallback.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.server;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+
+// A callback for requests which return an array, which receives the array
+// in chunks. Large results are decoded incrementally (yielding to the
+// browser between chunks) and each chunk is delivered as soon as it has
+// been decoded; smaller results are delivered as a single chunk.
+public abstract class ServerRequestChunkedCallback<T extends JavaScriptObject>
+                                    extends ServerRequestCallback<JsArray<T>>
+{
+   public abstract void onChunkReceived(JsArray<T> chunk);
+
+   public abstract void onChunksComplete();
+
+   public int getChunkSize()
+   {
+      return 500;
+   }
+
+   @Override
+   public final void onResponseReceived(JsArray<T> response)
+   {
+      if (response != null && response.length() > 0)
+         onChunkReceived(response);
+      onChunksComplete();
+   }
+}
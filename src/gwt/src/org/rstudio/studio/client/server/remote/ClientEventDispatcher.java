@@ -15,14 +15,18 @@
 package org.rstudio.studio.client.server.remote;
 
 
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 
+import org.rstudio.core.client.container.RingBufferQueue;
+import org.rstudio.core.client.container.SafeMap;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.js.JsObject;
+import org.rstudio.core.client.jsonrpc.EventChannelStats;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.studio.client.application.events.*;
 import org.rstudio.studio.client.application.model.RVersionsInfo;
@@ -65,6 +69,7 @@ import org.rstudio.studio.client.projects.model.OpenProjectError;
 import org.rstudio.studio.client.projects.model.ProjectUser;
 import org.rstudio.studio.client.rmarkdown.events.ShinyGadgetDialogEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdChunkOutputEvent;
+import org.rstudio.studio.client.rmarkdown.events.RmdChunkExecStartedEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdChunkOutputFinishedEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdParamsReadyEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdRenderCompletedEvent;
@@ -151,13 +156,12 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
 import org.rstudio.studio.client.workbench.views.viewer.events.ViewerNavigateEvent;
 
-import java.util.ArrayList;
-
 public class ClientEventDispatcher 
 {
    public ClientEventDispatcher(EventBus eventBus)
    {
       eventBus_ = eventBus;
+      registerDecoders();
    }
    
    public void enqueEventAsJso(JavaScriptObject event)
@@ -175,15 +179,23 @@ public class ClientEventDispatcher
          {
             public boolean execute()
             {
+               // dispatch until we run out of events or exhaust our time
+               // budget, then yield to the browser so that bursts (e.g. a
+               // flood of console output) don't freeze the UI. at least one
+               // event is always dispatched per pass.
                final int MAX_EVENTS_AT_ONCE = 200;
+               final int MAX_MILLIS_AT_ONCE = 30;
+               Duration duration = new Duration();
                for (int i = 0;
-                    i < MAX_EVENTS_AT_ONCE && pendingEvents_.size() > 0;
+                    i < MAX_EVENTS_AT_ONCE && !pendingEvents_.isEmpty();
                     i++)
                {
-                  ClientEvent currentEvent = pendingEvents_.remove(0);
-                  dispatchEvent(currentEvent);
+                  if (i > 0 && duration.elapsedMillis() >= MAX_MILLIS_AT_ONCE)
+                     break;
+                  
+                  dispatchEvent(pendingEvents_.poll());
                }
-               return pendingEvents_.size() > 0;
+               return !pendingEvents_.isEmpty();
             }
          });
       }
@@ -192,321 +204,476 @@ public class ClientEventDispatcher
    private void dispatchEvent(ClientEvent event) 
    { 
       String type = event.getType();
+      EventDecoder decoder = decoders_.get(type);
+      if (decoder == null)
+      {
+         GWT.log("WARNING: Server event not dispatched: " + type, null);
+         return;
+      }
+      
+      double start = Duration.currentTimeMillis();
       try
       {
-         if (type.equals(ClientEvent.Busy))
+         decoder.dispatch(event);
+      }
+      catch(Throwable e)
+      {
+         GWT.log("WARNING: Exception occured dispatching event: " + type, e);
+      }
+      EventChannelStats.recordDispatch(type, 
+                                       Duration.currentTimeMillis() - start);
+   }
+   
+   private void register(String type, EventDecoder decoder)
+   {
+      decoders_.put(type, decoder);
+   }
+   
+   private void registerDecoders()
+   {
+      register(ClientEvent.Busy, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             boolean busy = event.<Bool>getData().getValue();
             eventBus_.fireEvent(new BusyEvent(busy));
          }
-         else if (type.equals(ClientEvent.ConsoleOutput))
+      });
+      register(ClientEvent.ConsoleOutput, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ConsoleText output = event.getData();
             eventBus_.fireEvent(new ConsoleWriteOutputEvent(output));
          }
-         else if (type.equals(ClientEvent.ConsoleError))
+      });
+      register(ClientEvent.ConsoleError, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ConsoleText error = event.getData();
             eventBus_.fireEvent(new ConsoleWriteErrorEvent(error));
          }
-         else if (type.equals(ClientEvent.ConsoleWritePrompt))
+      });
+      register(ClientEvent.ConsoleWritePrompt, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String prompt = event.getData();
             eventBus_.fireEvent(new ConsoleWritePromptEvent(prompt));
          }
-         else if (type.equals(ClientEvent.ConsoleWriteInput))
+      });
+      register(ClientEvent.ConsoleWriteInput, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ConsoleText input = event.getData();
             eventBus_.fireEvent(new ConsoleWriteInputEvent(input));
          }
-         else if (type.equals(ClientEvent.ConsolePrompt))
+      });
+      register(ClientEvent.ConsolePrompt, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ConsolePrompt prompt = event.getData();
             eventBus_.fireEvent(new ConsolePromptEvent(prompt));
          }
-         else if (type.equals(ClientEvent.ShowEditor))
+      });
+      register(ClientEvent.ShowEditor, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ShowEditorData data = event.getData();
             eventBus_.fireEvent(new ShowEditorEvent(data));
          }
-         else if (type.equals(ClientEvent.FileChanged))
+      });
+      register(ClientEvent.FileChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             FileChange fileChange = event.getData();
             eventBus_.fireEvent(new FileChangeEvent(fileChange));
          }
-         else if (type.equals(ClientEvent.WorkingDirChanged))
+      });
+      register(ClientEvent.WorkingDirChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String path = event.getData();
             eventBus_.fireEvent(new WorkingDirChangedEvent(path));
          }
-         else if (type.equals(ClientEvent.ShowHelp))
+      });
+      register(ClientEvent.ShowHelp, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String helpUrl = event.getData();
             eventBus_.fireEvent(new ShowHelpEvent(helpUrl));
          }
-         else if (type.equals(ClientEvent.ShowErrorMessage))
+      });
+      register(ClientEvent.ShowErrorMessage, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ErrorMessage errorMessage = event.getData();
             eventBus_.fireEvent(new ShowErrorMessageEvent(errorMessage));
          }
-         else if (type.equals(ClientEvent.ChooseFile))
+      });
+      register(ClientEvent.ChooseFile, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             boolean newFile = event.<Bool>getData().getValue();
             eventBus_.fireEvent(new ChooseFileEvent(newFile));
          }
-         else if (type.equals(ClientEvent.BrowseUrl))
+      });
+      register(ClientEvent.BrowseUrl, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             BrowseUrlInfo urlInfo = event.getData();
             eventBus_.fireEvent(new BrowseUrlEvent(urlInfo));
          }
-         else if (type.equals(ClientEvent.PlotsStateChanged))
+      });
+      register(ClientEvent.PlotsStateChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             PlotsState plotsState = event.getData();
             eventBus_.fireEvent(new PlotsChangedEvent(plotsState));
          }
-         else if (type.equals(ClientEvent.ViewData))
+      });
+      register(ClientEvent.ViewData, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             DataView dataView = event.getData();
             eventBus_.fireEvent(new ViewDataEvent(dataView));
          }
-         else if (type.equals(ClientEvent.PackageStateChanged))
+      });
+      register(ClientEvent.PackageStateChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             PackageState newState = event.getData();
             eventBus_.fireEvent(new PackageStateChangedEvent(newState));
          }
-         else if (type.equals(ClientEvent.PackageStatusChanged))
+      });
+      register(ClientEvent.PackageStatusChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             PackageStatus status = event.getData();
             eventBus_.fireEvent(new PackageStatusChangedEvent(status));
          }
-         else if (type.equals(ClientEvent.Locator))
+      });
+      register(ClientEvent.Locator, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new LocatorEvent());
          }
-         else if (type.equals(ClientEvent.ConsoleResetHistory))
+      });
+      register(ClientEvent.ConsoleResetHistory, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ConsoleResetHistory reset = event.getData();
             eventBus_.fireEvent(new ConsoleResetHistoryEvent(reset));
          }
-         else if (type.equals(ClientEvent.SessionSerialization))
+      });
+      register(ClientEvent.SessionSerialization, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SessionSerializationAction action = event.getData();
             eventBus_.fireEvent(new SessionSerializationEvent(action));
          }
-         else if (type.equals(ClientEvent.HistoryEntriesAdded))
+      });
+      register(ClientEvent.HistoryEntriesAdded, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RpcObjectList<HistoryEntry> entries = event.getData();
             eventBus_.fireEvent(new HistoryEntriesAddedEvent(entries));
          }
-         else if (type.equals(ClientEvent.QuotaStatus))
+      });
+      register(ClientEvent.QuotaStatus, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             QuotaStatus quotaStatus = event.getData();
             eventBus_.fireEvent(new QuotaStatusEvent(quotaStatus));
          }
-         else if (type.equals(ClientEvent.FileEdit))
+      });
+      register(ClientEvent.FileEdit, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             FileSystemItem file = event.getData();
             eventBus_.fireEvent(new FileEditEvent(file));
          }
-         else if (type.equals(ClientEvent.ShowContent))
+      });
+      register(ClientEvent.ShowContent, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ContentItem content = event.getData();
             eventBus_.fireEvent(new ShowContentEvent(content));
          }
-         else if (type.equals(ClientEvent.ShowData))
+      });
+      register(ClientEvent.ShowData, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             DataItem data = event.getData();
             eventBus_.fireEvent(new ShowDataEvent(data));
          }
-         else if (type.equals(ClientEvent.AbendWarning))
-         {            
+      });
+      register(ClientEvent.AbendWarning, new EventDecoder() {
+         public void dispatch(ClientEvent event)
+         {
             eventBus_.fireEvent(new SessionAbendWarningEvent());
          }
-         else if (type.equals(ClientEvent.ShowWarningBar))
+      });
+      register(ClientEvent.ShowWarningBar, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             WarningBarMessage message = event.getData();
             eventBus_.fireEvent(new ShowWarningBarEvent(message));
          }
-         else if (type.equals(ClientEvent.OpenProjectError))
+      });
+      register(ClientEvent.OpenProjectError, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             OpenProjectError error = event.getData();
             eventBus_.fireEvent(new OpenProjectErrorEvent(error));
          }
-         else if (type.equals(ClientEvent.VcsRefresh))
+      });
+      register(ClientEvent.VcsRefresh, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             JsObject data = event.getData();
             eventBus_.fireEvent(new VcsRefreshEvent(Reason.NA,
                                                     data.getInteger("delay")));
          }
-         else if (type.equals(ClientEvent.AskPass))
+      });
+      register(ClientEvent.AskPass, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             AskPassEvent.Data data = event.getData();
             eventBus_.fireEvent(new AskPassEvent(data));
          }
-         else if (type.equals(ClientEvent.ConsoleProcessOutput))
+      });
+      register(ClientEvent.ConsoleProcessOutput, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ServerConsoleOutputEvent.Data data = event.getData();
             eventBus_.fireEvent(new ServerConsoleOutputEvent(data.getHandle(),
                                                             data.getOutput(),
                                                             data.isError()));
          }
-         else if (type.equals(ClientEvent.ConsoleProcessPrompt))
+      });
+      register(ClientEvent.ConsoleProcessPrompt, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ServerConsolePromptEvent.Data data = event.getData();
             eventBus_.fireEvent(new ServerConsolePromptEvent(data.getHandle(),
                                                              data.getPrompt()));
          }
-         else if (type.equals(ClientEvent.ConsoleProcessCreated))
+      });
+      register(ClientEvent.ConsoleProcessCreated, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ConsoleProcessCreatedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ConsoleProcessCreatedEvent(data));
          }
-         else if (type.equals(ClientEvent.ConsoleProcessExit))
+      });
+      register(ClientEvent.ConsoleProcessExit, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ServerProcessExitEvent.Data data = event.getData();
             eventBus_.fireEvent(new ServerProcessExitEvent(data.getHandle(),
                                                           data.getExitCode()));
          }
-         else if (type.equals(ClientEvent.HTMLPreviewStartedEvent))
+      });
+      register(ClientEvent.HTMLPreviewStartedEvent, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             HTMLPreviewStartedEvent.Data data = event.getData();
             eventBus_.fireEvent(new HTMLPreviewStartedEvent(data));
          }
-         else if (type.equals(ClientEvent.HTMLPreviewOutputEvent))
+      });
+      register(ClientEvent.HTMLPreviewOutputEvent, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String output = event.getData();
             eventBus_.fireEvent(new HTMLPreviewOutputEvent(output));
          }
-         else if (type.equals(ClientEvent.HTMLPreviewCompletedEvent))
+      });
+      register(ClientEvent.HTMLPreviewCompletedEvent, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             HTMLPreviewResult result = event.getData();
             eventBus_.fireEvent(new HTMLPreviewCompletedEvent(result));
          }
-         else if (type.equals(ClientEvent.CompilePdfStartedEvent))
+      });
+      register(ClientEvent.CompilePdfStartedEvent, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CompilePdfStartedEvent.Data data = event.getData();
             eventBus_.fireEvent(new CompilePdfStartedEvent(data));
          }
-         else if (type.equals(ClientEvent.CompilePdfOutputEvent))
+      });
+      register(ClientEvent.CompilePdfOutputEvent, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CompileOutput output = event.getData();
             eventBus_.fireEvent(new CompilePdfOutputEvent(output));
          }
-         else if (type.equals(ClientEvent.CompilePdfErrorsEvent))
+      });
+      register(ClientEvent.CompilePdfErrorsEvent, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             JsArray<SourceMarker> data = event.getData();
             eventBus_.fireEvent(new CompilePdfErrorsEvent(data));
          }
-         else if (type.equals(ClientEvent.CompilePdfCompletedEvent))
+      });
+      register(ClientEvent.CompilePdfCompletedEvent, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CompilePdfResult result = event.getData();
             eventBus_.fireEvent(new CompilePdfCompletedEvent(result));
          }
-         else if (type.equals(ClientEvent.SynctexEditFile))
+      });
+      register(ClientEvent.SynctexEditFile, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SourceLocation sourceLocation = event.getData();
             eventBus_.fireEvent(new SynctexEditFileEvent(sourceLocation));
          }
-         else if (type.equals(ClientEvent.FindResult))
+      });
+      register(ClientEvent.FindResult, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             FindResultEvent.Data data = event.getData();
             eventBus_.fireEvent(new FindResultEvent(
-                  data.getHandle(), data.getResults().toArrayList()));
+                  data.getHandle(),
+                  data.getResults().toArrayList(),
+                  data.getTotal()));
          }
-         else if (type.equals(ClientEvent.FindOperationEnded))
+      });
+      register(ClientEvent.FindOperationEnded, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String data = event.getData();
             eventBus_.fireEvent(new FindOperationEndedEvent(data));
          }
-         else if (type.equals(ClientEvent.RPubsUploadStatus))
+      });
+      register(ClientEvent.RPubsUploadStatus, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RPubsUploadStatusEvent.Status status = event.getData();
             eventBus_.fireEvent(new RPubsUploadStatusEvent(status));
          }
-         else if (type.equals(ClientEvent.BuildStarted))
+      });
+      register(ClientEvent.BuildStarted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new BuildStartedEvent());
          }
-         else if (type.equals(ClientEvent.BuildOutput))
+      });
+      register(ClientEvent.BuildOutput, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CompileOutput data = event.getData();
             eventBus_.fireEvent(new BuildOutputEvent(data));
          }
-         else if (type.equals(ClientEvent.BuildCompleted))
+      });
+      register(ClientEvent.BuildCompleted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             BuildCompletedEvent.Data data = event.getData();
             eventBus_.fireEvent(new BuildCompletedEvent(data));
          }
-         else if (type.equals(ClientEvent.BuildErrors))
+      });
+      register(ClientEvent.BuildErrors, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             BuildErrorsEvent.Data data = event.getData();
             eventBus_.fireEvent(new BuildErrorsEvent(data));
          }
-         else if (type.equals(ClientEvent.DirectoryNavigate))
+      });
+      register(ClientEvent.DirectoryNavigate, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             DirectoryNavigateEvent.Data data = event.getData();
             eventBus_.fireEvent(new DirectoryNavigateEvent(data));
          }
-         else if (type.equals(ClientEvent.DeferredInitCompleted))
+      });
+      register(ClientEvent.DeferredInitCompleted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new DeferredInitCompletedEvent());
          }
-         else if (type.equals(ClientEvent.PlotsZoomSizeChanged))
+      });
+      register(ClientEvent.PlotsZoomSizeChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             PlotsZoomSizeChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new PlotsZoomSizeChangedEvent(data));
          }
-         else if (type.equals(ClientEvent.SourceCppStarted))
+      });
+      register(ClientEvent.SourceCppStarted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new SourceCppStartedEvent());
          }
-         else if (type.equals(ClientEvent.SourceCppCompleted))
+      });
+      register(ClientEvent.SourceCppCompleted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SourceCppState state = event.getData();
             eventBus_.fireEvent(new SourceCppCompletedEvent(state));
          }
-         else if (type.equals(ClientEvent.LoadedPackageUpdates))
+      });
+      register(ClientEvent.LoadedPackageUpdates, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String installCmd = event.getData();
             eventBus_.fireEvent(new LoadedPackageUpdatesEvent(installCmd));
          }
-         else if (type.equals(ClientEvent.ActivatePane))
+      });
+      register(ClientEvent.ActivatePane, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String pane = event.getData();
             eventBus_.fireEvent(new ActivatePaneEvent(pane));
          }
-         else if (type.equals(ClientEvent.ShowPresentationPane))
+      });
+      register(ClientEvent.ShowPresentationPane, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             PresentationState state = event.getData();
             eventBus_.fireEvent(new ShowPresentationPaneEvent(state));
          }
-         else if (type.equals(ClientEvent.EnvironmentRefresh))
+      });
+      register(ClientEvent.EnvironmentRefresh, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new EnvironmentRefreshEvent());
          }
-         else if (type.equals(ClientEvent.ListChanged))
+      });
+      register(ClientEvent.ListChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new ListChangedEvent(event.<JsObject>getData()));
          }
-         else if (type.equals(ClientEvent.UiPrefsChanged))
+      });
+      register(ClientEvent.UiPrefsChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             UiPrefsChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new UiPrefsChangedEvent(data));
          }
-         else if (type.equals(ClientEvent.ContextDepthChanged)) {
+      });
+      register(ClientEvent.ContextDepthChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
+         {
             EnvironmentContextData data = event.getData();
             eventBus_.fireEvent(new ContextDepthChangedEvent(data, true));
          }
-         else if (type.equals(ClientEvent.HandleUnsavedChanges))
+      });
+      register(ClientEvent.HandleUnsavedChanges, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new HandleUnsavedChangesEvent());
          }
-         else if (type.equals(ClientEvent.Quit))
+      });
+      register(ClientEvent.Quit, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             QuitEvent.Data data = event.getData();
             eventBus_.fireEvent(new QuitEvent(data));
          }
-         else if (type.equals(ClientEvent.Suicide))
+      });
+      register(ClientEvent.Suicide, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             // NOTE: we don't explicitly stop listening for events here
             // for the reasons cited above in ClientEvent.Quit
@@ -515,288 +682,402 @@ public class ClientEventDispatcher
             String message = event.getData();
             eventBus_.fireEvent(new SuicideEvent(message));
          }
-         else if (type.equals(ClientEvent.SaveActionChanged))
+      });
+      register(ClientEvent.SaveActionChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SaveAction action = event.getData();
             eventBus_.fireEvent(new SaveActionChangedEvent(action));
          }
-         else if (type.equals(ClientEvent.EnvironmentAssigned))
+      });
+      register(ClientEvent.EnvironmentAssigned, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RObject objectInfo = event.getData();
             eventBus_.fireEvent(new EnvironmentObjectAssignedEvent(objectInfo));
          }
-         else if (type.equals(ClientEvent.EnvironmentRemoved))
+      });
+      register(ClientEvent.EnvironmentRemoved, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String objectName = event.getData();
             eventBus_.fireEvent(new EnvironmentObjectRemovedEvent(objectName));
          }
-         else if (type.equals(ClientEvent.BrowserLineChanged))
+      });
+      register(ClientEvent.BrowserLineChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             LineData lineData = event.getData();
             eventBus_.fireEvent(new BrowserLineChangedEvent(lineData));
          }
-         else if (type.equals(ClientEvent.PackageLoaded))
+      });
+      register(ClientEvent.PackageLoaded, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new PackageLoadedEvent(
                   (String)event.getData()));
          }
-         else if (type.equals(ClientEvent.PackageUnloaded))
+      });
+      register(ClientEvent.PackageUnloaded, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new PackageUnloadedEvent(
                   (String)event.getData()));
          }
-         else if (type.equals(ClientEvent.PresentationPaneRequestCompleted))
+      });
+      register(ClientEvent.PresentationPaneRequestCompleted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new PresentationPaneRequestCompletedEvent());
          }
-         else if (type.equals(ClientEvent.UnhandledError))
+      });
+      register(ClientEvent.UnhandledError, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             UnhandledError err = event.getData();
             eventBus_.fireEvent(new UnhandledErrorEvent(err));
          }
-         else if (type.equals(ClientEvent.ErrorHandlerChanged))
+      });
+      register(ClientEvent.ErrorHandlerChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ErrorHandlerType handlerType = event.getData();
             eventBus_.fireEvent(new ErrorHandlerChangedEvent(handlerType));
          }
-         else if (type.equals(ClientEvent.ViewerNavigate))
+      });
+      register(ClientEvent.ViewerNavigate, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ViewerNavigateEvent.Data data = event.getData();
             eventBus_.fireEvent(new ViewerNavigateEvent(data));
          }
-         else if (type.equals(ClientEvent.SourceExtendedTypeDetected))
+      });
+      register(ClientEvent.SourceExtendedTypeDetected, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SourceExtendedTypeDetectedEvent.Data data = event.getData();
             eventBus_.fireEvent(new SourceExtendedTypeDetectedEvent(data));
          }
-         else if (type.equals(ClientEvent.ShinyViewer))
+      });
+      register(ClientEvent.ShinyViewer, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ShinyApplicationParams data = event.getData();
             eventBus_.fireEvent(new ShinyApplicationStatusEvent(data, true));
          }
-         else if (type.equals(ClientEvent.DebugSourceCompleted))
+      });
+      register(ClientEvent.DebugSourceCompleted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             DebugSourceResult result = (DebugSourceResult)event.getData();
             eventBus_.fireEvent(new DebugSourceCompletedEvent(result));
          }
-         else if (type.equals(ClientEvent.RmdRenderStarted))
+      });
+      register(ClientEvent.RmdRenderStarted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RmdRenderStartedEvent.Data data = event.getData();
             eventBus_.fireEvent(new RmdRenderStartedEvent(data));
          }
-         else if (type.equals(ClientEvent.RmdRenderOutput))
+      });
+      register(ClientEvent.RmdRenderOutput, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CompileOutput data = event.getData();
             eventBus_.fireEvent(new RmdRenderOutputEvent(data));
          }
-         else if (type.equals(ClientEvent.RmdRenderCompleted))
+      });
+      register(ClientEvent.RmdRenderCompleted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RmdRenderResult result = event.getData();
             eventBus_.fireEvent(new RmdRenderCompletedEvent(result));
          }
-         else if (type.equals(ClientEvent.RmdTemplateDiscovered))
+      });
+      register(ClientEvent.RmdTemplateDiscovered, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RmdDiscoveredTemplate template = event.getData();
             eventBus_.fireEvent(new RmdTemplateDiscoveredEvent(template));
          }
-         else if (type.equals(ClientEvent.RmdTemplateDiscoveryCompleted))
+      });
+      register(ClientEvent.RmdTemplateDiscoveryCompleted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new RmdTemplateDiscoveryCompletedEvent());
          }
-         else if (type.equals(ClientEvent.RmdShinyDocStarted))
+      });
+      register(ClientEvent.RmdShinyDocStarted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RmdShinyDocInfo docInfo = event.getData();
             eventBus_.fireEvent(new RmdShinyDocStartedEvent(docInfo));
          }
-         else if (type.equals(ClientEvent.RSConnectDeploymentOutput))
+      });
+      register(ClientEvent.RSConnectDeploymentOutput, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CompileOutput output = event.getData();
             eventBus_.fireEvent(new RSConnectDeploymentOutputEvent(output));
          }
-         else if (type.equals(ClientEvent.RSConnectDeploymentCompleted))
+      });
+      register(ClientEvent.RSConnectDeploymentCompleted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String url = event.getData();
             eventBus_.fireEvent(new RSConnectDeploymentCompletedEvent(url));
          }
-         else if (type.equals(ClientEvent.RSConnectDeploymentFailed))
+      });
+      register(ClientEvent.RSConnectDeploymentFailed, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RSConnectDeploymentFailedEvent.Data data = event.getData();
             eventBus_.fireEvent(new RSConnectDeploymentFailedEvent(data));
          }
-         else if (type.equals(ClientEvent.UserPrompt))
+      });
+      register(ClientEvent.UserPrompt, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             UserPrompt prompt = event.getData();
             eventBus_.fireEvent(new UserPromptEvent(prompt));
          }
-         else if (type.equals(ClientEvent.InstallRtools))
+      });
+      register(ClientEvent.InstallRtools, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             InstallRtoolsEvent.Data data = event.getData();
             eventBus_.fireEvent(new InstallRtoolsEvent(data));
          }
-         else if (type.equals(ClientEvent.InstallShiny))
+      });
+      register(ClientEvent.InstallShiny, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String userAction = event.getData();
             eventBus_.fireEvent(new InstallShinyEvent(userAction));
          }
-         else if (type.equals(ClientEvent.SuspendAndRestart))
+      });
+      register(ClientEvent.SuspendAndRestart, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SuspendAndRestartEvent.Data data = event.getData();
             eventBus_.fireEvent(new SuspendAndRestartEvent(data));
          }
-         else if (type.equals(ClientEvent.DataViewChanged))
+      });
+      register(ClientEvent.DataViewChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             DataViewChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new DataViewChangedEvent(data));
          }
-         else if (type.equals(ClientEvent.ViewFunction))
+      });
+      register(ClientEvent.ViewFunction, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SearchPathFunctionDefinition data = event.getData();
             eventBus_.fireEvent(new CodeBrowserNavigationEvent(
                   data, null, false, true));
          }
-         else if (type.equals(ClientEvent.MarkersChanged))
+      });
+      register(ClientEvent.MarkersChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             MarkersChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new MarkersChangedEvent(data));
          }
-         else if (type.equals(ClientEvent.EnableRStudioConnect))
+      });
+      register(ClientEvent.EnableRStudioConnect, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             EnableRStudioConnectUIEvent.Data data = event.getData();
             eventBus_.fireEvent(new EnableRStudioConnectUIEvent(data));
          }
-         else if (type.equals(ClientEvent.UpdateGutterMarkers))
+      });
+      register(ClientEvent.UpdateGutterMarkers, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             LintEvent.Data data = event.getData();
             eventBus_.fireEvent(new LintEvent(data));
          }
-         else if (type.equals(ClientEvent.SnippetsChanged))
+      });
+      register(ClientEvent.SnippetsChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SnippetsChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new SnippetsChangedEvent(data));
          }
-         else if (type.equals(ClientEvent.JumpToFunction))
+      });
+      register(ClientEvent.JumpToFunction, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             JumpToFunctionEvent.Data data = event.getData();
             eventBus_.fireEvent(new JumpToFunctionEvent(data));
          }
-         else if (type.equals(ClientEvent.CollabEditStarted))
+      });
+      register(ClientEvent.CollabEditStarted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CollabEditStartParams params = event.getData();
             eventBus_.fireEvent(new CollabEditStartedEvent(params));
          }
-         else if (type.equals(ClientEvent.SessionCountChanged))
+      });
+      register(ClientEvent.SessionCountChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SessionCountChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new SessionCountChangedEvent(data));
          }
-         else if (type.equals(ClientEvent.CollabEditEnded))
+      });
+      register(ClientEvent.CollabEditEnded, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CollabEditEndedEvent.Data data = event.getData();
             eventBus_.fireEvent(new CollabEditEndedEvent(data));
          }
-         else if (type.equals(ClientEvent.ProjectUsersChanged))
+      });
+      register(ClientEvent.ProjectUsersChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ProjectUserChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ProjectUserChangedEvent(data));
          }
-         else if (type.equals(ClientEvent.RVersionsChanged))
+      });
+      register(ClientEvent.RVersionsChanged, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RVersionsInfo versions = event.getData();
             eventBus_.fireEvent(new RVersionsChangedEvent(versions));
          }
-         else if (type.equals(ClientEvent.ShinyGadgetDialog))
+      });
+      register(ClientEvent.ShinyGadgetDialog, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ShinyGadgetDialogEvent.Data data = event.getData();
             eventBus_.fireEvent(new ShinyGadgetDialogEvent(data));
          }
-         else if (type.equals(ClientEvent.RmdParamsReady))
+      });
+      register(ClientEvent.RmdParamsReady, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             String paramsFile = event.getData();
             eventBus_.fireEvent(new RmdParamsReadyEvent(paramsFile));
          }
-         else if (type.equals(ClientEvent.RegisterUserCommand))
+      });
+      register(ClientEvent.RegisterUserCommand, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RegisterUserCommandEvent.Data data = event.getData();
             eventBus_.fireEvent(new RegisterUserCommandEvent(data));
          }
-         else if (type.equals(ClientEvent.ReplaceRanges))
+      });
+      register(ClientEvent.ReplaceRanges, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ReplaceRangesEvent.Data data = event.getData();
             ReplaceRangesEvent payload = new ReplaceRangesEvent(data);
             eventBus_.fireEvent(new ReplaceRangesDispatchEvent(payload));
          }
-         else if (type.equals(ClientEvent.GetActiveDocumentContext))
+      });
+      register(ClientEvent.GetActiveDocumentContext, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             GetActiveDocumentContextEvent payload = new GetActiveDocumentContextEvent();
             eventBus_.fireEvent(new GetActiveDocumentContextDispatchEvent(payload));
          }
-         else if (type.equals(ClientEvent.SendToConsole))
+      });
+      register(ClientEvent.SendToConsole, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             SendToConsoleEvent.Data data = event.getData();
             eventBus_.fireEvent(new SendToConsoleEvent(data));
          }
-         else if (type.equals(ClientEvent.UserFollowStarted))
+      });
+      register(ClientEvent.UserFollowStarted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ProjectUser user = event.getData();
             eventBus_.fireEvent(new FollowUserEvent(user, true));
          }
-         else if (type.equals(ClientEvent.UserFollowEnded))
+      });
+      register(ClientEvent.UserFollowEnded, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             ProjectUser user = event.getData();
             eventBus_.fireEvent(new FollowUserEvent(user, false));
          }
-         else if (type.equals(ClientEvent.ProjectAccessRevoked))
+      });
+      register(ClientEvent.ProjectAccessRevoked, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new ProjectAccessRevokedEvent());
          }
-         else if (type.equals(ClientEvent.CollabEditSaved))
+      });
+      register(ClientEvent.CollabEditSaved, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             CollabEditSavedEvent.Data data = event.getData();
             eventBus_.fireEvent(new CollabEditSavedEvent(data));
          }
-         else if (type.equals(ClientEvent.AddinRegistryUpdated))
+      });
+      register(ClientEvent.AddinRegistryUpdated, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RAddins data = event.getData();
             eventBus_.fireEvent(new AddinRegistryUpdatedEvent(data));
          }
-         else if (type.equals(ClientEvent.ChunkOutput))
+      });
+      register(ClientEvent.ChunkOutput, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RmdChunkOutput data = event.getData();
             eventBus_.fireEvent(new RmdChunkOutputEvent(data));
          }
-         else if (type.equals(ClientEvent.ChunkOutputFinished))
+      });
+      register(ClientEvent.ChunkOutputFinished, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RmdChunkOutputFinishedEvent.Data data = event.getData();
             eventBus_.fireEvent(new RmdChunkOutputFinishedEvent(data));
          }
-         else if (type.equals(ClientEvent.RprofStarted))
+      });
+      register(ClientEvent.RprofStarted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new RprofEvent(RprofEvent.RprofEventType.START, null));
          }
-         else if (type.equals(ClientEvent.RprofStopped))
+      });
+      register(ClientEvent.RprofStopped, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new RprofEvent(RprofEvent.RprofEventType.STOP, null));
          }
-         else if (type.equals(ClientEvent.RprofCreated))
+      });
+      register(ClientEvent.RprofCreated, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
             RprofEvent.Data data = event.getData();
             eventBus_.fireEvent(new RprofEvent(RprofEvent.RprofEventType.CREATE, data));
          }
-         else
+      });
+      register(ClientEvent.ChunkExecStarted, new EventDecoder() {
+         public void dispatch(ClientEvent event)
          {
-            GWT.log("WARNING: Server event not dispatched: " + type, null);
+            RmdChunkExecStartedEvent.Data data = event.getData();
+            eventBus_.fireEvent(new RmdChunkExecStartedEvent(data));
          }
-      }
-      catch(Throwable e)
-      {
-         GWT.log("WARNING: Exception occured dispatching event: " + type, e);
-      }
+      });
    }
    
+   // decodes the payload of a single event type and fires the corresponding
+   // client-side event
+   private interface EventDecoder
+   {
+      void dispatch(ClientEvent event);
+   }
 
    private final EventBus eventBus_;
 
-   private final ArrayList<ClientEvent> pendingEvents_ = new ArrayList<ClientEvent>();
-   
-
+   private final SafeMap<String, EventDecoder> decoders_ = 
+                                       new SafeMap<String, EventDecoder>();
+   private final RingBufferQueue<ClientEvent> pendingEvents_ = 
+                                       new RingBufferQueue<ClientEvent>();
 }
@@ -0,0 +1,159 @@
+/*
+ * ConditionalResultCache.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.server.remote;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.rstudio.core.client.jsonrpc.RpcResponse;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+// Keeps the last result of requests made with conditional responses (see
+// SessionConditionalResponse.hpp) and resolves the server's responses --
+// "unchanged", a delta, or the full result -- back into a full result.
+//
+// The cached copy of each result is never handed out (callbacks get their
+// own copy) since callbacks are free to modify the results they receive
+// and deltas must be applied to exactly what the server sent.
+class ConditionalResultCache
+{
+   public static class Entry
+   {
+      Entry(String hash, JavaScriptObject result)
+      {
+         this.hash = hash;
+         this.result = result;
+      }
+
+      public final String hash;
+      public final JavaScriptObject result;
+   }
+
+   private static class ConditionalResponse extends JavaScriptObject
+   {
+      protected ConditionalResponse()
+      {
+      }
+
+      public final native String getHash() /*-{
+         return this.hash;
+      }-*/;
+
+      public final native String getStatus() /*-{
+         return this.status;
+      }-*/;
+   }
+
+   public Entry get(String key)
+   {
+      return entries_.get(key);
+   }
+
+   // Returns the full result for a response to a request made when we had
+   // the given entry (null if we had none) for its key.
+   @SuppressWarnings("unchecked")
+   public <T> T resolve(String key, Entry base, RpcResponse response)
+   {
+      ConditionalResponse conditional = response.getField("cr");
+      if (conditional == null)
+      {
+         // the server didn't handle the request conditionally
+         entries_.remove(key);
+         return response.<T>getResult();
+      }
+
+      String status = conditional.getStatus();
+      JavaScriptObject result;
+      if (base != null && STATUS_UNCHANGED.equals(status))
+      {
+         result = base.result;
+      }
+      else if (base != null && STATUS_DELTA.equals(status))
+      {
+         result = applyDelta(base.result,
+                             response.<JavaScriptObject>getResult());
+      }
+      else
+      {
+         Object fullResult = response.getResult();
+         if (!isObject(fullResult))
+         {
+            entries_.remove(key);
+            return (T) fullResult;
+         }
+
+         entries_.put(key, new Entry(conditional.getHash(),
+                                     copy((JavaScriptObject) fullResult)));
+         return (T) fullResult;
+      }
+
+      entries_.put(key, new Entry(conditional.getHash(), result));
+      return (T) copy(result);
+   }
+
+   private static native boolean isObject(Object value) /*-{
+      return value !== null && typeof value === "object";
+   }-*/;
+
+   private static native JavaScriptObject copy(JavaScriptObject value) /*-{
+      return JSON.parse(JSON.stringify(value));
+   }-*/;
+
+   // builds a new result from base and delta (base isn't modified, though
+   // unchanged parts of it are shared with the new result)
+   private static native JavaScriptObject applyDelta(JavaScriptObject base,
+                                                     JavaScriptObject delta)
+   /*-{
+      var apply = function(base, delta) {
+         if (delta.t === "a")
+         {
+            return base.slice(0, delta.start).concat(
+                  delta.insert,
+                  base.slice(delta.start + delta.remove));
+         }
+
+         var result = {};
+         var key;
+         for (key in base)
+            if (base.hasOwnProperty(key))
+               result[key] = base[key];
+         for (key in delta.set)
+            result[key] = delta.set[key];
+         for (key in delta.patch)
+            result[key] = apply(base[key], delta.patch[key]);
+         for (var i = 0; i < delta.remove.length; i++)
+            delete result[delta.remove[i]];
+         return result;
+      };
+      return apply(base, delta);
+   }-*/;
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, Entry> entries_ =
+         new LinkedHashMap<String, Entry>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(
+            Map.Entry<String, ConditionalResultCache.Entry> eldest)
+      {
+         return size() > MAX_ENTRIES;
+      }
+   };
+
+   private static final int MAX_ENTRIES = 32;
+   private static final String STATUS_UNCHANGED = "unchanged";
+   private static final String STATUS_DELTA = "delta";
+}
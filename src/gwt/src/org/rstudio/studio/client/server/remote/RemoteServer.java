@@ -16,7 +16,9 @@
 package org.rstudio.studio.client.server.remote;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -27,12 +29,15 @@ import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.js.JsArrayEx;
 import org.rstudio.core.client.js.JsObject;
 import org.rstudio.core.client.js.JsUtil;
+import org.rstudio.core.client.jsonrpc.JsonArrayChunkDecoder;
+import org.rstudio.core.client.jsonrpc.RpcBatchRequest;
 import org.rstudio.core.client.jsonrpc.RpcError;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.core.client.jsonrpc.RpcRequest;
 import org.rstudio.core.client.jsonrpc.RpcRequestCallback;
 import org.rstudio.core.client.jsonrpc.RpcResponse;
 import org.rstudio.core.client.jsonrpc.RpcResponseHandler;
+import org.rstudio.core.client.jsonrpc.RpcStreamCallback;
 import org.rstudio.studio.client.application.Desktop;
 import org.rstudio.studio.client.application.events.ClientDisconnectedEvent;
 import org.rstudio.studio.client.application.events.EventBus;
@@ -73,6 +78,7 @@ import org.rstudio.studio.client.common.vcs.AllStatus;
 import org.rstudio.studio.client.common.vcs.BranchesInfo;
 import org.rstudio.studio.client.common.vcs.CreateKeyOptions;
 import org.rstudio.studio.client.common.vcs.CreateKeyResult;
+import org.rstudio.studio.client.common.vcs.DiffPage;
 import org.rstudio.studio.client.common.vcs.DiffResult;
 import org.rstudio.studio.client.common.vcs.ProcessResult;
 import org.rstudio.studio.client.common.vcs.StatusAndPathInfo;
@@ -96,6 +102,7 @@ import org.rstudio.studio.client.projects.model.SharedProjectDetails;
 import org.rstudio.studio.client.projects.model.SharingConfigResult;
 import org.rstudio.studio.client.projects.model.SharingResult;
 import org.rstudio.studio.client.rmarkdown.model.RMarkdownContext;
+import org.rstudio.studio.client.rmarkdown.model.RmdChunkQueueUnit;
 import org.rstudio.studio.client.rmarkdown.model.RmdCreatedTemplate;
 import org.rstudio.studio.client.rmarkdown.model.RmdOutputInfo;
 import org.rstudio.studio.client.rmarkdown.model.RmdTemplateContent;
@@ -119,6 +126,7 @@ import org.rstudio.studio.client.server.Int;
 import org.rstudio.studio.client.server.Server;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.server.ServerRequestChunkedCallback;
 import org.rstudio.studio.client.server.Void;
 import org.rstudio.studio.client.shiny.model.ShinyRunCmd;
 import org.rstudio.studio.client.shiny.model.ShinyViewerType;
@@ -144,12 +152,15 @@ import org.rstudio.studio.client.workbench.views.environment.model.DataPreviewRe
 import org.rstudio.studio.client.workbench.views.environment.model.DownloadInfo;
 import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentContextData;
 import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentFrame;
+import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentPage;
 import org.rstudio.studio.client.workbench.views.environment.model.ObjectContents;
 import org.rstudio.studio.client.workbench.views.environment.model.RObject;
 import org.rstudio.studio.client.workbench.views.files.model.DirectoryListing;
 import org.rstudio.studio.client.workbench.views.files.model.FileUploadToken;
 import org.rstudio.studio.client.workbench.views.help.model.HelpInfo;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryEntry;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultsPage;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultsSummary;
 import org.rstudio.studio.client.workbench.views.output.lint.model.LintItem;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallContext;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageState;
@@ -177,6 +188,8 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.core.client.JsArrayNumber;
 import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.http.client.URL;
 import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONBoolean;
@@ -900,7 +913,7 @@ public class RemoteServer implements Server
    {
       JSONArray params = new JSONArray();
       params.set(0, JSONBoolean.getInstance(manual));
-      sendRequest(RPC_SCOPE, GET_PACKAGE_STATE, params, requestCallback);
+      sendCoalescedRequest(RPC_SCOPE, GET_PACKAGE_STATE, params, requestCallback);
    }
    
    public void getPackageInstallContext(
@@ -1051,10 +1064,10 @@ public class RemoteServer implements Server
       paramArray.set(0, new JSONString(directory.getPath()));
       paramArray.set(1, JSONBoolean.getInstance(monitor));
       
-      sendRequest(RPC_SCOPE, 
-                  LIST_FILES, 
-                  paramArray, 
-                  requestCallback);    
+      sendCoalescedRequest(RPC_SCOPE, 
+                           LIST_FILES, 
+                           paramArray, 
+                           requestCallback);    
    }
 
    public void listAllFiles(String path,
@@ -1258,6 +1271,12 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, PREVIOUS_PLOT, requestCallback);
    }
    
+   public void setActivePlot(int index,
+                             ServerRequestCallback<Void> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, SET_ACTIVE_PLOT, index, requestCallback);
+   }
+
    public void removePlot(ServerRequestCallback<Void> requestCallback)
    {
       sendRequest(RPC_SCOPE, REMOVE_PLOT, requestCallback);
@@ -1588,6 +1607,33 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, SAVE_DOCUMENT_DIFF, params, requestCallback);
    }
 
+   public void saveDocumentDeltas(String id,
+                                  String path,
+                                  String fileType,
+                                  String encoding,
+                                  String foldSpec,
+                                  JsArray<ChunkDefinition> chunkDefs,
+                                  JSONArray deltas,
+                                  int lineCount,
+                                  String hash,
+                                  ServerRequestCallback<String> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(id));
+      params.set(1, path == null ? JSONNull.getInstance() : new JSONString(path));
+      params.set(2, fileType == null ? JSONNull.getInstance() : new JSONString(fileType));
+      params.set(3, encoding == null ? JSONNull.getInstance() : new JSONString(encoding));
+      params.set(4, new JSONString(StringUtil.notNull(foldSpec)));
+      params.set(5, chunkDefs == null ? JSONNull.getInstance() : new JSONObject(chunkDefs));
+      params.set(6, new JSONString(""));
+      params.set(7, new JSONNumber(0));
+      params.set(8, new JSONNumber(0));
+      params.set(9, new JSONString(hash));
+      params.set(10, deltas);
+      params.set(11, new JSONNumber(lineCount));
+      sendRequest(RPC_SCOPE, SAVE_DOCUMENT_DIFF, params, requestCallback);
+   }
+
    public void checkForExternalEdit(
          String id,
          ServerRequestCallback<CheckForExternalEditResult> requestCallback)
@@ -1972,7 +2018,10 @@ public class RemoteServer implements Server
    @Override
    public void gitAllStatus(ServerRequestCallback<AllStatus> requestCallback)
    {
-      sendRequest(RPC_SCOPE, GIT_ALL_STATUS, requestCallback);
+      sendCoalescedRequest(RPC_SCOPE, 
+                           GIT_ALL_STATUS, 
+                           new JSONArray(), 
+                           requestCallback);
    }
 
    @Override
@@ -2142,6 +2191,25 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, GIT_DIFF_FILE, params, requestCallback);
    }
 
+   @Override
+   public void gitDiffFilePage(String path,
+                               PatchMode mode,
+                               int contextLines,
+                               boolean noSizeWarning,
+                               int offset,
+                               String diffId,
+                               ServerRequestCallback<DiffPage> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(path));
+      params.set(1, new JSONNumber(mode.getValue()));
+      params.set(2, new JSONNumber(contextLines));
+      params.set(3, JSONBoolean.getInstance(noSizeWarning));
+      params.set(4, new JSONNumber(offset));
+      params.set(5, new JSONString(StringUtil.notNull(diffId)));
+      sendRequest(RPC_SCOPE, GIT_DIFF_FILE_PAGE, params, requestCallback);
+   }
+
    @Override
    public void gitApplyPatch(String patch,
                              PatchMode mode,
@@ -2327,6 +2395,28 @@ public class RemoteServer implements Server
                          retryHandler);
    }
 
+   // open a streaming connection for events (errors are reported to the
+   // caller without any retry, the caller falls back to getEvents)
+   RpcRequest streamEvents(int lastEventId, RpcStreamCallback callback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONNumber(lastEventId));
+      params.set(1, JSONBoolean.getInstance(true));
+      
+      RpcRequest rpcRequest = new RpcRequest(
+                              getApplicationURL(EVENTS_SCOPE) + "/get_events",
+                              "get_events",
+                              params,
+                              null,
+                              false,
+                              null,
+                              clientId_,
+                              clientVersion_);
+      if (!isDisconnected())
+         rpcRequest.stream(callback);
+      return rpcRequest;
+   }
+
    void handleUnauthorizedError()
    {
       // disconnect
@@ -2513,6 +2603,15 @@ public class RemoteServer implements Server
                      requestCallback.onError(
                       new RemoteServerError(response.getError()));
                   }
+                  else if (requestCallback instanceof
+                                          ServerRequestChunkedCallback &&
+                           JsonArrayChunkDecoder.isArray(
+                                          response.getUnparsedResult()))
+                  {
+                     deliverChunks(
+                        response.getUnparsedResult(),
+                        (ServerRequestChunkedCallback<?>) requestCallback);
+                  }
                   else
                   {
                      T result = response.<T> getResult();
@@ -2524,6 +2623,43 @@ public class RemoteServer implements Server
 
    }
       
+   private <T extends JavaScriptObject> void deliverChunks(
+                        String json,
+                        final ServerRequestChunkedCallback<T> requestCallback)
+   {
+      final JsonArrayChunkDecoder<T> decoder =
+                                    new JsonArrayChunkDecoder<T>(json);
+      decoder.start(requestCallback.getChunkSize(),
+                    new JsonArrayChunkDecoder.Handler<T>()
+      {
+         @Override
+         public void onChunk(JsArray<T> chunk)
+         {
+            if (requestCallback.cancelled())
+               decoder.cancel();
+            else
+               requestCallback.onChunkReceived(chunk);
+         }
+
+         @Override
+         public void onComplete()
+         {
+            if (!requestCallback.cancelled())
+               requestCallback.onChunksComplete();
+         }
+
+         @Override
+         public void onError(String message)
+         {
+            if (!requestCallback.cancelled())
+            {
+               requestCallback.onError(new RemoteServerError(
+                     RpcError.create(RpcError.TRANSMISSION_ERROR, message)));
+            }
+         }
+      });
+   }
+
    // lowest level sendRequest method -- called from the main workbench
    // in two scenarios: direct internal call and servicing a proxied
    // request from a satellite window
@@ -2534,6 +2670,25 @@ public class RemoteServer implements Server
                                   boolean redactLog,
                                   final RpcResponseHandler responseHandler,
                                   final RetryHandler retryHandler)
+   {
+      return sendRequest(sourceWindow,
+                         scope,
+                         method,
+                         params,
+                         null,
+                         redactLog,
+                         responseHandler,
+                         retryHandler);
+   }
+
+   private RpcRequest sendRequest(String sourceWindow,
+                                  String scope, 
+                                  String method, 
+                                  JSONArray params,
+                                  JSONObject kwparams,
+                                  boolean redactLog,
+                                  final RpcResponseHandler responseHandler,
+                                  final RetryHandler retryHandler)
    {      
       // ensure we are listening for events. note that we do this here
       // because we are no longer so aggressive about retrying on failed
@@ -2546,7 +2701,7 @@ public class RemoteServer implements Server
       RpcRequest rpcRequest = new RpcRequest(rserverURL,
                                              method,
                                              params,
-                                             null,
+                                             kwparams,
                                              redactLog,
                                              sourceWindow,
                                              clientId_,
@@ -2555,8 +2710,8 @@ public class RemoteServer implements Server
       if (isDisconnected())
          return rpcRequest;
 
-      // send the request
-      rpcRequest.send(new RpcRequestCallback() {
+      // create the callback which processes the response
+      RpcRequestCallback rpcCallback = new RpcRequestCallback() {
          public void onError(RpcRequest request, RpcError error)
          {
             // ignore errors if we are disconnected
@@ -2620,12 +2775,183 @@ public class RemoteServer implements Server
                   serverEventListener_.ensureEvents();
             }
          }
-      });
+      };
+
+      // send the request (deferring it to the end of the current event loop
+      // so it can share a round trip with other requests if possible)
+      if (isBatchable(scope, method, redactLog))
+         enqueBatchedRequest(rpcRequest, rpcCallback);
+      else
+         rpcRequest.send(rpcCallback);
 
       // return the request
       return rpcRequest;
    }
    
+   private boolean isBatchable(String scope, String method, boolean redactLog)
+   {
+      return BATCH_REQUESTS &&
+             scope.equals(RPC_SCOPE) &&
+             !redactLog &&
+             !UNBATCHED_METHODS.contains(method);
+   }
+   
+   private void enqueBatchedRequest(RpcRequest request,
+                                    RpcRequestCallback callback)
+   {
+      if (pendingBatch_ == null)
+      {
+         pendingBatch_ = new RpcBatchRequest(
+               getApplicationURL(RPC_SCOPE) + "/" + RpcBatchRequest.METHOD,
+               clientId_,
+               clientVersion_,
+               batchErrorHandler_);
+         
+         Scheduler.get().scheduleFinally(new ScheduledCommand() {
+            @Override
+            public void execute()
+            {
+               RpcBatchRequest batch = pendingBatch_;
+               pendingBatch_ = null;
+               if (batch != null && !isDisconnected())
+                  batch.send();
+            }
+         });
+      }
+      
+      pendingBatch_.add(request, callback);
+   }
+   
+   // send a request for an idempotent method, sharing the response with
+   // any identical request (same method and params) which is in flight
+   private <T> void sendCoalescedRequest(
+                              final String scope,
+                              final String method,
+                              final JSONArray params,
+                              final ServerRequestCallback<T> requestCallback)
+   {
+      final String key = scope + "/" + method + ":" + params.toString();
+      
+      // piggyback on the in-flight request if we have one
+      ArrayList<ServerRequestCallback<?>> waiting = inflightRequests_.get(key);
+      if (waiting != null)
+      {
+         waiting.add(requestCallback);
+         return;
+      }
+      
+      waiting = new ArrayList<ServerRequestCallback<?>>();
+      waiting.add(requestCallback);
+      inflightRequests_.put(key, waiting);
+      
+      ServerRequestCallback<T> callback = new ServerRequestCallback<T>() {
+         
+         @Override
+         @SuppressWarnings("unchecked")
+         public void onResponseReceived(T response)
+         {
+            ArrayList<ServerRequestCallback<?>> callbacks =
+                                             inflightRequests_.remove(key);
+            if (callbacks == null)
+               return;
+            for (ServerRequestCallback<?> callback : callbacks)
+            {
+               if (!callback.cancelled())
+                  ((ServerRequestCallback<T>) callback).onResponseReceived(
+                                                                  response);
+            }
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            ArrayList<ServerRequestCallback<?>> callbacks =
+                                             inflightRequests_.remove(key);
+            if (callbacks == null)
+               return;
+            for (ServerRequestCallback<?> callback : callbacks)
+            {
+               if (!callback.cancelled())
+                  callback.onError(error);
+            }
+         }
+      };
+      
+      if (CONDITIONAL_METHODS.contains(method) &&
+          !Satellite.isCurrentWindowSatellite())
+      {
+         sendConditionalRequest(scope, method, params, key, callback);
+      }
+      else
+      {
+         sendRequest(scope, method, params, callback);
+      }
+   }
+   
+   // send a request which asks the server to reply "unchanged" (or with a
+   // delta) if we already have (most of) the result from the last time
+   // the same request was made
+   private <T> void sendConditionalRequest(
+                              final String scope,
+                              final String method,
+                              final JSONArray params,
+                              final String key,
+                              final ServerRequestCallback<T> requestCallback)
+   {
+      final ConditionalResultCache.Entry base = conditionalResults_.get(key);
+      final JSONObject kwparams = new JSONObject();
+      kwparams.put("if_none_match",
+                   new JSONString(base != null ? base.hash : ""));
+      
+      final RpcResponseHandler responseHandler = new RpcResponseHandler()
+      {
+         @Override
+         public void onResponseReceived(RpcResponse response)
+         {
+            if (response.getError() != null)
+            {
+               requestCallback.onError(
+                     new RemoteServerError(response.getError()));
+            }
+            else
+            {
+               T result = conditionalResults_.<T>resolve(key, base, response);
+               requestCallback.onResponseReceived(result);
+            }
+         }
+      };
+      
+      // retry handler (as in sendRequestWithRetry)
+      RetryHandler retryHandler = new RetryHandler() {
+
+         public void onRetry()
+         {
+            sendRequest(null,
+                        scope,
+                        method,
+                        params,
+                        kwparams,
+                        false,
+                        responseHandler,
+                        null);
+         }   
+
+         public void onError(RpcError error)
+         {
+            requestCallback.onError(new RemoteServerError(error));
+         }
+      };
+      
+      sendRequest(null,
+                  scope,
+                  method,
+                  params,
+                  kwparams,
+                  false,
+                  responseHandler,
+                  retryHandler);
+   }
+   
    private void ensureListeningForEvents()
    {
       // don't do this if we are disconnected
@@ -3498,6 +3824,31 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, STOP_FIND, findOperationHandle, requestCallback);
    }
 
+   @Override
+   public void getFindResults(
+                     String findOperationHandle,
+                     int offset,
+                     int count,
+                     ServerRequestCallback<FindResultsPage> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(findOperationHandle));
+      params.set(1, new JSONNumber(offset));
+      params.set(2, new JSONNumber(count));
+      sendRequest(RPC_SCOPE, GET_FIND_RESULTS, params, requestCallback);
+   }
+
+   @Override
+   public void getFindSummary(
+                     String findOperationHandle,
+                     ServerRequestCallback<FindResultsSummary> requestCallback)
+   {
+      sendRequest(RPC_SCOPE,
+                  GET_FIND_SUMMARY,
+                  findOperationHandle,
+                  requestCallback);
+   }
+
    @Override
    public void clearFindResults(ServerRequestCallback<Void> requestCallback)
    {
@@ -3542,7 +3893,25 @@ public class RemoteServer implements Server
    @Override
    public void listEnvironment(ServerRequestCallback<JsArray<RObject>> callback)
    {
-      sendRequest(RPC_SCOPE, LIST_ENVIRONMENT, callback);
+      sendCoalescedRequest(RPC_SCOPE, LIST_ENVIRONMENT, new JSONArray(), callback);
+   }
+
+   @Override
+   public void listEnvironmentPage(
+                     int offset,
+                     int count,
+                     String filter,
+                     int sortColumn,
+                     boolean ascending,
+                     ServerRequestCallback<EnvironmentPage> callback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONNumber(offset));
+      params.set(1, new JSONNumber(count));
+      params.set(2, new JSONString(filter));
+      params.set(3, new JSONNumber(sortColumn));
+      params.set(4, JSONBoolean.getInstance(ascending));
+      sendRequest(RPC_SCOPE, LIST_ENVIRONMENT_PAGE, params, callback);
    }
 
    @Override
@@ -4179,7 +4548,7 @@ public class RemoteServer implements Server
    
    @Override
    public void refreshChunkOutput(String docPath, String docId, 
-         String contextId, String requestId, 
+         String contextId, String requestId, List<String> chunkIds,
          ServerRequestCallback<Void> requestCallback)
    {
       JSONArray params = new JSONArray();
@@ -4187,12 +4556,27 @@ public class RemoteServer implements Server
       params.set(1, new JSONString(docId));
       params.set(2, new JSONString(contextId));
       params.set(3, new JSONString(requestId));
+      params.set(4, JSONUtils.toJSONStringArray(chunkIds));
       sendRequest(RPC_SCOPE,
             "refresh_chunk_output",
             params,
             requestCallback);
    }
 
+   @Override
+   public void executeNotebookChunks(String docId, 
+         JsArray<RmdChunkQueueUnit> units,
+         ServerRequestCallback<Void> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(docId));
+      params.set(1, new JSONArray(units));
+      sendRequest(RPC_SCOPE,
+            "execute_notebook_chunks",
+            params,
+            requestCallback);
+   }
+
    @Override
    public void setChunkConsole(String docId, String chunkId, String options,
          boolean replace, ServerRequestCallback<Void> requestCallback)
@@ -4395,7 +4779,7 @@ public class RemoteServer implements Server
    @Override
    public void getSnippets(ServerRequestCallback<JsArray<SnippetData>> callback)
    {
-      sendRequest(RPC_SCOPE, GET_SNIPPETS, callback);
+      sendCoalescedRequest(RPC_SCOPE, GET_SNIPPETS, new JSONArray(), callback);
    }
    
    @Override
@@ -4587,6 +4971,54 @@ public class RemoteServer implements Server
    private final RemoteServerEventListener serverEventListener_ ;
 
    private final Provider<ConsoleProcessFactory> pConsoleProcessFactory_;
+   
+   // requests issued during the current event loop (sent as one batch)
+   private RpcBatchRequest pendingBatch_ = null;
+
+   // Errors for a batch as a whole are handled once for the batch: an
+   // unauthorized batch is sent again once the credentials are updated,
+   // and errors which disconnect us aren't reported for each request.
+   // Other errors (e.g. transmission errors) are delivered to each of the
+   // batch's requests.
+   private final RpcBatchRequest.ErrorHandler batchErrorHandler_ =
+                                       new RpcBatchRequest.ErrorHandler()
+   {
+      @Override
+      public boolean onBatchError(final RpcBatchRequest batch,
+                                  RpcError error)
+      {
+         if (isDisconnected())
+            return true;
+         
+         RetryHandler retryHandler = new RetryHandler()
+         {
+            @Override
+            public void onRetry()
+            {
+               if (!isDisconnected())
+                  batch.send();
+            }
+            
+            @Override
+            public void onError(RpcError error)
+            {
+            }
+         };
+         if (resolveRpcErrorAndRetry(error, retryHandler))
+            return true;
+         
+         return handleRpcErrorInternally(error);
+      }
+   };
+   
+   // callbacks waiting on in-flight idempotent requests (keyed by request)
+   private final HashMap<String, ArrayList<ServerRequestCallback<?>>>
+         inflightRequests_ =
+               new HashMap<String, ArrayList<ServerRequestCallback<?>>>();
+
+   // last results of requests made with conditional responses
+   private final ConditionalResultCache conditionalResults_ =
+                                          new ConditionalResultCache();
 
    private final Session session_;
    private final EventBus eventBus_;
@@ -4683,6 +5115,7 @@ public class RemoteServer implements Server
 
    private static final String NEXT_PLOT = "next_plot";
    private static final String PREVIOUS_PLOT = "previous_plot";
+   private static final String SET_ACTIVE_PLOT = "set_active_plot";
    private static final String REMOVE_PLOT = "remove_plot";
    private static final String CLEAR_PLOTS = "clear_plots";
    private static final String REFRESH_PLOT = "refresh_plot";
@@ -4767,6 +5200,7 @@ public class RemoteServer implements Server
    private static final String GIT_SET_IGNORES = "git_set_ignores";
    private static final String GIT_GITHUB_REMOTE_URL = "git_github_remote_url";
    private static final String GIT_DIFF_FILE = "git_diff_file";
+   private static final String GIT_DIFF_FILE_PAGE = "git_diff_file_page";
    private static final String GIT_APPLY_PATCH = "git_apply_patch";
    private static final String GIT_HISTORY_COUNT = "git_history_count";
    private static final String GIT_HISTORY = "git_history";
@@ -4841,6 +5275,8 @@ public class RemoteServer implements Server
 
    private static final String BEGIN_FIND = "begin_find";
    private static final String STOP_FIND = "stop_find";
+   private static final String GET_FIND_RESULTS = "get_find_results";
+   private static final String GET_FIND_SUMMARY = "get_find_summary";
    
    private static final String GET_CPP_COMPLETIONS = "get_cpp_completions";
    private static final String GET_CPP_DIAGNOSTICS = "get_cpp_diagnostics";
@@ -4852,6 +5288,7 @@ public class RemoteServer implements Server
    private static final String DEVTOOLS_LOAD_ALL_PATH = "devtools_load_all_path";
 
    private static final String LIST_ENVIRONMENT = "list_environment";
+   private static final String LIST_ENVIRONMENT_PAGE = "list_environment_page";
    private static final String SET_CONTEXT_DEPTH = "set_context_depth";
    private static final String SET_ENVIRONMENT = "set_environment";
    private static final String SET_ENVIRONMENT_FRAME = "set_environment_frame";
@@ -4940,4 +5377,35 @@ public class RemoteServer implements Server
    private static final String COPY_PROFILE = "copy_profile";
    private static final String CLEAR_PROFILE = "clear_profile";
    private static final String PROFILE_SOURCES = "profile_sources";
+
+   private static final boolean BATCH_REQUESTS = true;
+   
+   // methods whose (often large and frequently unchanged) results are
+   // requested conditionally
+   private static final HashSet<String> CONDITIONAL_METHODS =
+         new HashSet<String>(Arrays.asList(
+               GET_PACKAGE_STATE,
+               LIST_FILES,
+               GIT_ALL_STATUS,
+               LIST_ENVIRONMENT));
+   
+   // methods which must always be sent on their own (they are either handled
+   // specially by the session or complete a waitForMethod loop)
+   private static final HashSet<String> UNBATCHED_METHODS =
+         new HashSet<String>(Arrays.asList(
+               CLIENT_INIT,
+               QUIT_SESSION,
+               SUSPEND_SESSION,
+               SUSPEND_FOR_RESTART,
+               INTERRUPT,
+               ABORT,
+               PING,
+               CONSOLE_INPUT,
+               EDIT_COMPLETED,
+               CHOOSE_FILE_COMPLETED,
+               LOCATOR_COMPLETED,
+               USER_PROMPT_COMPLETED,
+               HANDLE_UNSAVED_CHANGES_COMPLETED,
+               GET_ACTIVE_DOCUMENT_CONTEXT_COMPLETED,
+               ASKPASS_COMPLETED));
 }
@@ -20,10 +20,13 @@ import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.Window.ClosingEvent;
 import com.google.gwt.user.client.Window.ClosingHandler;
+import org.rstudio.core.client.jsonrpc.EventChannelStats;
 import org.rstudio.core.client.jsonrpc.RpcError;
 import org.rstudio.core.client.jsonrpc.RpcRequest;
 import org.rstudio.core.client.jsonrpc.RpcRequestCallback;
 import org.rstudio.core.client.jsonrpc.RpcResponse;
+import org.rstudio.core.client.jsonrpc.RpcStreamCallback;
+import org.rstudio.studio.client.application.Desktop;
 import org.rstudio.studio.client.application.events.*;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
@@ -129,6 +132,7 @@ class RemoteServerEventListener
    {        
       isListening_ = false;
       listenCount_ = 0;
+      streamHandshakeTimer_.cancel();
       if (activeRequestCallback_ != null)
       {
          activeRequestCallback_.cancel();
@@ -246,6 +250,18 @@ class RemoteServerEventListener
       // abort if we are no longer running
       if (!isListening_)
          return;
+      
+      EventChannelStats.recordConnection();
+      
+      // stream events unless streaming isn't available (or we are using the
+      // long-poll to recover from an error while streaming)
+      if (!streamingDisabled_ && !longPollNext_)
+      {
+         EventChannelStats.setMode(EventChannelStats.MODE_STREAMING);
+         doStream();
+         return;
+      }
+      EventChannelStats.setMode(EventChannelStats.MODE_LONG_POLL);
           
       // setup request callback (save reference for cancellation)
       activeRequestCallback_ = new ServerRequestCallback<JsArray<ClientEvent>>() 
@@ -256,26 +272,14 @@ class RemoteServerEventListener
             // keep watchdog appraised of successful receipt of events
             watchdog_.notifyResponseReceived();
             
+            // the long-poll succeeded so we can go back to streaming
+            longPollNext_ = false;
+            
             try
             {
                // only processs events if we are still listening
-               if (isListening_ && (events != null))
-               {
-                  for (int i=0; i<events.length(); i++)
-                  {
-                     // we can stop listening in the middle of dispatching
-                     // events (e.g. if we dispatch a Suicide event) so we 
-                     // need to check the listening_ flag before each event
-                     // is dispatched
-                     if (!isListening_)
-                        return;
-                     
-                     // disppatch event
-                     ClientEvent event = events.get(i);
-                     dispatchEvent(event);
-                     lastEventId_ = event.getId();
-                  }   
-               }
+               if (isListening_ && !dispatchEvents(events))
+                  return;
             }
             // catch all here to make sure that in all cases we call
             // listen() again after processing
@@ -356,6 +360,114 @@ class RemoteServerEventListener
    }
    
    
+   private void doStream()
+   {
+      streamChunkReceived_ = false;
+      
+      RpcStreamCallback callback = new RpcStreamCallback() {
+         
+         @Override
+         public void onChunkReceived(RpcRequest request, RpcResponse response)
+         {
+            // ignore chunks from streams we are no longer interested in
+            if (request != activeRequest_)
+               return;
+            
+            streamChunkReceived_ = true;
+            streamHandshakeTimer_.cancel();
+            
+            // keep watchdog appraised of successful receipt of events
+            watchdog_.notifyResponseReceived();
+            
+            // let the long-poll deal with errors (it knows how to retry and
+            // how to report them)
+            if (response.getError() != null)
+            {
+               fallBackToLongPoll(false);
+               return;
+            }
+            
+            try
+            {
+               JsArray<ClientEvent> events = response.getResult();
+               dispatchEvents(events);
+            }
+            catch(Throwable e)
+            {
+               GWT.log("ERROR: Processing client events", e);
+            }
+         }
+         
+         @Override
+         public void onStreamEnded(RpcRequest request)
+         {
+            if (request != activeRequest_)
+               return;
+            
+            // the server ended the stream, open the next one
+            activeRequest_ = null;
+            streamHandshakeTimer_.cancel();
+            listen();
+         }
+         
+         @Override
+         public void onError(RpcRequest request, RpcError error)
+         {
+            if (request != activeRequest_)
+               return;
+            
+            // if we never received anything then don't try streaming again
+            fallBackToLongPoll(!streamChunkReceived_);
+         }
+      };
+      
+      activeRequest_ = server_.streamEvents(lastEventId_, callback);
+      streamHandshakeTimer_.schedule(kStreamHandshakeMs);
+   }
+   
+   private void fallBackToLongPoll(boolean disableStreaming)
+   {
+      streamHandshakeTimer_.cancel();
+      if (activeRequest_ != null)
+      {
+         activeRequest_.cancel();
+         activeRequest_ = null;
+      }
+      
+      if (disableStreaming)
+         streamingDisabled_ = true;
+      longPollNext_ = true;
+      
+      listen();
+   }
+   
+   // dispatch a batch of events, returns false if we stopped listening
+   // while dispatching them
+   private boolean dispatchEvents(JsArray<ClientEvent> events)
+   {
+      if (events == null)
+         return true;
+      
+      EventChannelStats.recordEvents(events.length());
+      
+      for (int i=0; i<events.length(); i++)
+      {
+         // we can stop listening in the middle of dispatching
+         // events (e.g. if we dispatch a Suicide event) so we 
+         // need to check the listening_ flag before each event
+         // is dispatched
+         if (!isListening_)
+            return false;
+         
+         // disppatch event
+         ClientEvent event = events.get(i);
+         dispatchEvent(event);
+         lastEventId_ = event.getId();
+      }
+      
+      return true;
+   }
+   
    private void dispatchEvent(ClientEvent event)
    {
       // do some special handling before calling the standard dispatcher
@@ -480,6 +592,11 @@ class RemoteServerEventListener
    // unnecessarily during a listen delay
    private final int kWatchdogIntervalMs = 1000;
    private final int kSecondListenBounceMs = 250;
+   
+   // time to wait for the first chunk of a stream. if it doesn't arrive in
+   // time the response is likely being buffered (e.g. by a proxy) so we
+   // use the long-poll instead
+   private final int kStreamHandshakeMs = 2000;
        
    private boolean isListening_;
    private int lastEventId_ ;
@@ -495,6 +612,20 @@ class RemoteServerEventListener
    private final ClientEventHandler externalEventHandler_;
      
    private Watchdog watchdog_ = new Watchdog();
+   
+   // in server mode the rserver proxy buffers responses, so the session
+   // only streams events to desktop clients
+   private boolean streamingDisabled_ = !Desktop.isDesktop();
+   private boolean longPollNext_ = false;
+   private boolean streamChunkReceived_ = false;
+   private final Timer streamHandshakeTimer_ = new Timer() {
+      @Override
+      public void run()
+      {
+         if (activeRequest_ != null && !streamChunkReceived_)
+            fallBackToLongPoll(true);
+      }
+   };
 
    // Stores async requests that expect to be completed later.
    private final HashMap<String, AsyncRequestInfo> asyncRequests_
@@ -43,7 +43,6 @@ import org.rstudio.core.client.theme.RStudioDataGridResources;
 import org.rstudio.core.client.theme.RStudioDataGridStyle;
 import org.rstudio.core.client.widget.FilterWidget;
 import org.rstudio.core.client.widget.ModalDialog;
-import org.rstudio.core.client.widget.ModifyKeyboardShortcutsWidget;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.core.client.widget.ThemedButton;
 import org.rstudio.studio.client.RStudioGinjector;
@@ -52,6 +51,7 @@ import org.rstudio.studio.client.workbench.addins.Addins.AddinExecutor;
 import org.rstudio.studio.client.workbench.addins.Addins.RAddin;
 import org.rstudio.studio.client.workbench.addins.Addins.RAddins;
 import org.rstudio.studio.client.workbench.addins.AddinsCommandManager;
+import org.rstudio.studio.client.workbench.ui.KeyboardShortcutsLoader;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -127,8 +127,7 @@ public class BrowseAddinsDialog extends ModalDialog<Command>
          @Override
          public void onClick(ClickEvent event)
          {
-            ModifyKeyboardShortcutsWidget widget = new ModifyKeyboardShortcutsWidget("addin");
-            widget.showModal();
+            shortcutsLoader_.showShortcuts("addin");
          }
       }));
       
@@ -153,9 +152,11 @@ public class BrowseAddinsDialog extends ModalDialog<Command>
    }
    
    @Inject
-   private void initialize(AddinsCommandManager addinsCommandManager)
+   private void initialize(AddinsCommandManager addinsCommandManager,
+                           KeyboardShortcutsLoader.Shim shortcutsLoader)
    {
       addinsCommandManager_ = addinsCommandManager;
+      shortcutsLoader_ = shortcutsLoader;
    }
    
    private void addColumns()
@@ -347,6 +348,7 @@ public class BrowseAddinsDialog extends ModalDialog<Command>
    
    // Injected ----
    private AddinsCommandManager addinsCommandManager_;
+   private KeyboardShortcutsLoader.Shim shortcutsLoader_;
    
    // Resources, etc ----
    public interface Resources extends RStudioDataGridResources
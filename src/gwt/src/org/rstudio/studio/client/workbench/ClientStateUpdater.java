@@ -14,6 +14,7 @@
  */
 package org.rstudio.studio.client.workbench;
 
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.inject.Inject;
 
 import org.rstudio.core.client.Barrier.Token;
@@ -62,7 +63,10 @@ public class ClientStateUpdater extends TimeBufferedCommand
             // has elapsed. This lets us avoid storms of requests during
             // startup.
             if (lastExecuted_ != null)
+            {
+               pendingPushes_++;
                nudge();
+            }
          }
       });
 
@@ -87,9 +91,21 @@ public class ClientStateUpdater extends TimeBufferedCommand
       });
    }
 
+   // Summarizes what coalescing pushes has saved so far: each push folded
+   // into an update requested by an earlier push would otherwise have sent
+   // an update of its own (at least as large as the one that was sent).
+   public String getMetricsSummary()
+   {
+      return "Client state: " + requestsSaved_ + " requests saved (" +
+             bytesSaved_ + " bytes) by coalescing pushes";
+   }
+
    @Override
    protected void performAction(final boolean shouldSchedulePassive)
    {
+      int coalesced = Math.max(pendingPushes_ - 1, 0);
+      pendingPushes_ = 0;
+
       ClientState state = ClientState.create();
       try
       {
@@ -107,6 +123,15 @@ public class ClientStateUpdater extends TimeBufferedCommand
          return;
       }
 
+      if (coalesced > 0)
+      {
+         requestsSaved_ += coalesced;
+         bytesSaved_ += coalesced *
+               (jsonLength(state.getTemporaryData()) +
+                jsonLength(state.getPersistentData()) +
+                jsonLength(state.getProjectPersistentData()));
+      }
+
       try
       {
          server_.updateClientState(
@@ -145,6 +170,10 @@ public class ClientStateUpdater extends TimeBufferedCommand
          schedulePassive();
    }
 
+   private static native int jsonLength(JavaScriptObject value) /*-{
+      return value ? JSON.stringify(value).length : 0;
+   }-*/;
+
    private static final int INITIAL_INTERVAL_MILLIS = 2000;
    private static final int PASSIVE_INTERVAL_MILLIS = 5000;
    private static final int ACTIVE_INTERVAL_MILLIS = Desktop.isDesktop()
@@ -153,4 +182,8 @@ public class ClientStateUpdater extends TimeBufferedCommand
    private final EventBus events_;
    private final WorkbenchServerOperations server_;
    private Token barrierToken_;
+
+   private int pendingPushes_;
+   private int requestsSaved_;
+   private int bytesSaved_;
 }
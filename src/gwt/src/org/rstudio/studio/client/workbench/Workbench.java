@@ -14,19 +14,19 @@
  */
 package org.rstudio.studio.client.workbench;
 
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Size;
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
 import org.rstudio.core.client.files.FileSystemItem;
-import org.rstudio.core.client.widget.ModifyKeyboardShortcutsWidget;
 import org.rstudio.core.client.widget.Operation;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.core.client.widget.ProgressIndicator;
@@ -63,6 +63,7 @@ import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.events.*;
 import org.rstudio.studio.client.workbench.model.*;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
+import org.rstudio.studio.client.workbench.ui.KeyboardShortcutsLoader;
 import org.rstudio.studio.client.workbench.views.choosefile.ChooseFile;
 import org.rstudio.studio.client.workbench.views.files.events.DirectoryNavigateEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.ProfilerPresenter;
@@ -100,6 +101,7 @@ public class Workbench implements BusyHandler,
                     ConsoleDispatcher consoleDispatcher,
                     WorkbenchNewSession newSession,
                     ProjectOpener projectOpener,
+                    KeyboardShortcutsLoader.Shim shortcutsLoader,
                     Provider<GitState> pGitState,
                     ChooseFile chooseFile,   // required to force gin to create
                     AskPassManager askPass,  // required to force gin to create
@@ -126,6 +128,7 @@ public class Workbench implements BusyHandler,
       consoleDispatcher_ = consoleDispatcher;
       pGitState_ = pGitState;
       newSession_ = newSession;
+      shortcutsLoader_ = shortcutsLoader;
       
       ((Binder)GWT.create(Binder.class)).bind(commands, this);
       
@@ -142,16 +145,17 @@ public class Workbench implements BusyHandler,
       eventBus.addHandler(ShinyGadgetDialogEvent.TYPE, this);
       eventBus.addHandler(ExecuteUserCommandEvent.TYPE, this);
 
-      // We don't want to send setWorkbenchMetrics more than once per 1/2-second
-      metricsChangedCommand_ = new TimeBufferedCommand(-1, -1, 500)
+      // Each setWorkbenchMetrics re-renders the current plot at the new
+      // size, so while panes are being resized (e.g. a splitter dragged)
+      // we wait for the size to settle, send no more than one update per
+      // plot render interval, and skip sizes superseded while an update
+      // is in flight (the plots pane scales the current plot meanwhile)
+      metricsChangedTimer_ = new Timer()
       {
          @Override
-         protected void performAction(boolean shouldSchedulePassive)
+         public void run()
          {
-            assert !shouldSchedulePassive;
-            
-            server_.setWorkbenchMetrics(lastWorkbenchMetrics_,
-                                        new VoidServerRequestCallback());
+            sendWorkbenchMetrics();
          }
       };
    }
@@ -220,7 +224,57 @@ public class Workbench implements BusyHandler,
    public void onWorkbenchMetricsChanged(WorkbenchMetricsChangedEvent event)
    {
       lastWorkbenchMetrics_ = event.getWorkbenchMetrics();
-      metricsChangedCommand_.nudge();
+      metricsChangedTimer_.schedule(getPlotRenderIntervalMs());
+   }
+   
+   private void sendWorkbenchMetrics()
+   {
+      // wait for the update in flight (we'll send the latest metrics when
+      // it completes)
+      if (metricsUpdatePending_)
+         return;
+      
+      // don't send updates more often than the render interval
+      int interval = getPlotRenderIntervalMs();
+      double elapsed = Duration.currentTimeMillis() - lastMetricsSentMs_;
+      if (elapsed < interval)
+      {
+         metricsChangedTimer_.schedule(Math.max(1, (int)(interval - elapsed)));
+         return;
+      }
+      
+      final WorkbenchMetrics metrics = lastWorkbenchMetrics_;
+      metricsUpdatePending_ = true;
+      lastMetricsSentMs_ = Duration.currentTimeMillis();
+      server_.setWorkbenchMetrics(metrics, new ServerRequestCallback<Void>()
+      {
+         @Override
+         public void onResponseReceived(Void response)
+         {
+            onCompleted();
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            onCompleted();
+         }
+         
+         private void onCompleted()
+         {
+            metricsUpdatePending_ = false;
+            if (lastWorkbenchMetrics_ != metrics &&
+                !metricsChangedTimer_.isRunning())
+            {
+               sendWorkbenchMetrics();
+            }
+         }
+      });
+   }
+   
+   private int getPlotRenderIntervalMs()
+   {
+      return Math.max(0, pPrefs_.get().plotRenderIntervalMs().getValue());
    }
    
    public void onQuotaStatus(QuotaStatusEvent event)
@@ -431,7 +485,7 @@ public class Workbench implements BusyHandler,
    @Handler
    public void onModifyKeyboardShortcuts()
    {
-      new ModifyKeyboardShortcutsWidget().showModal();
+      shortcutsLoader_.showShortcuts();
    }
    
    @Handler
@@ -533,8 +587,11 @@ public class Workbench implements BusyHandler,
    private final ProjectOpener projectOpener_;
    private final ConsoleDispatcher consoleDispatcher_;
    private final Provider<GitState> pGitState_;
-   private final TimeBufferedCommand metricsChangedCommand_;
+   private final KeyboardShortcutsLoader.Shim shortcutsLoader_;
+   private final Timer metricsChangedTimer_;
    private WorkbenchMetrics lastWorkbenchMetrics_;
+   private boolean metricsUpdatePending_ = false;
+   private double lastMetricsSentMs_ = 0;
    private WorkbenchNewSession newSession_;
    private boolean nearQuotaWarningShown_ = false;
    
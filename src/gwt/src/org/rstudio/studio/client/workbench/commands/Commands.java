@@ -129,6 +129,7 @@ public abstract class
    public abstract AppCommand knitWithParameters();
    public abstract AppCommand notebookExpandAllOutput();
    public abstract AppCommand notebookCollapseAllOutput();
+   public abstract AppCommand notebookClearCachedResults();
    public abstract AppCommand renameInScope();
    public abstract AppCommand insertRoxygenSkeleton();
    public abstract AppCommand insertSnippet();
@@ -162,6 +163,7 @@ public abstract class
 
    // Console
    public abstract AppCommand consoleClear();
+   public abstract AppCommand consoleFind();
    public abstract AppCommand interruptR();
    public abstract AppCommand restartR();
    public abstract AppCommand restartRClearOutput();
@@ -354,6 +356,7 @@ public abstract class
    public abstract AppCommand helpUsingRStudio();
    public abstract AppCommand helpKeyboardShortcuts();
    public abstract AppCommand showRequestLog();
+   public abstract AppCommand logRpcMetrics();
    public abstract AppCommand logFocusedElement();
    public abstract AppCommand debugDumpContents();
    public abstract AppCommand debugImportDump();
@@ -18,6 +18,7 @@ import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.js.JsObject;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.workbench.events.PushClientStateEvent;
 import org.rstudio.studio.client.workbench.events.SaveClientStateEvent;
 import org.rstudio.studio.client.workbench.events.SaveClientStateHandler;
 import org.rstudio.studio.client.workbench.model.ClientInitState;
@@ -34,6 +35,10 @@ import org.rstudio.studio.client.workbench.model.ValueChangeTracker;
  * cheaper way to determine if the value changed, you can override hasChanged()
  * and have different logic. 
  *
+ * Values which know when they change can instead override pollsForChanges()
+ * to return false and call markDirty() whenever they change; getValue() is
+ * then only called for values which have been marked dirty.
+ *
  * @param <T>
  */
 public abstract class ClientStateValue<T> implements SaveClientStateHandler
@@ -85,8 +90,32 @@ public abstract class ClientStateValue<T> implements SaveClientStateHandler
    protected abstract void onInit(T value);
    protected abstract T getValue();
 
+   /**
+    * Notes that the value has changed and requests that client state be
+    * saved (the save is deferred, so many changes in quick succession
+    * result in a single save).
+    */
+   public void markDirty()
+   {
+      dirty_ = true;
+      RStudioGinjector.INSTANCE.getEventBus().fireEvent(
+                                             new PushClientStateEvent());
+   }
+
+   /**
+    * Return false if the value calls markDirty() whenever it changes.
+    */
+   protected boolean pollsForChanges()
+   {
+      return true;
+   }
+
    public final void onSaveClientState(SaveClientStateEvent event)
    {
+      if (!pollsForChanges() && !dirty_)
+         return;
+      dirty_ = false;
+      
       try
       {
          if (hasChanged())
@@ -115,4 +144,5 @@ public abstract class ClientStateValue<T> implements SaveClientStateHandler
    private String group_;
    private String name_;
    private int persist_;
+   private boolean dirty_;
 }
@@ -180,6 +180,9 @@ public class UIPrefs extends UIPrefsAccessor implements UiPrefsChangedHandler
          alwaysCompleteDelayMs().setGlobalValue(
                                  newUiPrefs.alwaysCompleteDelayMs().getGlobalValue());
          
+         plotRenderIntervalMs().setGlobalValue(
+                                 newUiPrefs.plotRenderIntervalMs().getGlobalValue());
+         
          alwaysCompleteCharacters().setGlobalValue(
                                  newUiPrefs.alwaysCompleteCharacters().getGlobalValue());
          
@@ -410,6 +413,10 @@ public class UIPrefs extends UIPrefsAccessor implements UiPrefsChangedHandler
          ignoreWordsWithNumbers().setGlobalValue(
                     newUiPrefs.ignoreWordsWithNumbers().getGlobalValue());
          
+         // check spelling as you type
+         realTimeSpellChecking().setGlobalValue(
+                    newUiPrefs.realTimeSpellChecking().getGlobalValue());
+         
          // navigate to build error
          navigateToBuildError().setGlobalValue(
                     newUiPrefs.navigateToBuildError().getGlobalValue());
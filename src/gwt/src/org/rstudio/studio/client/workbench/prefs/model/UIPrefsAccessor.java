@@ -166,6 +166,13 @@ public class UIPrefsAccessor extends Prefs
       return integer("always_complete_delay", 250);
    }
    
+   // minimum time between re-renders of the plot while the plots pane is
+   // being resized
+   public PrefValue<Integer> plotRenderIntervalMs()
+   {
+      return integer("plot_render_interval", 500);
+   }
+   
    public PrefValue<Integer> alwaysCompleteCharacters()
    {
       return integer("always_complete_characters", 3);
@@ -455,6 +462,11 @@ public class UIPrefsAccessor extends Prefs
       return bool("ignore_words_with_numbers", true);
    }  
    
+   public PrefValue<Boolean> realTimeSpellChecking()
+   {
+      return bool("real_time_spellchecking", true);
+   }
+   
    public PrefValue<Boolean> navigateToBuildError()
    {
       return bool("navigate_to_build_error", true);
@@ -34,7 +34,6 @@ import org.rstudio.core.client.command.ShortcutManager;
 import org.rstudio.core.client.prefs.PreferencesDialogBaseResources;
 import org.rstudio.core.client.theme.DialogTabLayoutPanel;
 import org.rstudio.core.client.widget.HelpButton;
-import org.rstudio.core.client.widget.ModifyKeyboardShortcutsWidget;
 import org.rstudio.core.client.widget.NumericValueWidget;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.core.client.widget.SelectWidget;
@@ -48,6 +47,7 @@ import org.rstudio.studio.client.workbench.prefs.model.RPrefs;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefsAccessor;
 import org.rstudio.studio.client.workbench.snippets.ui.EditSnippetsDialog;
+import org.rstudio.studio.client.workbench.ui.KeyboardShortcutsLoader;
 import org.rstudio.studio.client.workbench.views.source.editors.text.FoldStyle;
 import org.rstudio.studio.client.workbench.views.source.editors.text.IconvListResult;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ui.ChooseEncodingDialog;
@@ -58,10 +58,12 @@ public class EditingPreferencesPane extends PreferencesPane
    @Inject
    public EditingPreferencesPane(UIPrefs prefs,
                                  SourceServerOperations server,
-                                 PreferencesDialogResources res)
+                                 PreferencesDialogResources res,
+                                 KeyboardShortcutsLoader.Shim shortcutsLoader)
    {
       prefs_ = prefs;
       server_ = server;
+      shortcutsLoader_ = shortcutsLoader;
       PreferencesDialogBaseResources baseRes = PreferencesDialogBaseResources.INSTANCE;
       
       VerticalPanel editingPanel = new VerticalPanel();
@@ -118,7 +120,7 @@ public class EditingPreferencesPane extends PreferencesPane
          @Override
          public void onClick(ClickEvent event)
          {
-            new ModifyKeyboardShortcutsWidget().showModal();
+            shortcutsLoader_.showShortcuts();
          }         
       });
       keyboardPanel.add(editShortcuts);
@@ -517,6 +519,7 @@ public class EditingPreferencesPane extends PreferencesPane
 
    private final UIPrefs prefs_;
    private final SourceServerOperations server_;
+   private final KeyboardShortcutsLoader.Shim shortcutsLoader_;
    private final NumericValueWidget tabWidth_;
    private final NumericValueWidget marginCol_;
    private final LineEndingsSelectWidget lineEndings_;
@@ -0,0 +1,45 @@
+/*
+ * KeyboardShortcutsLoader.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.ui;
+
+import com.google.inject.Inject;
+
+import org.rstudio.core.client.AsyncShim;
+import org.rstudio.core.client.widget.ModifyKeyboardShortcutsWidget;
+
+public class KeyboardShortcutsLoader
+{
+   public abstract static class Shim
+                        extends AsyncShim<KeyboardShortcutsLoader>
+   {
+      public abstract void showShortcuts();
+      public abstract void showShortcuts(String filterText);
+   }
+
+   @Inject
+   KeyboardShortcutsLoader()
+   {
+   }
+
+   public void showShortcuts()
+   {
+      showShortcuts(null);
+   }
+
+   public void showShortcuts(String filterText)
+   {
+      new ModifyKeyboardShortcutsWidget(filterText).showModal();
+   }
+}
@@ -113,7 +113,7 @@ public class MainSplitPanel extends NotifyingSplitLayoutPanel
       left_ = left;
       right_ = right;
 
-      new JSObjectStateValue(GROUP_WORKBENCH,
+      stateValue_ = new JSObjectStateValue(GROUP_WORKBENCH,
                              KEY_RIGHTPANESIZE,
                              ClientState.PERSISTENT,
                              session_.getSessionInfo().getClientState(),
@@ -175,6 +175,13 @@ public class MainSplitPanel extends NotifyingSplitLayoutPanel
             return false;
          }
 
+         @Override
+         protected boolean pollsForChanges()
+         {
+            // marked dirty when the splitter or window is resized
+            return false;
+         }
+
          private State lastKnownValue_;
       };
 
@@ -193,6 +200,8 @@ public class MainSplitPanel extends NotifyingSplitLayoutPanel
    {
       enforceBoundaries();
       deferredSaveWidthPercent();
+      if (stateValue_ != null)
+         stateValue_.markDirty();
    }
 
    private void enforceBoundaries()
@@ -228,6 +237,8 @@ public class MainSplitPanel extends NotifyingSplitLayoutPanel
    public void onResize()
    {
       super.onResize();
+      if (stateValue_ != null)
+         stateValue_.markDirty();
 
       int offsetWidth = getOffsetWidth();
       if ((previousOffsetWidth_ == null || offsetWidth != previousOffsetWidth_.intValue())
@@ -261,6 +272,7 @@ public class MainSplitPanel extends NotifyingSplitLayoutPanel
    @SuppressWarnings("unused")
    private Widget left_;
    private Widget right_;
+   private JSObjectStateValue stateValue_;
    private static final String GROUP_WORKBENCH = "workbenchp";
    private static final String KEY_RIGHTPANESIZE = "rightpanesize";
    private Command layoutCommand_;
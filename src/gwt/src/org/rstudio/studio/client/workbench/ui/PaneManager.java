@@ -106,6 +106,10 @@ public class PaneManager
       @Override
       protected Integer getValue() { return tabPanel_.getSelectedIndex(); }
 
+      // marked dirty when a tab is selected
+      @Override
+      protected boolean pollsForChanges() { return false; }
+
       private final WorkbenchTabPanel tabPanel_;
    }
    
@@ -145,6 +149,10 @@ public class PaneManager
          }.schedule(200);
       }
       
+      // marked dirty when a pane is zoomed or unzoomed
+      @Override
+      protected boolean pollsForChanges() { return false; }
+      
       @Override
       protected boolean hasChanged()
       {
@@ -369,7 +377,7 @@ public class PaneManager
             });
       
       manageLayoutCommands();
-      new ZoomedTabStateValue();
+      zoomedTabState_ = new ZoomedTabStateValue();
    }
    
    int computeAppropriateWidth()
@@ -499,6 +507,7 @@ public class PaneManager
             if (!equals(tab, maximizedTab_))
             {
                maximizedTab_ = tab;
+               markZoomedTabDirty();
                manageLayoutCommands();
                activateTab(tab);
             }
@@ -539,6 +548,7 @@ public class PaneManager
          
       if (widgetSizePriorToZoom_ < 0)
          widgetSizePriorToZoom_ = panel_.getWidgetSize(right_);
+      markZoomedTabDirty();
       
       // Put all of the panes in NORMAL mode, just to ensure an appropriate
       // transfer to EXCLUSIVE mode works. (It seems that 'exclusive' -> 'exclusive'
@@ -639,10 +649,17 @@ public class PaneManager
       maximizedWindow_ = null;
       maximizedTab_ = null;
       widgetSizePriorToZoom_ = -1;
+      markZoomedTabDirty();
       panel_.setSplitterEnabled(enableSplitter);
       manageLayoutCommands();
    }
    
+   private void markZoomedTabDirty()
+   {
+      if (zoomedTabState_ != null)
+         zoomedTabState_.markDirty();
+   }
+   
    private void restoreFourPaneLayout()
    {
       // Ensure that all windows are in the 'normal' state. This allows
@@ -916,6 +933,9 @@ public class PaneManager
          }
       });
 
+      final SelectedTabStateValue selectedTabState =
+                        new SelectedTabStateValue(persisterName, tabPanel);
+
       tabPanel.addSelectionHandler(new SelectionHandler<Integer>()
       {
          public void onSelection(SelectionEvent<Integer> integerSelectionEvent)
@@ -923,12 +943,10 @@ public class PaneManager
             int index = integerSelectionEvent.getSelectedItem();
             WorkbenchTab selected = tabPanel.getTab(index);
             lastSelectedTab_ = workbenchTabToTab(selected);
-            session_.persistClientState();
+            selectedTabState.markDirty();
          }
       });
 
-      new SelectedTabStateValue(persisterName, tabPanel);
-
       return new Triad<LogicalWindow, WorkbenchTabPanel, MinimizedModuleTabLayoutPanel>(
             logicalWindow,
             tabPanel,
@@ -1134,5 +1152,6 @@ public class PaneManager
    private LogicalWindow maximizedWindow_ = null;
    private Tab maximizedTab_ = null;
    private double widgetSizePriorToZoom_ = -1;
+   private ZoomedTabStateValue zoomedTabState_;
    private boolean isAnimating_ = false;
 }
@@ -283,7 +283,8 @@ public class WorkbenchScreen extends Composite
          eventBus_.fireEvent(new WorkbenchMetricsChangedEvent(metrics));
       }
 
-      session_.persistClientState();
+      // the panes' layout state values mark themselves dirty when resized
+      // (which pushes client state), so there's no need to push it here
    }
 
    public void onSelection(SelectionEvent<Integer> integerSelectionEvent)
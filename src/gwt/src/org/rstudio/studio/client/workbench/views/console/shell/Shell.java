@@ -31,8 +31,10 @@ import org.rstudio.core.client.command.Handler;
 import org.rstudio.core.client.command.KeyboardHelper;
 import org.rstudio.core.client.command.KeyboardShortcut;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
+import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.CommandLineHistory;
+import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.common.debugging.ErrorManager;
 import org.rstudio.studio.client.common.debugging.events.UnhandledErrorEvent;
 import org.rstudio.studio.client.common.debugging.model.ErrorHandlerType;
@@ -96,6 +98,7 @@ public class Shell implements ConsoleInputHandler,
                 Commands commands,
                 UIPrefs uiPrefs, 
                 ErrorManager errorManager,
+                GlobalDisplay globalDisplay,
                 ConsoleEditorProvider tracker)
    {
       super() ;
@@ -107,6 +110,7 @@ public class Shell implements ConsoleInputHandler,
       view_ = display ;
       commands_ = commands;
       errorManager_ = errorManager;
+      globalDisplay_ = globalDisplay;
       input_ = view_.getInputEditorDisplay() ;
       historyManager_ = new CommandLineHistory(input_);
       browseHistoryManager_ = new CommandLineHistory(input_);
@@ -229,6 +233,45 @@ public class Shell implements ConsoleInputHandler,
 
    }
 
+   @Handler
+   void onConsoleFind()
+   {
+      // the output is virtualized, so the browser's own find can't see
+      // lines which have been scrolled out of view
+      globalDisplay_.promptForText(
+            "Find in Console",
+            "Find:",
+            StringUtil.notNull(lastFindText_),
+            new OperationWithInput<String>()
+            {
+               @Override
+               public void execute(final String input)
+               {
+                  if (StringUtil.isNullOrEmpty(input))
+                     return;
+                  lastFindText_ = input;
+
+                  // wait for the prompt to close and give focus back, which
+                  // would otherwise clear the selected match
+                  Scheduler.get().scheduleDeferred(new ScheduledCommand()
+                  {
+                     @Override
+                     public void execute()
+                     {
+                        if (!view_.findInOutput(input, false))
+                        {
+                           globalDisplay_.showMessage(
+                                 GlobalDisplay.MSG_INFO,
+                                 "Find in Console",
+                                 "No occurrences of '" + input +
+                                 "' were found in the console.");
+                        }
+                     }
+                  });
+               }
+            });
+   }
+
    public void addKeyDownPreviewHandler(KeyDownPreviewHandler handler)
    {
       keyDownPreviewHandlers_.add(handler) ;
@@ -641,6 +684,7 @@ public class Shell implements ConsoleInputHandler,
    private final Display view_ ;
    private final Commands commands_;
    private final ErrorManager errorManager_;
+   private final GlobalDisplay globalDisplay_;
    private final InputEditorDisplay input_ ;
    private final ArrayList<KeyDownPreviewHandler> keyDownPreviewHandlers_ ;
    private final ArrayList<KeyPressPreviewHandler> keyPressPreviewHandlers_ ;
@@ -655,6 +699,7 @@ public class Shell implements ConsoleInputHandler,
    private final ShellInputAnimator inputAnimator_;
 
    private String initialInput_ ;
+   private String lastFindText_ ;
 
    private static final String GROUP_CONSOLE = "console";
    private static final String STATE_INPUT = "input";
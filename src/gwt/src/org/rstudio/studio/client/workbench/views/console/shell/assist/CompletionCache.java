@@ -0,0 +1,296 @@
+/*
+ * CompletionCache.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.console.shell.assist;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.common.codetools.Completions;
+import org.rstudio.studio.client.workbench.views.console.events.ConsolePromptEvent;
+import org.rstudio.studio.client.workbench.views.console.events.ConsolePromptHandler;
+import org.rstudio.studio.client.workbench.views.console.events.WorkingDirChangedEvent;
+import org.rstudio.studio.client.workbench.views.console.events.WorkingDirChangedHandler;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.RCompletionManager.AutocompletionContext;
+import org.rstudio.studio.client.workbench.views.environment.events.ContextDepthChangedEvent;
+import org.rstudio.studio.client.workbench.views.environment.events.EnvironmentObjectAssignedEvent;
+import org.rstudio.studio.client.workbench.views.environment.events.EnvironmentObjectRemovedEvent;
+import org.rstudio.studio.client.workbench.views.environment.events.EnvironmentRefreshEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedHandler;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedHandler;
+
+import com.google.gwt.core.client.JsArrayString;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Caches completion responses from the server for recently used completion
+ * contexts (top-level, `$`, `@`, `::`, function arguments, etc.), so that
+ * moving between contexts, or re-requesting completions after the popup has
+ * been dismissed, doesn't require another round trip. Responses are reused
+ * for any token which extends the token they were requested for (and are
+ * then narrowed on the client). The cache is bounded both in the number of
+ * contexts and in the total number of completions held, and is cleared
+ * whenever the R environment or the set of loaded packages may have changed.
+ */
+@Singleton
+public class CompletionCache
+{
+   public static class Entry
+   {
+      Entry(String token, Completions completions)
+      {
+         this.token = token;
+         this.completions = completions;
+      }
+
+      public final String token;
+      public final Completions completions;
+   }
+
+   @Inject
+   public CompletionCache(EventBus events)
+   {
+      events.addHandler(EnvironmentRefreshEvent.TYPE,
+                        new EnvironmentRefreshEvent.Handler()
+      {
+         @Override
+         public void onEnvironmentRefresh(EnvironmentRefreshEvent event)
+         {
+            invalidate();
+         }
+      });
+
+      events.addHandler(EnvironmentObjectAssignedEvent.TYPE,
+                        new EnvironmentObjectAssignedEvent.Handler()
+      {
+         @Override
+         public void onEnvironmentObjectAssigned(
+                                    EnvironmentObjectAssignedEvent event)
+         {
+            invalidate();
+         }
+      });
+
+      events.addHandler(EnvironmentObjectRemovedEvent.TYPE,
+                        new EnvironmentObjectRemovedEvent.Handler()
+      {
+         @Override
+         public void onEnvironmentObjectRemoved(
+                                    EnvironmentObjectRemovedEvent event)
+         {
+            invalidate();
+         }
+      });
+
+      events.addHandler(ContextDepthChangedEvent.TYPE,
+                        new ContextDepthChangedEvent.Handler()
+      {
+         @Override
+         public void onContextDepthChanged(ContextDepthChangedEvent event)
+         {
+            invalidate();
+         }
+      });
+
+      events.addHandler(PackageStateChangedEvent.TYPE,
+                        new PackageStateChangedHandler()
+      {
+         @Override
+         public void onPackageStateChanged(PackageStateChangedEvent event)
+         {
+            invalidate();
+         }
+      });
+
+      events.addHandler(PackageStatusChangedEvent.TYPE,
+                        new PackageStatusChangedHandler()
+      {
+         @Override
+         public void onPackageStatusChanged(PackageStatusChangedEvent event)
+         {
+            invalidate();
+         }
+      });
+
+      events.addHandler(WorkingDirChangedEvent.TYPE,
+                        new WorkingDirChangedHandler()
+      {
+         @Override
+         public void onWorkingDirChanged(WorkingDirChangedEvent event)
+         {
+            invalidate();
+         }
+      });
+
+      // any console command can change what's in scope, even if it isn't
+      // reflected in the environment pane
+      events.addHandler(ConsolePromptEvent.TYPE, new ConsolePromptHandler()
+      {
+         @Override
+         public void onConsolePrompt(ConsolePromptEvent event)
+         {
+            invalidate();
+         }
+      });
+   }
+
+   // Builds a key identifying the context of a completion request; this is
+   // everything about the request other than the token being completed.
+   public static String contextKey(List<String> assocData,
+                                   List<Integer> dataType,
+                                   List<Integer> numCommas,
+                                   String functionCallString,
+                                   String chainDataName,
+                                   JsArrayString chainAdditionalArgs,
+                                   JsArrayString chainExcludeArgs,
+                                   boolean chainExcludeArgsFromObject,
+                                   String filePath,
+                                   String documentId)
+   {
+      StringBuilder key = new StringBuilder();
+      key.append(describeContext(dataType));
+      key.append('\u0001').append(assocData);
+      key.append('\u0001').append(dataType);
+      key.append('\u0001').append(numCommas);
+      key.append('\u0001').append(functionCallString);
+      key.append('\u0001').append(chainDataName);
+      key.append('\u0001').append(join(chainAdditionalArgs));
+      key.append('\u0001').append(join(chainExcludeArgs));
+      key.append('\u0001').append(chainExcludeArgsFromObject);
+      key.append('\u0001').append(filePath);
+      key.append('\u0001').append(documentId);
+      return key.toString();
+   }
+
+   // Returns a cached response usable for the given token (i.e. one whose
+   // token is a prefix of it), or null if there is none
+   public Entry get(String contextKey, String token)
+   {
+      Entry entry = entries_.get(contextKey);
+      if (entry != null && extendsToken(entry.token, token))
+      {
+         hits_++;
+         return entry;
+      }
+
+      misses_++;
+      return null;
+   }
+
+   public void put(String contextKey, String token, Completions completions)
+   {
+      if (!completions.isCacheable())
+         return;
+
+      Entry previous = entries_.remove(contextKey);
+      if (previous != null)
+         size_ -= previous.completions.getCompletions().length();
+
+      int size = completions.getCompletions().length();
+      if (size > MAX_COMPLETIONS)
+         return;
+
+      entries_.put(contextKey, new Entry(token, completions));
+      size_ += size;
+
+      // evict least recently used contexts until we're back under budget
+      Iterator<Map.Entry<String, Entry>> it = entries_.entrySet().iterator();
+      while (it.hasNext() &&
+             (entries_.size() > MAX_CONTEXTS || size_ > MAX_COMPLETIONS))
+      {
+         Entry evicted = it.next().getValue();
+         size_ -= evicted.completions.getCompletions().length();
+         it.remove();
+      }
+   }
+
+   public void invalidate()
+   {
+      entries_.clear();
+      size_ = 0;
+   }
+
+   public int getHitCount()
+   {
+      return hits_;
+   }
+
+   public int getMissCount()
+   {
+      return misses_;
+   }
+
+   public String getSummary()
+   {
+      return "Completion cache: " + entries_.size() + " contexts, " +
+             size_ + " completions, " + hits_ + " hits, " + misses_ +
+             " misses";
+   }
+
+   private static boolean extendsToken(String cachedToken, String token)
+   {
+      if (!token.toLowerCase().startsWith(cachedToken.toLowerCase()))
+         return false;
+
+      // anything other than identifier characters (e.g. '$', '::', '/')
+      // changes what's being completed
+      String diff = token.substring(cachedToken.length());
+      return !RE_NON_IDENTIFIER.test(diff);
+   }
+
+   private static String describeContext(List<Integer> dataType)
+   {
+      int type = dataType.isEmpty() ? AutocompletionContext.TYPE_UNKNOWN :
+                                      dataType.get(0);
+      switch (type)
+      {
+         case AutocompletionContext.TYPE_DOLLAR:
+            return "$";
+         case AutocompletionContext.TYPE_AT:
+            return "@";
+         case AutocompletionContext.TYPE_NAMESPACE_EXPORTED:
+         case AutocompletionContext.TYPE_NAMESPACE_ALL:
+            return "::";
+         case AutocompletionContext.TYPE_FUNCTION:
+         case AutocompletionContext.TYPE_ARGUMENT:
+            return "args";
+         default:
+            return "top";
+      }
+   }
+
+   private static String join(JsArrayString array)
+   {
+      return array == null ? "" : array.join(",");
+   }
+
+   // least recently used first
+   private final LinkedHashMap<String, Entry> entries_ =
+         new LinkedHashMap<String, Entry>(16, 0.75f, true);
+   private int size_ = 0;
+   private int hits_ = 0;
+   private int misses_ = 0;
+
+   private static final int MAX_CONTEXTS = 32;
+   private static final int MAX_COMPLETIONS = 50000;
+   private static final Pattern RE_NON_IDENTIFIER =
+         Pattern.create("[^A-Za-z0-9._]", "");
+}
@@ -0,0 +1,154 @@
+/*
+ * CompletionIndex.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.console.shell.assist;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.common.codetools.RCompletionType;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.QualifiedName;
+
+// Indexes a list of completions so they can be narrowed by a (fuzzy)
+// subsequence query without scanning the whole list. Since a subsequence
+// can match anywhere within a name a prefix tree doesn't help here; instead
+// we keep, for each character, the (ascending) positions of the completions
+// whose key contains it. A query then only needs to check the completions
+// in the posting list of its rarest character. Results are returned as
+// positions into the original list so that they can be narrowed further
+// as the user continues typing.
+class CompletionIndex
+{
+   CompletionIndex(List<QualifiedName> completions)
+   {
+      completions_ = completions;
+      keys_ = new String[completions.size()];
+
+      HashMap<Character, ArrayList<Integer>> postings =
+            new HashMap<Character, ArrayList<Integer>>();
+      for (int i = 0; i < keys_.length; i++)
+      {
+         QualifiedName qname = completions.get(i);
+
+         // file types are narrowed only by the file name
+         String key = RCompletionType.isFileType(qname.type) ?
+               basename(qname.name) : qname.name;
+         keys_[i] = key.toLowerCase();
+
+         for (int j = 0; j < keys_[i].length(); j++)
+         {
+            Character ch = keys_[i].charAt(j);
+            if (keys_[i].indexOf(ch) != j)
+               continue;
+
+            ArrayList<Integer> list = postings.get(ch);
+            if (list == null)
+            {
+               list = new ArrayList<Integer>();
+               postings.put(ch, list);
+            }
+            list.add(i);
+         }
+      }
+
+      for (Character ch : postings.keySet())
+      {
+         ArrayList<Integer> list = postings.get(ch);
+         int[] positions = new int[list.size()];
+         for (int i = 0; i < positions.length; i++)
+            positions[i] = list.get(i);
+         postings_.put(ch, positions);
+      }
+   }
+
+   public int size()
+   {
+      return keys_.length;
+   }
+
+   public QualifiedName get(int position)
+   {
+      return completions_.get(position);
+   }
+
+   // Returns the positions of the completions whose key contains the query
+   // as a (case-insensitive) subsequence. If candidates is non-null, only
+   // those positions are considered (e.g. the matches for a prefix of the
+   // query). An empty query matches all of them.
+   public int[] match(String query, int[] candidates)
+   {
+      // everything matches an empty query
+      String queryLower = query.toLowerCase();
+      if (queryLower.length() == 0)
+      {
+         if (candidates != null)
+            return candidates;
+
+         int[] all = new int[keys_.length];
+         for (int i = 0; i < all.length; i++)
+            all[i] = i;
+         return all;
+      }
+
+      int[] searched = candidates;
+      for (int i = 0; i < queryLower.length(); i++)
+      {
+         int[] positions = postings_.get(queryLower.charAt(i));
+         if (positions == null)
+            return new int[0];
+         if (searched == null || positions.length < searched.length)
+            searched = positions;
+      }
+
+      // when we searched a posting list rather than the candidates we
+      // need to restrict the results to the candidates as well
+      boolean restrict = candidates != null && searched != candidates;
+      int[] matches = new int[searched.length];
+      int n = 0;
+      int c = 0;
+      for (int i = 0; i < searched.length; i++)
+      {
+         int position = searched[i];
+         if (restrict)
+         {
+            while (c < candidates.length && candidates[c] < position)
+               c++;
+            if (c == candidates.length)
+               break;
+            if (candidates[c] != position)
+               continue;
+         }
+
+         if (StringUtil.isSubsequence(keys_[position], queryLower))
+            matches[n++] = position;
+      }
+
+      int[] result = new int[n];
+      for (int i = 0; i < n; i++)
+         result[i] = matches[i];
+      return result;
+   }
+
+   static String basename(String absolutePath)
+   {
+      return absolutePath.substring(absolutePath.lastIndexOf('/') + 1);
+   }
+
+   private final List<QualifiedName> completions_;
+   private final String[] keys_;
+   private final HashMap<Character, int[]> postings_ =
+         new HashMap<Character, int[]>();
+}
@@ -65,12 +65,16 @@ public class CompletionRequester
 {
    private CodeToolsServerOperations server_ ;
    private UIPrefs uiPrefs_;
+   private CompletionCache completionCache_;
    private final NavigableSourceEditor editor_ ;
    private final SnippetHelper snippets_ ;
 
    private String cachedLinePrefix_ ;
    private HashMap<String, CompletionResult> cachedCompletions_ =
          new HashMap<String, CompletionResult>();
+   private CompletionIndex cachedIndex_ ;
+   private HashMap<String, int[]> cachedMatches_ =
+         new HashMap<String, int[]>();
    private RnwCompletionContext rnwContext_ ;
    
    public CompletionRequester(RnwCompletionContext rnwContext,
@@ -84,10 +88,13 @@ public class CompletionRequester
    }
    
    @Inject
-   void initialize(CodeToolsServerOperations server, UIPrefs uiPrefs)
+   void initialize(CodeToolsServerOperations server,
+                   UIPrefs uiPrefs,
+                   CompletionCache completionCache)
    {
       server_ = server;
       uiPrefs_ = uiPrefs;
+      completionCache_ = completionCache;
    }
    
    private boolean usingCache(
@@ -136,9 +143,21 @@ public class CompletionRequester
       
    }
    
+   private void setCachedResult(String linePrefix,
+                                CompletionResult result,
+                                boolean cacheable)
+   {
+      flushCache();
+      if (cacheable)
+      {
+         cachedLinePrefix_ = linePrefix;
+         cachedCompletions_.put("", result);
+      }
+   }
+   
    private String basename(String absolutePath)
    {
-      return absolutePath.substring(absolutePath.lastIndexOf('/') + 1);
+      return CompletionIndex.basename(absolutePath);
    }
    
    private boolean filterStartsWithDot(String item,
@@ -155,8 +174,8 @@ public class CompletionRequester
                                    final String diff,
                                    CompletionResult cachedResult)
    {
-      ArrayList<QualifiedName> newCompletions = new ArrayList<QualifiedName>();
-      newCompletions.ensureCapacity(cachedResult.completions.size());
+      if (cachedIndex_ == null)
+         cachedIndex_ = new CompletionIndex(cachedResult.completions);
       
       // For completions that are files or directories, we need to post-process
       // the token and the qualified name to strip out just the basename (filename).
@@ -168,20 +187,28 @@ public class CompletionRequester
       final String tokenSub   = token.substring(token.lastIndexOf('/') + 1);
       final String tokenFuzzy = fuzzy(tokenSub);
       
-      for (QualifiedName qname : cachedResult.completions)
+      // Anything matching this token must also have matched any shorter
+      // token we've already narrowed to (unless a '/' moved us to another
+      // file name), so only search within the longest such match set.
+      int[] candidates = null;
+      for (int i = diff.length() - 1; i > 0 && candidates == null; i--)
       {
-         // File types are narrowed only by the file name
-         if (RCompletionType.isFileType(qname.type))
-         {
-            if (StringUtil.isSubsequence(basename(qname.name), tokenFuzzy, true))
-               newCompletions.add(qname);
-         }
-         else
-         {
-            if (StringUtil.isSubsequence(qname.name, tokenFuzzy, true) &&
-                filterStartsWithDot(qname.name, token))
-               newCompletions.add(qname) ;
-         }
+         if (diff.indexOf('/', i) != -1)
+            break;
+         candidates = cachedMatches_.get(diff.substring(0, i));
+      }
+      
+      int[] matches = cachedIndex_.match(tokenFuzzy, candidates);
+      cachedMatches_.put(diff, matches);
+      
+      ArrayList<QualifiedName> newCompletions = new ArrayList<QualifiedName>();
+      newCompletions.ensureCapacity(matches.length);
+      for (int i = 0; i < matches.length; i++)
+      {
+         QualifiedName qname = cachedIndex_.get(matches[i]);
+         if (RCompletionType.isFileType(qname.type) ||
+             filterStartsWithDot(qname.name, token))
+            newCompletions.add(qname);
       }
       
       java.util.Collections.sort(newCompletions, new Comparator<QualifiedName>() {
@@ -245,8 +272,7 @@ public class CompletionRequester
                @Override
                public void onResponseReceived(Completions response)
                {
-                  cachedLinePrefix_ = token;
-                  fillCompletionResult(response, implicit, callback);
+                  fillCompletionResult(token, response, implicit, callback);
                }
 
                @Override
@@ -286,14 +312,14 @@ public class CompletionRequester
                @Override
                public void onResponseReceived(Completions response)
                {
-                  cachedLinePrefix_ = token;
-                  fillCompletionResult(response, implicit, callback);
+                  fillCompletionResult(token, response, implicit, callback);
                }
                
             });
    }
    
    private void fillCompletionResult(
+         String token,
          Completions response,
          boolean implicit,
          ServerRequestCallback<CompletionResult> callback)
@@ -315,10 +341,7 @@ public class CompletionRequester
             response.getSuggestOnAccept(),
             response.getOverrideInsertParens());
 
-      if (response.isCacheable())
-      {
-         cachedCompletions_.put("", result);
-      }
+      setCachedResult(token, result, response.isCacheable());
 
       if (!implicit || result.completions.size() != 0)
          callback.onResponseReceived(result);
@@ -357,6 +380,34 @@ public class CompletionRequester
       if (usingCache(token, isHelp, callback))
          return;
       
+      // check whether we've seen a response for this context recently
+      final String contextKey = CompletionCache.contextKey(
+            assocData,
+            dataType,
+            numCommas,
+            functionCallString,
+            chainDataName,
+            chainAdditionalArgs,
+            chainExcludeArgs,
+            chainExcludeArgsFromObject,
+            filePath,
+            documentId);
+      
+      if (!isHelp)
+      {
+         CompletionCache.Entry entry = completionCache_.get(contextKey, token);
+         if (entry != null)
+         {
+            CompletionResult result =
+                  createCompletionResult(entry.token, entry.completions);
+            
+            // narrow down to the current token
+            if (!usingCache(token, callback))
+               callback.onResponseReceived(result);
+            return;
+         }
+      }
+      
       doGetCompletions(
             token,
             assocData,
@@ -380,65 +431,68 @@ public class CompletionRequester
          @Override
          public void onResponseReceived(Completions response)
          {
-            cachedLinePrefix_ = token;
-            String token = response.getToken();
-
-            JsArrayString comp = response.getCompletions();
-            JsArrayString pkgs = response.getPackages();
-            JsArrayBoolean quote = response.getQuote();
-            JsArrayInteger type = response.getType();
-            ArrayList<QualifiedName> newComp = new ArrayList<QualifiedName>();
-            
-            // Get function completions from the server
-            for (int i = 0; i < comp.length(); i++)
-               if (comp.get(i).endsWith(" = "))
-                  newComp.add(new QualifiedName(comp.get(i), pkgs.get(i), quote.get(i), type.get(i)));
-            
-            // Try getting our own function argument completions
-            if (!response.getExcludeOtherCompletions())
-            {
-               addFunctionArgumentCompletions(token, newComp);
-               addScopedArgumentCompletions(token, newComp);
-            }
-            
-            // Get variable completions from the current scope
-            if (!response.getExcludeOtherCompletions())
-            {
-               addScopedCompletions(token, newComp, "variable");
-               addScopedCompletions(token, newComp, "function");
-            }
-            
-            // Get other server completions
-            for (int i = 0; i < comp.length(); i++)
-               if (!comp.get(i).endsWith(" = "))
-                  newComp.add(new QualifiedName(comp.get(i), pkgs.get(i), quote.get(i), type.get(i)));
-            
-            // Get snippet completions. Bail if this isn't a top-level
-            // completion -- TODO is to add some more context that allows us
-            // to properly ascertain this.
-            if (isTopLevelCompletionRequest())
-               addSnippetCompletions(token, newComp);
-            
-            // Remove duplicates
-            newComp = resolveDuplicates(newComp);
-            
-            CompletionResult result = new CompletionResult(
-                  response.getToken(),
-                  newComp,
-                  response.getGuessedFunctionName(),
-                  response.getSuggestOnAccept(),
-                  response.getOverrideInsertParens());
-
-            if (response.isCacheable())
-            {
-               cachedCompletions_.put("", result);
-            }
-
-            callback.onResponseReceived(result);
+            completionCache_.put(contextKey, token, response);
+            callback.onResponseReceived(
+                  createCompletionResult(token, response));
          }
       }) ;
    }
    
+   private CompletionResult createCompletionResult(String linePrefix,
+                                                   Completions response)
+   {
+      String token = response.getToken();
+
+      JsArrayString comp = response.getCompletions();
+      JsArrayString pkgs = response.getPackages();
+      JsArrayBoolean quote = response.getQuote();
+      JsArrayInteger type = response.getType();
+      ArrayList<QualifiedName> newComp = new ArrayList<QualifiedName>();
+      
+      // Get function completions from the server
+      for (int i = 0; i < comp.length(); i++)
+         if (comp.get(i).endsWith(" = "))
+            newComp.add(new QualifiedName(comp.get(i), pkgs.get(i), quote.get(i), type.get(i)));
+      
+      // Try getting our own function argument completions
+      if (!response.getExcludeOtherCompletions())
+      {
+         addFunctionArgumentCompletions(token, newComp);
+         addScopedArgumentCompletions(token, newComp);
+      }
+      
+      // Get variable completions from the current scope
+      if (!response.getExcludeOtherCompletions())
+      {
+         addScopedCompletions(token, newComp, "variable");
+         addScopedCompletions(token, newComp, "function");
+      }
+      
+      // Get other server completions
+      for (int i = 0; i < comp.length(); i++)
+         if (!comp.get(i).endsWith(" = "))
+            newComp.add(new QualifiedName(comp.get(i), pkgs.get(i), quote.get(i), type.get(i)));
+      
+      // Get snippet completions. Bail if this isn't a top-level
+      // completion -- TODO is to add some more context that allows us
+      // to properly ascertain this.
+      if (isTopLevelCompletionRequest())
+         addSnippetCompletions(token, newComp);
+      
+      // Remove duplicates
+      newComp = resolveDuplicates(newComp);
+      
+      CompletionResult result = new CompletionResult(
+            response.getToken(),
+            newComp,
+            response.getGuessedFunctionName(),
+            response.getSuggestOnAccept(),
+            response.getOverrideInsertParens());
+
+      setCachedResult(linePrefix, result, response.isCacheable());
+      return result;
+   }
+   
    private ArrayList<QualifiedName>
    resolveDuplicates(ArrayList<QualifiedName> completions)
    {
@@ -714,6 +768,8 @@ public class CompletionRequester
    {
       cachedLinePrefix_ = null ;
       cachedCompletions_.clear();
+      cachedIndex_ = null ;
+      cachedMatches_.clear();
    }
    
    public static class CompletionResult
@@ -41,6 +41,7 @@ import org.rstudio.studio.client.workbench.views.console.events.SendToConsoleEve
 import org.rstudio.studio.client.workbench.views.environment.model.CallFrame;
 import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentContextData;
 import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentFrame;
+import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentPage;
 import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentServerOperations;
 import org.rstudio.studio.client.workbench.views.environment.model.ObjectContents;
 import org.rstudio.studio.client.workbench.views.environment.model.RObject;
@@ -180,6 +181,12 @@ public class EnvironmentPane extends WorkbenchPane
       objects_.addObjects(objects);
    }
    
+   @Override
+   public void addPagedObjects()
+   {
+      objects_.addPagedObjects();
+   }
+   
    @Override
    public void removeObject(String objectName)
    {
@@ -402,6 +409,21 @@ public class EnvironmentPane extends WorkbenchPane
       });
    }
    
+   public void listObjectsPage(int offset,
+                               int count,
+                               String filter,
+                               int sortColumn,
+                               boolean ascending,
+                               ServerRequestCallback<EnvironmentPage> callback)
+   {
+      server_.listEnvironmentPage(offset,
+                                  count,
+                                  filter,
+                                  sortColumn,
+                                  ascending,
+                                  callback);
+   }
+   
    // Private methods ---------------------------------------------------------
 
    private void executeFunctionForObject(String function, String objectName)
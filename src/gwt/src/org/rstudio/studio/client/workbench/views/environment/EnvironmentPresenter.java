@@ -65,7 +65,7 @@ import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Timer;
 import com.google.inject.Inject;
 
-import org.rstudio.studio.client.workbench.views.environment.dataimport.DataImportDialog;
+import org.rstudio.studio.client.workbench.views.environment.dataimport.DataImportLauncher;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.DataImportModes;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.ImportFileSettings;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.ImportFileSettingsDialog;
@@ -102,6 +102,7 @@ public class EnvironmentPresenter extends BasePresenter
    {
       void addObject(RObject object);
       void addObjects(JsArray<RObject> objects);
+      void addPagedObjects();
       void clearObjects();
       void clearSelection();
       void setContextDepth(int contextDepth);
@@ -140,7 +141,8 @@ public class EnvironmentPresenter extends BasePresenter
                                SourceShim sourceShim,
                                DebugCommander debugCommander,
                                DependencyManager dependencyManager,
-                               FileTypeRegistry fileTypeRegistry)
+                               FileTypeRegistry fileTypeRegistry,
+                               DataImportLauncher.Shim dataImportLauncher)
    {
       super(view);
       binder.bind(commands, this);
@@ -163,6 +165,7 @@ public class EnvironmentPresenter extends BasePresenter
       session_ = session;
       dependencyManager_ = dependencyManager;
       fileTypeRegistry_ = fileTypeRegistry;
+      dataImportLauncher_ = dataImportLauncher;
       
       requeryContextTimer_ = new Timer()
       {
@@ -215,7 +218,8 @@ public class EnvironmentPresenter extends BasePresenter
                   event.getCallFrames(),
                   event.useProvidedSource(),
                   event.getFunctionCode());
-            setViewFromEnvironmentList(event.getEnvironmentList());
+            setViewFromEnvironmentList(event.getEnvironmentList(),
+                                       event.isEnvironmentPaged());
             requeryContextTimer_.cancel();
          }
       });
@@ -492,7 +496,7 @@ public class EnvironmentPresenter extends BasePresenter
             public void execute()
             {
                view_.bringToFront();
-               DataImportDialog dataImportDialog = new DataImportDialog(
+               dataImportLauncher_.showDialog(
                      dataImportMode,
                      dialogTitle,
                      new OperationWithInput<String>()
@@ -503,8 +507,6 @@ public class EnvironmentPresenter extends BasePresenter
                      eventBus_.fireEvent(new SendToConsoleEvent(importCode, true, true)); 
                   }
                });
-               
-               dataImportDialog.showModal();
             }
          };
    }
@@ -647,16 +649,21 @@ public class EnvironmentPresenter extends BasePresenter
          // environment was loaded from .RData and therefore not available 
          // during session init; we also want to fetch a fresh list in this
          // case).
-         JsArray<RObject> environmentList = 
-              session_.getSessionInfo().getEnvironmentState().environmentList();
-         if (environmentList == null ||
-             environmentList.length() == 0)
+         EnvironmentContextData environmentState =
+              session_.getSessionInfo().getEnvironmentState();
+         JsArray<RObject> environmentList = environmentState.environmentList();
+         if (environmentState.environmentIsPaged())
+         {
+            setViewFromEnvironmentList(environmentList, true);
+         }
+         else if (environmentList == null ||
+                  environmentList.length() == 0)
          {
             refreshView();
          }
          else
          {
-            setViewFromEnvironmentList(environmentList);
+            setViewFromEnvironmentList(environmentList, false);
          }
          initialized_ = true;
       }
@@ -684,7 +691,8 @@ public class EnvironmentPresenter extends BasePresenter
             environmentState.callFrames(),
             environmentState.useProvidedSource(),
             environmentState.functionCode());
-      setViewFromEnvironmentList(environmentState.environmentList());
+      setViewFromEnvironmentList(environmentState.environmentList(),
+                                 environmentState.environmentIsPaged());
       initialized_ = true;
    }
    
@@ -890,10 +898,14 @@ public class EnvironmentPresenter extends BasePresenter
       }
    }
 
-   private void setViewFromEnvironmentList(JsArray<RObject> objects)
+   private void setViewFromEnvironmentList(JsArray<RObject> objects,
+                                           boolean paged)
    {
       view_.clearObjects();
-      view_.addObjects(objects);
+      if (paged)
+         view_.addPagedObjects();
+      else
+         view_.addObjects(objects);
    }
     
    private void refreshView()
@@ -1039,6 +1051,7 @@ public class EnvironmentPresenter extends BasePresenter
    private final Session session_;
    private final DependencyManager dependencyManager_;
    private final FileTypeRegistry fileTypeRegistry_;
+   private final DataImportLauncher.Shim dataImportLauncher_;
    
    private int contextDepth_;
    private boolean refreshingView_;
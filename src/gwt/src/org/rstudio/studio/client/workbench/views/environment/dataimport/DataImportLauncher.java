@@ -0,0 +1,44 @@
+/*
+ * DataImportLauncher.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.environment.dataimport;
+
+import com.google.inject.Inject;
+
+import org.rstudio.core.client.AsyncShim;
+import org.rstudio.core.client.widget.OperationWithInput;
+
+// Keeps the data import dialog (and its many option panes) out of the
+// initial download; it's loaded the first time a dataset is imported.
+public class DataImportLauncher
+{
+   public abstract static class Shim extends AsyncShim<DataImportLauncher>
+   {
+      public abstract void showDialog(DataImportModes dataImportMode,
+                                      String caption,
+                                      OperationWithInput<String> onImport);
+   }
+
+   @Inject
+   DataImportLauncher()
+   {
+   }
+
+   public void showDialog(DataImportModes dataImportMode,
+                          String caption,
+                          OperationWithInput<String> onImport)
+   {
+      new DataImportDialog(dataImportMode, caption, onImport).showModal();
+   }
+}
@@ -50,6 +50,11 @@ public class ContextDepthChangedEvent extends
       return contextData_.environmentList();
    }
 
+   public boolean isEnvironmentPaged()
+   {
+      return contextData_.environmentIsPaged();
+   }
+
    public JsArray<CallFrame> getCallFrames()
    {
       return contextData_.callFrames();
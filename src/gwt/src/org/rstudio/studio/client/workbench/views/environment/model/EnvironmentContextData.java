@@ -45,6 +45,12 @@ public class EnvironmentContextData extends JavaScriptObject
       return this.environment_list;
    }-*/;
 
+   // true if the environment is too large to list at once (in which case
+   // the environment list is empty and objects are fetched a page at a time)
+   public final native boolean environmentIsPaged() /*-{
+      return !!this.environment_paged;
+   }-*/;
+
    public final native String environmentName() /*-{
       return this.environment_name;
    }-*/;
@@ -0,0 +1,42 @@
+/*
+ * EnvironmentPage.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.environment.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+
+// one page of the (filtered and sorted) objects in a large environment
+public class EnvironmentPage extends JavaScriptObject
+{
+   protected EnvironmentPage() {}
+
+   public native final JsArray<RObject> getObjects() /*-{
+      return this.objects;
+   }-*/;
+
+   public native final int getOffset() /*-{
+      return this.offset;
+   }-*/;
+
+   // the number of objects in the environment
+   public native final int getTotalCount() /*-{
+      return this.total_count;
+   }-*/;
+
+   // the number of objects which match the filter
+   public native final int getMatchedCount() /*-{
+      return this.matched_count;
+   }-*/;
+}
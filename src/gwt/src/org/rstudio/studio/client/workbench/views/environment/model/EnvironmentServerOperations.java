@@ -25,6 +25,14 @@ public interface EnvironmentServerOperations
 {
    void listEnvironment(ServerRequestCallback<JsArray<RObject> > callback);
 
+   // sortColumn is an ObjectGridColumn, or -1 for the list view's order
+   void listEnvironmentPage(int offset,
+                            int count,
+                            String filter,
+                            int sortColumn,
+                            boolean ascending,
+                            ServerRequestCallback<EnvironmentPage> callback);
+
    void removeAllObjects(boolean includeHidden,
                          ServerRequestCallback<Void> requestCallback);
 
@@ -17,6 +17,7 @@ package org.rstudio.studio.client.workbench.views.environment.view;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import com.google.gwt.core.client.GWT;
@@ -30,7 +31,9 @@ import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.*;
+import com.google.gwt.view.client.AbstractDataProvider;
 import com.google.gwt.view.client.ListDataProvider;
+import com.google.gwt.view.client.Range;
 
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.cellview.AutoHidingSplitLayoutPanel;
@@ -63,6 +66,8 @@ public class EnvironmentObjects extends ResizeComposite
       objectDisplayType_ = OBJECT_LIST_VIEW;
       objectDataProvider_ = new ListDataProvider<RObjectEntry>();
       objectSort_ = new RObjectEntrySort();
+      objectIndex_ = new RObjectEntryIndex(objectDataProvider_.getList(),
+                                           objectSort_);
 
       // set up the call frame panel
       callFramePanel_ = new CallFramePanel(observer_, this);
@@ -106,66 +111,83 @@ public class EnvironmentObjects extends ResizeComposite
 
    public void addObject(RObject obj)
    {
-      int idx = indexOfExistingObject(obj.getName());
       final RObjectEntry newEntry = entryFromRObject(obj);
-      boolean added = false;
+      if (pagedDataProvider_ != null)
+      {
+         // update the object in place if it's loaded; otherwise the object's
+         // position (and the number of objects) may have changed
+         if (!pagedDataProvider_.replaceEntry(newEntry))
+            schedulePagedRefresh();
+         return;
+      }
+
+      RObjectEntry oldEntry = objectIndex_.get(obj.getName());
 
       // if the object is already in the environment, just update the value
-      if (idx >= 0)
+      if (oldEntry != null &&
+          oldEntry.rObject.getType().equals(obj.getType()))
       {
-         final RObjectEntry oldEntry = objectDataProvider_.getList().get(idx);
+         int idx = objectIndex_.replace(objectIndex_.indexOf(oldEntry),
+                                        newEntry);
 
-         if (oldEntry.rObject.getType().equals(obj.getType()))
+         // type hasn't changed
+         if (oldEntry.expanded && 
+             newEntry.contentsAreDeferred)
          {
-            // type hasn't changed
-            if (oldEntry.expanded && 
-                newEntry.contentsAreDeferred)
-            {
-               // we're replacing an object that has server-deferred contents--
-               // refill it immediately. (another approach would be to push the
-               // set of currently expanded objects to the server so these
-               // objects would show up on the client already expanded)
-               fillEntryContents(newEntry, idx, false);
-            }
-            else
-            {
-               // contents aren't deferred, just use the expanded state directly
-               newEntry.expanded = oldEntry.expanded;
-            }
-            objectDataProvider_.getList().set(idx, newEntry);
-            added = true;
+            // we're replacing an object that has server-deferred contents--
+            // refill it immediately. (another approach would be to push the
+            // set of currently expanded objects to the server so these
+            // objects would show up on the client already expanded)
+            fillEntryContents(newEntry, idx, false);
          }
          else
          {
-            // types did change, do a full add/remove
-            objectDataProvider_.getList().remove(idx);
+            // contents aren't deferred, just use the expanded state directly
+            newEntry.expanded = oldEntry.expanded;
          }
-         
       }
-      if (!added)
+      else
       {
-         RObjectEntry entry = entryFromRObject(obj);
-         idx = indexOfNewObject(entry);
-         objectDataProvider_.getList().add(idx, entry);
+         // types did change, do a full add/remove
+         if (oldEntry != null)
+         {
+            objectIndex_.remove(oldEntry);
+            updateCategoryLeader(oldEntry.getCategory());
+         }
+         objectIndex_.add(newEntry);
       }
-      updateCategoryLeaders(true);
-      objectDisplay_.getRowElement(idx).scrollIntoView();
+      updateCategoryLeader(newEntry.getCategory());
+
+      // scroll to the object once this batch of changes has been drawn
+      pendingScrollEntry_ = newEntry;
+      scheduleRowUpdates();
    }
 
    public void removeObject(String objName)
    {
-      int idx = indexOfExistingObject(objName);
-      if (idx >= 0)
+      if (pagedDataProvider_ != null)
       {
-         objectDataProvider_.getList().remove(idx);
+         schedulePagedRefresh();
+         return;
       }
 
-      updateCategoryLeaders(true);
+      RObjectEntry entry = objectIndex_.get(objName);
+      if (entry != null)
+      {
+         objectIndex_.remove(entry);
+         updateCategoryLeader(entry.getCategory());
+      }
    }
    
    public void clearObjects()
    {
+      setPaged(false);
       objectDataProvider_.getList().clear();
+      objectIndex_.clear();
+      categoryLeaders_ = new RObjectEntry[3];
+      firstObject_ = null;
+      pendingRedraws_.clear();
+      pendingScrollEntry_ = null;
    }
    
    public void clearSelection()
@@ -188,6 +210,7 @@ public class EnvironmentObjects extends ResizeComposite
 
       // push the list into the UI and update category leaders
       objectDataProvider_.getList().addAll(objectEntryList);
+      objectIndex_.reindex();
       updateCategoryLeaders(false);
 
       if (useStatePersistence())
@@ -196,6 +219,15 @@ public class EnvironmentObjects extends ResizeComposite
       }
    }
    
+   // used for environments too large to send to the client at once: objects
+   // are fetched as the list is scrolled, and filtered and sorted by the
+   // server
+   public void addPagedObjects()
+   {
+      setPaged(true);
+      resetPagedObjects();
+   }
+
    public List<String> getSelectedObjects()
    {
       return objectDisplay_.getSelectedObjects();
@@ -261,6 +293,11 @@ public class EnvironmentObjects extends ResizeComposite
    public void setFilterText (String filterText)
    {
       filterText_ = filterText.toLowerCase();
+      if (pagedDataProvider_ != null)
+      {
+         resetPagedObjects();
+         return;
+      }
 
       // Iterate over each entry in the list, and toggle its visibility based 
       // on whether it matches the current filter text.
@@ -320,7 +357,7 @@ public class EnvironmentObjects extends ResizeComposite
       // clean up previous object display, if we had one
       if (objectDisplay_ != null)
       {
-         objectDataProvider_.removeDataDisplay(objectDisplay_);
+         activeDataProvider().removeDataDisplay(objectDisplay_);
          splitPanel.remove(objectDisplay_);
       }
       
@@ -373,7 +410,9 @@ public class EnvironmentObjects extends ResizeComposite
       objectDisplayType_ = type;
       Collections.sort(objectDataProvider_.getList(), objectSort_);
       updateCategoryLeaders(false);
-      objectDataProvider_.addDataDisplay(objectDisplay_);
+      activeDataProvider().addDataDisplay(objectDisplay_);
+      if (pagedDataProvider_ != null)
+         resetPagedObjects();
 
       objectDisplay_.getScrollPanel().addScrollHandler(new ScrollHandler()
       {
@@ -385,6 +424,8 @@ public class EnvironmentObjects extends ResizeComposite
                deferredScrollPosition_ = getScrollPosition();
                observer_.setPersistedScrollPosition(deferredScrollPosition_);
             }
+            if (pagedDataProvider_ != null)
+               showMorePagedObjectsIfNeeded();
          }
       });
 
@@ -456,7 +497,7 @@ public class EnvironmentObjects extends ResizeComposite
    {
       objectSort_.setSortColumn(col);
       observer_.setViewDirty();
-      Collections.sort(objectDataProvider_.getList(), objectSort_);
+      sortObjects();
    }
    
    @Override
@@ -475,14 +516,14 @@ public class EnvironmentObjects extends ResizeComposite
    {
       objectSort_.setAscending(ascending);
       observer_.setViewDirty();
-      Collections.sort(objectDataProvider_.getList(), objectSort_);
+      sortObjects();
    }
    
    public void setSort(int column, boolean ascending)
    {
       objectSort_.setSortColumn(column);
       objectSort_.setAscending(ascending);
-      Collections.sort(objectDataProvider_.getList(), objectSort_);
+      sortObjects();
    }
 
    @Override
@@ -506,42 +547,76 @@ public class EnvironmentObjects extends ResizeComposite
 
    // Private methods: object management --------------------------------------
 
-   private int indexOfExistingObject(String objectName)
+   private void sortObjects()
    {
-      List<RObjectEntry> objects = objectDataProvider_.getList();
+      if (pagedDataProvider_ != null)
+         resetPagedObjects();
+      else
+         Collections.sort(objectDataProvider_.getList(), objectSort_);
+   }
+
+   private AbstractDataProvider<RObjectEntry> activeDataProvider()
+   {
+      if (pagedDataProvider_ != null)
+         return pagedDataProvider_;
+      return objectDataProvider_;
+   }
+
+   private void setPaged(boolean paged)
+   {
+      if (paged == (pagedDataProvider_ != null))
+         return;
+
+      if (objectDisplay_ != null)
+         activeDataProvider().removeDataDisplay(objectDisplay_);
 
-      // find the position of the object in the list--we can't use binary
-      // search here since we're matching on names and the list isn't sorted
-      // by name (it's sorted by type, then name)
-      int index;
-      boolean foundObject = false;
-      for (index = 0; index < objects.size(); index++)
+      if (paged)
       {
-         if (objects.get(index).rObject.getName() == objectName)
-         {
-            foundObject = true;
-            break;
-         }
+         pagedDataProvider_ = new EnvironmentPageDataProvider(observer_);
+      }
+      else
+      {
+         pagedRefreshTimer_.cancel();
+         pagedDataProvider_ = null;
+         if (objectDisplay_ != null)
+            objectDisplay_.setVisibleRange(0, MAX_ENVIRONMENT_OBJECTS);
       }
 
-      return foundObject ? index : -1;
+      if (objectDisplay_ != null)
+         activeDataProvider().addDataDisplay(objectDisplay_);
    }
 
-   // returns the position a new object entry should occupy in the table
-   private int indexOfNewObject(RObjectEntry obj)
+   private void resetPagedObjects()
    {
-      List<RObjectEntry> objects = objectDataProvider_.getList();
-      int numObjects = objects.size();
-      int idx;
-      // consider: can we use binary search here?
-      for (idx = 0; idx < numObjects; idx++)
+      pagedDataProvider_.reset(
+            filterText_,
+            objectDisplayType_ == OBJECT_LIST_VIEW ?
+                  -1 : objectSort_.getSortColumn(),
+            objectSort_.getAscending());
+   }
+
+   // changes in a paged environment are picked up by fetching the loaded
+   // objects again; wait for a pause so a burst of changes is fetched once
+   private void schedulePagedRefresh()
+   {
+      pagedRefreshTimer_.schedule(PAGED_REFRESH_DELAY_MS);
+   }
+
+   // fetch more objects when the list is scrolled near its end
+   private void showMorePagedObjectsIfNeeded()
+   {
+      ScrollPanel scrollPanel = objectDisplay_.getScrollPanel();
+      int remaining = scrollPanel.getMaximumVerticalScrollPosition() -
+                      scrollPanel.getVerticalScrollPosition();
+      if (remaining > scrollPanel.getOffsetHeight())
+         return;
+
+      Range range = objectDisplay_.getVisibleRange();
+      if (range.getLength() < objectDisplay_.getRowCount())
       {
-         if (objectSort_.compare(obj, objects.get(idx)) < 0)
-         {
-            break;
-         }
+         objectDisplay_.setVisibleRange(
+               0, range.getLength() + EnvironmentPageDataProvider.PAGE_SIZE);
       }
-      return idx;
    }
 
    // after adds or removes, we need to tag the new category-leading objects
@@ -557,6 +632,8 @@ public class EnvironmentObjects extends ResizeComposite
       // whether or not we've found a leader for each category
       Boolean[] leaders = { false, false, false };
       boolean foundFirstObject = false;
+      categoryLeaders_ = new RObjectEntry[3];
+      firstObject_ = null;
 
       for (int i = 0; i < objects.size(); i++)
       {
@@ -567,6 +644,7 @@ public class EnvironmentObjects extends ResizeComposite
          {
             entry.isFirstObject = true;
             foundFirstObject = true;
+            firstObject_ = entry;
          }
          else
          {
@@ -579,6 +657,7 @@ public class EnvironmentObjects extends ResizeComposite
          if (!leaders[category])
          {
             leaders[category] = true;
+            categoryLeaders_[category] = entry;
             if (!leader)
             {
                entry.isCategoryLeader = true;
@@ -600,6 +679,103 @@ public class EnvironmentObjects extends ResizeComposite
       }
    }
 
+   // after an object in the given category is added or removed, find the
+   // category's (and the list's) leading object, without walking the list
+   private void updateCategoryLeader(int category)
+   {
+      if (objectDisplayType_ != OBJECT_LIST_VIEW)
+         return;
+
+      RObjectEntry leader = objectIndex_.firstVisibleInCategory(category);
+      RObjectEntry oldLeader = categoryLeaders_[category];
+      if (leader != oldLeader)
+      {
+         if (oldLeader != null)
+         {
+            oldLeader.isCategoryLeader = false;
+            redrawEntry(oldLeader);
+         }
+         if (leader != null)
+         {
+            leader.isCategoryLeader = true;
+            redrawEntry(leader);
+         }
+         categoryLeaders_[category] = leader;
+      }
+
+      RObjectEntry first = null;
+      for (int i = 0; i < categoryLeaders_.length && first == null; i++)
+         first = categoryLeaders_[i];
+      if (first != firstObject_)
+      {
+         if (firstObject_ != null)
+         {
+            firstObject_.isFirstObject = false;
+            redrawEntry(firstObject_);
+         }
+         if (first != null)
+         {
+            first.isFirstObject = true;
+            redrawEntry(first);
+         }
+         firstObject_ = first;
+      }
+   }
+
+   // rows are redrawn (and the last assigned object scrolled into view) once
+   // per event loop, so a burst of assignments results in a single redraw
+   private void redrawEntry(RObjectEntry entry)
+   {
+      pendingRedraws_.add(entry);
+      scheduleRowUpdates();
+   }
+
+   private void scheduleRowUpdates()
+   {
+      if (rowUpdatesScheduled_)
+         return;
+      rowUpdatesScheduled_ = true;
+
+      Scheduler.get().scheduleFinally(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            rowUpdatesScheduled_ = false;
+            flushRowUpdates();
+         }
+      });
+   }
+
+   private void flushRowUpdates()
+   {
+      RObjectEntry scrollEntry = pendingScrollEntry_;
+      pendingScrollEntry_ = null;
+      if (objectDisplay_ == null)
+      {
+         pendingRedraws_.clear();
+         return;
+      }
+
+      // make sure the display has the list changes before drawing rows
+      objectDataProvider_.flush();
+
+      for (RObjectEntry entry : pendingRedraws_)
+      {
+         int idx = objectIndex_.indexOf(entry);
+         if (idx >= 0)
+            redrawRowSafely(idx);
+      }
+      pendingRedraws_.clear();
+
+      if (scrollEntry != null)
+      {
+         int idx = objectIndex_.indexOf(scrollEntry);
+         if (idx >= 0 && idx < MAX_ENVIRONMENT_OBJECTS)
+            objectDisplay_.getRowElement(idx).scrollIntoView();
+      }
+   }
+
    private Widget buildEmptyGridMessage()
    {
       HTMLPanel messagePanel = new HTMLPanel("");
@@ -655,21 +831,18 @@ public class EnvironmentObjects extends ResizeComposite
          {
             if (deferredExpandedObjects_ != null)
             { 
-               // loop through the objects in the list and check to see if each
-               // is marked expanded in the persisted list of expanded objects
-               List<RObjectEntry> objects = objectDataProvider_.getList();
-               for (int idxObj = 0; idxObj < objects.size(); idxObj++)
+               // mark each object in the persisted list of expanded objects
+               // as expanded
+               for (int idxExpanded = 0;
+                    idxExpanded < deferredExpandedObjects_.length();
+                    idxExpanded++)
                {
-                  for (int idxExpanded = 0;
-                       idxExpanded < deferredExpandedObjects_.length();
-                       idxExpanded++)
+                  RObjectEntry entry = objectIndex_.get(
+                        deferredExpandedObjects_.get(idxExpanded));
+                  if (entry != null)
                   {
-                     if (objects.get(idxObj).rObject.getName() ==
-                         deferredExpandedObjects_.get(idxExpanded))
-                     {
-                        objects.get(idxObj).expanded = true;
-                        redrawRowSafely(idxObj);
-                     }
+                     entry.expanded = true;
+                     redrawRowSafely(objectIndex_.indexOf(entry));
                   }
                }
             }
@@ -700,7 +873,9 @@ public class EnvironmentObjects extends ResizeComposite
    // container's physical limit
    private void redrawRowSafely(int idx)
    {
-      if (idx < MAX_ENVIRONMENT_OBJECTS)
+      Range range = objectDisplay_.getVisibleRange();
+      if (idx >= range.getStart() &&
+          idx < range.getStart() + range.getLength())
          objectDisplay_.redrawRow(idx);
    }
    
@@ -719,6 +894,27 @@ public class EnvironmentObjects extends ResizeComposite
 
    private ListDataProvider<RObjectEntry> objectDataProvider_;
    private RObjectEntrySort objectSort_;
+   private RObjectEntryIndex objectIndex_;
+   private EnvironmentPageDataProvider pagedDataProvider_;
+   private final Timer pagedRefreshTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (pagedDataProvider_ != null)
+            pagedDataProvider_.refresh();
+      }
+   };
+
+   // the leading (visible) object in each category and in the list
+   private RObjectEntry[] categoryLeaders_ = new RObjectEntry[3];
+   private RObjectEntry firstObject_;
+
+   // row updates waiting for the end of the event loop
+   private final LinkedHashSet<RObjectEntry> pendingRedraws_ =
+                                       new LinkedHashSet<RObjectEntry>();
+   private RObjectEntry pendingScrollEntry_;
+   private boolean rowUpdatesScheduled_ = false;
 
    private EnvironmentObjectsObserver observer_;
    private int contextDepth_;
@@ -735,4 +931,5 @@ public class EnvironmentObjects extends ResizeComposite
    private int gridRenderRetryCount_ = 0;
    
    public final static int MAX_ENVIRONMENT_OBJECTS = 1024;
+   private final static int PAGED_REFRESH_DELAY_MS = 250;
 }
@@ -15,6 +15,8 @@
 package org.rstudio.studio.client.workbench.views.environment.view;
 
 import org.rstudio.core.client.widget.Operation;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentPage;
 import org.rstudio.studio.client.workbench.views.environment.model.RObject;
 
 public interface EnvironmentObjectsObserver
@@ -28,4 +30,10 @@ public interface EnvironmentObjectsObserver
    boolean getShowInternalFunctions();
    void setShowInternalFunctions(boolean show);
    void fillObjectContents(RObject object, Operation onCompleted);
+   void listObjectsPage(int offset,
+                        int count,
+                        String filter,
+                        int sortColumn,
+                        boolean ascending,
+                        ServerRequestCallback<EnvironmentPage> callback);
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+/*
+ * EnvironmentPageDataProvider.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.workbench.views.environment.view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.environment.model.EnvironmentPage;
+import org.rstudio.studio.client.workbench.views.environment.model.RObject;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.view.client.AsyncDataProvider;
+import com.google.gwt.view.client.HasData;
+import com.google.gwt.view.client.Range;
+
+// Supplies the objects of an environment too large to send to the client at
+// once. Objects are requested from the server (which filters and sorts the
+// whole environment) as the display's range grows; the rows fetched so far
+// are kept so that growing the range only requests the new rows.
+class EnvironmentPageDataProvider extends AsyncDataProvider<RObjectEntry>
+{
+   public EnvironmentPageDataProvider(EnvironmentObjectsObserver observer)
+   {
+      observer_ = observer;
+   }
+
+   // starts over with a new filter and sort order (sortColumn is an
+   // ObjectGridColumn or -1 for the list view's order)
+   public void reset(String filter, int sortColumn, boolean ascending)
+   {
+      filter_ = filter;
+      sortColumn_ = sortColumn;
+      ascending_ = ascending;
+      matchedCount_ = -1;
+      clearLoaded();
+      updateRowCount(0, false);
+      for (HasData<RObjectEntry> display : getDataDisplays())
+         display.setVisibleRange(0, PAGE_SIZE);
+      fetch();
+   }
+
+   // fetches the rows currently displayed again (e.g. after the environment
+   // has changed)
+   public void refresh()
+   {
+      clearLoaded();
+      fetch();
+   }
+
+   // replaces the loaded entry with the same name, if there is one
+   public boolean replaceEntry(RObjectEntry entry)
+   {
+      Integer idx = positions_.get(entry.rObject.getName());
+      if (idx == null)
+         return false;
+
+      // the server has already filtered the objects
+      RObjectEntry oldEntry = loaded_.get(idx);
+      entry.visible = true;
+      entry.isFirstObject = oldEntry.isFirstObject;
+      entry.isCategoryLeader = oldEntry.isCategoryLeader;
+      loaded_.set(idx, entry);
+      updateRowData(idx, Collections.singletonList(entry));
+      return true;
+   }
+
+   @Override
+   protected void onRangeChanged(HasData<RObjectEntry> display)
+   {
+      fetch();
+   }
+
+   private void clearLoaded()
+   {
+      generation_++;
+      requestPending_ = false;
+      loaded_.clear();
+      positions_.clear();
+   }
+
+   private void fetch()
+   {
+      if (requestPending_ || getDataDisplays().isEmpty())
+         return;
+
+      int end = 0;
+      for (HasData<RObjectEntry> display : getDataDisplays())
+      {
+         Range range = display.getVisibleRange();
+         end = Math.max(end, range.getStart() + range.getLength());
+      }
+      if (matchedCount_ >= 0)
+         end = Math.min(end, matchedCount_);
+
+      final int offset = loaded_.size();
+      if (end <= offset)
+         return;
+
+      final int generation = generation_;
+      requestPending_ = true;
+      observer_.listObjectsPage(offset,
+                                end - offset,
+                                filter_,
+                                sortColumn_,
+                                ascending_,
+                                new ServerRequestCallback<EnvironmentPage>()
+      {
+         @Override
+         public void onResponseReceived(EnvironmentPage page)
+         {
+            // ignore pages requested before a reset
+            if (generation != generation_)
+               return;
+            requestPending_ = false;
+            matchedCount_ = page.getMatchedCount();
+
+            ArrayList<RObjectEntry> entries = new ArrayList<RObjectEntry>();
+            JsArray<RObject> objects = page.getObjects();
+            for (int i = 0; i < objects.length(); i++)
+            {
+               RObjectEntry entry = new RObjectEntry(objects.get(i), true);
+
+               // the list view's order is by category, so a category's
+               // leader is the first object whose category differs from
+               // the object before it
+               RObjectEntry prev = loaded_.isEmpty() ?
+                                    null : loaded_.get(loaded_.size() - 1);
+               entry.isFirstObject = prev == null;
+               entry.isCategoryLeader = prev == null ||
+                                 prev.getCategory() != entry.getCategory();
+
+               positions_.put(entry.rObject.getName(), loaded_.size());
+               loaded_.add(entry);
+               entries.add(entry);
+            }
+
+            updateRowCount(matchedCount_, true);
+            if (!entries.isEmpty())
+               updateRowData(offset, entries);
+
+            // the range may have grown while we were waiting
+            fetch();
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            if (generation != generation_)
+               return;
+            requestPending_ = false;
+            Debug.logError(error);
+         }
+      });
+   }
+
+   public static final int PAGE_SIZE = 256;
+
+   private final EnvironmentObjectsObserver observer_;
+   private final ArrayList<RObjectEntry> loaded_ =
+                                          new ArrayList<RObjectEntry>();
+   private final HashMap<String, Integer> positions_ =
+                                          new HashMap<String, Integer>();
+
+   private String filter_ = "";
+   private int sortColumn_ = -1;
+   private boolean ascending_ = true;
+   private int matchedCount_ = -1;
+   private int generation_ = 0;
+   private boolean requestPending_ = false;
+}
@@ -0,0 +1,155 @@
+/*
+ * RObjectEntryIndex.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.workbench.views.environment.view;
+
+import java.util.HashMap;
+import java.util.List;
+
+// Maintains a list of object entries in sort order, along with an index
+// of the entries by object name, so that objects can be found, added and
+// removed without scanning the list. The sort order must be total (no two
+// entries may compare equal), which RObjectEntrySort guarantees by breaking
+// ties on the object name.
+class RObjectEntryIndex
+{
+   public RObjectEntryIndex(List<RObjectEntry> entries, RObjectEntrySort sort)
+   {
+      entries_ = entries;
+      sort_ = sort;
+   }
+
+   public RObjectEntry get(String name)
+   {
+      return entriesByName_.get(name);
+   }
+
+   // returns the position of the entry in the list, or -1 if it isn't there
+   public int indexOf(RObjectEntry entry)
+   {
+      int idx = lowerBound(entry);
+      if (idx < entries_.size() && entries_.get(idx) == entry)
+         return idx;
+      return -1;
+   }
+
+   // inserts an entry at its sorted position and returns the position
+   public int add(RObjectEntry entry)
+   {
+      int idx = lowerBound(entry);
+      entries_.add(idx, entry);
+      entriesByName_.put(entry.rObject.getName(), entry);
+      return idx;
+   }
+
+   // removes an entry and returns the position it occupied (or -1)
+   public int remove(RObjectEntry entry)
+   {
+      int idx = indexOf(entry);
+      if (idx >= 0)
+      {
+         entries_.remove(idx);
+         if (entriesByName_.get(entry.rObject.getName()) == entry)
+            entriesByName_.remove(entry.rObject.getName());
+      }
+      return idx;
+   }
+
+   // replaces the entry at the given position, moving the new entry if it
+   // no longer sorts there; returns the new entry's position
+   public int replace(int idx, RObjectEntry entry)
+   {
+      boolean inOrder =
+         (idx == 0 ||
+          sort_.compare(entries_.get(idx - 1), entry) < 0) &&
+         (idx == entries_.size() - 1 ||
+          sort_.compare(entry, entries_.get(idx + 1)) < 0);
+
+      if (inOrder)
+      {
+         entries_.set(idx, entry);
+         entriesByName_.put(entry.rObject.getName(), entry);
+         return idx;
+      }
+
+      entries_.remove(idx);
+      return add(entry);
+   }
+
+   // returns the first visible entry in the given category; only meaningful
+   // when entries are sorted by category (i.e. the automatic sort)
+   public RObjectEntry firstVisibleInCategory(int category)
+   {
+      int lo = 0;
+      int hi = entries_.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (entries_.get(mid).getCategory() < category)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+
+      for (int i = lo; i < entries_.size(); i++)
+      {
+         RObjectEntry entry = entries_.get(i);
+         if (entry.getCategory() != category)
+            break;
+         if (entry.visible)
+            return entry;
+      }
+      return null;
+   }
+
+   // rebuilds the name index after the list has been changed in bulk
+   public void reindex()
+   {
+      entriesByName_.clear();
+      for (int i = 0; i < entries_.size(); i++)
+      {
+         RObjectEntry entry = entries_.get(i);
+         entriesByName_.put(entry.rObject.getName(), entry);
+      }
+   }
+
+   public void clear()
+   {
+      entriesByName_.clear();
+   }
+
+   // returns the first position whose entry doesn't sort before the given
+   // entry (note that we don't use Collections.binarySearch since the list
+   // we're given needn't implement RandomAccess)
+   private int lowerBound(RObjectEntry entry)
+   {
+      int lo = 0;
+      int hi = entries_.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (sort_.compare(entries_.get(mid), entry) < 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
+   private final List<RObjectEntry> entries_;
+   private final RObjectEntrySort sort_;
+   private final HashMap<String, RObjectEntry> entriesByName_ =
+                                          new HashMap<String, RObjectEntry>();
+}
@@ -102,7 +102,19 @@ class RObjectEntrySort implements Comparator<RObjectEntry>
                                    second.getDisplayValue());
             break;
          }
+
+         // break ties by name so that the order is total (which lets
+         // RObjectEntryIndex use binary search to find entries)
+         if (result == 0)
+         {
+            result = localeCompare(first.rObject.getName(),
+                                   second.rObject.getName());
+         }
       }
+
+      // names which collate equally still need a definite order
+      if (result == 0)
+         result = first.rObject.getName().compareTo(second.rObject.getName());
       return result;
    }
 
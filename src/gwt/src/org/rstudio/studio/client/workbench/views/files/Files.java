@@ -158,7 +158,7 @@ public class Files
       ClientInitState state = sessionInfo.getClientState();
 
       // make the column sort order persistent
-      new JSObjectStateValue(MODULE_FILES, KEY_SORT_ORDER, ClientState.PROJECT_PERSISTENT, state, false)
+      sortOrderState_ = new JSObjectStateValue(MODULE_FILES, KEY_SORT_ORDER, ClientState.PROJECT_PERSISTENT, state, false)
       {
          @Override
          protected void onInit(JsObject value)
@@ -182,6 +182,12 @@ public class Files
                return null;
          }
 
+         @Override
+         protected boolean pollsForChanges()
+         {
+            return false;
+         }
+
          @Override
          protected boolean hasChanged()
          {
@@ -201,7 +207,7 @@ public class Files
       
       
       // navigate to previous directory (works for resumed case)
-      new StringStateValue(MODULE_FILES, KEY_PATH, ClientState.PROJECT_PERSISTENT, state) {
+      pathState_ = new StringStateValue(MODULE_FILES, KEY_PATH, ClientState.PROJECT_PERSISTENT, state) {
          @Override
          protected void onInit(final String value)
          {
@@ -231,6 +237,12 @@ public class Files
             return currentPath_.getPath();
          }
          
+         @Override
+         protected boolean pollsForChanges()
+         {
+            return false;
+         }
+         
          private String transformPathStateValue(String value)
          {
             // if the value is null then return null
@@ -292,6 +304,7 @@ public class Files
                                     JsArray<ColumnSortInfo> sortOrder)
       {
          columnSortOrder_ = sortOrder;
+         sortOrderState_.markDirty();
       }
    };
     
@@ -575,7 +588,7 @@ public class Files
       hasNavigatedToDirectory_ = true;
       currentPath_ = directoryEntry;
       view_.listDirectory(currentPath_, currentPathFilesDS_);
-      session_.persistClientState();
+      pathState_.markDirty();
    }
    
 
@@ -651,4 +664,6 @@ public class Files
    private static final String KEY_PATH = "path";
    private static final String KEY_SORT_ORDER = "sortOrder";
    private JsArray<ColumnSortInfo> columnSortOrder_ = null;
+   private JSObjectStateValue sortOrderState_;
+   private StringStateValue pathState_;
 }
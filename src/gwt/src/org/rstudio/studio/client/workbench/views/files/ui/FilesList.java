@@ -16,6 +16,7 @@ package org.rstudio.studio.client.workbench.views.files.ui;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -30,11 +31,15 @@ import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
 import org.rstudio.studio.client.workbench.views.files.Files;
 import org.rstudio.studio.client.workbench.views.files.model.FileChange;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.cell.client.CheckboxCell;
 import com.google.gwt.cell.client.ImageResourceCell;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.dom.client.Style.WhiteSpace;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
@@ -94,6 +99,23 @@ public class FilesList extends Composite
       scrollPanel_ = new ScrollPanel();
       initWidget(scrollPanel_);
       scrollPanel_.setWidget(filesCellTable_);   
+      
+      // render more rows as the end of those rendered is scrolled into view
+      scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            int remaining = scrollPanel_.getMaximumVerticalScrollPosition() -
+                            scrollPanel_.getVerticalScrollPosition();
+            if (remaining < scrollPanel_.getOffsetHeight() &&
+                renderLimit_ < getFiles().size())
+            {
+               renderLimit_ += RENDER_INCREMENT;
+               filesCellTable_.setPageSize(renderLimit_);
+            }
+         }
+      });
    }
    
    private Column<FileSystemItem, Boolean> addSelectionColumn()
@@ -348,12 +370,15 @@ public class FilesList extends Composite
       containingPath_ = containingPath;
       parentPath_ = containingPath_.getParentPath();
       
-      // set page size (+1 for parent path)
-      filesCellTable_.setPageSize(files.length() + 1);
+      // render only the first rows of very large directories (more are
+      // rendered as the list is scrolled)
+      renderLimit_ = RENDER_INCREMENT;
+      filesCellTable_.setPageSize(renderLimit_);
       
       // get underlying list
       List<FileSystemItem> fileList = dataProvider_.getList();
       fileList.clear();
+      filesByPath_.clear();
             
       // add entry for parent path if we have one
       if (parentPath_ != null)
@@ -361,7 +386,11 @@ public class FilesList extends Composite
       
       // add files to table
       for (int i=0; i<files.length(); i++)
-         fileList.add(files.get(i));
+      {
+         FileSystemItem file = files.get(i);
+         fileList.add(file);
+         filesByPath_.put(file.getPath(), file);
+      }
            
       // apply sort list
       applyColumnSortList();
@@ -394,48 +423,110 @@ public class FilesList extends Composite
       return new ArrayList<FileSystemItem>(selectedSet);
    }
    
+   // File changes can arrive in storms (e.g. from a build step), so rather
+   // than updating the list for each one we apply them once per frame
    public void updateWithAction(FileChange viewAction)
+   {
+      pendingChanges_.add(viewAction);
+      if (!changesScheduled_)
+      {
+         changesScheduled_ = true;
+         AnimationScheduler.get().requestAnimationFrame(new AnimationCallback()
+         {
+            @Override
+            public void execute(double timestamp)
+            {
+               applyPendingChanges();
+            }
+         });
+      }
+   }
+   
+   public void renameFile(FileSystemItem from, FileSystemItem to)
+   {
+      if (filesByPath_.containsKey(from.getPath()))
+      {
+         selectNone();
+         removeFile(from.getPath());
+         insertFile(to);
+      }
+   }
+   
+   private void applyPendingChanges()
+   {
+      changesScheduled_ = false;
+      ArrayList<FileChange> changes = pendingChanges_;
+      pendingChanges_ = new ArrayList<FileChange>();
+      if (containingPath_ == null)
+         return;
+      
+      // apply lots of changes to the index and then sort once, rather
+      // than placing each changed file individually
+      if (changes.size() > MAX_INCREMENTAL_CHANGES)
+      {
+         for (FileChange change : changes)
+            applyChange(change, false);
+         
+         List<FileSystemItem> files = getFiles();
+         files.clear();
+         if (parentPath_ != null)
+            files.add(parentPath_);
+         files.addAll(filesByPath_.values());
+         applyColumnSortList();
+      }
+      else
+      {
+         for (FileChange change : changes)
+            applyChange(change, true);
+      }
+   }
+   
+   private void applyChange(FileChange viewAction, boolean updateList)
    {        
       final FileSystemItem file = viewAction.getFile();
-      final List<FileSystemItem> files = getFiles();
       switch(viewAction.getType())
       {
       case FileChange.ADD:
          if (file.getParentPath().equalTo(containingPath_))
          {
-            int row = rowForFile(file);
-            if (row == -1)
+            // since we eagerly perform renames at the client UI
+            // layer then sometimes an "added" file is really just
+            // a rename. in this case the file already exists due
+            // to the eager rename in the client but still needs its
+            // metadata updated (which replacing it does)
+            if (updateList)
             {
-               files.add(file);
-               filesCellTable_.setPageSize(files.size() + 1);
+               removeFile(file.getPath());
+               insertFile(file);
             }
             else
             {
-               // since we eagerly perform renames at the client UI
-               // layer then sometimes an "added" file is really just
-               // a rename. in this case the file already exists due
-               // to the eager rename in the client but still needs its
-               // metadata updated
-               files.set(row, file);
+               filesByPath_.put(file.getPath(), file);
             }
          }
          break;
          
       case FileChange.MODIFIED:
+         if (filesByPath_.containsKey(file.getPath()))
          {
-            int row = rowForFile(file);
-            if (row != -1)
-               files.set(row, file);
+            // the change may affect the file's place in the sort order
+            if (updateList)
+            {
+               removeFile(file.getPath());
+               insertFile(file);
+            }
+            else
+            {
+               filesByPath_.put(file.getPath(), file);
+            }
          }
          break;
  
       case FileChange.DELETE:
+         if (updateList)
          {
-            int row = rowForFile(file);
-            if (row != -1)
+            if (removeFile(file.getPath()))
             {
-               files.remove(row);
-               
                // if a file is deleted and then re-added within the same
                // event loop (as occurs when gedit saves a text file) the
                // table doesn't always update correctly (it has a duplicate
@@ -444,6 +535,10 @@ public class FilesList extends Composite
                dataProvider_.flush();
             }
          }
+         else
+         {
+            filesByPath_.remove(file.getPath());
+         }
          break;
       
       default:
@@ -453,14 +548,26 @@ public class FilesList extends Composite
       }
    }
    
-   public void renameFile(FileSystemItem from, FileSystemItem to)
+   private boolean removeFile(String path)
    {
-      int index = getFiles().indexOf(from);
-      if (index != -1)
-      {
-         selectNone();
-         getFiles().set(index, to);
-      }
+      FileSystemItem file = filesByPath_.remove(path);
+      if (file == null)
+         return false;
+      
+      int row = rowForFile(file);
+      if (row != -1)
+         getFiles().remove(row);
+      return true;
+   }
+   
+   // inserts the file at its place in the current sort order
+   private void insertFile(FileSystemItem file)
+   {
+      Comparator<FileSystemItem> comparator = getSortComparator();
+      List<FileSystemItem> files = getFiles();
+      files.add(comparator != null ? lowerBound(file, comparator) : files.size(),
+                file);
+      filesByPath_.put(file.getPath(), file);
    }
    
    private List<FileSystemItem> getFiles()
@@ -471,6 +578,21 @@ public class FilesList extends Composite
    private int rowForFile(FileSystemItem file)
    {
       List<FileSystemItem> files = getFiles();
+      
+      // the list is kept sorted, so look for the file amongst those which
+      // sort equal to it
+      Comparator<FileSystemItem> comparator = getSortComparator();
+      if (comparator != null)
+      {
+         for (int i = lowerBound(file, comparator);
+              i < files.size() && comparator.compare(files.get(i), file) == 0;
+              i++)
+         {
+            if (files.get(i).equalTo(file))
+               return i;
+         }
+      }
+      
       for (int i=0; i<files.size(); i++)
          if (files.get(i).equalTo(file))
             return i ;
@@ -478,6 +600,48 @@ public class FilesList extends Composite
       return -1;
    }
    
+   // returns the first row whose file doesn't sort before the given file
+   private int lowerBound(FileSystemItem file,
+                          Comparator<FileSystemItem> comparator)
+   {
+      List<FileSystemItem> files = getFiles();
+      int lo = 0;
+      int hi = files.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (comparator.compare(files.get(mid), file) < 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+   
+   // returns the comparator the list is currently sorted by (or null if
+   // it isn't sorted)
+   @SuppressWarnings("unchecked")
+   private Comparator<FileSystemItem> getSortComparator()
+   {
+      ColumnSortList sortList = filesCellTable_.getColumnSortList();
+      if (sortList.size() == 0)
+         return null;
+      
+      com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo sortInfo = sortList.get(0);
+      final Comparator<FileSystemItem> comparator = sortHandler_.getComparator(
+                  (Column<FileSystemItem, ?>) sortInfo.getColumn());
+      if (comparator == null || sortInfo.isAscending())
+         return comparator;
+      
+      return new Comparator<FileSystemItem>() {
+         @Override
+         public int compare(FileSystemItem arg0, FileSystemItem arg1)
+         {
+            return comparator.compare(arg1, arg0);
+         }
+      };
+   }
+   
    private void applyColumnSortList()
    {
       applyingProgrammaticSort_ = true;
@@ -561,6 +725,11 @@ public class FilesList extends Composite
    
    private FileSystemItem containingPath_ = null;
    private FileSystemItem parentPath_ = null;
+   private final LinkedHashMap<String, FileSystemItem> filesByPath_ =
+                                 new LinkedHashMap<String, FileSystemItem>();
+   private ArrayList<FileChange> pendingChanges_ = new ArrayList<FileChange>();
+   private boolean changesScheduled_ = false;
+   private int renderLimit_ = RENDER_INCREMENT;
   
    private final CellTable<FileSystemItem> filesCellTable_; 
    private final LinkColumn<FileSystemItem> nameColumn_;
@@ -577,6 +746,9 @@ public class FilesList extends Composite
    private final Files.Display.Observer observer_ ;
    private final ScrollPanel scrollPanel_ ;  
    
+   private static final int RENDER_INCREMENT = 1000;
+   private static final int MAX_INCREMENTAL_CHANGES = 100;
+   
  
    
 }
@@ -15,16 +15,22 @@
 package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.TableCellElement;
 import com.google.gwt.dom.client.TableRowElement;
 import org.rstudio.core.client.CodeNavigationTarget;
 import org.rstudio.core.client.FilePosition;
+import org.rstudio.core.client.widget.FastSelectTable.VirtualItemCodec;
 import org.rstudio.core.client.widget.HeaderBreaksItemCodec;
 import org.rstudio.studio.client.workbench.views.output.find.FindOutputResources.Styles;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class FindOutputCodec
       extends HeaderBreaksItemCodec<FindResult, CodeNavigationTarget, Object>
+      implements VirtualItemCodec<FindResult, CodeNavigationTarget, Object>
 {
    public FindOutputCodec(FindOutputResources resources)
    {
@@ -41,8 +47,9 @@ public class FindOutputCodec
          TableCellElement td = Document.get().createTDElement();
          td.setClassName(styles_.overflowWarning());
          td.setColSpan(2);
-         td.setInnerText("More than 1000 matching lines were found. " +
-                         "Only the first 1000 lines are shown.");
+         td.setInnerText("More than " + maxCount_ + " matching lines were " +
+                         "found. Only the first " + maxCount_ +
+                         " lines are shown.");
          tr.appendChild(td);
          return tr;
       }
@@ -76,17 +83,65 @@ public class FindOutputCodec
 
    @Override
    protected int addBreak(TableRowElement row)
+   {
+      row.getParentElement().insertBefore(
+                        createHeaderRow(row.getAttribute(DATA_FILE)), row);
+      return 1;
+   }
+
+   @Override
+   public boolean needsBreak(FindResult prevItem, FindResult item)
+   {
+      if (item == null)
+         return false;
+
+      return prevItem == null || !prevItem.getFile().equals(item.getFile());
+   }
+
+   @Override
+   public TableRowElement getBreakRowForItem(FindResult item)
+   {
+      return createHeaderRow(item.getFile());
+   }
+
+   @Override
+   public boolean isValueItem(FindResult item)
+   {
+      return item != null;
+   }
+
+   // sets the number of matches in each file, shown in the file's header
+   public void setFileMatchCounts(Map<String, Integer> counts)
+   {
+      fileMatchCounts_ = counts;
+   }
+
+   public void setMaxCount(int maxCount)
+   {
+      maxCount_ = maxCount;
+   }
+
+   private TableRowElement createHeaderRow(String file)
    {
       TableRowElement tr = Document.get().createTRElement();
       tr.setClassName(styles_.headerRow());
 
       TableCellElement td = Document.get().createTDElement();
       td.setColSpan(2);
-      td.setInnerText(row.getAttribute(DATA_FILE));
+      td.setInnerText(file);
       tr.appendChild(td);
 
-      row.getParentElement().insertBefore(tr, row);
-      return 1;
+      Integer count = fileMatchCounts_.get(file);
+      if (count != null)
+      {
+         Element countSpan = Document.get().createSpanElement();
+         countSpan.setClassName(styles_.headerCount());
+         countSpan.setInnerText(count == 1 ? "(1 match)" :
+                                             "(" + count + " matches)");
+         td.appendChild(countSpan);
+      }
+
+      return tr;
    }
 
    @Override
@@ -117,6 +172,9 @@ public class FindOutputCodec
    }
 
    private Styles styles_;
+   private Map<String, Integer> fileMatchCounts_ =
+                                             new HashMap<String, Integer>();
+   private int maxCount_ = 1000;
 
    private static final String DATA_FILE = "data-file";
    private static final String DATA_LINE = "data-line";
@@ -15,18 +15,19 @@
 package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.NativeEvent;
-import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
 import org.rstudio.core.client.CodeNavigationTarget;
-import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.events.EnsureVisibleEvent;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
 import org.rstudio.core.client.events.SelectionCommitEvent;
@@ -38,6 +39,8 @@ import org.rstudio.studio.client.workbench.ui.WorkbenchPane;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 
 public class FindOutputPane extends WorkbenchPane
@@ -60,6 +63,9 @@ public class FindOutputPane extends WorkbenchPane
       searchLabel_ = new Label();
       toolbar.addLeftWidget(searchLabel_);
 
+      matchCountLabel_ = new Label();
+      toolbar.addRightWidget(matchCountLabel_);
+
       stopSearch_ = new ToolbarButton(
             commands_.interruptR().getImageResource(),
             (ClickHandler) null);
@@ -79,11 +85,14 @@ public class FindOutputPane extends WorkbenchPane
       FindOutputResources resources = GWT.create(FindOutputResources.class);
       resources.styles().ensureInjected();
 
+      codec_ = new FindOutputCodec(resources);
+      codec_.setMaxCount(MAX_COUNT);
       table_ = new FastSelectTable<FindResult, CodeNavigationTarget, Object>(
-            new FindOutputCodec(resources),
+            codec_,
             resources.styles().selectedRow(),
             true,
             false);
+      table_.setVirtualized(true);
       FontSizer.applyNormalFontSize(table_);
       table_.addStyleName(resources.styles().findOutput());
       table_.addClickHandler(new ClickHandler()
@@ -119,6 +128,15 @@ public class FindOutputPane extends WorkbenchPane
       statusPanel_.setSize("100%", "100%");
       scrollPanel_ = new ScrollPanel(table_);
       scrollPanel_.setSize("100%", "100%");
+      table_.setOwningScrollPanel(scrollPanel_);
+      scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            loadMoreMatchesIfNeeded();
+         }
+      });
       container_.setWidget(scrollPanel_);
       return container_;
    }
@@ -147,6 +165,64 @@ public class FindOutputPane extends WorkbenchPane
       
       if (matchesToAdd != findResults.size())
          showOverflow();
+
+      // the new matches may not be enough to fill the view
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            loadMoreMatchesIfNeeded();
+         }
+      });
+   }
+
+   @Override
+   public void setLoadMoreMatchesCommand(Command command)
+   {
+      loadMoreMatchesCommand_ = command;
+   }
+
+   @Override
+   public void setMatchTotal(int total)
+   {
+      matchCountLabel_.setText(formatMatchCount(total));
+   }
+
+   @Override
+   public void setFileMatchCounts(Map<String, Integer> counts, int total)
+   {
+      codec_.setFileMatchCounts(counts);
+      table_.redrawRows();
+
+      int fileCount = counts.size();
+      matchCountLabel_.setText(formatMatchCount(total) + " in " +
+                               fileCount +
+                               (fileCount == 1 ? " file" : " files"));
+   }
+
+   private String formatMatchCount(int total)
+   {
+      if (total > MAX_COUNT)
+         return "More than " + MAX_COUNT + " matches";
+      return total + (total == 1 ? " match" : " matches");
+   }
+
+   // asks for more matches when the view is scrolled to within a page of
+   // the last match loaded
+   private void loadMoreMatchesIfNeeded()
+   {
+      if (loadMoreMatchesCommand_ == null ||
+          overflow_ ||
+          container_.getWidget() != scrollPanel_)
+      {
+         return;
+      }
+
+      int remaining = scrollPanel_.getMaximumVerticalScrollPosition() -
+                      scrollPanel_.getVerticalScrollPosition();
+      if (remaining <= scrollPanel_.getOffsetHeight())
+         loadMoreMatchesCommand_.execute();
    }
 
    @Override
@@ -156,6 +232,8 @@ public class FindOutputPane extends WorkbenchPane
       table_.clear();
       overflow_ = false;
       matchCount_ = 0;
+      matchCountLabel_.setText("");
+      codec_.setFileMatchCounts(new HashMap<String, Integer>());
       statusPanel_.setStatusText("");
       container_.setWidget(statusPanel_);
    }
@@ -188,13 +266,7 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void ensureSelectedRowIsVisible()
    {
-      ArrayList<TableRowElement> rows = table_.getSelectedRows();
-      if (rows.size() > 0)
-      {
-         DomUtils.ensureVisibleVert(scrollPanel_.getElement(),
-                                    rows.get(0),
-                                    20);
-      }
+      table_.ensureSelectionVisible(20);
    }
 
    @Override
@@ -259,6 +331,9 @@ public class FindOutputPane extends WorkbenchPane
    }
    
    private FastSelectTable<FindResult, CodeNavigationTarget, Object> table_;
+   private FindOutputCodec codec_;
+   private Command loadMoreMatchesCommand_;
+   private Label matchCountLabel_;
    private FindResultContext context_;
    private final Commands commands_;
    private Label searchLabel_;
@@ -270,5 +345,5 @@ public class FindOutputPane extends WorkbenchPane
    private int matchCount_;
 
    // This must be the same as MAX_COUNT in SessionFind.cpp
-   private static final int MAX_COUNT = 1000;
+   private static final int MAX_COUNT = 100000;
 }
@@ -19,8 +19,10 @@ import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.dom.client.HasClickHandlers;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 import org.rstudio.core.client.CodeNavigationTarget;
+import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.events.HasEnsureHiddenHandlers;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
@@ -34,6 +36,8 @@ import org.rstudio.core.client.widget.events.SelectionChangedHandler;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
 import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.WorkbenchContext;
 import org.rstudio.studio.client.workbench.WorkbenchView;
@@ -47,8 +51,11 @@ import org.rstudio.studio.client.workbench.views.output.find.events.FindResultEv
 import org.rstudio.studio.client.workbench.views.output.find.model.FindInFilesServerOperations;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindInFilesState;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultsPage;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultsSummary;
 
 import java.util.ArrayList;
+import java.util.Map;
 
 public class FindOutputPresenter extends BasePresenter
 {
@@ -71,6 +78,12 @@ public class FindOutputPresenter extends BasePresenter
       
       void showSearchCompleted();
 
+      // executed when the view needs more matches than have been added
+      void setLoadMoreMatchesCommand(Command command);
+
+      void setMatchTotal(int total);
+      void setFileMatchCounts(Map<String, Integer> counts, int total);
+
       void updateSearchLabel(String query, String path);
       void clearSearchLabel();
    }
@@ -113,6 +126,15 @@ public class FindOutputPresenter extends BasePresenter
          }
       });
 
+      view_.setLoadMoreMatchesCommand(new Command()
+      {
+         @Override
+         public void execute()
+         {
+            loadMoreMatches();
+         }
+      });
+
       view_.getStopSearchButton().addClickHandler(new ClickHandler()
       {
          @Override
@@ -129,7 +151,7 @@ public class FindOutputPresenter extends BasePresenter
          {
             if (!event.getHandle().equals(currentFindHandle_))
                return;
-            view_.addMatches(event.getResults());
+            addMatches(event.getResults(), event.getTotal());
             
             view_.ensureVisible(true);
          }
@@ -146,11 +168,13 @@ public class FindOutputPresenter extends BasePresenter
                currentFindHandle_ = null;
                view_.setStopSearchButtonVisible(false);
                view_.showSearchCompleted();
+               loadSummary(event.getHandle());
             }
          }
       });
 
-      new JSObjectStateValue(GROUP_FIND_IN_FILES, KEY_DIALOG_STATE,
+      dialogStateValue_ = new JSObjectStateValue(
+                             GROUP_FIND_IN_FILES, KEY_DIALOG_STATE,
                              ClientState.PROJECT_PERSISTENT,
                              session.getSessionInfo().getClientState(),
                              false)
@@ -168,6 +192,12 @@ public class FindOutputPresenter extends BasePresenter
          {
             return dialogState_.cast();
          }
+
+         @Override
+         protected boolean pollsForChanges()
+         {
+            return false;
+         }
       };
    }
 
@@ -176,7 +206,8 @@ public class FindOutputPresenter extends BasePresenter
       view_.ensureVisible(false);
 
       currentFindHandle_ = state.getHandle();
-      view_.addMatches(state.getResults().toArrayList());
+      resultsHandle_ = state.getHandle();
+      addMatches(state.getResults().toArrayList(), state.getTotal());
       updateSearchLabel(state.getInput(), state.getPath(), state.isRegex());
 
       if (state.isRunning())
@@ -193,6 +224,7 @@ public class FindOutputPresenter extends BasePresenter
          public void execute(final FindInFilesDialog.State input)
          {
             dialogState_ = input;
+            dialogStateValue_.markDirty();
 
             stopAndClear();
 
@@ -214,6 +246,7 @@ public class FindOutputPresenter extends BasePresenter
                                  public void onResponseReceived(String handle)
                                  {
                                     currentFindHandle_ = handle;
+                                    resultsHandle_ = handle;
                                     updateSearchLabel(input.getQuery(),
                                                       input.getPath(),
                                                       input.isRegex());
@@ -251,6 +284,76 @@ public class FindOutputPresenter extends BasePresenter
       server_.clearFindResults(new VoidServerRequestCallback());
    }
 
+   private void addMatches(ArrayList<FindResult> results, int total)
+   {
+      view_.addMatches(results);
+      loadedCount_ += results.size();
+      totalCount_ = Math.max(total, loadedCount_);
+      view_.setMatchTotal(totalCount_);
+   }
+
+   // Only the first page of results is streamed to us as the search runs;
+   // the rest are fetched a page at a time as the view needs them.
+   private void loadMoreMatches()
+   {
+      final String handle = resultsHandle_;
+      if (handle == null ||
+          loadingPage_ ||
+          loadedCount_ < STREAMED_COUNT ||
+          loadedCount_ >= totalCount_)
+      {
+         return;
+      }
+
+      loadingPage_ = true;
+      server_.getFindResults(handle, loadedCount_, PAGE_SIZE,
+                             new ServerRequestCallback<FindResultsPage>()
+      {
+         @Override
+         public void onResponseReceived(FindResultsPage page)
+         {
+            // ignore pages of an earlier search (a page of the current one
+            // may be on its way)
+            if (!handle.equals(resultsHandle_))
+               return;
+
+            loadingPage_ = false;
+            addMatches(page.getResults().toArrayList(), page.getTotal());
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            if (handle.equals(resultsHandle_))
+               loadingPage_ = false;
+            Debug.logError(error);
+         }
+      });
+   }
+
+   private void loadSummary(final String handle)
+   {
+      server_.getFindSummary(handle,
+                             new ServerRequestCallback<FindResultsSummary>()
+      {
+         @Override
+         public void onResponseReceived(FindResultsSummary summary)
+         {
+            if (!handle.equals(resultsHandle_))
+               return;
+
+            totalCount_ = Math.max(summary.getTotal(), loadedCount_);
+            view_.setFileMatchCounts(summary.getFileCounts(), totalCount_);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            Debug.logError(error);
+         }
+      });
+   }
+
    private void updateSearchLabel(String query, String path, boolean regex)
    {
       if (regex)
@@ -264,6 +367,10 @@ public class FindOutputPresenter extends BasePresenter
    private void stopAndClear()
    {
       stop();
+      resultsHandle_ = null;
+      loadedCount_ = 0;
+      totalCount_ = 0;
+      loadingPage_ = false;
       view_.clearMatches();
       view_.clearSearchLabel();
    }
@@ -281,7 +388,15 @@ public class FindOutputPresenter extends BasePresenter
 
    private String currentFindHandle_;
 
+   // the handle of the operation whose results are shown (which, unlike
+   // currentFindHandle_, remains set once the operation has ended)
+   private String resultsHandle_;
+   private int loadedCount_;
+   private int totalCount_;
+   private boolean loadingPage_;
+
    private FindInFilesDialog.State dialogState_;
+   private final JSObjectStateValue dialogStateValue_;
 
    private final Display view_;
    private final FindInFilesServerOperations server_;
@@ -291,4 +406,8 @@ public class FindOutputPresenter extends BasePresenter
 
    private static final String GROUP_FIND_IN_FILES = "find-in-files";
    private static final String KEY_DIALOG_STATE = "dialog-state";
+
+   // This must be the same as STREAMED_COUNT in SessionFind.cpp
+   private static final int STREAMED_COUNT = 1000;
+   private static final int PAGE_SIZE = 1000;
 }
@@ -23,6 +23,7 @@ public interface FindOutputResources extends ClientBundle
    {
       String findOutput();
       String headerRow();
+      String headerCount();
       String line();
       String lineValue();
       String selectedRow();
@@ -42,12 +42,21 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
       public native final RpcObjectList<FindResult> getResults() /*-{
          return this.results;
       }-*/;
+
+      public native final int getTotal() /*-{
+         return this.total || 0;
+      }-*/;
    }
 
-   public FindResultEvent(String handle, ArrayList<FindResult> results)
+   // results are streamed only for the first page of results; total is the
+   // number of results found so far (including those not streamed)
+   public FindResultEvent(String handle,
+                          ArrayList<FindResult> results,
+                          int total)
    {
       handle_ = handle;
       results_ = results;
+      total_ = total;
    }
 
    public String getHandle()
@@ -60,6 +69,11 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
       return results_;
    }
 
+   public int getTotal()
+   {
+      return total_;
+   }
+
    @Override
    public Type<Handler> getAssociatedType()
    {
@@ -74,6 +88,7 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
 
    private final String handle_;
    private final ArrayList<FindResult> results_;
+   private final int total_;
 
    public static final Type<Handler> TYPE = new Type<Handler>();
 }
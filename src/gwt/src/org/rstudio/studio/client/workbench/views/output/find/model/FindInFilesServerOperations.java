@@ -31,5 +31,13 @@ public interface FindInFilesServerOperations
    void stopFind(String findOperationHandle,
                  ServerRequestCallback<Void> requestCallback);
 
+   void getFindResults(String findOperationHandle,
+                       int offset,
+                       int count,
+                       ServerRequestCallback<FindResultsPage> requestCallback);
+
+   void getFindSummary(String findOperationHandle,
+                       ServerRequestCallback<FindResultsSummary> requestCallback);
+
    void clearFindResults(ServerRequestCallback<Void> requestCallback);
 }
@@ -38,6 +38,12 @@ public class FindInFilesState extends JavaScriptObject
       return this.results;
    }-*/;
 
+   // the number of results found (only the first page of which are
+   // included in the state)
+   public native final int getTotal() /*-{
+      return this.total || 0;
+   }-*/;
+
    public native final boolean isRunning() /*-{
       return this.running;
    }-*/;
@@ -0,0 +1,35 @@
+/*
+ * FindResultsPage.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import org.rstudio.core.client.jsonrpc.RpcObjectList;
+
+// a page of the results of a find operation
+public class FindResultsPage extends JavaScriptObject
+{
+   protected FindResultsPage()
+   {
+   }
+
+   public native final RpcObjectList<FindResult> getResults() /*-{
+      return this.results;
+   }-*/;
+
+   // the number of results found so far
+   public native final int getTotal() /*-{
+      return this.total;
+   }-*/;
+}
@@ -0,0 +1,52 @@
+/*
+ * FindResultsSummary.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayString;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// the number of results of a find operation in each file
+public class FindResultsSummary extends JavaScriptObject
+{
+   protected FindResultsSummary()
+   {
+   }
+
+   public native final JsArrayString getFiles() /*-{
+      return this.files;
+   }-*/;
+
+   public native final JsArrayInteger getCounts() /*-{
+      return this.counts;
+   }-*/;
+
+   public native final int getTotal() /*-{
+      return this.total;
+   }-*/;
+
+   public final Map<String, Integer> getFileCounts()
+   {
+      Map<String, Integer> counts = new HashMap<String, Integer>();
+      JsArrayString files = getFiles();
+      JsArrayInteger fileCounts = getCounts();
+      for (int i = 0; i < files.length(); i++)
+         counts.put(files.get(i), fileCounts.get(i));
+      return counts;
+   }
+}
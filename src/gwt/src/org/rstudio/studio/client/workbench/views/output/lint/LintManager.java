@@ -14,6 +14,8 @@
  */
 package org.rstudio.studio.client.workbench.views.output.lint;
 
+import java.util.List;
+
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.Invalidation;
 import org.rstudio.studio.client.RStudioGinjector;
@@ -183,6 +185,23 @@ public class LintManager
       if (target_.getPath() == null)
          return;
       
+      // background lint can be answered from the scope cache if this
+      // version of the document has already been linted
+      if (isScopeCacheable(context))
+      {
+         JsArray<LintItem> lint = scopeCache_.get(
+                                       scopeCache_.getUnits(docDisplay_));
+         if (lint != null)
+         {
+            showLint(context, lint);
+            return;
+         }
+      }
+      else
+      {
+         scopeCache_.clear();
+      }
+      
       if (context.showMarkers)
       {
          target_.saveThenExecute(null, new Command()
@@ -221,6 +240,21 @@ public class LintManager
 
    private void performCppLintServerRequest(final LintContext context)
    {
+      // the C++ and R diagnostics are independent, so request both at once
+      // and show them together when both have arrived
+      final JsArray<LintItem> allLint = JsArray.createArray().cast();
+      final int[] pending = new int[] { 2 };
+      final Command onReceived = new Command()
+      {
+         @Override
+         public void execute()
+         {
+            pending[0]--;
+            if (pending[0] == 0 && !context.token.isInvalid())
+               showLint(context, allLint);
+         }
+      };
+      
       cppCompletionContext_.cppCompletionOperation(new CppCompletionOperation(){
 
          @Override
@@ -234,39 +268,11 @@ public class LintManager
                @Override
                public void onResponseReceived(JsArray<CppDiagnostic> diag)
                {
-                  if (context.token.isInvalid())
-                     return;
-                  
-                  final JsArray<LintItem> cppLint =
+                  JsArray<LintItem> cppLint =
                         CppCompletionRequest.asLintArray(diag);
-                  
-                  server_.lintRSourceDocument(
-                        target_.getId(),
-                        target_.getPath(),
-                        context.showMarkers,
-                        context.explicit,
-                        new ServerRequestCallback<JsArray<LintItem>>()
-                        {
-                           @Override
-                           public void onResponseReceived(JsArray<LintItem> rLint)
-                           {
-                              if (context.token.isInvalid())
-                                 return;
-                              
-                              JsArray<LintItem> allLint = JsArray.createArray().cast();
-                              for (int i = 0; i < cppLint.length(); i++)
-                                 allLint.push(cppLint.get(i));
-                              for (int i = 0; i < rLint.length(); i++)
-                                 allLint.push(rLint.get(i));
-                              showLint(context, allLint);
-                           }
-
-                           @Override
-                           public void onError(ServerError error)
-                           {
-                              Debug.logError(error);
-                           }
-                        });
+                  for (int i = 0; i < cppLint.length(); i++)
+                     allLint.push(cppLint.get(i));
+                  onReceived.execute();
                }
                
                @Override
@@ -277,11 +283,44 @@ public class LintManager
             });
          } 
       });
+      
+      server_.lintRSourceDocument(
+            target_.getId(),
+            target_.getPath(),
+            context.showMarkers,
+            context.explicit,
+            new ServerRequestCallback<JsArray<LintItem>>()
+            {
+               @Override
+               public void onResponseReceived(JsArray<LintItem> rLint)
+               {
+                  for (int i = 0; i < rLint.length(); i++)
+                     allLint.push(rLint.get(i));
+                  onReceived.execute();
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  Debug.logError(error);
+               }
+            });
    }
 
+   private boolean isScopeCacheable(LintContext context)
+   {
+      // explicit requests (and those which update the markers pane) always
+      // go to the server; C++ diagnostics depend on more than the document
+      TextFileType type = target_.getTextFileType();
+      return !context.showMarkers && !context.explicit &&
+             !type.isCpp() && !type.isC();
+   }
+   
    private void performRLintServerRequest(final LintContext context)
    {
-
+      final List<LintScopeCache.Unit> units = 
+                                    scopeCache_.getUnits(docDisplay_);
+      
       server_.lintRSourceDocument(
             target_.getId(),
             target_.getPath(),
@@ -294,6 +333,15 @@ public class LintManager
                {
                   if (context.token.isInvalid())
                      return;
+                  
+                  // remember the lint for this version of the document (if
+                  // it hasn't changed since we sent it)
+                  if (isScopeCacheable(context) &&
+                      LintScopeCache.isSameDocument(
+                                 units, scopeCache_.getUnits(docDisplay_)))
+                  {
+                     scopeCache_.put(units, lint);
+                  }
 
                   showLint(context, lint);
                }
@@ -376,6 +424,7 @@ public class LintManager
    private final TextEditingTarget target_;
    private final DocDisplay docDisplay_;
    private final Invalidation invalidation_;
+   private final LintScopeCache scopeCache_ = new LintScopeCache();
    
    private boolean explicit_;
    private boolean showMarkers_;
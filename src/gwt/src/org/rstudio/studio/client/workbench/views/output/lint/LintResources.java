@@ -32,6 +32,8 @@ public interface LintResources extends ClientBundle
       
       String error();
       String fatal();
+      
+      String spelling();
    }
    
    @Source("Lint.css")
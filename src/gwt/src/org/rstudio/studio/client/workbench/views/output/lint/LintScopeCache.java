@@ -0,0 +1,163 @@
+/*
+ * LintScopeCache.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.lint;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.workbench.views.output.lint.model.LintItem;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
+import org.rstudio.studio.client.workbench.views.source.editors.text.Scope;
+
+import com.google.gwt.core.client.JsArray;
+
+// Remembers the lint for recently linted versions of a document, keyed by
+// the hashes of the document's top-level scopes (function or chunk, and
+// the code between them), so that background lint requests can be skipped
+// when the document is returned to a version that was already linted (e.g.
+// after an edit is undone).
+//
+// Lint for one scope can depend on any other (e.g. the checks for
+// undefined symbols depend on the assignments and library() calls made
+// elsewhere), so lint is only reused for the whole document.
+class LintScopeCache
+{
+   public static class Unit
+   {
+      Unit(int startRow, String hash)
+      {
+         this.startRow = startRow;
+         this.hash = hash;
+      }
+      
+      final int startRow;
+      final String hash;
+   }
+   
+   // splits the document into scopes
+   public List<Unit> getUnits(DocDisplay docDisplay)
+   {
+      int rowCount = docDisplay.getRowCount();
+      
+      ArrayList<int[]> ranges = new ArrayList<int[]>();
+      addScopeRanges(docDisplay.getScopeTree(), rowCount, ranges);
+      
+      // fill in the rows between scopes
+      ArrayList<int[]> allRanges = new ArrayList<int[]>();
+      int row = 0;
+      for (int[] range : ranges)
+      {
+         if (range[0] < row)
+            continue;
+         if (range[0] > row)
+            allRanges.add(new int[] { row, range[0] - 1 });
+         allRanges.add(range);
+         row = range[1] + 1;
+      }
+      if (row < rowCount)
+         allRanges.add(new int[] { row, rowCount - 1 });
+      
+      ArrayList<Unit> units = new ArrayList<Unit>();
+      for (int[] range : allRanges)
+      {
+         StringBuilder text = new StringBuilder();
+         for (int i = range[0]; i <= range[1]; i++)
+            text.append(docDisplay.getLine(i)).append('\n');
+         units.add(new Unit(range[0],
+                            StringUtil.crc32(text.toString()) + "-" + 
+                            text.length()));
+      }
+      return units;
+   }
+   
+   private void addScopeRanges(JsArray<Scope> scopes,
+                               int rowCount,
+                               ArrayList<int[]> ranges)
+   {
+      for (int i = 0; i < scopes.length(); i++)
+      {
+         Scope scope = scopes.get(i);
+         if (scope.isSection())
+         {
+            addScopeRanges(scope.getChildren(), rowCount, ranges);
+            continue;
+         }
+         
+         int startRow = scope.getPreamble().getRow();
+         int endRow = scope.getEnd() == null ? rowCount - 1 : 
+                                               scope.getEnd().getRow();
+         ranges.add(new int[] { startRow, Math.min(endRow, rowCount - 1) });
+      }
+   }
+   
+   // returns the lint for the document, or null if this version of it
+   // hasn't been linted
+   public JsArray<LintItem> get(List<Unit> units)
+   {
+      return entries_.get(documentKey(units));
+   }
+   
+   public void put(List<Unit> units, JsArray<LintItem> lint)
+   {
+      entries_.put(documentKey(units), lint);
+   }
+   
+   public static boolean isSameDocument(List<Unit> a, List<Unit> b)
+   {
+      if (a.size() != b.size())
+         return false;
+      
+      for (int i = 0; i < a.size(); i++)
+      {
+         Unit unitA = a.get(i);
+         Unit unitB = b.get(i);
+         if (unitA.startRow != unitB.startRow || !unitA.hash.equals(unitB.hash))
+            return false;
+      }
+      return true;
+   }
+   
+   public void clear()
+   {
+      entries_.clear();
+   }
+   
+   // scopes are keyed by their position as well as their contents, since
+   // moving a scope moves its lint
+   private static String documentKey(List<Unit> units)
+   {
+      StringBuilder key = new StringBuilder();
+      for (Unit unit : units)
+         key.append(unit.startRow).append(':').append(unit.hash).append('\n');
+      return key.toString();
+   }
+   
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, JsArray<LintItem>> entries_ =
+         new LinkedHashMap<String, JsArray<LintItem>>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(
+                              Map.Entry<String, JsArray<LintItem>> eldest)
+      {
+         return size() > MAX_ENTRIES;
+      }
+   };
+   
+   private static final int MAX_ENTRIES = 20;
+}
@@ -70,11 +70,11 @@ import org.rstudio.studio.client.workbench.views.packages.events.LoadedPackageUp
 import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedEvent;
 import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedHandler;
 import org.rstudio.studio.client.workbench.views.packages.events.RaisePackagePaneEvent;
+import org.rstudio.studio.client.workbench.views.packages.model.PackageIndex;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInfo;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallContext;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallOptions;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallRequest;
-import org.rstudio.studio.client.workbench.views.packages.model.PackageLibraryUtils;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageLibraryUtils.PackageLibraryType;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageState;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageStatus;
@@ -84,8 +84,6 @@ import org.rstudio.studio.client.workbench.views.packages.ui.CheckForUpdatesDial
 import org.rstudio.studio.client.workbench.views.packages.ui.CleanUnusedDialog;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -153,7 +151,8 @@ public class Packages
       events.addHandler(PackageStatusChangedEvent.TYPE, this);
       
       // make the install options persistent
-      new JSObjectStateValue("packages-pane", "installOptions", ClientState.PROJECT_PERSISTENT,
+      installOptionsState_ = new JSObjectStateValue(
+            "packages-pane", "installOptions", ClientState.PROJECT_PERSISTENT,
             session.getSessionInfo().getClientState(), false)
       {
          @Override
@@ -170,6 +169,12 @@ public class Packages
             return installOptions_.cast();
          }
 
+         @Override
+         protected boolean pollsForChanges()
+         {
+            return false;
+         }
+
          @Override
          protected boolean hasChanged()
          {
@@ -307,6 +312,7 @@ public class Packages
             public void execute(PackageInstallRequest request)
             {
                installOptions_ = request.getOptions();
+               installOptionsState_.markDirty();
                
                boolean usingDefaultLibrary = 
                   request.getOptions().getLibraryPath().equals(
@@ -699,74 +705,32 @@ public class Packages
    
    public void onPackageFilterChanged(String filter)
    {
-      packageFilter_ = filter.toLowerCase();
-      setViewPackageList();
+      String packageFilter = filter.toLowerCase();
+      if (packageFilter.equals(packageFilter_))
+         return;
+      packageFilter_ = packageFilter;
+
+      // filter as soon as the filter is cleared, otherwise wait for a pause
+      // in typing
+      filterTimer_.cancel();
+      if (packageFilter_.length() == 0)
+         setViewPackageList();
+      else
+         filterTimer_.schedule(FILTER_DELAY_MS);
    }
 
    public void onPackageStatusChanged(PackageStatusChangedEvent event)
    {
       PackageStatus status = event.getPackageStatus();
       view_.setPackageStatus(status);
-      
-      // also update the list of allPackages_
-      for (int i = 0; i<allPackages_.size(); i++)
-      {
-         PackageInfo packageInfo = allPackages_.get(i);
-         if (packageInfo.getName().equals(status.getName()) &&
-             packageInfo.getLibrary().equals(status.getLib()))
-         {
-            allPackages_.set(i, status.isLoaded() ? packageInfo.asLoaded() :
-                                                    packageInfo.asUnloaded());
-         }
-      }
+      packageIndex_.updateStatus(status);
    }
    
    private void setViewPackageList()
    {
-      ArrayList<PackageInfo> packages = null;
-      
-      // apply filter (if any)
-      if (packageFilter_.length() > 0)
-      {
-         packages = new ArrayList<PackageInfo>();
-         
-         // first do prefix search
-         for (PackageInfo pkgInfo : allPackages_)
-         {
-            if (pkgInfo.getName().toLowerCase().startsWith(packageFilter_))
-               packages.add(pkgInfo);
-         }
-         
-         // then do contains search on name & desc
-         for (PackageInfo pkgInfo : allPackages_)
-         { 
-            if (pkgInfo.getName().toLowerCase().contains(packageFilter_) ||
-                pkgInfo.getDesc().toLowerCase().contains(packageFilter_))
-            {
-               if (!packages.contains(pkgInfo))
-                  packages.add(pkgInfo);
-            }
-         }
-
-         // sort results by library (to preserve grouping)
-         Collections.sort(packages, new Comparator<PackageInfo>()
-               {
-                  @Override
-                  public int compare(PackageInfo o1, PackageInfo o2)
-                  {
-                     return PackageLibraryUtils.typeOfLibrary(
-                                   session_, o1.getLibrary()).compareTo(
-                             PackageLibraryUtils.typeOfLibrary(
-                                   session_, o2.getLibrary()));
-                  }
-               });
-      }
-      else
-      {
-         packages = allPackages_;
-      }
-      
-      view_.setPackageState(packratContext_, packages);
+      filterTimer_.cancel();
+      view_.setPackageState(packratContext_, 
+                            packageIndex_.filter(packageFilter_));
    }
    
    private void checkPackageStatusOnNextConsolePrompt(
@@ -1221,25 +1185,9 @@ public class Packages
 
    private void setPackageState(PackageState newState)
    {
-      // sort the packages
-      allPackages_ = new ArrayList<PackageInfo>();
-      JsArray<PackageInfo> serverPackages = newState.getPackageList();
-      for (int i = 0; i < serverPackages.length(); i++)
-         allPackages_.add(serverPackages.get(i));
-      Collections.sort(allPackages_, new Comparator<PackageInfo>() {
-         public int compare(PackageInfo o1, PackageInfo o2)
-         {
-            // sort first by library, then by name
-            int library = 
-                  PackageLibraryUtils.typeOfLibrary(
-                        session_, o1.getLibrary()).compareTo(
-                  PackageLibraryUtils.typeOfLibrary(
-                        session_, o2.getLibrary()));
-            return library == 0 ? 
-                  o1.getName().compareToIgnoreCase(o2.getName()) :
-                  library;
-         }
-      });
+      // sort and index the packages
+      packageIndex_ = new PackageIndex(newState.getPackageList(), session_);
+      ArrayList<PackageInfo> allPackages = packageIndex_.getPackages();
       
       // mark packages out of sync if they have pending actions, and mark 
       // which packages are first in their respective libraries
@@ -1250,15 +1198,15 @@ public class Packages
       getPackageNamesFromActions(newState.getSnapshotActions(),
                                  outOfSyncPackages);
       PackageLibraryType libraryType = PackageLibraryType.None;
-      for (PackageInfo pkgInfo: allPackages_)
+      for (int i = 0; i < allPackages.size(); i++)
       {
+         PackageInfo pkgInfo = allPackages.get(i);
          if (pkgInfo.getInPackratLibary() && 
              outOfSyncPackages.contains(pkgInfo.getName()))
          {
             pkgInfo.setOutOfSync(true);
          }
-         PackageLibraryType pkgLibraryType = PackageLibraryUtils.typeOfLibrary(
-               session_, pkgInfo.getLibrary());
+         PackageLibraryType pkgLibraryType = packageIndex_.getLibraryType(i);
          if (pkgLibraryType != libraryType)
          {
             pkgInfo.setFirstInLibrary(true);
@@ -1286,9 +1234,17 @@ public class Packages
    private final Display view_;
    private final PackagesServerOperations server_;
    private final PackratServerOperations packratServer_;
-   private ArrayList<PackageInfo> allPackages_ = new ArrayList<PackageInfo>();
+   private PackageIndex packageIndex_ = new PackageIndex();
    private PackratContext packratContext_;
    private String packageFilter_ = new String();
+   private final Timer filterTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         setViewPackageList();
+      }
+   };
    private HandlerRegistration consolePromptHandlerReg_ = null;
    private final EventBus events_ ;
    private final GlobalDisplay globalDisplay_ ;
@@ -1300,4 +1256,7 @@ public class Packages
    private final Session session_;
    private PackageInstallOptions installOptions_ = 
                                   PackageInstallOptions.create(true, "", true);
+   private final JSObjectStateValue installOptionsState_;
+
+   private static final int FILTER_DELAY_MS = 150;
 }
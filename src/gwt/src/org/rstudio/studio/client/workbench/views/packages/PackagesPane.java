@@ -15,7 +15,9 @@
 package org.rstudio.studio.client.workbench.views.packages;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.cellview.ImageButtonColumn;
@@ -102,9 +104,17 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
    public void setPackageState(PackratContext packratContext, 
                                List<PackageInfo> packages)
    {
+      // the table's columns depend on the Packrat context, so it only needs
+      // to be recreated when that changes (e.g. not when filtering)
+      boolean recreateTable = packagesTable_ == null ||
+                              packratContext != packratContext_;
       packratContext_ = packratContext;
       packagesDataProvider_.setList(packages);
-      createPackagesTable();
+      indexPackageRows(packages);
+      if (recreateTable)
+         createPackagesTable();
+      else
+         packagesTable_.setPageSize(packages.size());
 
       // show the bootstrap button if this state is eligible for Packrat but the
       // project isn't currently under Packrat control
@@ -181,49 +191,45 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
    @Override
    public void setPackageStatus(PackageStatus status)
    {
-      int row = packageRow(status.getName(), status.getLib()) ;
-      
-      if (row != -1)
-      {
-         List<PackageInfo> packages = packagesDataProvider_.getList();
-        
-         packages.set(row, status.isLoaded() ? packages.get(row).asLoaded() :
-                                               packages.get(row).asUnloaded());
-      }
-      
-      // go through any duplicates to reconcile their status
+      // if we haven't retreived packages yet then there's nothing to update
+      List<Integer> rows = packageRows_.get(status.getName());
+      if (rows == null)
+         return;
+
+      // update the package's row, and reconcile the status of any
+      // duplicates (in other libraries)
       List<PackageInfo> packages = packagesDataProvider_.getList();
-      for (int i=0; i<packages.size(); i++)
+      for (Integer row : rows)
       {
-         if (packages.get(i).getName().equals(status.getName()) &&
-             i != row)
+         PackageInfo packageInfo = packages.get(row);
+         if (packageInfo.getLibrary().equals(status.getLib()))
+         {
+            packages.set(row, status.isLoaded() ? packageInfo.asLoaded() :
+                                                  packageInfo.asUnloaded());
+         }
+         else if (packageInfo.isLoaded())
          {
-            packages.set(i, packages.get(i).asUnloaded());
+            packages.set(row, packageInfo.asUnloaded());
          }
       }
    }
    
-   private int packageRow(String packageName, String packageLib)
+   // indexes the rows of the table by package name (a package can be
+   // installed in more than one library)
+   private void indexPackageRows(List<PackageInfo> packages)
    {
-      // if we haven't retreived packages yet then return not found
-      if (packagesDataProvider_ == null)
-         return -1;
-      
-      List<PackageInfo> packages = packagesDataProvider_.getList();
-      
-      // figure out which row of the table includes this package
-      int row = -1;
-      for (int i=0; i<packages.size(); i++)
+      packageRows_.clear();
+      for (int i = 0; i < packages.size(); i++)
       {
-         PackageInfo packageInfo = packages.get(i);
-         if (packageInfo.getName().equals(packageName) &&
-             packageInfo.getLibrary().equals(packageLib))
+         String name = packages.get(i).getName();
+         List<Integer> rows = packageRows_.get(name);
+         if (rows == null)
          {
-            row = i ;
-            break;
+            rows = new ArrayList<Integer>(1);
+            packageRows_.put(name, rows);
          }
+         rows.add(i);
       }
-      return row ;
    }
    
    @Override
@@ -675,6 +681,8 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
    
    private DataGrid<PackageInfo> packagesTable_;
    private ListDataProvider<PackageInfo> packagesDataProvider_;
+   private final Map<String, List<Integer>> packageRows_ =
+                                       new HashMap<String, List<Integer>>();
    private SearchWidget searchWidget_;
    private PackagesDisplayObserver observer_ ;
    
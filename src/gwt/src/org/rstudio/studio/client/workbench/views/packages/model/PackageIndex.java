@@ -0,0 +1,226 @@
+/*
+ * PackageIndex.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.packages.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.studio.client.workbench.model.Session;
+import org.rstudio.studio.client.workbench.views.packages.model.PackageLibraryUtils.PackageLibraryType;
+
+import com.google.gwt.core.client.JsArray;
+
+// The installed packages, sorted by library and then by name, indexed for
+// filtering (by the lower-cased name and description of each package, and
+// the trigrams those contain) and for finding packages by name and library.
+public class PackageIndex
+{
+   public PackageIndex()
+   {
+   }
+
+   public PackageIndex(JsArray<PackageInfo> packages, final Session session)
+   {
+      for (int i = 0; i < packages.length(); i++)
+         packages_.add(packages.get(i));
+
+      // the library type of each package is needed by the sort and again
+      // by every filter, so look it up only once per package
+      final Map<String, PackageLibraryType> libraryTypes =
+                                 new HashMap<String, PackageLibraryType>();
+      for (PackageInfo pkgInfo : packages_)
+      {
+         if (!libraryTypes.containsKey(pkgInfo.getLibrary()))
+         {
+            libraryTypes.put(pkgInfo.getLibrary(),
+                             PackageLibraryUtils.typeOfLibrary(
+                                   session, pkgInfo.getLibrary()));
+         }
+      }
+
+      Collections.sort(packages_, new Comparator<PackageInfo>() {
+         public int compare(PackageInfo o1, PackageInfo o2)
+         {
+            // sort first by library, then by name
+            int library = libraryTypes.get(o1.getLibrary()).compareTo(
+                          libraryTypes.get(o2.getLibrary()));
+            return library == 0 ?
+                  o1.getName().compareToIgnoreCase(o2.getName()) :
+                  library;
+         }
+      });
+
+      int count = packages_.size();
+      libraryTypes_ = new PackageLibraryType[count];
+      nameKeys_ = new String[count];
+      descKeys_ = new String[count];
+      for (int i = 0; i < count; i++)
+      {
+         PackageInfo pkgInfo = packages_.get(i);
+         libraryTypes_[i] = libraryTypes.get(pkgInfo.getLibrary());
+         nameKeys_[i] = pkgInfo.getName().toLowerCase();
+         descKeys_[i] = pkgInfo.getDesc().toLowerCase();
+
+         indexTrigrams(nameKeys_[i], i);
+         indexTrigrams(descKeys_[i], i);
+
+         List<Integer> rows = rowsByName_.get(pkgInfo.getName());
+         if (rows == null)
+         {
+            rows = new ArrayList<Integer>(1);
+            rowsByName_.put(pkgInfo.getName(), rows);
+         }
+         rows.add(i);
+      }
+   }
+
+   public ArrayList<PackageInfo> getPackages()
+   {
+      return packages_;
+   }
+
+   public PackageLibraryType getLibraryType(int index)
+   {
+      return libraryTypes_[index];
+   }
+
+   // Returns the packages matching the (lower-cased) filter: within each
+   // library, those whose name starts with the filter, then those whose
+   // name or description contains it.
+   public ArrayList<PackageInfo> filter(String filter)
+   {
+      if (filter.length() == 0)
+         return new ArrayList<PackageInfo>(packages_);
+
+      // candidates are the packages which contain the query's least
+      // common trigram (or all packages for queries too short to have one)
+      List<Integer> candidates = null;
+      for (int i = 0; i + TRIGRAM_LENGTH <= filter.length(); i++)
+      {
+         List<Integer> postings = trigrams_.get(
+                                 filter.substring(i, i + TRIGRAM_LENGTH));
+         if (postings == null)
+            return new ArrayList<PackageInfo>();
+         if (candidates == null || postings.size() < candidates.size())
+            candidates = postings;
+      }
+
+      ArrayList<Integer> prefixMatches = new ArrayList<Integer>();
+      ArrayList<Integer> containsMatches = new ArrayList<Integer>();
+      int count = candidates == null ? packages_.size() : candidates.size();
+      for (int i = 0; i < count; i++)
+      {
+         int row = candidates == null ? i : candidates.get(i);
+         if (nameKeys_[row].startsWith(filter))
+            prefixMatches.add(row);
+         else if (nameKeys_[row].contains(filter) ||
+                  descKeys_[row].contains(filter))
+            containsMatches.add(row);
+      }
+
+      // both lists are in library order, so merge them library by library
+      ArrayList<PackageInfo> packages = new ArrayList<PackageInfo>(
+                           prefixMatches.size() + containsMatches.size());
+      int prefix = 0, contains = 0;
+      while (prefix < prefixMatches.size() ||
+             contains < containsMatches.size())
+      {
+         PackageLibraryType type = nextLibraryType(prefixMatches, prefix,
+                                                   containsMatches, contains);
+         while (prefix < prefixMatches.size() &&
+                libraryTypes_[prefixMatches.get(prefix)] == type)
+            packages.add(packages_.get(prefixMatches.get(prefix++)));
+         while (contains < containsMatches.size() &&
+                libraryTypes_[containsMatches.get(contains)] == type)
+            packages.add(packages_.get(containsMatches.get(contains++)));
+      }
+      return packages;
+   }
+
+   // Applies a change in a package's loaded status (other packages with the
+   // same name, in other libraries, are marked as unloaded).
+   public void updateStatus(PackageStatus status)
+   {
+      List<Integer> rows = rowsByName_.get(status.getName());
+      if (rows == null)
+         return;
+
+      for (Integer row : rows)
+      {
+         PackageInfo pkgInfo = packages_.get(row);
+         if (pkgInfo.getLibrary().equals(status.getLib()))
+         {
+            packages_.set(row, status.isLoaded() ? pkgInfo.asLoaded() :
+                                                   pkgInfo.asUnloaded());
+         }
+         else if (pkgInfo.isLoaded())
+         {
+            packages_.set(row, pkgInfo.asUnloaded());
+         }
+      }
+   }
+
+   private PackageLibraryType nextLibraryType(ArrayList<Integer> prefixMatches,
+                                              int prefix,
+                                              ArrayList<Integer> containsMatches,
+                                              int contains)
+   {
+      if (prefix >= prefixMatches.size())
+         return libraryTypes_[containsMatches.get(contains)];
+      if (contains >= containsMatches.size())
+         return libraryTypes_[prefixMatches.get(prefix)];
+
+      PackageLibraryType prefixType = libraryTypes_[prefixMatches.get(prefix)];
+      PackageLibraryType containsType =
+                                 libraryTypes_[containsMatches.get(contains)];
+      return prefixType.compareTo(containsType) <= 0 ? prefixType :
+                                                       containsType;
+   }
+
+   private void indexTrigrams(String key, int row)
+   {
+      for (int i = 0; i + TRIGRAM_LENGTH <= key.length(); i++)
+      {
+         String trigram = key.substring(i, i + TRIGRAM_LENGTH);
+         List<Integer> postings = trigrams_.get(trigram);
+         if (postings == null)
+         {
+            postings = new ArrayList<Integer>();
+            trigrams_.put(trigram, postings);
+         }
+
+         // rows are indexed in order, so a repeated trigram is always at
+         // the end of the postings
+         if (postings.isEmpty() || postings.get(postings.size() - 1) != row)
+            postings.add(row);
+      }
+   }
+
+   private final ArrayList<PackageInfo> packages_ =
+                                             new ArrayList<PackageInfo>();
+   private PackageLibraryType[] libraryTypes_ = new PackageLibraryType[0];
+   private String[] nameKeys_ = new String[0];
+   private String[] descKeys_ = new String[0];
+   private final Map<String, List<Integer>> trigrams_ =
+                                       new HashMap<String, List<Integer>>();
+   private final Map<String, List<Integer>> rowsByName_ =
+                                       new HashMap<String, List<Integer>>();
+
+   private static final int TRIGRAM_LENGTH = 3;
+}
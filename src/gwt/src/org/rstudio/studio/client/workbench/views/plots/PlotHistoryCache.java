@@ -0,0 +1,118 @@
+/*
+ * PlotHistoryCache.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.plots;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.google.gwt.event.dom.client.ErrorEvent;
+import com.google.gwt.event.dom.client.ErrorHandler;
+import com.google.gwt.user.client.ui.Image;
+
+// Images of plots in the history which have been shown (or prefetched) at
+// a given size, keyed by plot index and size, so that stepping back and
+// forth through the history can show them without waiting for the server.
+// Each entry keeps its image loaded so it can be shown instantly; the least
+// recently used entries are dropped once the images' (estimated) size
+// exceeds the memory budget.
+class PlotHistoryCache
+{
+   // returns the filename (relative to the graphics url) of the plot's
+   // image at the given size, or null if we don't have it
+   public String get(int index, int width, int height)
+   {
+      Entry entry = entries_.get(key(index, width, height));
+      return entry == null ? null : entry.filename;
+   }
+
+   public void put(int index, int width, int height,
+                   String filename, String url)
+   {
+      final String key = key(index, width, height);
+      remove(key);
+
+      final Entry entry = new Entry(filename, url, width * height * 4);
+      entry.image.addErrorHandler(new ErrorHandler()
+      {
+         @Override
+         public void onError(ErrorEvent event)
+         {
+            // don't offer an image we couldn't load
+            if (entries_.get(key) == entry)
+               remove(key);
+         }
+      });
+      entries_.put(key, entry);
+      totalBytes_ += entry.bytes;
+
+      // evict the least recently used entries (but always keep the newest)
+      Iterator<Entry> it = entries_.values().iterator();
+      while (totalBytes_ > MAX_BYTES && entries_.size() > 1)
+      {
+         totalBytes_ -= it.next().bytes;
+         it.remove();
+      }
+   }
+
+   // Forgets all the images. This also starts a new generation, which
+   // callers should include in the urls of any images they fetch so that
+   // they aren't given images cached by the browser before the plots
+   // changed.
+   public void clear()
+   {
+      entries_.clear();
+      totalBytes_ = 0;
+      generation_++;
+   }
+
+   public int getGeneration()
+   {
+      return generation_;
+   }
+
+   private void remove(String key)
+   {
+      Entry entry = entries_.remove(key);
+      if (entry != null)
+         totalBytes_ -= entry.bytes;
+   }
+
+   private static String key(int index, int width, int height)
+   {
+      return index + ":" + width + "x" + height;
+   }
+
+   private static class Entry
+   {
+      Entry(String filename, String url, int bytes)
+      {
+         this.filename = filename;
+         this.bytes = bytes;
+         image = new Image(url);
+      }
+
+      final String filename;
+      final int bytes;
+      final Image image;
+   }
+
+   private final LinkedHashMap<String, Entry> entries_ =
+                           new LinkedHashMap<String, Entry>(16, 0.75f, true);
+   private int totalBytes_ = 0;
+   private int generation_ = 0;
+
+   // decoded images take about 4 bytes per pixel
+   private static final int MAX_BYTES = 64 * 1024 * 1024;
+}
@@ -15,12 +15,17 @@
 package org.rstudio.studio.client.workbench.views.plots;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.logical.shared.HasResizeHandlers;
+import com.google.gwt.event.logical.shared.ResizeEvent;
+import com.google.gwt.event.logical.shared.ResizeHandler;
 import com.google.gwt.event.logical.shared.SelectionEvent;
 import com.google.gwt.event.logical.shared.SelectionHandler;
 import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.HasWidgets;
 import com.google.gwt.user.client.ui.Panel;
 import com.google.inject.Inject;
@@ -85,6 +90,10 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       void showPlot(String plotUrl);
       String getPlotUrl();
       
+      // show the current plot at the given size (or fill the pane if null)
+      // until it has been rendered at the pane's new size
+      void scalePlot(Size size);
+      
       void refresh();
    
       Panel getPlotsSurface();
@@ -111,6 +120,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       uiPrefs_ = uiPrefs;
       server_ = server;
       session_ = session;
+      events_ = events;
       exportPlot_ = GWT.create(ExportPlot.class);
       zoomWindow_ = null;
       zoomWindowDefaultSize_ = null;
@@ -179,12 +189,48 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       
       events.addHandler(DeferredInitCompletedEvent.TYPE, this);
       events.addHandler(PlotsZoomSizeChangedEvent.TYPE, this);
+      
+      view_.addResizeHandler(new ResizeHandler()
+      {
+         @Override
+         public void onResize(ResizeEvent event)
+         {
+            scalePlotToFrame();
+         }
+      });
 }
    
    public void onPlotsChanged(PlotsChangedEvent event)
    {
       // get the event
       PlotsState plotsState = event.getPlotsState();
+      if (!plotsState.isCached())
+      {
+         updatePlotCache(plotsState);
+         serverPlotIndex_ = plotsState.getPlotIndex();
+         
+         // if we're showing a plot the server hasn't caught up with yet
+         // then this is the server's (now out of date) active plot, e.g.
+         // the response to an earlier set_active_plot. keep showing the
+         // cached plot unless the plots themselves have changed
+         if (pendingPlotIndex_ != -1 &&
+             plotsState.getPlotIndex() != pendingPlotIndex_ &&
+             currentState_ != null &&
+             plotsState.getPlotCount() == currentState_.getPlotCount())
+         {
+            if (plotsState.getPlotIndex() == requestedPlotIndex_)
+            {
+               requestedPlotIndex_ = -1;
+               syncActivePlotTimer_.schedule(SYNC_ACTIVE_PLOT_DELAY_MS);
+            }
+            return;
+         }
+         
+         syncActivePlotTimer_.cancel();
+         pendingPlotIndex_ = -1;
+         requestedPlotIndex_ = -1;
+      }
+      currentState_ = plotsState;
         
       // clear progress 
       view_.setProgress(false);
@@ -211,6 +257,9 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       
       // update plot size
       plotSize_ = new Size(plotsState.getWidth(), plotsState.getHeight());
+      
+      // the pane may have been resized again since this was rendered
+      scalePlotToFrame();
 
       // manipulator
       manipulatorManager_.setManipulator(plotsState.getManipulator(),
@@ -221,29 +270,184 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
          locate();
       
       
-      // reload zoom window if we have one
-      if (Desktop.isDesktop())
-         Desktop.getFrame().reloadZoomWindow();
-      else if ((zoomWindow_ != null) && !zoomWindow_.isClosed())
-         zoomWindow_.reload();
+      // reload zoom window if we have one (plots shown from the cache
+      // aren't active on the server yet, so wait until they are)
+      if (!plotsState.isCached())
+      {
+         if (Desktop.isDesktop())
+            Desktop.getFrame().reloadZoomWindow();
+         else if ((zoomWindow_ != null) && !zoomWindow_.isClosed())
+            zoomWindow_.reload();
+      }
+      
+      // if the user is stepping through the history then get the plots
+      // on either side of this one ready
+      if (prefetchAdjacentPlots_)
+      {
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               prefetchAdjacentPlots();
+            }
+         });
+      }
+   }
+
+   // While the pane is being resized the server only re-renders the plot
+   // once the size settles (see Workbench.sendWorkbenchMetrics), so in the
+   // meantime scale the plot we have to fit the pane (keeping its aspect
+   // ratio, which stretching it to fill the pane wouldn't)
+   private void scalePlotToFrame()
+   {
+      if (plotSize_ == null || plotSize_.width <= 0 || plotSize_.height <= 0)
+         return;
+      
+      Size frameSize = view_.getPlotFrameSize();
+      if (frameSize.width <= 0 || frameSize.height <= 0)
+         return;
+      
+      if (Math.abs(frameSize.width - plotSize_.width) <= 2 &&
+          Math.abs(frameSize.height - plotSize_.height) <= 2)
+      {
+         view_.scalePlot(null);
+         return;
+      }
+      
+      double scale = Math.min((double)frameSize.width / plotSize_.width,
+                              (double)frameSize.height / plotSize_.height);
+      view_.scalePlot(new Size((int)(plotSize_.width * scale),
+                               (int)(plotSize_.height * scale)));
    }
 
    void onNextPlot()
    {
-      view_.bringToFront();
-      setChangePlotProgress();
-      server_.nextPlot(new PlotRequestCallback());
+      showAdjacentPlot(1);
    }
 
    void onPreviousPlot()
+   {
+      showAdjacentPlot(-1);
+   }
+   
+   private void showAdjacentPlot(int offset)
    {
       view_.bringToFront();
-      setChangePlotProgress();
-      server_.previousPlot(new PlotRequestCallback());
+      if (currentState_ == null)
+         return;
+      
+      int index = currentState_.getPlotIndex() + offset;
+      if (index < 0 || index >= currentState_.getPlotCount())
+         return;
+      
+      prefetchAdjacentPlots_ = true;
+      
+      // if we have the plot at this size then show it right away and let
+      // the server catch up (once the user stops clicking through plots)
+      String filename = locator_.isActive() ? null :
+            plotCache_.get(index,
+                           currentState_.getWidth(),
+                           currentState_.getHeight());
+      if (filename != null)
+      {
+         pendingPlotIndex_ = index;
+         events_.fireEvent(new PlotsChangedEvent(
+               PlotsState.createCached(currentState_, index, filename)));
+         syncActivePlotTimer_.schedule(SYNC_ACTIVE_PLOT_DELAY_MS);
+      }
+      else
+      {
+         syncActivePlotTimer_.cancel();
+         pendingPlotIndex_ = index;
+         requestedPlotIndex_ = index;
+         setChangePlotProgress();
+         server_.setActivePlot(index, new PlotRequestCallback());
+      }
+   }
+   
+   // make the plot we're showing the server's active plot (if it isn't
+   // already) rather than waiting for the user to stop stepping through
+   // the history. commands which act on the active plot call this first
+   private void syncActivePlot()
+   {
+      syncActivePlotTimer_.cancel();
+      if (pendingPlotIndex_ == -1 || pendingPlotIndex_ == requestedPlotIndex_)
+         return;
+      
+      // nothing to do if the user came back to the server's active plot
+      // (and we're not waiting for it to move to another one)
+      if (pendingPlotIndex_ == serverPlotIndex_ && requestedPlotIndex_ == -1)
+      {
+         pendingPlotIndex_ = -1;
+         return;
+      }
+      
+      requestedPlotIndex_ = pendingPlotIndex_;
+      server_.setActivePlot(pendingPlotIndex_, new PlotRequestCallback(false));
+   }
+   
+   private void updatePlotCache(PlotsState state)
+   {
+      // forget the cached plots if plots were added or removed, the plot
+      // size changed, or the plot we were showing was redrawn
+      int index = state.getPlotIndex();
+      int width = state.getWidth();
+      int height = state.getHeight();
+      String filename = state.getFilename();
+      if (currentState_ == null ||
+          state.getPlotCount() != currentState_.getPlotCount() ||
+          width != currentState_.getWidth() ||
+          height != currentState_.getHeight() ||
+          (index == currentState_.getPlotIndex() &&
+           !currentState_.isCached() &&
+           !filename.equals(currentState_.getFilename())))
+      {
+         plotCache_.clear();
+      }
+      
+      if (state.getPlotCount() > 0 && !filename.startsWith("empty."))
+      {
+         plotCache_.put(index, width, height, filename,
+                        server_.getGraphicsUrl(filename));
+      }
+   }
+   
+   private void prefetchAdjacentPlots()
+   {
+      PlotsState state = currentState_;
+      if (state == null || state.getPlotCount() <= 1)
+         return;
+      
+      // the server won't render plots smaller than this
+      int width = state.getWidth();
+      int height = state.getHeight();
+      if (width < 100 || height < 100)
+         return;
+      
+      int[] indexes = { state.getPlotIndex() + 1, state.getPlotIndex() - 1 };
+      for (int index : indexes)
+      {
+         if (index < 0 || index >= state.getPlotCount() ||
+             plotCache_.get(index, width, height) != null)
+         {
+            continue;
+         }
+         
+         String filename = "plot_preview.png?" +
+                           "index=" + index + "&" +
+                           "width=" + width + "&" +
+                           "height=" + height + "&" +
+                           "gen=" + plotCache_.getGeneration();
+         plotCache_.put(index, width, height, filename,
+                        server_.getGraphicsUrl(filename));
+      }
    }
    
    void onRemovePlot()
    {
+      syncActivePlot();
+      
       // delete plot gesture indicates we are done with locator
       safeClearLocator();
       
@@ -297,6 +501,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onSavePlotAsImage()
    {
+      syncActivePlot();
       view_.bringToFront();
       
       final ProgressIndicator indicator = 
@@ -336,6 +541,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onSavePlotAsPdf()
    {
+      syncActivePlot();
       view_.bringToFront();
       
       final ProgressIndicator indicator = 
@@ -397,6 +603,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onCopyPlotToClipboard()
    {
+      syncActivePlot();
       view_.bringToFront();
       
       exportPlot_.copyPlotToClipboard(
@@ -431,6 +638,10 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    void onZoomPlot()
    {
+      // if the zoom window is opened before the server has caught up it
+      // is reloaded when the server's plot changes
+      syncActivePlot();
+      
       Size windowSize = ZoomUtils.getZoomWindowSize(
                               view_.getPlotFrameSize(), zoomWindowDefaultSize_);
       
@@ -463,6 +674,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
 
    void onRefreshPlot()
    {
+      syncActivePlot();
       view_.bringToFront();
       view_.setProgress(true);
       server_.refreshPlot(new PlotRequestCallback());
@@ -535,6 +747,11 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       {
          view_.setProgress(false);
          
+         // we don't know which plot the server ended up on, so stop
+         // waiting for it to catch up with the one we're showing
+         pendingPlotIndex_ = -1;
+         requestedPlotIndex_ = -1;
+         
          if (showErrors_)
          {
             globalDisplay_.showErrorMessage("Server Error", 
@@ -607,7 +824,17 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       
    }
 
+   private final Timer syncActivePlotTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         syncActivePlot();
+      }
+   };
+
    private final Display view_;
+   private final EventBus events_;
    private final GlobalDisplay globalDisplay_;
    private final PlotsServerOperations server_;
    private final WorkbenchContext workbenchContext_;
@@ -623,4 +850,19 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    // size of most recently rendered plot
    Size plotSize_ = null;
+   
+   // plot history (and the state of the plot being shown)
+   private final PlotHistoryCache plotCache_ = new PlotHistoryCache();
+   private PlotsState currentState_ = null;
+   private boolean prefetchAdjacentPlots_ = false;
+   
+   // the plot the user is looking at when the server hasn't yet made it
+   // the active plot, the plot we've asked the server to make active, and
+   // the server's active plot as of its last plots changed event (-1 when
+   // there's no such plot)
+   private int pendingPlotIndex_ = -1;
+   private int requestedPlotIndex_ = -1;
+   private int serverPlotIndex_ = -1;
+   
+   private static final int SYNC_ACTIVE_PLOT_DELAY_MS = 300;
 }
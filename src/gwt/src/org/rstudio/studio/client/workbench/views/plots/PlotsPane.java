@@ -163,6 +163,7 @@ public class PlotsPane extends WorkbenchPane implements Plots.Display,
       // use frame.contentWindow.location.replace to avoid having the plot
       // enter the browser's history
       frame_.setImageUrl(plotUrl);
+      frame_.setImageSize(null);
       plotsToolbar_.invalidateSeparators();
    }
        
@@ -171,6 +172,11 @@ public class PlotsPane extends WorkbenchPane implements Plots.Display,
       return plotUrl_;
    }
    
+   public void scalePlot(Size size)
+   {
+      frame_.setImageSize(size);
+   }
+   
 
    public void refresh()
    {
@@ -36,6 +36,7 @@ public interface PlotsServerOperations
    
    void nextPlot(ServerRequestCallback<Void> requestCallback);
    void previousPlot(ServerRequestCallback<Void> requestCallback);
+   void setActivePlot(int index, ServerRequestCallback<Void> requestCallback);
    
    void removePlot(ServerRequestCallback<Void> requestCallback);
    
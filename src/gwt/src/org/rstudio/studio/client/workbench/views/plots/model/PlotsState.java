@@ -21,6 +21,24 @@ public class PlotsState extends JavaScriptObject
    protected PlotsState()
    {
    }
+
+   // state for a plot shown from the client's plot history cache before
+   // the server has made it the active plot
+   public static final native PlotsState createCached(PlotsState state,
+                                                      int plotIndex,
+                                                      String filename) /*-{
+      return {
+         filename: filename,
+         manipulator: null,
+         width: state.width,
+         height: state.height,
+         plotIndex: plotIndex,
+         plotCount: state.plotCount,
+         activatePlots: true,
+         showManipulator: false,
+         cached: true
+      };
+   }-*/;
  
    public final native String getFilename() /*-{
       return this.filename;
@@ -53,4 +71,8 @@ public class PlotsState extends JavaScriptObject
    public final native boolean getShowManipulator() /*-{
       return this.showManipulator;
    }-*/;
+
+   public final native boolean isCached() /*-{
+      return !!this.cached;
+   }-*/;
 }
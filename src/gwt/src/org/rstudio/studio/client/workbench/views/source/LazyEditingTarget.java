@@ -0,0 +1,433 @@
+/*
+ * LazyEditingTarget.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source;
+
+import java.util.HashSet;
+
+import com.google.gwt.event.logical.shared.CloseEvent;
+import com.google.gwt.event.logical.shared.CloseHandler;
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.resources.client.ImageResource;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.ui.HasValue;
+import com.google.gwt.user.client.ui.SimpleLayoutPanel;
+import com.google.gwt.user.client.ui.Widget;
+import com.google.inject.Provider;
+
+import org.rstudio.core.client.command.AppCommand;
+import org.rstudio.core.client.events.EnsureHeightEvent;
+import org.rstudio.core.client.events.EnsureHeightHandler;
+import org.rstudio.core.client.events.EnsureVisibleEvent;
+import org.rstudio.core.client.events.EnsureVisibleHandler;
+import org.rstudio.core.client.files.FileSystemContext;
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.studio.client.common.ReadOnlyValue;
+import org.rstudio.studio.client.common.Value;
+import org.rstudio.studio.client.common.filetypes.FileType;
+import org.rstudio.studio.client.common.filetypes.TextFileType;
+import org.rstudio.studio.client.workbench.views.source.editors.EditingTarget;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.events.CollabEditStartParams;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
+import org.rstudio.studio.client.workbench.views.source.model.SourcePosition;
+
+// Stands in for the editor of a restored document until the document is
+// first needed (usually when its tab is first activated), so that restoring
+// a session with many open documents doesn't have to create an editor for
+// each of them. The tab shows the placeholder's widget; when the editor is
+// created its widget is placed inside the placeholder's.
+//
+// Questions about the document which can be answered without an editor
+// (its name, path, dirty state, etc.) are answered from the document;
+// anything else creates the editor and is passed on to it.
+public class LazyEditingTarget implements EditingTarget
+{
+   public interface Materializer
+   {
+      // creates the editor for the document and puts it in the target's place
+      EditingTarget materialize(LazyEditingTarget target);
+   }
+
+   public LazyEditingTarget(SourceDocument document,
+                            TextFileType type,
+                            Materializer materializer)
+   {
+      document_ = document;
+      type_ = type;
+      materializer_ = materializer;
+      name_ = new Value<String>(
+                        FileSystemItem.getNameFromPath(document.getPath()));
+      dirtyState_ = new Value<Boolean>(document.isDirty());
+   }
+
+   public SourceDocument getDocument()
+   {
+      return document_;
+   }
+
+   public boolean isMaterialized()
+   {
+      return target_ != null;
+   }
+
+   public EditingTarget getTarget()
+   {
+      if (target_ == null)
+      {
+         target_ = materializer_.materialize(this);
+         panel_.setWidget(target_.asWidget());
+      }
+      return target_;
+   }
+
+   @Override
+   public Widget asWidget()
+   {
+      return panel_;
+   }
+
+   @Override
+   public String getId()
+   {
+      return document_.getId();
+   }
+
+   @Override
+   public HasValue<String> getName()
+   {
+      return target_ != null ? target_.getName() : name_;
+   }
+
+   @Override
+   public String getTitle()
+   {
+      return getName().getValue();
+   }
+
+   @Override
+   public String getPath()
+   {
+      return target_ != null ? target_.getPath() : document_.getPath();
+   }
+
+   @Override
+   public String getContext()
+   {
+      return null;
+   }
+
+   @Override
+   public ImageResource getIcon()
+   {
+      return type_.getDefaultIcon();
+   }
+
+   @Override
+   public String getTabTooltip()
+   {
+      return getPath();
+   }
+
+   @Override
+   public TextFileType getTextFileType()
+   {
+      return type_;
+   }
+
+   @Override
+   public void adaptToExtendedFileType(String extendedType)
+   {
+      if (target_ != null)
+         target_.adaptToExtendedFileType(extendedType);
+      else
+         document_.setExtendedType(extendedType);
+   }
+
+   @Override
+   public String getExtendedFileType()
+   {
+      return target_ != null ? target_.getExtendedFileType() :
+                               document_.getExtendedType();
+   }
+
+   @Override
+   public HashSet<AppCommand> getSupportedCommands()
+   {
+      return getTarget().getSupportedCommands();
+   }
+
+   @Override
+   public void manageCommands()
+   {
+      getTarget().manageCommands();
+   }
+
+   @Override
+   public boolean canCompilePdf()
+   {
+      return getTarget().canCompilePdf();
+   }
+
+   @Override
+   public void verifyCppPrerequisites()
+   {
+      getTarget().verifyCppPrerequisites();
+   }
+
+   @Override
+   public void focus()
+   {
+      getTarget().focus();
+   }
+
+   @Override
+   public void onActivate()
+   {
+      getTarget().onActivate();
+   }
+
+   @Override
+   public void onDeactivate()
+   {
+      if (target_ != null)
+         target_.onDeactivate();
+   }
+
+   @Override
+   public void onInitiallyLoaded()
+   {
+      getTarget().onInitiallyLoaded();
+   }
+
+   @Override
+   public void recordCurrentNavigationPosition()
+   {
+      if (target_ != null)
+         target_.recordCurrentNavigationPosition();
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent)
+   {
+      getTarget().navigateToPosition(position, recordCurrent);
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent,
+                                  boolean highlightLine)
+   {
+      getTarget().navigateToPosition(position, recordCurrent, highlightLine);
+   }
+
+   @Override
+   public void restorePosition(SourcePosition position)
+   {
+      getTarget().restorePosition(position);
+   }
+
+   @Override
+   public SourcePosition currentPosition()
+   {
+      return getTarget().currentPosition();
+   }
+
+   @Override
+   public boolean isAtSourceRow(SourcePosition position)
+   {
+      return getTarget().isAtSourceRow(position);
+   }
+
+   @Override
+   public void forceLineHighlighting()
+   {
+      getTarget().forceLineHighlighting();
+   }
+
+   @Override
+   public void setCursorPosition(Position position)
+   {
+      getTarget().setCursorPosition(position);
+   }
+
+   @Override
+   public void ensureCursorVisible()
+   {
+      getTarget().ensureCursorVisible();
+   }
+
+   @Override
+   public Position search(String regex)
+   {
+      return getTarget().search(regex);
+   }
+
+   @Override
+   public Position search(Position startPos, String regex)
+   {
+      return getTarget().search(startPos, regex);
+   }
+
+   @Override
+   public void highlightDebugLocation(SourcePosition startPos,
+                                      SourcePosition endPos,
+                                      boolean executing)
+   {
+      getTarget().highlightDebugLocation(startPos, endPos, executing);
+   }
+
+   @Override
+   public void endDebugHighlighting()
+   {
+      if (target_ != null)
+         target_.endDebugHighlighting();
+   }
+
+   @Override
+   public void beginCollabSession(CollabEditStartParams params)
+   {
+      getTarget().beginCollabSession(params);
+   }
+
+   @Override
+   public void endCollabSession()
+   {
+      if (target_ != null)
+         target_.endCollabSession();
+   }
+
+   @Override
+   public boolean onBeforeDismiss()
+   {
+      // there's nothing to prompt about unless there are unsaved changes
+      if (target_ == null && !document_.isDirty())
+         return true;
+      return getTarget().onBeforeDismiss();
+   }
+
+   @Override
+   public void onDismiss(int dismissType)
+   {
+      if (target_ != null)
+         target_.onDismiss(dismissType);
+   }
+
+   @Override
+   public ReadOnlyValue<Boolean> dirtyState()
+   {
+      return target_ != null ? target_.dirtyState() : dirtyState_;
+   }
+
+   @Override
+   public boolean isSaveCommandActive()
+   {
+      return target_ != null ? target_.isSaveCommandActive() :
+                               document_.isDirty();
+   }
+
+   @Override
+   public void forceSaveCommandActive()
+   {
+      getTarget().forceSaveCommandActive();
+   }
+
+   @Override
+   public void save(Command onCompleted)
+   {
+      getTarget().save(onCompleted);
+   }
+
+   @Override
+   public void saveWithPrompt(Command onCompleted, Command onCancelled)
+   {
+      getTarget().saveWithPrompt(onCompleted, onCancelled);
+   }
+
+   @Override
+   public void revertChanges(Command onCompleted)
+   {
+      getTarget().revertChanges(onCompleted);
+   }
+
+   @Override
+   public void initialize(SourceDocument document,
+                          FileSystemContext fileContext,
+                          FileType type,
+                          Provider<String> defaultNameProvider)
+   {
+      // placeholders are initialized by their constructor (and the editor
+      // which replaces them by the materializer)
+   }
+
+   @Override
+   public long getFileSizeLimit()
+   {
+      return getTarget().getFileSizeLimit();
+   }
+
+   @Override
+   public long getLargeFileSize()
+   {
+      return getTarget().getLargeFileSize();
+   }
+
+   @Override
+   public String getDefaultNamePrefix()
+   {
+      return getTarget().getDefaultNamePrefix();
+   }
+
+   // the handlers added here are only called while the editor hasn't been
+   // created (which is to say never, since a placeholder fires no events);
+   // the materializer adds its handlers to the editor itself
+
+   @Override
+   public HandlerRegistration addEnsureVisibleHandler(
+                                             EnsureVisibleHandler handler)
+   {
+      return handlers_.addHandler(EnsureVisibleEvent.TYPE, handler);
+   }
+
+   @Override
+   public HandlerRegistration addEnsureHeightHandler(
+                                             EnsureHeightHandler handler)
+   {
+      return handlers_.addHandler(EnsureHeightEvent.TYPE, handler);
+   }
+
+   @Override
+   public HandlerRegistration addCloseHandler(CloseHandler<Void> handler)
+   {
+      return handlers_.addHandler(CloseEvent.getType(), handler);
+   }
+
+   @Override
+   public void fireEvent(GwtEvent<?> event)
+   {
+      handlers_.fireEvent(event);
+   }
+
+   private final SourceDocument document_;
+   private final TextFileType type_;
+   private final Materializer materializer_;
+   private final Value<String> name_;
+   private final Value<Boolean> dirtyState_;
+   private final SimpleLayoutPanel panel_ = new SimpleLayoutPanel();
+   private final HandlerManager handlers_ = new HandlerManager(this);
+   private EditingTarget target_;
+}
@@ -137,6 +137,12 @@ public class NewShinyWebApplication extends ModalDialog<NewShinyWebApplication.R
       {
          return result_.cast();
       }
+
+      @Override
+      protected boolean pollsForChanges()
+      {
+         return false;
+      }
    }
    
    private final void loadAndPersistClientState()
@@ -313,7 +319,7 @@ public class NewShinyWebApplication extends ModalDialog<NewShinyWebApplication.R
    protected void onUnload()
    {
       super.onUnload();
-      session_.persistClientState();
+      clientStateValue_.markDirty();
    }
    
    public static final String TYPE_SINGLE_FILE = "type_single_file";
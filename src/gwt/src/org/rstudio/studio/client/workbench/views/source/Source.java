@@ -352,6 +352,7 @@ public class Source implements InsertSourceHandler,
       dynamicCommands_.add(commands.restartRRunAllChunks());
       dynamicCommands_.add(commands.notebookCollapseAllOutput());
       dynamicCommands_.add(commands.notebookExpandAllOutput());
+      dynamicCommands_.add(commands.notebookClearCachedResults());
       for (AppCommand command : dynamicCommands_)
       {
          command.setVisible(false);
@@ -479,13 +480,10 @@ public class Source implements InsertSourceHandler,
          @Override
          public void onExecuteChunks(ExecuteChunksEvent event)
          {
-            if (activeEditor_ == null)
+            TextEditingTarget target = asTextEditingTarget(activeEditor_);
+            if (target == null)
                return;
             
-            if (!(activeEditor_ instanceof TextEditingTarget))
-               return;
-            
-            TextEditingTarget target = (TextEditingTarget) activeEditor_;
             Position position =
                   target.screenCoordinatesToDocumentPosition(0, event.getPageY());
             
@@ -696,7 +694,13 @@ public class Source implements InsertSourceHandler,
          protected void onInit(Integer value)
          {
             if (value == null)
+            {
+               // restored tabs aren't selected as they're added (so that
+               // their editors needn't be created), so select the last one
+               if (view_.getTabCount() > 0)
+                  view_.selectTab(view_.getTabCount() - 1);
                return;
+            }
             if (value >= 0 && view_.getTabCount() > value)
                view_.selectTab(value);
 
@@ -756,21 +760,15 @@ public class Source implements InsertSourceHandler,
             ? activeEditor_
             : getEditingTargetForId(id);
       
-      if (target == null)
+      TextEditingTarget textTarget = asTextEditingTarget(target);
+      if (textTarget == null)
       {
          if (onFailure != null)
             onFailure.execute();
          return;
       }
       
-      if (!(target instanceof TextEditingTarget))
-      {
-         if (onFailure != null)
-            onFailure.execute();
-         return;
-      }
-      
-      command.execute((TextEditingTarget) target);
+      command.execute(textTarget);
    }
    
    private void withTarget(String id, CommandWithArg<TextEditingTarget> command)
@@ -831,7 +829,7 @@ public class Source implements InsertSourceHandler,
                                       Command continuation)
                   {
                      view_.closeTab(
-                           editingTarget.asWidget(),
+                           getTabIndex(editingTarget),
                            false,
                            continuation);
                   }
@@ -843,18 +841,18 @@ public class Source implements InsertSourceHandler,
    
    private void saveActiveSourceDoc()
    {
-      if (activeEditor_ != null && activeEditor_ instanceof TextEditingTarget)
+      TextEditingTarget target = asTextEditingTarget(activeEditor_);
+      if (target != null)
       {
-         TextEditingTarget target = (TextEditingTarget) activeEditor_;
          target.save();
       }
    }
    
    private void saveAndCloseActiveSourceDoc()
    {
-      if (activeEditor_ != null && activeEditor_ instanceof TextEditingTarget)
+      TextEditingTarget target = asTextEditingTarget(activeEditor_);
+      if (target != null)
       {
-         TextEditingTarget target = (TextEditingTarget) activeEditor_;
          target.save(new Command()
          {
             @Override
@@ -912,7 +910,7 @@ public class Source implements InsertSourceHandler,
              (SourceWindowManager.isMainSourceWindow() && 
               !windowManager_.isSourceWindowOpen(docWindowId)))
          {
-            EditingTarget editor = addTab(doc, true);
+            EditingTarget editor = addTab(doc, null, true);
             
             // if this is a source window, check to see if it was opened to
             // pop out a particular doc, and restore that doc's position if so
@@ -1279,7 +1277,7 @@ public class Source implements InsertSourceHandler,
             {
                if (firstTarget_ != null)
                {
-                  view_.selectTab(firstTarget_.asWidget());
+                  view_.selectTab(getTabIndex(firstTarget_));
                   firstTarget_.setCursorPosition(Position.create(0, 0));
                }
                
@@ -1674,9 +1672,9 @@ public class Source implements InsertSourceHandler,
    public void onFindInFiles()
    {
       String searchPattern = "";
-      if (activeEditor_ != null && activeEditor_ instanceof TextEditingTarget)
-      {  
-         TextEditingTarget textEditor = (TextEditingTarget) activeEditor_;
+      TextEditingTarget textEditor = asTextEditingTarget(activeEditor_);
+      if (textEditor != null)
+      {
          String selection = textEditor.getSelectedText();
          boolean multiLineSelection = selection.indexOf('\n') != -1;
          
@@ -1972,9 +1970,9 @@ public class Source implements InsertSourceHandler,
          {
             // if this is a text editor, ensure that its content is 
             // synchronized with the server before we pop it out
-            if (editor instanceof TextEditingTarget)
+            final TextEditingTarget textEditor = asTextEditingTarget(editor);
+            if (textEditor != null)
             {
-               final TextEditingTarget textEditor = (TextEditingTarget)editor;
                textEditor.withSavedDoc(new Command()
                {
                   @Override
@@ -2157,7 +2155,7 @@ public class Source implements InsertSourceHandler,
    {
       for (EditingTarget target : editors_)
          if (id.equals(target.getId()))
-            return target;
+            return materialized(target);
 
       return null;
    }
@@ -2231,7 +2229,7 @@ public class Source implements InsertSourceHandler,
                   }
                   else
                   {
-                     view_.closeTab(target.asWidget(), false, continuation);
+                     view_.closeTab(getTabIndex(target), false, continuation);
                   }
                }
             });
@@ -2388,7 +2386,7 @@ public class Source implements InsertSourceHandler,
                else
                {
                   // untitled document -- just close the tab non-interactively
-                  view_.closeTab(saveTarget.asWidget(), false, continuation);
+                  view_.closeTab(getTabIndex(saveTarget), false, continuation);
                }
             }
          },
@@ -2628,7 +2626,7 @@ public class Source implements InsertSourceHandler,
                else
                {
                   view_.selectTab(i);
-                  editingTargetAction.execute(target);
+                  editingTargetAction.execute(materialized(editors_.get(i)));
                }
                return;
             }
@@ -2773,7 +2771,7 @@ public class Source implements InsertSourceHandler,
             view_.selectTab(i);
             pMruList_.get().add(thisPath);
             if (resultCallback != null)
-               resultCallback.onSuccess(target);
+               resultCallback.onSuccess(materialized(editors_.get(i)));
             return true;
          }
       }
@@ -2923,15 +2921,22 @@ public class Source implements InsertSourceHandler,
 
    private EditingTarget addTab(SourceDocument doc, Integer position)
    {
-      final String defaultNamePrefix = editingTargetSource_.getDefaultNamePrefix(doc);
-      final EditingTarget target = editingTargetSource_.getEditingTarget(
-            doc, fileContext_, new Provider<String>()
-            {
-               public String get()
-               {
-                  return getNextDefaultName(defaultNamePrefix);
-               }
-            });
+      return addTab(doc, position, false);
+   }
+
+   // restored documents which can be are added as placeholders, whose
+   // editors are created when they're first needed
+   private EditingTarget addTab(SourceDocument doc,
+                                Integer position,
+                                boolean restoring)
+   {
+      final EditingTarget target = restoring && canRestoreLazily(doc) ?
+            new LazyEditingTarget(
+                  doc,
+                  (TextFileType) fileTypeRegistry_.getTypeByTypeName(
+                                                            doc.getType()),
+                  tabMaterializer_) :
+            createEditingTarget(doc);
       
       final Widget widget = createWidget(target);
 
@@ -2961,9 +2966,103 @@ public class Source implements InsertSourceHandler,
                    target.getName().getValue(),
                    target.getTabTooltip(), // used as tooltip, if non-null
                    position,
-                   true);
+                   !restoring);
       fireDocTabsChanged();
 
+      hookUpTarget(target, widget);
+      
+      events_.fireEvent(new SourceDocAddedEvent(doc));
+      
+      // adding a tab may enable commands that are only available when 
+      // multiple documents are open; if this is the second document, go check
+      if (editors_.size() == 2)
+         manageMultiTabCommands();
+      
+      // if the target had an editing session active, attempt to resume it
+      if (doc.getCollabParams() != null)
+         target.beginCollabSession(doc.getCollabParams());
+      
+      return target;
+   }
+   
+   private EditingTarget createEditingTarget(SourceDocument doc)
+   {
+      final String defaultNamePrefix = editingTargetSource_.getDefaultNamePrefix(doc);
+      return editingTargetSource_.getEditingTarget(
+            doc, fileContext_, new Provider<String>()
+            {
+               public String get()
+               {
+                  return getNextDefaultName(defaultNamePrefix);
+               }
+            });
+   }
+   
+   private boolean canRestoreLazily(SourceDocument doc)
+   {
+      return doc.getPath() != null &&
+             doc.getCollabParams() == null &&
+             fileTypeRegistry_.getTypeByTypeName(doc.getType())
+                                                   instanceof TextFileType;
+   }
+   
+   // returns the editor for a tab, creating it if the tab was restored
+   // lazily and its editor hasn't been needed yet
+   private EditingTarget materialized(EditingTarget target)
+   {
+      if (target instanceof LazyEditingTarget)
+         return ((LazyEditingTarget) target).getTarget();
+      return target;
+   }
+   
+   // returns the target as a text editor, or null if it isn't one; a lazily
+   // restored tab's placeholder stands in for a text editor, so its editor
+   // is created rather than the tab being passed over
+   private TextEditingTarget asTextEditingTarget(EditingTarget target)
+   {
+      target = materialized(target);
+      if (target instanceof TextEditingTarget)
+         return (TextEditingTarget) target;
+      return null;
+   }
+   
+   // whether the target is (or will be, once its editor is created) a text
+   // editor
+   private boolean isTextEditingTarget(EditingTarget target)
+   {
+      return target instanceof TextEditingTarget ||
+             target instanceof LazyEditingTarget;
+   }
+   
+   // returns the index of the tab for the target (which may be a lazily
+   // restored tab's placeholder, whose editor has since been created)
+   private int getTabIndex(EditingTarget target)
+   {
+      if (target instanceof LazyEditingTarget &&
+          ((LazyEditingTarget) target).isMaterialized())
+      {
+         target = ((LazyEditingTarget) target).getTarget();
+      }
+      return editors_.indexOf(target);
+   }
+   
+   private final LazyEditingTarget.Materializer tabMaterializer_ =
+         new LazyEditingTarget.Materializer()
+   {
+      @Override
+      public EditingTarget materialize(LazyEditingTarget lazyTarget)
+      {
+         EditingTarget target = createEditingTarget(lazyTarget.getDocument());
+         int index = editors_.indexOf(lazyTarget);
+         if (index != -1)
+            editors_.set(index, target);
+         hookUpTarget(target, lazyTarget.asWidget());
+         return target;
+      }
+   };
+   
+   private void hookUpTarget(final EditingTarget target, final Widget widget)
+   {
       target.getName().addValueChangeHandler(new ValueChangeHandler<String>()
       {
          public void onValueChange(ValueChangeEvent<String> event)
@@ -3001,19 +3100,6 @@ public class Source implements InsertSourceHandler,
             view_.closeTab(widget, false);
          }
       });
-      
-      events_.fireEvent(new SourceDocAddedEvent(doc));
-      
-      // adding a tab may enable commands that are only available when 
-      // multiple documents are open; if this is the second document, go check
-      if (editors_.size() == 2)
-         manageMultiTabCommands();
-      
-      // if the target had an editing session active, attempt to resume it
-      if (doc.getCollabParams() != null)
-         target.beginCollabSession(doc.getCollabParams());
-      
-      return target;
    }
 
    private String getNextDefaultName(String defaultNamePrefix)
@@ -3042,11 +3128,9 @@ public class Source implements InsertSourceHandler,
 
    public void onInsertSource(final InsertSourceEvent event)
    {
-      if (activeEditor_ != null
-          && activeEditor_ instanceof TextEditingTarget
-          && commands_.executeCode().isEnabled())
+      TextEditingTarget textEditor = asTextEditingTarget(activeEditor_);
+      if (textEditor != null && commands_.executeCode().isEnabled())
       {
-         TextEditingTarget textEditor = (TextEditingTarget) activeEditor_;
          textEditor.insertCode(event.getCode(), event.isBlock());
       }
       else
@@ -3239,7 +3323,7 @@ public class Source implements InsertSourceHandler,
 
       if (event.getSelectedItem() >= 0)
       {
-         activeEditor_ = editors_.get(event.getSelectedItem());
+         activeEditor_ = materialized(editors_.get(event.getSelectedItem()));
          activeEditor_.onActivate();
          
          // let any listeners know this tab was activated
@@ -3355,7 +3439,7 @@ public class Source implements InsertSourceHandler,
       // this case
       if (commands_.popoutDoc().isEnabled() &&
           activeEditor_ != null &&
-          (activeEditor_ instanceof TextEditingTarget ||
+          (isTextEditingTarget(activeEditor_) ||
            activeEditor_ instanceof CodeBrowserEditingTarget) &&
           !SourceWindowManager.isMainSourceWindow())
       {
@@ -3501,9 +3585,9 @@ public class Source implements InsertSourceHandler,
    
    private void pasteFileContentsAtCursor(final String path, final String encoding)
    {
-      if (activeEditor_ != null && activeEditor_ instanceof TextEditingTarget)
+      final TextEditingTarget target = asTextEditingTarget(activeEditor_);
+      if (target != null)
       {
-         final TextEditingTarget target = (TextEditingTarget) activeEditor_;
          server_.getFileContents(path, encoding, new ServerRequestCallback<String>()
          {
             @Override
@@ -3528,9 +3612,9 @@ public class Source implements InsertSourceHandler,
          @Override
          public void onResponseReceived(String output)
          {
-            if (activeEditor_ != null && activeEditor_ instanceof TextEditingTarget)
+            TextEditingTarget editor = asTextEditingTarget(activeEditor_);
+            if (editor != null)
             {
-               TextEditingTarget editor = (TextEditingTarget) activeEditor_;
                editor.insertCode(output, false);
             }
          }
@@ -3545,18 +3629,18 @@ public class Source implements InsertSourceHandler,
    
    private void reflowText()
    {
-      if (activeEditor_ != null && activeEditor_ instanceof TextEditingTarget)
+      TextEditingTarget editor = asTextEditingTarget(activeEditor_);
+      if (editor != null)
       {
-         TextEditingTarget editor = (TextEditingTarget) activeEditor_;
          editor.reflowText();
       }
    }
    
    private void reindent()
    {
-      if (activeEditor_ != null && activeEditor_ instanceof TextEditingTarget)
+      TextEditingTarget editor = asTextEditingTarget(activeEditor_);
+      if (editor != null)
       {
-         TextEditingTarget editor = (TextEditingTarget) activeEditor_;
          editor.getDocDisplay().reindent();
       }
    }
@@ -3587,9 +3671,9 @@ public class Source implements InsertSourceHandler,
    
    private void showHelpAtCursor()
    {
-      if (activeEditor_ != null && activeEditor_ instanceof TextEditingTarget)
+      TextEditingTarget editor = asTextEditingTarget(activeEditor_);
+      if (editor != null)
       {
-         TextEditingTarget editor = (TextEditingTarget) activeEditor_;
          editor.showHelpAtCursor();
       }
    }
@@ -3653,7 +3737,7 @@ public class Source implements InsertSourceHandler,
             suspendSourceNavigationAdding_ = true;
             try
             {
-               view_.selectTab(target.asWidget());
+               view_.selectTab(getTabIndex(target));
                target.restorePosition(navigation.getPosition());
             }
             finally
@@ -4025,10 +4109,10 @@ public class Source implements InsertSourceHandler,
                      return;
                   
                   // Ensure we have an Ace Editor
-                  if (!(activeEditor_ instanceof TextEditingTarget))
+                  TextEditingTarget target = asTextEditingTarget(activeEditor_);
+                  if (target == null)
                      return;
                   
-                  TextEditingTarget target = (TextEditingTarget) activeEditor_;
                   AceEditor editor = (AceEditor) target.getDocDisplay();
                   if (editor == null)
                      return;
@@ -4054,7 +4138,7 @@ public class Source implements InsertSourceHandler,
          String editorPath = editors_.get(i).getPath();
          if (editorPath != null && editorPath.equals(path))
          {
-            onEditorLocated.execute(editors_.get(i));
+            onEditorLocated.execute(materialized(editors_.get(i)));
             break;
          }
       }
@@ -4068,7 +4152,7 @@ public class Source implements InsertSourceHandler,
          String editorId = editors_.get(i).getId();
          if (editorId != null && editorId.equals(id))
          {
-            onEditorLocated.execute(editors_.get(i));
+            onEditorLocated.execute(materialized(editors_.get(i)));
             break;
          }
       }
@@ -855,6 +855,16 @@ public class AceEditor implements DocDisplay,
       widget_.getEditor().getRenderer().scrollToX(x);
    }
 
+   public int getFirstVisibleRow()
+   {
+      return widget_.getEditor().getFirstVisibleRow();
+   }
+
+   public int getLastVisibleRow()
+   {
+      return widget_.getEditor().getLastVisibleRow();
+   }
+
    public int getScrollTop()
    {
       return widget_.getEditor().getRenderer().getScrollTop();
@@ -2816,11 +2826,27 @@ public class AceEditor implements DocDisplay,
       infoBar_.show();
    }
 
-   public Range createAnchoredRange(Position start,
-                                    Position end)
+   @Override
+   public AnchoredRange createAnchoredRange(Position start,
+                                            Position end)
    {
       return widget_.getEditor().getSession().createAnchoredRange(start, end);
    }
+   
+   @Override
+   public int addMarker(Range range,
+                        String clazz,
+                        String type,
+                        boolean inFront)
+   {
+      return getSession().addMarker(range, clazz, type, inFront);
+   }
+   
+   @Override
+   public void removeMarker(int markerId)
+   {
+      getSession().removeMarker(markerId);
+   }
 
    public void insertRoxygenSkeleton()
    {
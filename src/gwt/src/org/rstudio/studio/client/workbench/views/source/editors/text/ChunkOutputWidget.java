@@ -164,6 +164,14 @@ public class ChunkOutputWidget extends Composite
 
    public void showChunkOutput(RmdChunkOutput output)
    {
+      // if this is output being restored after it was unloaded, the
+      // placeholder keeps its height until the output has loaded
+      if (unloaded_)
+      {
+         unloaded_ = false;
+         restoringOutput_ = true;
+      }
+
       if (output.getType() == RmdChunkOutput.TYPE_MULTIPLE_UNIT)
       {
          // loop over the output units and emit the appropriate contents for
@@ -187,9 +195,22 @@ public class ChunkOutputWidget extends Composite
       if (expansionState_ != EXPANDED)
          return;
       
+      // keep the placeholder's height while output is unloaded
+      if (unloaded_)
+         return;
+      
       int height = root_.getElement().getScrollHeight();
       if (height == renderedHeight_)
          return;
+      
+      // don't shrink restored output until its plots and frames have loaded
+      if (restoringOutput_)
+      {
+         if (pendingLoads_ > 0 && height < renderedHeight_)
+            return;
+         if (pendingLoads_ == 0)
+            restoringOutput_ = false;
+      }
       renderedHeight_ = height;
       if (scrollToBottom)
          root_.getElement().setScrollTop(height);
@@ -213,6 +234,11 @@ public class ChunkOutputWidget extends Composite
       {
          if (output.get(i).length() < 2)
             continue;
+         if (output.get(i).getInt(0) == CONSOLE_ERROR &&
+             isErrorOutput(output.get(i).getString(1)))
+         {
+            hasErrors_ = true;
+         }
          vconsole_.submit(
                (output.get(i).getInt(0) == CONSOLE_INPUT ? 
                      "> " + output.get(i).getString(1)  + "\n" :
@@ -223,6 +249,14 @@ public class ChunkOutputWidget extends Composite
       setOverflowStyle();
    }
    
+   // R writes warnings and messages to the error stream too; errors are the
+   // lines it starts with "Error"
+   private static boolean isErrorOutput(String text)
+   {
+      return text != null && 
+             (text.startsWith("Error") || text.contains("\nError"));
+   }
+   
    private void completeUnitRender()
    {
       syncHeight(true);
@@ -238,6 +272,8 @@ public class ChunkOutputWidget extends Composite
       plot.getElement().getStyle().setDisplay(Display.NONE);
 
       root_.add(plot);
+      hasLoadableOutput_ = true;
+      pendingLoads_++;
       
       DOM.sinkEvents(plot.getElement(), Event.ONLOAD);
       DOM.setEventListener(plot.getElement(), new EventListener()
@@ -257,6 +293,7 @@ public class ChunkOutputWidget extends Composite
 
             // show the image
             plot.getElement().getStyle().setDisplay(Display.BLOCK);
+            pendingLoads_ = Math.max(0, pendingLoads_ - 1);
 
             completeUnitRender();
          }
@@ -271,12 +308,15 @@ public class ChunkOutputWidget extends Composite
       frame.getElement().getStyle().setHeight(500, Unit.PX);
       frame.getElement().getStyle().setWidth(100, Unit.PCT);
       root_.add(frame);
+      hasLoadableOutput_ = true;
+      pendingLoads_++;
 
       frame.loadUrl(url, new Command() 
       {
          @Override
          public void execute()
          {
+            pendingLoads_ = Math.max(0, pendingLoads_ - 1);
             Style bodyStyle = frame.getDocument().getBody().getStyle();
             bodyStyle.setPadding(0, Unit.PX);
             bodyStyle.setMargin(0, Unit.PX);
@@ -299,6 +339,8 @@ public class ChunkOutputWidget extends Composite
    {
       if (event.getConsole() != chunkId_)
          return;
+      if (isErrorOutput(event.getError()))
+         hasErrors_ = true;
       renderConsoleOutput(event.getError(), classOfOutput(CONSOLE_ERROR));
    }
    
@@ -343,6 +385,7 @@ public class ChunkOutputWidget extends Composite
          if (vconsole_ != null)
             vconsole_.clear();
          root_.clear();
+         hasLoadableOutput_ = false;
       }
       syncHeight(true);
       state_ = CHUNK_READY;
@@ -367,6 +410,9 @@ public class ChunkOutputWidget extends Composite
          if (vconsole_ != null)
             vconsole_.clear();
          root_.clear();
+         hasLoadableOutput_ = false;
+         pendingLoads_ = 0;
+         restoringOutput_ = false;
          emptyIndicator_.setVisible(false);
          lastOutputType_ = RmdChunkOutputUnit.TYPE_NONE;
          state_ = CHUNK_POST_OUTPUT;
@@ -391,6 +437,41 @@ public class ChunkOutputWidget extends Composite
       lastOutputType_ = outputType;
    }
 
+   // whether the output includes plots or HTML which could be unloaded (to
+   // free the memory they hold) and later restored from the server
+   public boolean canUnloadOutput()
+   {
+      return state_ == CHUNK_READY && hasLoadableOutput_ && !unloaded_;
+   }
+   
+   // replaces the output with an empty placeholder of the same height; the
+   // output is restored by showing it again
+   public void unloadOutput()
+   {
+      if (!canUnloadOutput())
+         return;
+      
+      destroyConsole();
+      root_.clear();
+      hasLoadableOutput_ = false;
+      pendingLoads_ = 0;
+      restoringOutput_ = false;
+      lastOutputType_ = RmdChunkOutputUnit.TYPE_NONE;
+      state_ = CHUNK_EMPTY;
+      unloaded_ = true;
+   }
+   
+   // whether R reported an error while the chunk last ran
+   public boolean hasErrors()
+   {
+      return hasErrors_;
+   }
+   
+   public boolean isOutputUnloaded()
+   {
+      return unloaded_;
+   }
+
    public void showServerError(ServerError error)
    {
       // consider: less obtrusive error message 
@@ -436,6 +517,8 @@ public class ChunkOutputWidget extends Composite
       }
 
       registerConsoleEvents();
+      unloaded_ = false;
+      hasErrors_ = false;
       state_ = CHUNK_PRE_OUTPUT;
       showBusyState();
    }
@@ -613,6 +696,11 @@ public class ChunkOutputWidget extends Composite
    private int expansionState_ = EXPANDED;
    private int lastOutputType_ = RmdChunkOutputUnit.TYPE_NONE;
    private int renderedHeight_ = 0;
+   private int pendingLoads_ = 0;
+   private boolean hasLoadableOutput_ = false;
+   private boolean unloaded_ = false;
+   private boolean hasErrors_ = false;
+   private boolean restoringOutput_ = false;
    
    private CommandWithArg<Integer> onRenderCompleted_;
    private Timer collapseTimer_ = null;
@@ -32,6 +32,7 @@ import org.rstudio.studio.client.workbench.views.output.lint.model.LintItem;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceCommandManager;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceFold;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Anchor;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AnchoredRange;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.LineWidget;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Mode.InsertChunkInfo;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
@@ -230,6 +231,9 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    
    void ensureRowVisible(int row);
    
+   int getFirstVisibleRow();
+   int getLastVisibleRow();
+   
    InputEditorSelection search(String needle,
                                boolean backwards,
                                boolean wrap,
@@ -308,6 +312,10 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    String getTextForRange(Range range);
 
    Anchor createAnchor(Position pos);
+   AnchoredRange createAnchoredRange(Position start, Position end);
+   
+   int addMarker(Range range, String clazz, String type, boolean inFront);
+   void removeMarker(int markerId);
    
    int getStartOfCurrentStatement();
    int getEndOfCurrentStatement();
@@ -2463,6 +2463,9 @@ public class TextEditingTarget implements
 
    public void onDismiss(int dismissType)
    {
+      if (notebook_ != null)
+         notebook_.onDismiss();
+      
       docUpdateSentinel_.stop();
       
       if (spelling_ != null)
@@ -4108,10 +4111,30 @@ public class TextEditingTarget implements
       // a Scope with an end.
       docDisplay_.getScopeTree();
       
-      // execute the previous chunks
-      Scope[] previousScopes = scopeHelper_.getPreviousSweaveChunks(position);
-      for (Scope scope : previousScopes)
-         executeSweaveChunk(scope, false);
+      // execute the previous chunks; prepare for execution just once and
+      // then hand all of the chunks to the notebook together, so that it can
+      // run them as a single batch (skipping those whose results are
+      // unchanged)
+      final Scope[] previousScopes = 
+            scopeHelper_.getPreviousSweaveChunks(position);
+      docUpdateSentinel_.withSavedDoc(new Command() {
+         @Override
+         public void execute()
+         {
+            rmarkdownHelper_.prepareForRmdChunkExecution(
+                  docUpdateSentinel_.getId(),
+                  docUpdateSentinel_.getContents(), 
+                  new Command()
+                  {
+                     @Override
+                     public void execute()
+                     {
+                        for (Scope scope : previousScopes)
+                           executeSweaveChunkCode(scope, false, true);
+                     }
+                  });
+         }
+      });
    }
    
    @Handler
@@ -4175,32 +4198,7 @@ public class TextEditingTarget implements
          @Override
          public void execute()
          {
-            Range range = scopeHelper_.getSweaveChunkInnerRange(chunk);
-            if (scrollNearTop)
-            {
-               docDisplay_.navigateToPosition(
-                     SourcePosition.create(range.getStart().getRow(),
-                                           range.getStart().getColumn()),
-                     true);
-            }
-            if (!range.isEmpty())
-            {
-               codeExecution_.setLastExecuted(range.getStart(), range.getEnd());
-               String code = scopeHelper_.getSweaveChunkText(chunk);
-               String options = 
-                     TextEditingTargetRMarkdownHelper.getRmdChunkOptionText(
-                           chunk, docDisplay_);
-               if (fileType_.isRmd() && 
-                   docDisplay_.showChunkOutputInline())
-               {
-                  notebook_.executeChunk(chunk, code, options);
-               }
-               else
-               {
-                  events_.fireEvent(new SendToConsoleEvent(code, true));
-               }
-               docDisplay_.collapseSelection(true);   
-            }
+            executeSweaveChunkCode(chunk, scrollNearTop, false);
          }
       };
       
@@ -4228,6 +4226,38 @@ public class TextEditingTarget implements
       
    }
    
+   private void executeSweaveChunkCode(final Scope chunk, 
+                                       final boolean scrollNearTop,
+                                       final boolean reuseResults)
+   {
+      Range range = scopeHelper_.getSweaveChunkInnerRange(chunk);
+      if (scrollNearTop)
+      {
+         docDisplay_.navigateToPosition(
+               SourcePosition.create(range.getStart().getRow(),
+                                     range.getStart().getColumn()),
+               true);
+      }
+      if (!range.isEmpty())
+      {
+         codeExecution_.setLastExecuted(range.getStart(), range.getEnd());
+         String code = scopeHelper_.getSweaveChunkText(chunk);
+         String options = 
+               TextEditingTargetRMarkdownHelper.getRmdChunkOptionText(
+                     chunk, docDisplay_);
+         if (fileType_.isRmd() && 
+             docDisplay_.showChunkOutputInline())
+         {
+            notebook_.executeChunk(chunk, code, options, reuseResults);
+         }
+         else
+         {
+            events_.fireEvent(new SendToConsoleEvent(code, true));
+         }
+         docDisplay_.collapseSelection(true);   
+      }
+   }
+   
    @Handler
    void onJumpTo()
    {
@@ -4948,6 +4978,12 @@ public class TextEditingTarget implements
       globalDisplay_.showNotYetImplemented();
    }
    
+   @Handler
+   void onNotebookClearCachedResults()
+   {
+      notebook_.clearCachedResults();
+   }
+   
 
    @Handler
    void onSynctexSearch()
@@ -16,20 +16,37 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 
 import org.rstudio.core.client.CsvReader;
 import org.rstudio.core.client.CsvWriter;
+import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.ResultCallback;
 import org.rstudio.core.client.widget.NullProgressIndicator;
+import org.rstudio.studio.client.RStudioGinjector;
+import org.rstudio.studio.client.common.SimpleRequestCallback;
 import org.rstudio.studio.client.common.spelling.SpellChecker;
+import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
+import org.rstudio.studio.client.workbench.views.output.lint.LintResources;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AnchoredRange;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.CheckSpelling;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.InitialProgressDialog;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.SpellingDialog;
 import org.rstudio.studio.client.workbench.views.source.model.DocUpdateSentinel;
 
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
+import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Timer;
 
 public class TextEditingTargetSpelling implements SpellChecker.Context
 {
@@ -39,7 +56,35 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
       docDisplay_ = docDisplay;
       docUpdateSentinel_ = docUpdateSentinel;
       spellChecker_ = new SpellChecker(this);
+      uiPrefs_ = RStudioGinjector.INSTANCE.getUIPrefs();
       
+      // check spelling as you type: after each edit only the rows which
+      // changed are re-checked
+      releaseOnDismiss(docDisplay_.addDocumentChangedHandler(
+                                    new DocumentChangedEvent.Handler()
+      {
+         @Override
+         public void onDocumentChanged(DocumentChangedEvent event)
+         {
+            updateDirtyRows(event.getEvent());
+         }
+      }));
+      
+      releaseOnDismiss(uiPrefs_.realTimeSpellChecking().addValueChangeHandler(
+                                    new ValueChangeHandler<Boolean>()
+      {
+         @Override
+         public void onValueChange(ValueChangeEvent<Boolean> event)
+         {
+            if (event.getValue())
+               invalidateAllWords();
+            else
+               clearMarkers();
+         }
+      }));
+      
+      // check the whole document once it's been loaded
+      invalidateAllWords();
    }
    
    public void checkSpelling()
@@ -75,15 +120,246 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    @Override
    public void invalidateAllWords()
    {
-      
+      markRowsDirty(0, Integer.MAX_VALUE);
+      scheduleCheck(0);
    }
 
    @Override
    public void invalidateMisspelledWords()
    {
+      if (markers_.isEmpty())
+         return;
+      
+      // re-check the words we've marked (words which have since been added
+      // to a dictionary will come back as correct)
+      final ArrayList<String> words = new ArrayList<String>();
+      for (SpellingMarker marker : markers_)
+         words.add(marker.word);
       
+      spellChecker_.checkSpelling(words, 
+                  new SimpleRequestCallback<SpellCheckerResult>()
+      {
+         @Override
+         public void onResponseReceived(SpellCheckerResult result)
+         {
+            HashSet<String> correct = new HashSet<String>(result.getCorrect());
+            ArrayList<SpellingMarker> markers = 
+                                       new ArrayList<SpellingMarker>();
+            for (SpellingMarker marker : markers_)
+            {
+               if (correct.contains(marker.word))
+                  marker.detach();
+               else
+                  markers.add(marker);
+            }
+            markers_ = markers;
+         }
+      });
    }  
    
+   private void updateDirtyRows(AceDocumentChangeEventNative event)
+   {
+      if (!isRealTimeEnabled())
+         return;
+      
+      Range range = event.getRange();
+      int startRow = range.getStart().getRow();
+      int rowDelta = range.getEnd().getRow() - startRow;
+      
+      // keep the rows still waiting to be checked in step with the edit
+      if (event.getAction().startsWith("insert"))
+      {
+         if (dirtyStartRow_ > startRow)
+            dirtyStartRow_ += rowDelta;
+         if (dirtyEndRow_ > startRow && dirtyEndRow_ != Integer.MAX_VALUE)
+            dirtyEndRow_ += rowDelta;
+         markRowsDirty(startRow, startRow + rowDelta);
+      }
+      else
+      {
+         if (dirtyStartRow_ > startRow)
+            dirtyStartRow_ = Math.max(startRow, dirtyStartRow_ - rowDelta);
+         if (dirtyEndRow_ > startRow && dirtyEndRow_ != Integer.MAX_VALUE)
+            dirtyEndRow_ = Math.max(startRow, dirtyEndRow_ - rowDelta);
+         markRowsDirty(startRow, startRow);
+      }
+      
+      changeCount_++;
+      scheduleCheck(CHECK_DELAY_MS);
+   }
+   
+   private void markRowsDirty(int startRow, int endRow)
+   {
+      if (dirtyStartRow_ < 0)
+      {
+         dirtyStartRow_ = startRow;
+         dirtyEndRow_ = endRow;
+      }
+      else
+      {
+         dirtyStartRow_ = Math.min(dirtyStartRow_, startRow);
+         dirtyEndRow_ = Math.max(dirtyEndRow_, endRow);
+      }
+   }
+   
+   private void scheduleCheck(int delayMs)
+   {
+      checkTimer_.cancel();
+      checkTimer_.schedule(delayMs);
+   }
+   
+   private boolean isRealTimeEnabled()
+   {
+      return uiPrefs_.realTimeSpellChecking().getValue() &&
+             docDisplay_.getFileType().canCheckSpelling();
+   }
+   
+   private void checkDirtyRows()
+   {
+      if (isChecking_ || dirtyStartRow_ < 0)
+         return;
+      
+      if (!isRealTimeEnabled())
+      {
+         dirtyStartRow_ = dirtyEndRow_ = -1;
+         clearMarkers();
+         return;
+      }
+      
+      // check a limited number of rows at a time (so that checking a large 
+      // document doesn't hold up the editor)
+      int lastRow = docDisplay_.getRowCount() - 1;
+      if (lastRow < 0)
+      {
+         dirtyStartRow_ = dirtyEndRow_ = -1;
+         return;
+      }
+      
+      final int startRow = Math.min(dirtyStartRow_, lastRow);
+      final int endRow = Math.min(Math.min(dirtyEndRow_, lastRow),
+                                  startRow + MAX_ROWS_PER_CHECK - 1);
+      if (endRow < dirtyEndRow_ && endRow < lastRow)
+      {
+         dirtyStartRow_ = endRow + 1;
+      }
+      else
+      {
+         dirtyStartRow_ = dirtyEndRow_ = -1;
+      }
+      
+      final ArrayList<String> words = new ArrayList<String>();
+      final ArrayList<Range> wordRanges = new ArrayList<Range>();
+      HashSet<String> uniqueWords = new HashSet<String>();
+      for (Range r : docDisplay_.getWords(
+                           docDisplay_.getFileType().getTokenPredicate(),
+                           docDisplay_.getFileType().getCharPredicate(),
+                           Position.create(startRow, 0),
+                           Position.create(endRow + 1, 0)))
+      {
+         // Don't worry about pathologically long words
+         if (r.getEnd().getColumn() - r.getStart().getColumn() > 250)
+            continue;
+         
+         String word = docDisplay_.getTextForRange(r);
+         wordRanges.add(r);
+         words.add(word);
+         uniqueWords.add(word);
+      }
+      
+      isChecking_ = true;
+      final int changeCount = changeCount_;
+      spellChecker_.checkSpelling(new ArrayList<String>(uniqueWords),
+                  new ServerRequestCallback<SpellCheckerResult>()
+      {
+         @Override
+         public void onResponseReceived(SpellCheckerResult result)
+         {
+            isChecking_ = false;
+            
+            // if the document changed while we were waiting then the words
+            // may have moved; check these rows again
+            if (changeCount != changeCount_)
+               markRowsDirty(startRow, endRow);
+            else
+               showMisspellings(startRow, endRow, words, wordRanges, 
+                                new HashSet<String>(result.getIncorrect()));
+            
+            if (dirtyStartRow_ >= 0)
+               scheduleCheck(0);
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            isChecking_ = false;
+            Debug.logError(error);
+         }
+      });
+   }
+   
+   private void showMisspellings(int startRow,
+                                 int endRow,
+                                 ArrayList<String> words,
+                                 ArrayList<Range> wordRanges,
+                                 HashSet<String> misspelled)
+   {
+      // replace the markers in the rows we checked 
+      ArrayList<SpellingMarker> markers = new ArrayList<SpellingMarker>();
+      for (SpellingMarker marker : markers_)
+      {
+         int row = marker.range.getStart().getRow();
+         if (row >= startRow && row <= endRow)
+            marker.detach();
+         else
+            markers.add(marker);
+      }
+      markers_ = markers;
+      
+      for (int i = 0; i < words.size(); i++)
+      {
+         if (markers_.size() >= MAX_MARKERS)
+            break;
+         
+         if (misspelled.contains(words.get(i)))
+         {
+            Range range = wordRanges.get(i);
+            markers_.add(new SpellingMarker(words.get(i), 
+                                            range.getStart(),
+                                            range.getEnd()));
+         }
+      }
+   }
+   
+   private void clearMarkers()
+   {
+      for (SpellingMarker marker : markers_)
+         marker.detach();
+      markers_.clear();
+   }
+   
+   private class SpellingMarker
+   {
+      public SpellingMarker(String word, Position start, Position end)
+      {
+         this.word = word;
+         range = docDisplay_.createAnchoredRange(start, end);
+         markerId_ = docDisplay_.addMarker(range, 
+                                           lintStyles_.spelling(), 
+                                           "text", 
+                                           true);
+      }
+      
+      public void detach()
+      {
+         docDisplay_.removeMarker(markerId_);
+         range.detach();
+      }
+      
+      public final String word;
+      public final AnchoredRange range;
+      private final int markerId_;
+   }
+   
    @Override
    public ArrayList<String> readDictionary()
    {
@@ -116,6 +392,9 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    
    void onDismiss()
    {
+      checkTimer_.cancel();
+      clearMarkers();
+      
       while (releaseOnDismiss_.size() > 0)
          releaseOnDismiss_.remove(0).removeHandler();
    }
@@ -128,12 +407,36 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    }
 
    private boolean isSpellChecking_;
+   
+   // rows which need to be checked (-1 if none)
+   private int dirtyStartRow_ = -1;
+   private int dirtyEndRow_ = -1;
+   private int changeCount_;
+   private boolean isChecking_;
+   private ArrayList<SpellingMarker> markers_ = 
+                                       new ArrayList<SpellingMarker>();
+   
+   private final Timer checkTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         checkDirtyRows();
+      }
+   };
+   
+   private final static int CHECK_DELAY_MS = 500;
+   private final static int MAX_ROWS_PER_CHECK = 500;
+   private final static int MAX_MARKERS = 1000;
 
    private final static String IGNORED_WORDS = "ignored_words"; 
    
    private final DocDisplay docDisplay_;
    private final DocUpdateSentinel docUpdateSentinel_;
    private final SpellChecker spellChecker_;
+   private final UIPrefs uiPrefs_;
+   private final LintResources.Styles lintStyles_ = 
+                                       LintResources.INSTANCE.styles();
  
    private ArrayList<HandlerRegistration> releaseOnDismiss_ = 
                                     new ArrayList<HandlerRegistration>();
@@ -31,4 +31,11 @@ public class AceDocumentChangeEventNative extends JavaScriptObject
    public final native String getText() /*-{
       return this.data.text;
    }-*/;
+   
+   // the text inserted by an insertText or insertLines action
+   public final native String getInsertedText() /*-{
+      if (this.data.lines)
+         return this.data.lines.join("\n") + "\n";
+      return this.data.text || "";
+   }-*/;
 }
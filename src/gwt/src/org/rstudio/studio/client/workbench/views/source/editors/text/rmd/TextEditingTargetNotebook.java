@@ -16,9 +16,13 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text.rmd;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
@@ -33,9 +37,11 @@ import org.rstudio.studio.client.application.events.InterruptStatusEvent;
 import org.rstudio.studio.client.application.events.RestartStatusEvent;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.rmarkdown.events.RmdChunkOutputEvent;
+import org.rstudio.studio.client.rmarkdown.events.RmdChunkExecStartedEvent;
 import org.rstudio.studio.client.rmarkdown.events.RmdChunkOutputFinishedEvent;
 import org.rstudio.studio.client.rmarkdown.events.SendToChunkConsoleEvent;
 import org.rstudio.studio.client.rmarkdown.model.RMarkdownServerOperations;
+import org.rstudio.studio.client.rmarkdown.model.RmdChunkQueueUnit;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.VoidServerRequestCallback;
@@ -63,6 +69,9 @@ import org.rstudio.studio.client.workbench.views.source.model.DocUpdateSentinel;
 import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
 
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.dom.client.Style.Unit;
@@ -74,6 +83,7 @@ import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
@@ -82,6 +92,7 @@ public class TextEditingTargetNotebook
                implements EditorThemeStyleChangedEvent.Handler,
                           RmdChunkOutputEvent.Handler,
                           RmdChunkOutputFinishedEvent.Handler,
+                          RmdChunkExecStartedEvent.Handler,
                           SendToChunkConsoleEvent.Handler, 
                           ChunkChangeEvent.Handler,
                           ChunkContextChangeEvent.Handler,
@@ -121,6 +132,7 @@ public class TextEditingTargetNotebook
       lineWidgets_ = new HashMap<String, LineWidget>();
       chunkExecQueue_ = new LinkedList<ChunkExecQueueUnit>();
       setupCrc32_ = docUpdateSentinel_.getProperty(LAST_SETUP_CRC32);
+      readResultKeys();
       editingTarget_ = editingTarget;
       editingDisplay_ = editingDisplay;
       RStudioGinjector.INSTANCE.injectMembers(this);
@@ -194,6 +206,13 @@ public class TextEditingTargetNotebook
                editingTarget.addEditorThemeStyleChangedHandler(
                                              TextEditingTargetNotebook.this);
             }
+            else if (!lineWidgets_.isEmpty())
+            {
+               // the editor renders as it scrolls; once it settles, load
+               // output for chunks which have come into view and unload
+               // output far from it
+               viewportTimer_.schedule(VIEWPORT_SYNC_DELAY_MS);
+            }
          }
       });
    }
@@ -217,6 +236,7 @@ public class TextEditingTargetNotebook
       
       events_.addHandler(RmdChunkOutputEvent.TYPE, this);
       events_.addHandler(RmdChunkOutputFinishedEvent.TYPE, this);
+      events_.addHandler(RmdChunkExecStartedEvent.TYPE, this);
       events_.addHandler(SendToChunkConsoleEvent.TYPE, this);
       events_.addHandler(ChunkChangeEvent.TYPE, this);
       events_.addHandler(ChunkContextChangeEvent.TYPE, this);
@@ -238,6 +258,15 @@ public class TextEditingTargetNotebook
    }
    
    public void executeChunk(Scope chunk, String code, String options)
+   {
+      executeChunk(chunk, code, options, false);
+   }
+   
+   // executes the chunk; if reuseResults is set and neither the chunk nor
+   // any chunk before it has changed since it was last run, its existing
+   // output is kept instead
+   public void executeChunk(Scope chunk, String code, String options,
+                            boolean reuseResults)
    {
       // maximize the source window if it's paired with the console
       pSourceWindowManager_.get().maximizeSourcePaneIfNecessary();
@@ -262,6 +291,31 @@ public class TextEditingTargetNotebook
          ensureSetupChunkExecuted();
       }
       
+      String resultKey = chunkResultKey(chunk, code, options);
+      if (reuseResults && 
+          !pendingResultKeys_.containsKey(chunkId) &&
+          resultKey.equals(resultKeys_.get(chunkId)))
+      {
+         // make sure the output we're keeping is shown
+         restoreChunkOutput(chunkId);
+         return;
+      }
+      
+      // the chunk's existing output is about to be replaced; its result key
+      // is recorded once it has run to completion
+      pendingResultKeys_.put(chunkId, resultKey);
+      if (resultKeys_.remove(chunkId) != null)
+         markResultKeysDirty();
+      
+      // if chunks are running from the server's queue, add this one to it
+      // (the server updates it in place if it's still waiting)
+      if (isBatchExecuting())
+      {
+         addToChunkBatch(new ChunkExecQueueUnit(chunkId, code, options, 
+               setupCrc32));
+         return;
+      }
+      
       // check to see if this chunk is already in the execution queue--if so
       // just update the code and leave it queued
       for (ChunkExecQueueUnit unit: chunkExecQueue_)
@@ -282,8 +336,25 @@ public class TextEditingTargetNotebook
       // TODO: decorate chunk in some way so that it's clear the chunk is 
       // queued for execution
       
-      // initiate queue processing
-      processChunkExecQueue();
+      // initiate queue processing (once any other chunks being run along
+      // with this one have been queued)
+      scheduleChunkExecQueue();
+   }
+   
+   // forgets the recorded results of all chunks, so they're all run the next
+   // time all chunks are run
+   public void clearCachedResults()
+   {
+      resultKeys_.clear();
+      markResultKeysDirty();
+   }
+   
+   // writes anything we've been holding back before the document closes
+   public void onDismiss()
+   {
+      resultKeysTimer_.cancel();
+      if (resultKeysDirty_)
+         writeResultKeys();
    }
    
    public void manageCommands()
@@ -297,17 +368,45 @@ public class TextEditingTargetNotebook
       commands_.notebookCollapseAllOutput().setVisible(inlineOutput);
       commands_.notebookExpandAllOutput().setEnabled(inlineOutput);
       commands_.notebookExpandAllOutput().setVisible(inlineOutput); 
+      commands_.notebookClearCachedResults().setEnabled(inlineOutput);
+      commands_.notebookClearCachedResults().setVisible(inlineOutput);
       editingDisplay_.setNotebookUIVisible(inlineOutput);
    }
    
+   private void scheduleChunkExecQueue()
+   {
+      if (chunkExecQueueScheduled_)
+         return;
+      chunkExecQueueScheduled_ = true;
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            chunkExecQueueScheduled_ = false;
+            processChunkExecQueue();
+         }
+      });
+   }
+   
    private void processChunkExecQueue()
    {
-      if (chunkExecQueue_.isEmpty() || executingChunk_ != null)
+      if (chunkExecQueue_.isEmpty() || executingChunk_ != null ||
+          isBatchExecuting())
+         return;
+      
+      // when several chunks are waiting (e.g. Run All), hand them all to the
+      // server at once rather than running them one at a time from here
+      if (chunkExecQueue_.size() > 1)
+      {
+         executeChunkBatch();
          return;
+      }
       
       // begin chunk execution
       final ChunkExecQueueUnit unit = chunkExecQueue_.remove();
       executingChunk_ = unit;
+      loadedChunkIds_.add(unit.chunkId);
       
       // let the chunk widget know it's started executing
       if (outputWidgets_.containsKey(unit.chunkId))
@@ -333,6 +432,9 @@ public class TextEditingTargetNotebook
                @Override
                public void onError(ServerError error)
                {
+                  // the chunk didn't run, so has no result to record
+                  pendingResultKeys_.remove(unit.chunkId);
+                  
                   // don't leave the chunk hung in execution state
                   if (executingChunk_ != null)
                   {
@@ -370,6 +472,86 @@ public class TextEditingTargetNotebook
             });
    }
    
+   // Sends everything in the execution queue to the server to be run in
+   // turn. The server runs each chunk as soon as R is finished with the one
+   // before it, and tells us (with an RmdChunkExecStartedEvent) which chunk
+   // it has started and which are still waiting.
+   private void executeChunkBatch()
+   {
+      ArrayList<ChunkExecQueueUnit> units = new ArrayList<ChunkExecQueueUnit>();
+      while (!chunkExecQueue_.isEmpty())
+         units.add(chunkExecQueue_.remove());
+      
+      submitChunkBatch(units);
+   }
+   
+   private void addToChunkBatch(ChunkExecQueueUnit unit)
+   {
+      // whether the server updates the chunk in place or runs it again
+      // depends on whether it has started it yet, which we may not know;
+      // we find out from the next RmdChunkExecStartedEvent
+      ArrayList<ChunkExecQueueUnit> units = new ArrayList<ChunkExecQueueUnit>();
+      units.add(unit);
+      submitChunkBatch(units);
+   }
+   
+   private void submitChunkBatch(ArrayList<ChunkExecQueueUnit> units)
+   {
+      JsArray<RmdChunkQueueUnit> queueUnits = 
+            JsArray.createArray().cast();
+      for (ChunkExecQueueUnit unit: units)
+      {
+         loadedChunkIds_.add(unit.chunkId);
+         batchUnits_.put(unit.chunkId, unit);
+         batchUnconfirmed_.add(unit.chunkId);
+         queueUnits.push(RmdChunkQueueUnit.create(unit.chunkId, unit.code));
+      }
+      
+      server_.executeNotebookChunks(docUpdateSentinel_.getId(), queueUnits,
+            new ServerRequestCallback<Void>()
+            {
+               @Override
+               public void onResponseReceived(Void v)
+               {
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  // none of the chunks ran, so have no results to record
+                  for (String chunkId: batchUnits_.keySet())
+                     pendingResultKeys_.remove(chunkId);
+                  
+                  // don't leave the running chunk hung in execution state
+                  if (batchRunning_ != null && 
+                      outputWidgets_.containsKey(batchRunning_))
+                  {
+                     outputWidgets_.get(batchRunning_).onOutputFinished();
+                  }
+                  clearChunkBatch();
+
+                  RStudioGinjector.INSTANCE.getGlobalDisplay()
+                    .showErrorMessage("Chunk Execution Failed", 
+                           error.getUserMessage());
+               }
+            });
+   }
+   
+   private boolean isBatchExecuting()
+   {
+      return batchRunning_ != null || 
+             !batchQueued_.isEmpty() ||
+             !batchUnconfirmed_.isEmpty();
+   }
+   
+   private void clearChunkBatch()
+   {
+      batchUnits_.clear();
+      batchQueued_.clear();
+      batchUnconfirmed_.clear();
+      batchRunning_ = null;
+   }
+   
    // Event handlers ----------------------------------------------------------
    
    @Override
@@ -397,6 +579,7 @@ public class TextEditingTargetNotebook
       final ChunkDefinition chunkDef = getChunkDefAtRow(event.getRow());
       String options = TextEditingTargetRMarkdownHelper.getRmdChunkOptionText(
             event.getScope(), docDisplay_);
+      loadedChunkIds_.add(chunkDef.getChunkId());
       
       // have the server start recording output from this chunk
       server_.setChunkConsole(docUpdateSentinel_.getId(), 
@@ -447,6 +630,7 @@ public class TextEditingTargetNotebook
 
       // show output in matching chunk
       String chunkId = event.getOutput().getChunkId();
+      loadedChunkIds_.add(chunkId);
       if (outputWidgets_.containsKey(chunkId))
       {
          outputWidgets_.get(chunkId).showChunkOutput(event.getOutput());
@@ -468,13 +652,68 @@ public class TextEditingTargetNotebook
       else if (data.getType() == RmdChunkOutputFinishedEvent.TYPE_INTERACTIVE &&
                data.getDocId() == docUpdateSentinel_.getId())
       {
-         if (outputWidgets_.containsKey(data.getChunkId()))
+         ChunkOutputWidget outputWidget = outputWidgets_.get(
+               data.getChunkId());
+         if (outputWidget != null)
          {
-            outputWidgets_.get(data.getChunkId()).onOutputFinished();
+            outputWidget.onOutputFinished();
+         }
+         
+         // the chunk ran to completion; record the key of its result (unless
+         // it failed, in which case it needs to run again next time)
+         String resultKey = pendingResultKeys_.remove(data.getChunkId());
+         if (resultKey != null && outputWidget != null && 
+             !outputWidget.hasErrors())
+         {
+            resultKeys_.put(data.getChunkId(), resultKey);
+            markResultKeysDirty();
+         }
+         
+         // if this was the running chunk in a batch, the server moves on to
+         // the next one (if any) and tells us when it has started it
+         if (data.getChunkId().equals(batchRunning_))
+         {
+            batchRunning_ = null;
+            if (!isBatchExecuting())
+               clearChunkBatch();
          }
       }
    }
 
+   @Override
+   public void onRmdChunkExecStarted(RmdChunkExecStartedEvent event)
+   {
+      RmdChunkExecStartedEvent.Data data = event.getData();
+      if (data.getDocId() != docUpdateSentinel_.getId())
+         return;
+      
+      // follow the server's queue: the chunks it reports have all reached
+      // it, and any others we've sent since are still on their way
+      String chunkId = data.getChunkId();
+      JsArrayString queued = data.getQueuedChunkIds();
+      batchRunning_ = chunkId;
+      batchUnconfirmed_.remove(chunkId);
+      batchQueued_.clear();
+      for (int i = 0; i < queued.length(); i++)
+      {
+         batchQueued_.add(queued.get(i));
+         batchUnconfirmed_.remove(queued.get(i));
+      }
+      
+      if (outputWidgets_.containsKey(chunkId))
+         outputWidgets_.get(chunkId).setCodeExecuting(true);
+
+      // if this is the setup chunk, mark it
+      ChunkExecQueueUnit unit = batchUnits_.get(chunkId);
+      if (unit != null && !StringUtil.isNullOrEmpty(unit.setupCrc32))
+         writeSetupCrc32(unit.setupCrc32);
+      if (!batchQueued_.contains(chunkId) && 
+          !batchUnconfirmed_.contains(chunkId))
+      {
+         batchUnits_.remove(chunkId);
+      }
+   }
+
    @Override
    public void onChunkChange(ChunkChangeEvent event)
    {
@@ -494,6 +733,9 @@ public class TextEditingTargetNotebook
             widget.setFixedWidth(true);
             docDisplay_.addLineWidget(widget);
             lineWidgets_.put(chunkDef.getChunkId(), widget);
+            
+            // a new chunk has no output on the server to load
+            loadedChunkIds_.add(chunkDef.getChunkId());
             break;
          case ChunkChangeEvent.CHANGE_REMOVE:
             removeChunk(event.getChunkId());
@@ -553,19 +795,35 @@ public class TextEditingTargetNotebook
       if (event.getStatus() != InterruptStatusEvent.INTERRUPT_INITIATED)
          return;
       
-      // when the user interrupts R, clear any pending chunk executions
+      // when the user interrupts R, clear any pending chunk executions (the
+      // server clears its queue too); the interrupted chunk's output is
+      // incomplete, so it has no result to record
       chunkExecQueue_.clear();
+      clearChunkBatch();
+      pendingResultKeys_.clear();
    }
 
    @Override
    public void onRestartStatus(RestartStatusEvent event)
    {
+      // a restarted session has no queue of chunks to run
+      if (event.getStatus() == RestartStatusEvent.RESTART_COMPLETED)
+         clearChunkBatch();
+      
+
       // if we had recorded a run of the setup chunk prior to restart, clear it
       if (event.getStatus() == RestartStatusEvent.RESTART_COMPLETED &&
           !StringUtil.isNullOrEmpty(setupCrc32_))
       {
          writeSetupCrc32("");
       }
+      
+      // likewise, the state the chunks' results were computed in is gone
+      if (event.getStatus() == RestartStatusEvent.RESTART_COMPLETED)
+      {
+         pendingResultKeys_.clear();
+         clearCachedResults();
+      }
    }
 
    // Private methods --------------------------------------------------------
@@ -591,14 +849,101 @@ public class TextEditingTargetNotebook
 
       state_ = STATE_INITIALIZING;
       requestId_ = nextRequestId_++;
+      
+      // ask for the output of the chunks in (or near) view first; the rest
+      // is loaded as it's scrolled into view
+      List<String> chunkIds = chunksNearViewport(VIEWPORT_LOAD_SCREENS);
+      if (chunkIds.isEmpty())
+      {
+         // nothing near the viewport; start with the closest chunk so that
+         // the server still answers the request
+         List<String> allIds = chunksNearViewport(Integer.MAX_VALUE);
+         if (!allIds.isEmpty())
+            chunkIds.add(allIds.get(0));
+      }
+      loadedChunkIds_.addAll(chunkIds);
+      
       server_.refreshChunkOutput(
             docUpdateSentinel_.getPath(),
             docUpdateSentinel_.getId(), 
             contextId_,
             Integer.toHexString(requestId_), 
+            chunkIds,
+            new VoidServerRequestCallback());
+   }
+   
+   // loads the output of chunks which are near the viewport but haven't been
+   // loaded, and unloads plots and HTML far from it (they are restored from
+   // the server if they come back into view)
+   private void syncViewport()
+   {
+      if (!editingTarget_.isActiveDocument() || lineWidgets_.isEmpty())
+         return;
+      
+      ArrayList<String> toLoad = new ArrayList<String>();
+      for (String chunkId: chunksNearViewport(VIEWPORT_LOAD_SCREENS))
+      {
+         if (!loadedChunkIds_.contains(chunkId))
+            toLoad.add(chunkId);
+      }
+      
+      Set<String> keep = new HashSet<String>(
+            chunksNearViewport(VIEWPORT_UNLOAD_SCREENS));
+      for (Map.Entry<String, ChunkOutputWidget> entry: 
+           outputWidgets_.entrySet())
+      {
+         ChunkOutputWidget widget = entry.getValue();
+         if (!keep.contains(entry.getKey()) && widget.canUnloadOutput())
+         {
+            widget.unloadOutput();
+            loadedChunkIds_.remove(entry.getKey());
+         }
+      }
+      
+      if (toLoad.isEmpty())
+         return;
+      
+      loadedChunkIds_.addAll(toLoad);
+      server_.refreshChunkOutput(
+            docUpdateSentinel_.getPath(),
+            docUpdateSentinel_.getId(), 
+            contextId_,
+            Integer.toHexString(nextRequestId_++), 
+            toLoad,
             new VoidServerRequestCallback());
    }
    
+   // returns the IDs of the chunks whose output is within the given number of
+   // screens of the viewport, nearest first
+   private List<String> chunksNearViewport(int screens)
+   {
+      final int first = docDisplay_.getFirstVisibleRow();
+      final int last = docDisplay_.getLastVisibleRow();
+      long margin = (long)screens * Math.max(1, last - first + 1);
+      
+      final HashMap<String, Integer> distances = 
+            new HashMap<String, Integer>();
+      for (Map.Entry<String, LineWidget> entry: lineWidgets_.entrySet())
+      {
+         int row = entry.getValue().getRow();
+         int distance = row < first ? first - row :
+                        row > last  ? row - last  : 0;
+         if (distance <= margin)
+            distances.put(entry.getKey(), distance);
+      }
+      
+      ArrayList<String> chunkIds = new ArrayList<String>(distances.keySet());
+      Collections.sort(chunkIds, new Comparator<String>()
+      {
+         @Override
+         public int compare(String a, String b)
+         {
+            return distances.get(a).compareTo(distances.get(b));
+         }
+      });
+      return chunkIds;
+   }
+   
    private Element elementForChunkDef(final ChunkDefinition def)
    {
       ChunkOutputWidget widget;
@@ -672,6 +1017,11 @@ public class TextEditingTargetNotebook
    // invoked elsewhere
    private void removeChunk(final String chunkId)
    {
+      // forget the chunk's result so it doesn't linger in the document
+      pendingResultKeys_.remove(chunkId);
+      if (resultKeys_.remove(chunkId) != null)
+         markResultKeysDirty();
+      
       final LineWidget widget = lineWidgets_.get(chunkId);
       if (widget == null)
          return;
@@ -689,6 +1039,7 @@ public class TextEditingTargetNotebook
             // remove it from our internal cache
             lineWidgets_.remove(chunkId);
             outputWidgets_.remove(chunkId);
+            loadedChunkIds_.remove(chunkId);
          }
       });
       anim.run(400);
@@ -699,6 +1050,7 @@ public class TextEditingTargetNotebook
       docDisplay_.removeAllLineWidgets();
       lineWidgets_.clear();
       outputWidgets_.clear();
+      loadedChunkIds_.clear();
    }
    
    private void changeOutputMode(String mode)
@@ -724,6 +1076,8 @@ public class TextEditingTargetNotebook
                public void execute()
                {
                   removeAllChunks();
+                  pendingResultKeys_.clear();
+                  clearCachedResults();
                }
             }, 
             new Operation()
@@ -830,6 +1184,112 @@ public class TextEditingTargetNotebook
       docUpdateSentinel_.setProperty(LAST_SETUP_CRC32, crc32);
    }
    
+   // The key of a chunk's result: a hash of its code and options and of the
+   // key of the chunk before it (so that a change to a chunk also changes
+   // the keys of all the chunks after it), prefixed with the session ID so
+   // that results from another session never match. The key of the chunk
+   // before is the one it's about to run with if it's waiting to run, and
+   // otherwise the one it last ran with.
+   private String chunkResultKey(Scope chunk, String code, String options)
+   {
+      Scope previous = null;
+      JsArray<Scope> scopes = docDisplay_.getScopeTree();
+      for (int i = 0; i < scopes.length(); i++)
+      {
+         Scope scope = scopes.get(i);
+         if (!scope.isChunk() || 
+             scope.getEnd().getRow() >= chunk.getPreamble().getRow())
+            continue;
+         previous = scope;
+      }
+      
+      String previousKey = "";
+      String previousId = previous == null ? null : chunkIdForScope(previous);
+      if (previousId != null)
+      {
+         if (pendingResultKeys_.containsKey(previousId))
+            previousKey = pendingResultKeys_.get(previousId);
+         else if (resultKeys_.containsKey(previousId))
+            previousKey = resultKeys_.get(previousId);
+      }
+      
+      return session_.getSessionInfo().getSessionId() + 
+             StringUtil.crc32(previousKey + "\n" + options + "\n" + code);
+   }
+   
+   private String chunkIdForScope(Scope scope)
+   {
+      if (isSetupChunkScope(scope))
+         return SETUP_CHUNK_ID;
+      LineWidget widget = docDisplay_.getLineWidgetForRow(
+            scope.getEnd().getRow());
+      if (widget == null || 
+          !widget.getType().equals(ChunkDefinition.LINE_WIDGET_TYPE))
+         return null;
+      ChunkDefinition def = widget.getData();
+      return def == null ? null : def.getChunkId();
+   }
+   
+   private void restoreChunkOutput(String chunkId)
+   {
+      if (loadedChunkIds_.contains(chunkId) || 
+          !lineWidgets_.containsKey(chunkId))
+         return;
+      
+      ArrayList<String> chunkIds = new ArrayList<String>();
+      chunkIds.add(chunkId);
+      loadedChunkIds_.add(chunkId);
+      server_.refreshChunkOutput(
+            docUpdateSentinel_.getPath(),
+            docUpdateSentinel_.getId(), 
+            contextId_,
+            Integer.toHexString(nextRequestId_++), 
+            chunkIds,
+            new VoidServerRequestCallback());
+   }
+   
+   // result keys are stored with the document as "chunkId=key" lines
+   private void readResultKeys()
+   {
+      resultKeys_.clear();
+      String keys = docUpdateSentinel_.getProperty(CHUNK_RESULT_KEYS);
+      if (StringUtil.isNullOrEmpty(keys))
+         return;
+      for (String line: keys.split("\n"))
+      {
+         int idx = line.indexOf('=');
+         if (idx > 0)
+            resultKeys_.put(line.substring(0, idx), line.substring(idx + 1));
+      }
+   }
+   
+   // result keys change as each chunk runs, so rather than writing them
+   // with the document each time we write them once chunks stop running
+   private void markResultKeysDirty()
+   {
+      resultKeysDirty_ = true;
+      resultKeysTimer_.schedule(RESULT_KEYS_WRITE_DELAY_MS);
+   }
+   
+   private boolean isChunkExecuting()
+   {
+      return executingChunk_ != null || 
+             !chunkExecQueue_.isEmpty() ||
+             isBatchExecuting();
+   }
+   
+   private void writeResultKeys()
+   {
+      resultKeysDirty_ = false;
+      StringBuilder keys = new StringBuilder();
+      for (Map.Entry<String, String> entry: resultKeys_.entrySet())
+      {
+         keys.append(entry.getKey()).append('=')
+             .append(entry.getValue()).append('\n');
+      }
+      docUpdateSentinel_.setProperty(CHUNK_RESULT_KEYS, keys.toString());
+   }
+   
    private void syncLineWidgets()
    {
       // no work to do if we don't have any output widgets
@@ -861,14 +1321,58 @@ public class TextEditingTargetNotebook
       {
          lineWidgets_.remove(chunkId);
          outputWidgets_.remove(chunkId);
+         loadedChunkIds_.remove(chunkId);
       }
    }
    
    private JsArray<ChunkDefinition> initialChunkDefs_;
    private HashMap<String, ChunkOutputWidget> outputWidgets_;
    private HashMap<String, LineWidget> lineWidgets_;
+   
+   // chunks whose output is shown (or has been requested from the server)
+   private final Set<String> loadedChunkIds_ = new HashSet<String>();
+   private final Timer viewportTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         syncViewport();
+      }
+   };
+   private final Timer resultKeysTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (!resultKeysDirty_)
+            return;
+         
+         if (isChunkExecuting())
+            schedule(RESULT_KEYS_WRITE_DELAY_MS);
+         else
+            writeResultKeys();
+      }
+   };
    private Queue<ChunkExecQueueUnit> chunkExecQueue_;
    private ChunkExecQueueUnit executingChunk_;
+   private boolean chunkExecQueueScheduled_ = false;
+   
+   // keys of the results shown by each chunk, and of the results which
+   // chunks waiting to run (or running) will produce
+   private final HashMap<String, String> resultKeys_ = 
+         new HashMap<String, String>();
+   private final HashMap<String, String> pendingResultKeys_ = 
+         new HashMap<String, String>();
+   private boolean resultKeysDirty_ = false;
+   
+   // chunks handed to the server to run, by ID; along with the chunk the
+   // server is running and those it has queued (as of its last
+   // RmdChunkExecStartedEvent), and those we've sent it since
+   private final HashMap<String, ChunkExecQueueUnit> batchUnits_ = 
+         new HashMap<String, ChunkExecQueueUnit>();
+   private final ArrayList<String> batchQueued_ = new ArrayList<String>();
+   private final HashSet<String> batchUnconfirmed_ = new HashSet<String>();
+   private String batchRunning_;
    
    private final DocDisplay docDisplay_;
    private final DocUpdateSentinel docUpdateSentinel_;
@@ -904,6 +1408,13 @@ public class TextEditingTargetNotebook
    // chunk state synchronized
    private final static int STATE_INITIALIZED = 0;
    
+   // output is loaded for chunks within this many screens of the viewport,
+   // and plots and HTML are unloaded beyond the second distance
+   private final static int VIEWPORT_LOAD_SCREENS = 1;
+   private final static int VIEWPORT_UNLOAD_SCREENS = 4;
+   private final static int VIEWPORT_SYNC_DELAY_MS = 250;
+   private final static int RESULT_KEYS_WRITE_DELAY_MS = 1000;
+   
    public final static int MIN_CHUNK_HEIGHT = 10;
    public final static int MAX_CHUNK_HEIGHT = 650;
    
@@ -912,5 +1423,6 @@ public class TextEditingTargetNotebook
    public final static String CHUNK_OUTPUT_CONSOLE = "console";
    
    private final static String LAST_SETUP_CRC32 = "last_setup_crc32";
+   private final static String CHUNK_RESULT_KEYS = "chunk_result_keys";
    private final static String SETUP_CHUNK_ID = "csetup_chunk";
 }
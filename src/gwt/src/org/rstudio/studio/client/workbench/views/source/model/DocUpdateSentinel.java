@@ -20,6 +20,9 @@ import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONString;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.Window.ClosingEvent;
@@ -43,7 +46,10 @@ import org.rstudio.studio.client.workbench.events.LastChanceSaveHandler;
 import org.rstudio.studio.client.workbench.model.ChangeTracker;
 import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
 import org.rstudio.studio.client.workbench.views.source.editors.text.Fold;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.VimMarks;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.FoldChangeEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.SourceOnSaveChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.ChunkDefinition;
@@ -51,6 +57,7 @@ import org.rstudio.studio.client.workbench.views.source.events.SaveFailedEvent;
 import org.rstudio.studio.client.workbench.views.source.events.SaveFileEvent;
 import org.rstudio.studio.client.workbench.views.source.events.SaveInitiatedEvent;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -76,6 +83,10 @@ public class DocUpdateSentinel
          sourceDoc_ = response;
          docDisplay_.setCode(sourceDoc_.getContents(), true);
          dirtyState_.markClean();
+         
+         // the editor now matches the contents we were sent, so subsequent
+         // saves diff against those until the next successful save
+         resetDeltas(false);
 
          if (progress_ != null)
             progress_.onCompleted();
@@ -128,6 +139,15 @@ public class DocUpdateSentinel
 
       docDisplay_.addValueChangeHandler(this);
       docDisplay_.addFoldChangeHandler(this);
+      docChangedHandlerReg_ = docDisplay_.addDocumentChangedHandler(
+            new DocumentChangedEvent.Handler()
+            {
+               @Override
+               public void onDocumentChanged(DocumentChangedEvent event)
+               {
+                  recordDelta(event.getEvent());
+               }
+            });
 
       // Web only
       closeHandlerReg_ = Window.addWindowClosingHandler(new ClosingHandler()
@@ -348,8 +368,6 @@ public class DocUpdateSentinel
          actually sent to the server. */
       final ChangeTracker thisChangeTracker = changeTracker_.fork();
 
-      final String newContents = docDisplay_.getCode();
-      String oldContents = sourceDoc_.getContents();
       final String hash = sourceDoc_.getHash();
 
       final String foldSpec = Fold.encode(Fold.flatten(docDisplay_.getFolds()));
@@ -358,12 +376,50 @@ public class DocUpdateSentinel
       final JsArray<ChunkDefinition> newChunkDefs = docDisplay_.getChunkDefs();
       JsArray<ChunkDefinition> oldChunkDefs = sourceDoc_.getChunkDefs();
       
-      //String patch = DiffMatchPatch.diff(oldContents, newContents);
-      SubstringDiff diff = new SubstringDiff(oldContents, newContents);
+      // If the server's copy of the document is known to match the editor
+      // as of the last save, we just send the edits made since then; 
+      // otherwise we need the full contents (which we diff against the 
+      // contents we were opened with, if we still have them)
+      String newContents = null;
+      ArrayList<JSONArray> deltas = null;
+      SubstringDiff diff = null;
+      boolean unchanged;
+      if (trackingDeltas_)
+      {
+         deltas = pendingDeltas_;
+         unchanged = deltas.isEmpty();
+      }
+      else
+      {
+         newContents = docDisplay_.getCode();
+         String oldContents = sourceDoc_.getContents();
+         if (oldContents != null)
+         {
+            diff = new SubstringDiff(oldContents, newContents);
+            unchanged = diff.isEmpty();
+            
+            if (path == null && fileType == null
+                && oldContents.length() == 0
+                && newContents.equals("\n"))
+            {
+               // This is necessary due to us adding an extra \n to empty
+               // documents, which we have to do or else CodeMirror starts
+               // acting funny. If we add the extra \n but don't do this
+               // check, then reloading the browser causes empty documents
+               // to appear dirty.
+               changesPending_ = false;
+               return false;
+            }
+         }
+         else
+         {
+            unchanged = false;
+         }
+      }
 
       // Don't auto-save when there are no changes. In addition to being
       // wasteful, it causes the server to think the document is dirty.
-      if (path == null && fileType == null && diff.isEmpty()
+      if (path == null && fileType == null && unchanged
           && foldSpec.equals(oldFoldSpec) 
           && (newChunkDefs == null || 
               ChunkDefinition.equalTo(newChunkDefs, oldChunkDefs)))
@@ -371,20 +427,9 @@ public class DocUpdateSentinel
          changesPending_ = false;
          return false;
       }
-
-      if (path == null && fileType == null
-          && oldContents.length() == 0
-          && newContents.equals("\n"))
-      {
-         // This is necessary due to us adding an extra \n to empty
-         // documents, which we have to do or else CodeMirror starts
-         // acting funny. If we add the extra \n but don't do this
-         // check, then reloading the browser causes empty documents
-         // to appear dirty.
-         changesPending_ = false;
-         return false;
-      }
       
+      // edits made from here on are relative to what we're about to send
+      resetDeltas(trackingDeltas_);
 
       try
       {
@@ -398,101 +443,249 @@ public class DocUpdateSentinel
          Debug.logException(e);
       }
 
-      server_.saveDocumentDiff(
-            sourceDoc_.getId(),
-            path,
-            fileType,
-            encoding,
-            foldSpec,
-            newChunkDefs,
-            diff.getReplacement(),
-            diff.getOffset(),
-            diff.getLength(),
-            hash,
-            new ServerRequestCallback<String>()
-            {
-               @Override
-               public void onError(ServerError error)
-               {
-                  Debug.logError(error);
-                  if (progress != null)
-                     progress.onError(error.getUserMessage());
-                  try
-                  {
-                     if (path != null)
-                     {
-                        eventBus_.fireEvent(new SaveFailedEvent(path, getId()));
-                     }
-                  }
-                  catch(Exception e)
-                  {
-                     Debug.logException(e);
-                  }
-                  changesPending_ = false;
-               }
-
-               @Override
-               public void onResponseReceived(String newHash)
-               {
-                  if (newHash != null)
-                  {
-                     // If the document hasn't changed further since the version
-                     // we saved, then we know we're all synced up.
-                     try
-                     {
-                        if (!thisChangeTracker.hasChanged())
-                           changeTracker_.reset();
-                        
-                        // update the foldSpec and newChunkDefs so we 
-                        // can use them for change detection the next
-                        // time around
-                        sourceDoc_.setFoldSpec(foldSpec);
-                        sourceDoc_.setChunkDefs(newChunkDefs);
-                        
-                        onSuccessfulUpdate(newContents,
-                                           newHash,
-                                           path,
-                                           fileType,
-                                           encoding);
-                     }
-                     catch(Exception ex)
-                     {
-                        // log exception, but continue (we want to guarantee the
-                        // progress indicator is updated)
-                        Debug.log("Exception in post-save update " + path + 
-                                  " to " + newHash + ": " + ex.getMessage());
-                     }
-                     if (progress != null)
-                        progress.onCompleted();
-                     
-                     // let anyone interested know we just saved 
-                     eventBus_.fireEvent(new SaveFileEvent());
-                  }
-                  else if (!hash.equals(sourceDoc_.getHash()))
-                  {
-                     // We just hit a race condition where two updates
-                     // happened at once. Try again
-                     doSave(path, fileType, encoding, progress);
-                  }
-                  else
-                  {
-                     /*Debug.log("Diff-based save failed--falling back to " +
-                               "snapshot save");*/
-                     server_.saveDocument(
-                           sourceDoc_.getId(),
-                           path,
-                           fileType,
-                           encoding,
-                           foldSpec,
-                           newChunkDefs,
-                           newContents,
-                           this);
-                  }
-               }
-            });
+      SaveCallback callback = new SaveCallback(path,
+                                               fileType,
+                                               encoding,
+                                               foldSpec,
+                                               newChunkDefs,
+                                               hash,
+                                               newContents,
+                                               deltas,
+                                               thisChangeTracker,
+                                               progress);
+      if (deltas != null)
+      {
+         JSONArray deltaArray = new JSONArray();
+         for (int i = 0; i < deltas.size(); i++)
+            deltaArray.set(i, deltas.get(i));
+
+         server_.saveDocumentDeltas(
+               sourceDoc_.getId(),
+               path,
+               fileType,
+               encoding,
+               foldSpec,
+               newChunkDefs,
+               deltaArray,
+               docDisplay_.getRowCount(),
+               hash,
+               callback);
+      }
+      else if (diff != null)
+      {
+         server_.saveDocumentDiff(
+               sourceDoc_.getId(),
+               path,
+               fileType,
+               encoding,
+               foldSpec,
+               newChunkDefs,
+               diff.getReplacement(),
+               diff.getOffset(),
+               diff.getLength(),
+               hash,
+               callback);
+      }
+      else
+      {
+         server_.saveDocument(
+               sourceDoc_.getId(),
+               path,
+               fileType,
+               encoding,
+               foldSpec,
+               newChunkDefs,
+               newContents,
+               callback);
+      }
 
       return true;
    }
+   
+   private class SaveCallback extends ServerRequestCallback<String>
+   {
+      public SaveCallback(String path,
+                          String fileType,
+                          String encoding,
+                          String foldSpec,
+                          JsArray<ChunkDefinition> chunkDefs,
+                          String hash,
+                          String contents,
+                          ArrayList<JSONArray> deltas,
+                          ChangeTracker changeTracker,
+                          ProgressIndicator progress)
+      {
+         path_ = path;
+         fileType_ = fileType;
+         encoding_ = encoding;
+         foldSpec_ = foldSpec;
+         chunkDefs_ = chunkDefs;
+         hash_ = hash;
+         contents_ = contents;
+         deltas_ = deltas;
+         changeTracker_ = changeTracker;
+         progress_ = progress;
+      }
+      
+      @Override
+      public void onError(ServerError error)
+      {
+         Debug.logError(error);
+         if (progress_ != null)
+            progress_.onError(error.getUserMessage());
+         try
+         {
+            if (path_ != null)
+            {
+               eventBus_.fireEvent(new SaveFailedEvent(path_, getId()));
+            }
+         }
+         catch(Exception e)
+         {
+            Debug.logException(e);
+         }
+         restoreDeltas(deltas_);
+         changesPending_ = false;
+      }
+
+      @Override
+      public void onResponseReceived(String newHash)
+      {
+         if (newHash != null)
+         {
+            // If the document hasn't changed further since the version
+            // we saved, then we know we're all synced up.
+            try
+            {
+               if (!changeTracker_.hasChanged())
+                  DocUpdateSentinel.this.changeTracker_.reset();
+               
+               // update the foldSpec and newChunkDefs so we 
+               // can use them for change detection the next
+               // time around
+               sourceDoc_.setFoldSpec(foldSpec_);
+               sourceDoc_.setChunkDefs(chunkDefs_);
+               
+               onSuccessfulUpdate(contents_,
+                                  newHash,
+                                  path_,
+                                  fileType_,
+                                  encoding_);
+            }
+            catch(Exception ex)
+            {
+               // log exception, but continue (we want to guarantee the
+               // progress indicator is updated)
+               Debug.log("Exception in post-save update " + path_ + 
+                         " to " + newHash + ": " + ex.getMessage());
+            }
+            if (progress_ != null)
+               progress_.onCompleted();
+            
+            // let anyone interested know we just saved 
+            eventBus_.fireEvent(new SaveFileEvent());
+         }
+         else if (!hash_.equals(sourceDoc_.getHash()))
+         {
+            // We just hit a race condition where two updates
+            // happened at once. Try again
+            restoreDeltas(deltas_);
+            doSave(path_, fileType_, encoding_, progress_);
+         }
+         else
+         {
+            /*Debug.log("Diff-based save failed--falling back to " +
+                      "snapshot save");*/
+            String contents = contents_;
+            if (contents == null)
+            {
+               contents = docDisplay_.getCode();
+               resetDeltas(true);
+            }
+            server_.saveDocument(
+                  sourceDoc_.getId(),
+                  path_,
+                  fileType_,
+                  encoding_,
+                  foldSpec_,
+                  chunkDefs_,
+                  contents,
+                  new SaveCallback(path_,
+                                   fileType_,
+                                   encoding_,
+                                   foldSpec_,
+                                   chunkDefs_,
+                                   hash_,
+                                   contents,
+                                   null,
+                                   changeTracker_,
+                                   progress_));
+         }
+      }
+      
+      private final String path_;
+      private final String fileType_;
+      private final String encoding_;
+      private final String foldSpec_;
+      private final JsArray<ChunkDefinition> chunkDefs_;
+      private final String hash_;
+      private final String contents_;
+      private final ArrayList<JSONArray> deltas_;
+      private final ChangeTracker changeTracker_;
+      private final ProgressIndicator progress_;
+   }
+   
+   // Records an edit made in the editor, as a delta in the form expected by
+   // save_document_diff ([action, startRow, startColumn, endRow, endColumn,
+   // text]).
+   private void recordDelta(AceDocumentChangeEventNative event)
+   {
+      if (pendingDeltas_.size() >= MAX_PENDING_DELTAS)
+      {
+         // too many edits to be worth sending individually; fall back to
+         // sending the full contents next time
+         pendingDeltas_.clear();
+         deltasOverflowed_ = true;
+         trackingDeltas_ = false;
+      }
+      if (deltasOverflowed_)
+         return;
+      
+      boolean insert = event.getAction().startsWith("insert");
+      Range range = event.getRange();
+      JSONArray delta = new JSONArray();
+      delta.set(0, new JSONString(insert ? "i" : "r"));
+      delta.set(1, new JSONNumber(range.getStart().getRow()));
+      delta.set(2, new JSONNumber(range.getStart().getColumn()));
+      delta.set(3, new JSONNumber(range.getEnd().getRow()));
+      delta.set(4, new JSONNumber(range.getEnd().getColumn()));
+      delta.set(5, new JSONString(insert ? event.getInsertedText() : ""));
+      pendingDeltas_.add(delta);
+   }
+   
+   // Starts a new list of deltas, relative to the editor's current contents.
+   // (trackingDeltas indicates whether the server will have those contents
+   // once any save in progress completes.)
+   private void resetDeltas(boolean trackingDeltas)
+   {
+      pendingDeltas_ = new ArrayList<JSONArray>();
+      deltasOverflowed_ = false;
+      trackingDeltas_ = trackingDeltas;
+   }
+   
+   // Called when a save fails: puts back the deltas it sent, ahead of any
+   // made since. If it sent the full contents instead, the deltas we have
+   // are relative to contents the server doesn't have, so stop using them.
+   private void restoreDeltas(ArrayList<JSONArray> deltas)
+   {
+      if (deltas == null)
+         trackingDeltas_ = false;
+      
+      if (!trackingDeltas_ || deltasOverflowed_)
+         return;
+      deltas.addAll(pendingDeltas_);
+      pendingDeltas_ = deltas;
+   }
 
    private void onSuccessfulUpdate(String contents,
                                    String hash,
@@ -501,8 +694,20 @@ public class DocUpdateSentinel
                                    String encoding)
    {
       changesPending_ = false;
-      sourceDoc_.setContents(contents);
       sourceDoc_.setHash(hash);
+      
+      // Once the server has our contents we can send just the edits made 
+      // from here on, so there's no need to hang on to a copy of the
+      // contents to diff against.
+      if (!deltasOverflowed_)
+      {
+         trackingDeltas_ = true;
+         sourceDoc_.setContents(null);
+      }
+      else if (contents != null)
+      {
+         sourceDoc_.setContents(contents);
+      }
       if (path != null)
       {
          sourceDoc_.setDirty(false);
@@ -665,7 +870,10 @@ public class DocUpdateSentinel
    
    public String getContents()
    {
-      return sourceDoc_.getContents();
+      // we don't keep a copy of the contents when the document is in sync
+      // with the server
+      String contents = sourceDoc_.getContents();
+      return contents != null ? contents : docDisplay_.getCode();
    }
    
    public SourceDocument getDoc()
@@ -677,6 +885,7 @@ public class DocUpdateSentinel
    {
       bufferedCommand_.suspend();
       closeHandlerReg_.removeHandler();
+      docChangedHandlerReg_.removeHandler();
       lastChanceSaveHandlerReg_.removeHandler();
    }
 
@@ -738,7 +947,17 @@ public class DocUpdateSentinel
    private final EventBus eventBus_;
    private final TimeBufferedCommand bufferedCommand_;
    private final HandlerRegistration closeHandlerReg_;
+   private final HandlerRegistration docChangedHandlerReg_;
    private HandlerRegistration lastChanceSaveHandlerReg_;
    private final HashMap<String, ValueChangeHandlerManager<String>> 
                  propertyChangeHandlers_;
+   
+   // Edits made since the contents most recently sent to the server. When
+   // trackingDeltas_ is set, these are relative to the contents with 
+   // sourceDoc_'s hash (or will be, once a save in progress completes).
+   private ArrayList<JSONArray> pendingDeltas_ = new ArrayList<JSONArray>();
+   private boolean trackingDeltas_ = false;
+   private boolean deltasOverflowed_ = false;
+   
+   private static final int MAX_PENDING_DELTAS = 1000;
 }
@@ -16,6 +16,7 @@ package org.rstudio.studio.client.workbench.views.source.model;
 
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.json.client.JSONArray;
 
 import org.rstudio.core.client.js.JsObject;
 import org.rstudio.studio.client.common.codetools.CodeToolsServerOperations;
@@ -119,6 +120,24 @@ public interface SourceServerOperations extends FilesServerOperations,
                          int length,
                          String hash,
                          ServerRequestCallback<String> requestCallback);
+   
+   /**
+    * Same as saveDocumentDiff, but sends the edits made since the version
+    * with the given hash as an ordered list of deltas, each of the form
+    * [action ("i" or "r"), startRow, startColumn, endRow, endColumn, text].
+    * lineCount is the number of lines the document should have once the
+    * deltas are applied; the save fails (returning null) if it doesn't.
+    */
+   void saveDocumentDeltas(String id,
+                           String path,
+                           String fileType,
+                           String encoding,
+                           String foldSpec,
+                           JsArray<ChunkDefinition> chunkOutput,
+                           JSONArray deltas,
+                           int lineCount,
+                           String hash,
+                           ServerRequestCallback<String> requestCallback);
 
    void checkForExternalEdit(
          String id,
@@ -30,6 +30,7 @@ public class LineTablePresenter
       void clear();
       ArrayList<Line> getSelectedLines();
       ArrayList<Line> getAllLines();
+      boolean isAllSelected();
 
       void setShowActions(boolean showActions);
 
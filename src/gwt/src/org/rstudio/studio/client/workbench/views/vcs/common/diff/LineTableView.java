@@ -428,6 +428,18 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
 
    @Override
    public void setData(ArrayList<ChunkOrLine> diffData, PatchMode patchMode)
+   {
+      setData(diffData, patchMode, 0);
+   }
+
+   /**
+    * Replaces the lines, rendering at least the given number of rows (e.g.
+    * as many as were rendered before the diff was refreshed, so that the
+    * table can be scrolled back to where it was).
+    */
+   public void setData(ArrayList<ChunkOrLine> diffData,
+                       PatchMode patchMode,
+                       int minRenderedCount)
    {
       removeStyleName(RES.cellTableStyle().stageMode());
       removeStyleName(RES.cellTableStyle().workingMode());
@@ -442,11 +454,88 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       }
 
       lines_ = diffData;
-      setPageSize(diffData.size());
       selectionModel_.clear();
       firstSelectedLine_ = null;
-      setRowData(diffData);
 
+      computeBorders();
+
+      renderedCount_ = progressive_ ?
+                       Math.min(lines_.size(),
+                                Math.max(minRenderedCount,
+                                         PROGRESSIVE_ROW_COUNT)) :
+                       lines_.size();
+      setPageSize(renderedCount_);
+      setRowData(lines_.subList(0, renderedCount_));
+   }
+
+   public int getRenderedCount()
+   {
+      return renderedCount_;
+   }
+
+   /**
+    * Adds lines to the end of the table (e.g. as more of a diff is loaded),
+    * keeping the current selection.
+    */
+   public void appendData(ArrayList<ChunkOrLine> diffData)
+   {
+      if (diffData.isEmpty())
+         return;
+
+      // if all of the lines were selected then keep them all selected
+      boolean allSelected = isAllSelected();
+
+      int previousCount = lines_.size();
+      lines_.addAll(diffData);
+      computeBorders();
+
+      if (allSelected)
+      {
+         for (ChunkOrLine line : diffData)
+            selectionModel_.setSelected(line, true);
+      }
+
+      // the previous last line may have lost its end border
+      if (previousCount > 0 && previousCount <= renderedCount_)
+         refreshValue(lines_.get(previousCount - 1));
+
+      if (!progressive_ || renderedCount_ == previousCount)
+         showMoreRows();
+   }
+
+   /**
+    * Sets whether the lines are rendered progressively: only the first rows
+    * are rendered to begin with, and more are rendered as showMoreRows() is
+    * called (e.g. as the table is scrolled), so that even very long diffs
+    * can be shown immediately.
+    */
+   public void setProgressive(boolean progressive)
+   {
+      progressive_ = progressive;
+   }
+
+   /**
+    * Renders more of the lines (if there are any which aren't rendered),
+    * returning false if all of the lines were already rendered.
+    */
+   public boolean showMoreRows()
+   {
+      if (renderedCount_ >= lines_.size())
+         return false;
+
+      int previousCount = renderedCount_;
+      renderedCount_ = progressive_ ?
+                       Math.min(lines_.size(),
+                                renderedCount_ + PROGRESSIVE_ROW_COUNT) :
+                       lines_.size();
+      setPageSize(renderedCount_);
+      setRowCount(renderedCount_);
+      setRowData(previousCount, lines_.subList(previousCount, renderedCount_));
+      return true;
+   }
+
+   private void computeBorders()
+   {
       startRows_.clear();
       endRows_.clear();
 
@@ -486,7 +575,7 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    @Override
    protected boolean canSelectVisibleRow(int visibleRow)
    {
-      if (visibleRow < 0 || visibleRow >= lines_.size())
+      if (visibleRow < 0 || visibleRow >= renderedCount_)
          return false;
 
       Line line = lines_.get(visibleRow).getLine();
@@ -510,6 +599,34 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       return selected;
    }
 
+   @Override
+   public boolean isAllSelected()
+   {
+      boolean haveSelectable = false;
+      for (ChunkOrLine line : lines_)
+      {
+         if (line.getLine() == null ||
+             line.getLine().getType() == Line.Type.Same ||
+             line.getLine().getType() == Line.Type.Info)
+         {
+            continue;
+         }
+
+         if (!selectionModel_.isSelected(line))
+            return false;
+         haveSelectable = true;
+      }
+      return haveSelectable;
+   }
+
+   // selects all of the lines, including those that aren't rendered yet
+   @Override
+   protected void selectAll()
+   {
+      for (ChunkOrLine line : lines_)
+         selectionModel_.setSelected(line, true);
+   }
+
    @Override
    public ArrayList<Line> getAllLines()
    {
@@ -545,6 +662,8 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
 
    private boolean showActions_ = true;
    private ArrayList<ChunkOrLine> lines_;
+   private boolean progressive_ = false;
+   private int renderedCount_;
    private SwitchableSelectionModel<ChunkOrLine> selectionModel_;
    private HashSet<Integer> startRows_ = new HashSet<Integer>();
    private HashSet<Integer> endRows_ = new HashSet<Integer>();
@@ -552,6 +671,7 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    private boolean useEndBorder_ = true;
    // Keep explicit track of the first selected line so we can render it differently
    private ChunkOrLine firstSelectedLine_;
+   private static final int PROGRESSIVE_ROW_COUNT = 500;
    private static final LineTableViewCellTableResources RES = GWT.create(LineTableViewCellTableResources.class);
    private static final LineActionButtonRenderer blueButtonRenderer_ = LineActionButtonRenderer.createBlue();
    private static final LineActionButtonRenderer grayButtonRenderer_ = LineActionButtonRenderer.createGray();
@@ -36,6 +36,29 @@ public class UnifiedParser implements DiffParser
       return diffIndex_;
    }
 
+   /**
+    * Adds more of the diff (e.g. the next page of a diff which is being
+    * loaded a page at a time). nextChunk() returns null when it reaches the
+    * end of the data so far, and then continues with the appended data.
+    */
+   public void append(String data)
+   {
+      // drop what we've already parsed rather than letting data_ grow
+      data_ = data_.substring(Math.min(pos_, data_.length())) + data;
+      pos_ = 0;
+   }
+
+   /**
+    * Indicates whether more of the diff is still to be appended. While it
+    * is, the data so far may end partway through a chunk or a line: rather
+    * than failing, nextChunk() leaves the incomplete chunk to be parsed once
+    * the rest of it has been appended.
+    */
+   public void setPartial(boolean partial)
+   {
+      partial_ = partial;
+   }
+
    @Override
    public DiffFileHeader nextFilePair()
    {
@@ -72,8 +95,10 @@ public class UnifiedParser implements DiffParser
          return null;
 
       String line;
+      int headPos = pos_;
       while (null != (line = nextLine()) && !(line.startsWith("@@") || line.startsWith("--- ")))
       {
+         headPos = pos_;
       }
 
       if (line == null)
@@ -82,6 +107,9 @@ public class UnifiedParser implements DiffParser
       if (line.startsWith("--- "))
          return null;
 
+      // where to resume if the data ends before the chunk does
+      int chunkStart = headPos;
+      int chunkStartDiffIndex = diffIndex_;
 
       ChunkHeaderInfo chunkHeaderInfo = new ChunkHeaderParser(line).parse();
       if (chunkHeaderInfo == null)
@@ -111,7 +139,11 @@ public class UnifiedParser implements DiffParser
       {
          String diffLine = nextLine();
          if (diffLine == null)
+         {
+            if (partial_)
+               return rewind(chunkStart, chunkStartDiffIndex);
             throw new DiffFormatException("Diff ended prematurely");
+         }
          if (diffLine.length() < columns)
             throw new DiffFormatException("Unexpected line format");
 
@@ -181,9 +213,21 @@ public class UnifiedParser implements DiffParser
       if (!isZero(counts))
          throw new DiffFormatException("Diff didn't match header ranges");
 
+      // the next page could start with a comment belonging to this chunk
+      // (e.g. "\\ No newline at end of file")
+      if (partial_ && isEOD())
+         return rewind(chunkStart, chunkStartDiffIndex);
+
       return new DiffChunk(ranges, chunkHeaderInfo.extraInfo, lines, chunkDiffIndex);
    }
 
+   private DiffChunk rewind(int pos, int diffIndex)
+   {
+      pos_ = pos;
+      diffIndex_ = diffIndex;
+      return null;
+   }
+
    private boolean isNewFileLine(String nextLine)
    {
       return nextLine.startsWith("diff ") || nextLine.startsWith("Index: ");
@@ -282,6 +326,10 @@ public class UnifiedParser implements DiffParser
 
       if (i == -1)
       {
+         // the rest of the line hasn't been appended yet
+         if (partial_)
+            return null;
+
          i = data_.length();
          length = 0;
       }
@@ -301,9 +349,10 @@ public class UnifiedParser implements DiffParser
       return data_.substring(head, i);
    }
 
-   private final String data_;
+   private String data_;
    private int pos_;
    private int diffIndex_;
+   private boolean partial_;
 }
 
 
@@ -30,13 +30,12 @@ import com.google.gwt.user.cellview.client.TextColumn;
 import com.google.gwt.view.client.SelectionChangeEvent;
 import com.google.gwt.view.client.SingleSelectionModel;
 import org.rstudio.core.client.SafeHtmlUtil;
-import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.js.JsUtil;
 import org.rstudio.core.client.theme.RStudioCellTableStyle;
 import org.rstudio.core.client.widget.MultiSelectCellTable;
 import org.rstudio.studio.client.workbench.views.vcs.dialog.HistoryPanel.Styles;
 import org.rstudio.studio.client.workbench.views.vcs.dialog.HistoryPresenter.CommitListDisplay;
-import org.rstudio.studio.client.workbench.views.vcs.dialog.graph.GraphLine;
+import org.rstudio.studio.client.workbench.views.vcs.dialog.graph.GraphLineCache;
 import org.rstudio.studio.client.workbench.views.vcs.dialog.graph.GraphTheme;
 
 import java.util.List;
@@ -88,9 +87,9 @@ public class CommitListTable extends MultiSelectCellTable<CommitInfo>
    @SuppressWarnings("unused")
    private class GraphAndSubjectRenderer implements SafeHtmlRenderer<CommitInfo>
    {
-      private GraphAndSubjectRenderer(GraphTheme theme)
+      private GraphAndSubjectRenderer(GraphLineCache graphCache)
       {
-         graphRenderer_ = new GraphRenderer(theme);
+         graphRenderer_ = new GraphRenderer(graphCache);
          subjectRenderer_ = new SubjectRenderer();
       }
 
@@ -113,21 +112,15 @@ public class CommitListTable extends MultiSelectCellTable<CommitInfo>
 
    private class GraphRenderer implements SafeHtmlRenderer<CommitInfo>
    {
-      public GraphRenderer(GraphTheme theme)
+      public GraphRenderer(GraphLineCache graphCache)
       {
-         theme_ = theme;
+         graphCache_ = graphCache;
       }
 
       @Override
       public SafeHtml render(CommitInfo object)
       {
-         if (lastGraphImg_ != null && object.getGraph().equals(lastGraph_))
-            return lastGraphImg_;
-
-         lastGraph_ = object.getGraph();
-         if (object.getGraph().length() == 0)
-            return lastGraphImg_ = SafeHtmlUtil.createEmpty();
-         return lastGraphImg_ = new GraphLine(object.getGraph()).render(theme_);
+         return graphCache_.render(object.getGraph());
       }
 
       @Override
@@ -136,9 +129,7 @@ public class CommitListTable extends MultiSelectCellTable<CommitInfo>
          builder.append(render(object));
       }
 
-      private final GraphTheme theme_;
-      private String lastGraph_ = "";
-      private SafeHtml lastGraphImg_;
+      private final GraphLineCache graphCache_;
    }
 
    private class SubjectRenderer implements SafeHtmlRenderer<CommitInfo>
@@ -193,8 +184,9 @@ public class CommitListTable extends MultiSelectCellTable<CommitInfo>
             GWT.<Resources>create(Resources.class));
       styles_ = styles;
 
-      graphTheme_ = new GraphTheme(styles.graphLineImg());
-      graphCol_ = new CommitColumn(new GraphRenderer(graphTheme_));
+      graphCache_ = new GraphLineCache(
+                                 new GraphTheme(styles.graphLineImg()));
+      graphCol_ = new CommitColumn(new GraphRenderer(graphCache_));
       addColumn(graphCol_);
 
 
@@ -246,14 +238,7 @@ public class CommitListTable extends MultiSelectCellTable<CommitInfo>
    {
       int width = 0;
       for (CommitInfo commit : getVisibleItems())
-      {
-         if (!StringUtil.isNullOrEmpty(commit.getGraph()))
-         {
-            width = Math.max(
-                  width,
-                  new GraphLine(commit.getGraph()).getTotalWidth(graphTheme_));
-         }
-      }
+         width = Math.max(width, graphCache_.getTotalWidth(commit.getGraph()));
 
       if (width > 0)
          setColumnWidth(graphCol_, (width + 12) + "px");
@@ -322,6 +307,6 @@ public class CommitListTable extends MultiSelectCellTable<CommitInfo>
    private final SingleSelectionModel<CommitInfo> selectionModel_;
    private final Styles styles_;
    private CommitColumn graphCol_;
-   private GraphTheme graphTheme_;
+   private GraphLineCache graphCache_;
    private boolean autoSelectFirstRow_ = true;
 }
@@ -14,6 +14,11 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.dialog;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.user.cellview.client.AbstractHasData;
 import com.google.gwt.user.client.ui.HasValue;
 import com.google.gwt.view.client.AsyncDataProvider;
@@ -66,8 +71,41 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
    
    
 
+   public void clearCache()
+   {
+      cache_.clear();
+   }
+
+   // The count is only requested once no history is being fetched, since
+   // counting a long history can take a while and would otherwise hold up
+   // the first page of commits.
    public void refreshCount()
    {
+      countPending_ = true;
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            maybeRequestCount();
+         }
+      });
+   }
+
+   private void maybeRequestCount()
+   {
+      if (!countPending_ || historyRequests_ > 0)
+         return;
+      countPending_ = false;
+
+      final int request = ++countRequest_;
+      final HistoryCache.History history = getCachedHistory();
+      if (history.getCount() >= 0)
+      {
+         updateRowCount(history.getCount(), true);
+         return;
+      }
+
       getHistoryCount(
             rev_, 
             fileFilter_.getValue(), 
@@ -77,7 +115,11 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
          @Override
          public void onResponseReceived(CommitCount response)
          {
-            updateRowCount(response.getCount(), true);
+            history.setCount(response.getCount());
+            if (history == getCachedHistory())
+               updateRowCount(response.getCount(), true);
+            else if (request == countRequest_ && !countPending_)
+               refreshCount();
          }
 
          @Override
@@ -98,6 +140,18 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
       if (length == 0)
          return;
 
+      final HistoryCache.History history = getCachedHistory();
+      List<CommitInfo> cached = history.getCommits(start, length);
+      if (cached != null)
+      {
+         if (cached.size() < length && history.getCount() >= 0)
+            updateRowCount(history.getCount(), true);
+         updateRowData(start, cached);
+         return;
+      }
+
+      historyRequests_++;
+      final int request = ++rangeRequest_;
       getHistory(
             rev_, fileFilter_.getValue(),
             start, length, searchText_.getValue(),
@@ -107,14 +161,33 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
                public void onResponseReceived(RpcObjectList<CommitInfo> response)
                {
                   super.onResponseReceived(response);
+                  historyRequests_--;
+
+                  ArrayList<CommitInfo> commits = response.toArrayList();
+                  history.putCommits(start, commits);
                   if (response.length() < length)
-                     updateRowCount(start + response.length(), true);
-                  updateRowData(start, response.toArrayList());
+                     history.setCount(start + response.length());
+
+                  if (history == getCachedHistory())
+                  {
+                     if (response.length() < length)
+                        updateRowCount(start + response.length(), true);
+                     updateRowData(start, commits);
+                  }
+                  else if (request == rangeRequest_)
+                  {
+                     // the cache was cleared (e.g. by a commit or pull) while
+                     // this was in flight and nothing has asked for the
+                     // range since, so fetch it again from the new history
+                     onRangeChanged(display);
+                  }
+                  maybeRequestCount();
                }
 
                @Override
                public void onError(ServerError error)
                {
+                  historyRequests_--;
                   if (display instanceof AbstractHasData)
                   {
                      display.setVisibleRangeAndClearData(new Range(start, 0), true);
@@ -123,10 +196,16 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
                      super.onError(error);
                   else
                      Debug.logError(error);
+                  maybeRequestCount();
                }
             });
    }
 
+   private HistoryCache.History getCachedHistory()
+   {
+      return cache_.get(rev_, fileFilter_.getValue(), searchText_.getValue());
+   }
+
    protected abstract void getHistoryCount(
          String revision,
          FileSystemItem fileFilter,
@@ -145,4 +224,9 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
    private HasValue<String> searchText_;
    private HasValue<FileSystemItem> fileFilter_;
    private HistoryStrategy strategy_;
+   private final HistoryCache cache_ = new HistoryCache();
+   private int historyRequests_ = 0;
+   private int rangeRequest_ = 0;
+   private int countRequest_ = 0;
+   private boolean countPending_ = false;
 }
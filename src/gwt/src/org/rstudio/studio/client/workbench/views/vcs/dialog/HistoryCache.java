@@ -0,0 +1,104 @@
+/*
+ * HistoryCache.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.dialog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.core.client.files.FileSystemItem;
+
+// Commits (and commit counts) already fetched for recently viewed histories,
+// keyed by revision, file filter and search text, so that paging back or
+// returning to a previous filter doesn't go back to the server.
+class HistoryCache
+{
+   public static class History
+   {
+      // returns the commits in the given range, or null if any of them
+      // haven't been fetched
+      public List<CommitInfo> getCommits(int start, int length)
+      {
+         int end = start + length;
+         if (count_ >= 0)
+            end = Math.min(end, count_);
+
+         ArrayList<CommitInfo> commits = new ArrayList<CommitInfo>();
+         for (int i = start; i < end; i++)
+         {
+            CommitInfo commit = commits_.get(i);
+            if (commit == null)
+               return null;
+            commits.add(commit);
+         }
+         return commits;
+      }
+
+      public void putCommits(int start, List<CommitInfo> commits)
+      {
+         for (int i = 0; i < commits.size(); i++)
+            commits_.put(start + i, commits.get(i));
+      }
+
+      public int getCount()
+      {
+         return count_;
+      }
+
+      public void setCount(int count)
+      {
+         count_ = count;
+      }
+
+      private final HashMap<Integer, CommitInfo> commits_ =
+                                          new HashMap<Integer, CommitInfo>();
+      private int count_ = -1;
+   }
+
+   public History get(String rev, FileSystemItem fileFilter, String searchText)
+   {
+      String key = rev + "\n" +
+                   (fileFilter == null ? "" : fileFilter.getPath()) + "\n" +
+                   searchText;
+
+      History history = histories_.get(key);
+      if (history == null)
+      {
+         history = new History();
+         histories_.put(key, history);
+      }
+      return history;
+   }
+
+   public void clear()
+   {
+      histories_.clear();
+   }
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, History> histories_ =
+         new LinkedHashMap<String, History>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, History> eldest)
+      {
+         return size() > MAX_HISTORIES;
+      }
+   };
+
+   private static final int MAX_HISTORIES = 8;
+}
@@ -52,6 +52,8 @@ import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.views.vcs.common.diff.DiffParser;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.SwitchViewEvent;
+import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
+import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshHandler;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.ViewFileRevisionEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.ViewFileRevisionHandler;
 import org.rstudio.studio.client.workbench.views.vcs.git.dialog.GitHistoryStrategy;
@@ -146,6 +148,18 @@ public class HistoryPresenter
       view_.getCommitList().setAutoSelectFirstRow(
                                              strategy_.getAutoSelectFirstRow());
 
+      // commits, pulls, etc. make the commits we've fetched stale (changes
+      // to the working tree don't)
+      strategy_.addVcsRefreshHandler(new VcsRefreshHandler()
+      {
+         @Override
+         public void onVcsRefresh(VcsRefreshEvent event)
+         {
+            if (event.getReason() != VcsRefreshEvent.Reason.FileChange)
+               strategy_.clearHistoryCache();
+         }
+      });
+
       if (strategy_.isBranchingSupported())
       {
          view_.addBranchChangedHandler(new ValueChangeHandler<String>() {
@@ -194,6 +208,7 @@ public class HistoryPresenter
          @Override
          public void onClick(ClickEvent event)
          {
+            strategy_.clearHistoryCache();
             refreshHistory();
          }
       });
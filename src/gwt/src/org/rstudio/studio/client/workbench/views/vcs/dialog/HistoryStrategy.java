@@ -57,6 +57,9 @@ public interface HistoryStrategy
 
    void refreshCount();
 
+   // forget the commits fetched so far (e.g. because the history changed)
+   void clearHistoryCache();
+
    void initializeHistory(HasData<CommitInfo> dataDisplay);
 
    AbstractPager getPager();
@@ -0,0 +1,94 @@
+/*
+ * GraphLineCache.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.dialog.graph;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gwt.safehtml.shared.SafeHtml;
+import org.rstudio.core.client.SafeHtmlUtil;
+
+// Lays out and renders each distinct graph line once. Graph lines repeat a
+// great deal (every commit on a stretch of linear history has the same
+// line), so as pages of commits arrive only the lines we haven't seen
+// before need to be parsed, measured and drawn.
+public class GraphLineCache
+{
+   public GraphLineCache(GraphTheme theme)
+   {
+      theme_ = theme;
+   }
+
+   public int getTotalWidth(String graph)
+   {
+      if (graph.length() == 0)
+         return 0;
+
+      Entry entry = get(graph);
+      if (entry.width < 0)
+         entry.width = entry.line.getTotalWidth(theme_);
+      return entry.width;
+   }
+
+   public SafeHtml render(String graph)
+   {
+      if (graph.length() == 0)
+         return SafeHtmlUtil.createEmpty();
+
+      Entry entry = get(graph);
+      if (entry.html == null)
+         entry.html = entry.line.render(theme_);
+      return entry.html;
+   }
+
+   private Entry get(String graph)
+   {
+      Entry entry = entries_.get(graph);
+      if (entry == null)
+      {
+         entry = new Entry(new GraphLine(graph));
+         entries_.put(graph, entry);
+      }
+      return entry;
+   }
+
+   private static class Entry
+   {
+      Entry(GraphLine line)
+      {
+         this.line = line;
+      }
+
+      final GraphLine line;
+      int width = -1;
+      SafeHtml html;
+   }
+
+   private final GraphTheme theme_;
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, Entry> entries_ =
+         new LinkedHashMap<String, Entry>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(
+            Map.Entry<String, GraphLineCache.Entry> eldest)
+      {
+         return size() > MAX_ENTRIES;
+      }
+   };
+
+   private static final int MAX_ENTRIES = 2000;
+}
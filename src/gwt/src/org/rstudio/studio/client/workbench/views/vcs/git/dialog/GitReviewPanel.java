@@ -219,6 +219,7 @@ public class GitReviewPanel extends ResizeComposite implements Display
       changelist_ = changelist.getView();
       lines_ = diffPane;
       lines_.getElement().setTabIndex(-1);
+      lines_.setProgressive(true);
 
       overrideSizeWarning_ = new SizeWarningWidget("diff");
 
@@ -229,6 +230,15 @@ public class GitReviewPanel extends ResizeComposite implements Display
 
       topToolbar_.addStyleName(RES.styles().toolbar());
 
+      diffScroll_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            showMoreLinesIfNeeded();
+         }
+      });
+
       switchViewButton_ = new LeftRightToggleButton("Changes", "History", true);
       topToolbar_.addLeftWidget(switchViewButton_);
 
@@ -460,10 +470,52 @@ public class GitReviewPanel extends ResizeComposite implements Display
       int vscroll = diffScroll_.getVerticalScrollPosition();
       int hscroll = diffScroll_.getHorizontalScrollPosition();
 
-      getLineTableDisplay().setData(lines, patchMode);
+      // render as many rows as before so the scroll position can be
+      // restored (a different file starts out cleared)
+      lines_.setData(lines, patchMode, lines_.getRenderedCount());
 
       diffScroll_.setVerticalScrollPosition(vscroll);
       diffScroll_.setHorizontalScrollPosition(hscroll);
+      showMoreLinesIfNeeded();
+   }
+
+   @Override
+   public void appendData(ArrayList<ChunkOrLine> lines)
+   {
+      lines_.appendData(lines);
+      showMoreLinesIfNeeded();
+   }
+
+   @Override
+   public void setLoadMoreDiffCommand(Command command)
+   {
+      loadMoreDiffCommand_ = command;
+   }
+
+   // renders more of the diff (loading more of it if all of what's been
+   // loaded is already rendered) when it's scrolled to within a screen of
+   // the end
+   private void showMoreLinesIfNeeded()
+   {
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            if (diffScroll_.getWidget() != lines_)
+               return;
+
+            int remaining = diffScroll_.getMaximumVerticalScrollPosition() -
+                            diffScroll_.getVerticalScrollPosition();
+            if (remaining > diffScroll_.getOffsetHeight())
+               return;
+
+            if (lines_.showMoreRows())
+               showMoreLinesIfNeeded();
+            else if (loadMoreDiffCommand_ != null)
+               loadMoreDiffCommand_.execute();
+         }
+      });
    }
 
    @Override
@@ -649,6 +701,7 @@ public class GitReviewPanel extends ResizeComposite implements Display
    RadioButton unstagedCheckBox_;
    @UiField(provided = true)
    LineTableView lines_;
+   private Command loadMoreDiffCommand_;
    @UiField
    ListBox contextLines_;
    @UiField
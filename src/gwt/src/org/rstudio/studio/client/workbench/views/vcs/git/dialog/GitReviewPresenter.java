@@ -47,7 +47,7 @@ import org.rstudio.studio.client.common.SimpleRequestCallback;
 import org.rstudio.studio.client.common.SuperDevMode;
 import org.rstudio.studio.client.common.console.ConsoleProcess;
 import org.rstudio.studio.client.common.console.ProcessExitEvent;
-import org.rstudio.studio.client.common.vcs.DiffResult;
+import org.rstudio.studio.client.common.vcs.DiffPage;
 import org.rstudio.studio.client.common.vcs.GitServerOperations;
 import org.rstudio.studio.client.common.vcs.GitServerOperations.PatchMode;
 import org.rstudio.studio.client.common.vcs.StatusAndPath;
@@ -106,6 +106,8 @@ public class GitReviewPresenter implements ReviewPresenter
       HasValue<Boolean> getCommitIsAmend();
 
       void setData(ArrayList<ChunkOrLine> lines, PatchMode patchMode);
+      void appendData(ArrayList<ChunkOrLine> lines);
+      void setLoadMoreDiffCommand(Command command);
 
       HasClickHandlers getOverrideSizeWarningButton();
       void showSizeWarning(long sizeInBytes);
@@ -172,10 +174,41 @@ public class GitReviewPresenter implements ReviewPresenter
       @Override
       public void onDiffLinesAction(DiffLinesActionEvent event)
       {
+         // if every line is selected but we haven't loaded all of the diff
+         // yet then act on the whole file
+         if (nextDiffOffset_ >= 0 &&
+             view_.getLineTableDisplay().isAllSelected())
+         {
+            doFileAction(event.getAction());
+            return;
+         }
+
          ArrayList<Line> lines = view_.getLineTableDisplay().getSelectedLines();
          doPatch(event.getAction(), lines, activeChunks_);
       }
 
+      private void doFileAction(Action action)
+      {
+         ArrayList<String> paths = new ArrayList<String>();
+         paths.add(diffPath_);
+         switch (action)
+         {
+            case Stage:
+               server_.gitStage(paths, new SimpleRequestCallback<Void>("Stage"));
+               break;
+            case Unstage:
+               server_.gitUnstage(paths,
+                                  new SimpleRequestCallback<Void>("Unstage"));
+               break;
+            case Discard:
+               server_.gitDiscard(paths,
+                                  new SimpleRequestCallback<Void>("Discard"));
+               break;
+            default:
+               throw new IllegalArgumentException("Unhandled diff chunk action");
+         }
+      }
+
       private void doPatch(Action action,
                            ArrayList<Line> lines,
                            ArrayList<DiffChunk> chunks)
@@ -226,6 +259,15 @@ public class GitReviewPresenter implements ReviewPresenter
       
       binder.bind(commands, this);
 
+      view_.setLoadMoreDiffCommand(new Command()
+      {
+         @Override
+         public void execute()
+         {
+            loadMoreDiff();
+         }
+      });
+
       new WidgetHandlerRegistration(view.asWidget())
       {
          @Override
@@ -489,8 +531,9 @@ public class GitReviewPresenter implements ReviewPresenter
       view_.getLineTableDisplay().addDiffChunkActionHandler(new ApplyPatchHandler());
       view_.getLineTableDisplay().addDiffLineActionHandler(new ApplyPatchHandler());
 
-      new IntStateValue(MODULE_GIT, KEY_CONTEXT_LINES, ClientState.PERSISTENT,
-                        session.getSessionInfo().getClientState())
+      final IntStateValue contextLinesState = new IntStateValue(
+            MODULE_GIT, KEY_CONTEXT_LINES, ClientState.PERSISTENT,
+            session.getSessionInfo().getClientState())
       {
          @Override
          protected void onInit(Integer value)
@@ -504,6 +547,12 @@ public class GitReviewPresenter implements ReviewPresenter
          {
             return view_.getContextLines().getValue();
          }
+
+         @Override
+         protected boolean pollsForChanges()
+         {
+            return false;
+         }
       };
 
       view_.getContextLines().addValueChangeHandler(new ValueChangeHandler<Integer>()
@@ -511,6 +560,7 @@ public class GitReviewPresenter implements ReviewPresenter
          @Override
          public void onValueChange(ValueChangeEvent<Integer> event)
          {
+            contextLinesState.markDirty();
             updateDiff(false);
          }
       });
@@ -667,50 +717,126 @@ public class GitReviewPresenter implements ReviewPresenter
       final PatchMode patchMode = view_.getStagedCheckBox().getValue()
                                   ? PatchMode.Stage
                                   : PatchMode.Working;
-      server_.gitDiffFile(
-            item.getPath(),
-            patchMode,
-            view_.getContextLines().getValue(),
+      diffPath_ = item.getPath();
+      diffPatchMode_ = patchMode;
+      diffContextLines_ = view_.getContextLines().getValue();
+      diffShowActions_ = !"??".equals(item.getStatus()) &&
+                         !"UU".equals(item.getStatus());
+
+      // if we're refreshing the diff being shown then load as much of it
+      // as we had before (so the view can be restored to where it was)
+      if (currentDiffId_ == null)
+         diffReloadOffset_ = 0;
+      else if (nextDiffOffset_ < 0)
+         diffReloadOffset_ = Integer.MAX_VALUE;
+      else
+         diffReloadOffset_ = nextDiffOffset_;
+      reloadedDiffLines_ = null;
+
+      loadDiffPage(0, token);
+   }
+
+   // Loads the diff a page at a time: the first page replaces the diff
+   // being shown (unless it's unchanged) and later pages, requested as the
+   // diff is scrolled, are appended to it. When a diff is refreshed, pages
+   // up to diffReloadOffset_ are collected before any of them is shown.
+   private void loadDiffPage(final int offset, final Token token)
+   {
+      loadingDiffPage_ = true;
+      server_.gitDiffFilePage(
+            diffPath_,
+            diffPatchMode_,
+            diffContextLines_,
             overrideSizeWarning_,
-            new SimpleRequestCallback<DiffResult>("Diff Error")
+            offset,
+            offset == 0 ? null : currentDiffId_,
+            new SimpleRequestCallback<DiffPage>("Diff Error")
             {
                @Override
-               public void onResponseReceived(DiffResult diffResult)
+               public void onResponseReceived(DiffPage diffPage)
                {
                   if (token.isInvalid())
                      return;
+                  loadingDiffPage_ = false;
 
-                  // Use lastResponse_ to prevent unnecessary flicker
-                  String response = diffResult.getDecodedValue();
-                  if (response.equals(currentResponse_))
+                  // Use currentDiffId_ to prevent unnecessary flicker
+                  String diffId = diffPage.getDiffId();
+                  if (offset == 0)
+                  {
+                     if (diffId.equals(currentDiffId_))
+                        return;
+                  }
+                  else if (!diffId.equals(currentDiffId_))
+                  {
+                     // the diff changed while we were reading it
+                     currentDiffId_ = null;
+                     reloadedDiffLines_ = null;
+                     loadDiffPage(0, token);
                      return;
-                  currentResponse_ = response;
-                  currentSourceEncoding_ = diffResult.getSourceEncoding();
+                  }
 
-                  UnifiedParser parser = new UnifiedParser(response);
-                  parser.nextFilePair();
+                  currentDiffId_ = diffId;
+                  currentSourceEncoding_ = diffPage.getSourceEncoding();
+                  nextDiffOffset_ = diffPage.getNextOffset();
 
-                  ArrayList<ChunkOrLine> allLines = new ArrayList<ChunkOrLine>();
+                  ArrayList<ChunkOrLine> lines = new ArrayList<ChunkOrLine>();
+                  if (offset == 0)
+                  {
+                     diffParser_ = new UnifiedParser(
+                                             diffPage.getDecodedValue());
+                     diffParser_.setPartial(nextDiffOffset_ >= 0);
+                     diffParser_.nextFilePair();
+                     activeChunks_.clear();
+                  }
+                  else
+                  {
+                     diffParser_.append(diffPage.getDecodedValue());
+                     diffParser_.setPartial(nextDiffOffset_ >= 0);
+                  }
 
-                  activeChunks_.clear();
                   for (DiffChunk chunk;
-                       null != (chunk = parser.nextChunk());)
+                       null != (chunk = diffParser_.nextChunk());)
                   {
                      activeChunks_.add(chunk);
-                     allLines.add(new ChunkOrLine(chunk));
+                     lines.add(new ChunkOrLine(chunk));
                      for (Line line : chunk.getLines())
-                        allLines.add(new ChunkOrLine(line));
+                        lines.add(new ChunkOrLine(line));
                   }
 
-                  view_.setShowActions(
-                        !"??".equals(item.getStatus()) &&
-                        !"UU".equals(item.getStatus()));
-                  view_.setData(allLines, patchMode);
+                  if (offset == 0 || reloadedDiffLines_ != null)
+                  {
+                     if (reloadedDiffLines_ != null)
+                     {
+                        reloadedDiffLines_.addAll(lines);
+                        lines = reloadedDiffLines_;
+                     }
+
+                     if (nextDiffOffset_ >= 0 &&
+                         nextDiffOffset_ < diffReloadOffset_)
+                     {
+                        reloadedDiffLines_ = lines;
+                        loadDiffPage(nextDiffOffset_, token);
+                        return;
+                     }
+                     reloadedDiffLines_ = null;
+
+                     view_.setShowActions(diffShowActions_);
+                     view_.setData(lines, diffPatchMode_);
+                  }
+                  else
+                  {
+                     view_.appendData(lines);
+                  }
                }
 
                @Override
                public void onError(ServerError error)
                {
+                  if (token.isInvalid())
+                     return;
+                  loadingDiffPage_ = false;
+                  reloadedDiffLines_ = null;
+
                   JSONNumber size = error.getClientInfo().isNumber();
                   if (size != null)
                      view_.showSizeWarning((long) size.doubleValue());
@@ -723,11 +849,23 @@ public class GitReviewPresenter implements ReviewPresenter
             });
    }
 
+   private void loadMoreDiff()
+   {
+      if (loadingDiffPage_ || nextDiffOffset_ < 0 || currentDiffId_ == null)
+         return;
+
+      loadDiffPage(nextDiffOffset_, diffInvalidation_.getInvalidationToken());
+   }
+
    private void clearDiff()
    {
       softModeSwitch_ = false;
-      currentResponse_ = null;
+      currentDiffId_ = null;
       currentFilename_ = null;
+      diffParser_ = null;
+      nextDiffOffset_ = -1;
+      loadingDiffPage_ = false;
+      reloadedDiffLines_ = null;
       view_.getLineTableDisplay().clear();
    }
 
@@ -801,7 +939,16 @@ public class GitReviewPresenter implements ReviewPresenter
    private final Display view_;
    private final GlobalDisplay globalDisplay_;
    private ArrayList<DiffChunk> activeChunks_ = new ArrayList<DiffChunk>();
-   private String currentResponse_;
+   private String currentDiffId_;
+   private UnifiedParser diffParser_;
+   private int nextDiffOffset_ = -1;
+   private boolean loadingDiffPage_;
+   private int diffReloadOffset_;
+   private ArrayList<ChunkOrLine> reloadedDiffLines_;
+   private String diffPath_;
+   private PatchMode diffPatchMode_;
+   private int diffContextLines_;
+   private boolean diffShowActions_;
    private String currentSourceEncoding_;
    private String currentFilename_;
    // Hack to prevent us flipping to unstaged view when a line is unstaged
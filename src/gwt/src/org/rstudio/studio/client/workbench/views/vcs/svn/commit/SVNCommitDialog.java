@@ -60,7 +60,6 @@ public class SVNCommitDialog extends ModalDialogBase
    {
       server_ = server;
       globalDisplay_ = globalDisplay;
-      session_ = session;
 
       setText("Commit");
 
@@ -83,6 +82,12 @@ public class SVNCommitDialog extends ModalDialogBase
             {
                return commitDraft_;
             }
+
+            @Override
+            protected boolean pollsForChanges()
+            {
+               return false;
+            }
          };
       }
 
@@ -145,7 +150,7 @@ public class SVNCommitDialog extends ModalDialogBase
    {
       super.onUnload();
       commitDraft_ = message_.getText();
-      session_.persistClientState();
+      commitDraftStateValue_.markDirty();
    }
  
    private void attemptCommit()
@@ -254,7 +259,6 @@ public class SVNCommitDialog extends ModalDialogBase
    private Widget widget_;
    private final SVNServerOperations server_;
    private final GlobalDisplay globalDisplay_;
-   private final Session session_;
 
    private static String commitDraft_;
    private static StringStateValue commitDraftStateValue_;
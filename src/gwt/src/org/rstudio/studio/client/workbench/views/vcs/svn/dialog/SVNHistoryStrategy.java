@@ -137,6 +137,12 @@ public class SVNHistoryStrategy implements HistoryStrategy
    {
    }
 
+   @Override
+   public void clearHistoryCache()
+   {
+      dataProvider_.clearCache();
+   }
+
    @Override
    public void initializeHistory(final HasData<CommitInfo> dataDisplay)
    {
@@ -301,8 +301,9 @@ public class SVNReviewPresenter implements ReviewPresenter
       view_.getLineTableDisplay().addDiffChunkActionHandler(new ApplyPatchHandler());
       view_.getLineTableDisplay().addDiffLineActionHandler(new ApplyPatchHandler());
 
-      new IntStateValue(MODULE_SVN, KEY_CONTEXT_LINES, ClientState.PERSISTENT,
-                        session.getSessionInfo().getClientState())
+      final IntStateValue contextLinesState = new IntStateValue(
+            MODULE_SVN, KEY_CONTEXT_LINES, ClientState.PERSISTENT,
+            session.getSessionInfo().getClientState())
       {
          @Override
          protected void onInit(Integer value)
@@ -316,6 +317,12 @@ public class SVNReviewPresenter implements ReviewPresenter
          {
             return view_.getContextLines().getValue();
          }
+
+         @Override
+         protected boolean pollsForChanges()
+         {
+            return false;
+         }
       };
 
       view_.getContextLines().addValueChangeHandler(new ValueChangeHandler<Integer>()
@@ -323,6 +330,7 @@ public class SVNReviewPresenter implements ReviewPresenter
          @Override
          public void onValueChange(ValueChangeEvent<Integer> event)
          {
+            contextLinesState.markDirty();
             updateDiff();
          }
       });
@@ -14,6 +14,8 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.svn.model;
 
+import java.util.ArrayList;
+
 import com.google.gwt.core.client.JsArray;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -25,7 +27,7 @@ import org.rstudio.studio.client.common.vcs.SVNServerOperations;
 import org.rstudio.studio.client.common.vcs.StatusAndPath;
 import org.rstudio.studio.client.common.vcs.StatusAndPathInfo;
 import org.rstudio.studio.client.server.ServerError;
-import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.server.ServerRequestChunkedCallback;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
@@ -59,12 +61,21 @@ public class SVNState extends VcsState
    @Override
    public void refresh(final boolean showError)
    {
-      server_.svnStatus(new ServerRequestCallback<JsArray<StatusAndPathInfo>>()
+      // status for a large working copy can be huge, so decode it in chunks
+      final ArrayList<StatusAndPath> status = new ArrayList<StatusAndPath>();
+      server_.svnStatus(
+            new ServerRequestChunkedCallback<StatusAndPathInfo>()
       {
          @Override
-         public void onResponseReceived(JsArray<StatusAndPathInfo> response)
+         public void onChunkReceived(JsArray<StatusAndPathInfo> chunk)
+         {
+            status.addAll(StatusAndPath.fromInfos(chunk));
+         }
+
+         @Override
+         public void onChunksComplete()
          {
-            status_ = StatusAndPath.fromInfos(response);
+            status_ = status;
             handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation));
          }
 
@@ -0,0 +1,111 @@
+/*
+ * VirtualConsoleTests.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import junit.framework.Assert;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class VirtualConsoleTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudio";
+   }
+
+   public void testCarriageReturn()
+   {
+      Assert.assertEquals("done", VirtualConsole.consolify("10%\r50%\rdone"));
+      Assert.assertEquals("ab\ncd", VirtualConsole.consolify("ab\nxy\rcd"));
+   }
+
+   public void testBackspace()
+   {
+      Assert.assertEquals("ac", VirtualConsole.consolify("ab\bc"));
+   }
+
+   public void testIncrementalRender()
+   {
+      VirtualConsole console = new VirtualConsole();
+      Element parent = Document.get().createPreElement();
+
+      console.submitAndRender("line 1\n", "output", parent);
+      console.submitAndRender("error\n", "error", parent);
+      for (int i = 0; i <= 100; i++)
+         console.submitAndRender("\r" + i + "%", "output", parent);
+
+      Assert.assertEquals("line 1\nerror\n100%", parent.getInnerText());
+
+      // the rendered DOM should match a full redraw
+      Element expected = Document.get().createPreElement();
+      console.redraw(expected);
+      Assert.assertEquals(expected.getInnerHTML(), parent.getInnerHTML());
+   }
+
+   // Feeds several megabytes of mixed \r, \b and \n output through the
+   // console, rendering after each chunk as the chunk output widget does,
+   // and reports the time taken along with the size of the style model
+   public void testBenchmark()
+   {
+      VirtualConsole console = new VirtualConsole();
+      Element parent = Document.get().createPreElement();
+
+      int submitted = 0;
+      Duration duration = new Duration();
+      double heapBefore = getUsedHeapSize();
+      for (int i = 0; submitted < 4 * 1024 * 1024; i++)
+      {
+         String data;
+         String clazz = (i % 10 == 0) ? "error" : "output";
+         if (i % 3 == 0)
+            data = "\r|" + StringUtil.padRight("", i % 60) + "| " + i + "%";
+         else if (i % 3 == 1)
+            data = "iteration " + i + ": loss = 0.123456\b\b\b789\n";
+         else
+            data = "Warning: some longer message produced by iteration " +
+                   i + "\n";
+         console.submitAndRender(data, clazz, parent);
+         submitted += data.length();
+      }
+      int elapsed = duration.elapsedMillis();
+      double heapAfter = getUsedHeapSize();
+
+      System.out.println("VirtualConsole benchmark: " +
+            submitted + " chars submitted, " +
+            console.getLength() + " chars retained, " +
+            console.getRunCount() + " style runs, " +
+            console.getRenderedNodeCount() + " DOM nodes, " +
+            elapsed + "ms" +
+            (heapAfter > 0 ?
+                  ", heap delta " +
+                  Math.round((heapAfter - heapBefore) / 1024) + "KB" : ""));
+
+      Element expected = Document.get().createPreElement();
+      console.redraw(expected);
+      Assert.assertEquals(expected.getInnerText(), parent.getInnerText());
+   }
+
+   // only available in Chrome; returns -1 elsewhere
+   private static native double getUsedHeapSize() /*-{
+      var perf = $wnd.performance;
+      if (perf && perf.memory)
+         return perf.memory.usedJSHeapSize;
+      return -1;
+   }-*/;
+}
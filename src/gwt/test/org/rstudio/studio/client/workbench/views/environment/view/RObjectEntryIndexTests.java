@@ -0,0 +1,160 @@
+/*
+ * RObjectEntryIndexTests.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.environment.view;
+
+import java.util.ArrayList;
+
+import junit.framework.Assert;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import org.rstudio.studio.client.workbench.views.environment.model.RObject;
+
+public class RObjectEntryIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudio";
+   }
+
+   public void testAddKeepsSortOrder()
+   {
+      ArrayList<RObjectEntry> entries = new ArrayList<RObjectEntry>();
+      RObjectEntryIndex index = new RObjectEntryIndex(entries,
+                                                      new RObjectEntrySort());
+
+      String[] names = { "m", "c", "x", "a", "q", "b" };
+      for (String name : names)
+      {
+         RObjectEntry entry = value(name);
+         int idx = index.add(entry);
+         Assert.assertSame(entry, entries.get(idx));
+      }
+
+      Assert.assertEquals("a b c m q x", namesOf(entries));
+      for (int i = 0; i < entries.size(); i++)
+      {
+         RObjectEntry entry = entries.get(i);
+         Assert.assertEquals(i, index.indexOf(entry));
+         Assert.assertSame(entry, index.get(entry.rObject.getName()));
+      }
+   }
+
+   public void testAutoSortOrdersByCategory()
+   {
+      ArrayList<RObjectEntry> entries = new ArrayList<RObjectEntry>();
+      RObjectEntryIndex index = new RObjectEntryIndex(entries,
+                                                      new RObjectEntrySort());
+
+      index.add(function("f"));
+      index.add(value("b"));
+      index.add(data("d"));
+      index.add(value("a"));
+      index.add(function("e"));
+
+      Assert.assertEquals("d a b e f", namesOf(entries));
+      Assert.assertEquals("a", index.firstVisibleInCategory(
+            RObjectEntry.Categories.Value).rObject.getName());
+      Assert.assertEquals("e", index.firstVisibleInCategory(
+            RObjectEntry.Categories.Function).rObject.getName());
+   }
+
+   public void testRemove()
+   {
+      ArrayList<RObjectEntry> entries = new ArrayList<RObjectEntry>();
+      RObjectEntryIndex index = new RObjectEntryIndex(entries,
+                                                      new RObjectEntrySort());
+      RObjectEntry a = value("a");
+      RObjectEntry b = value("b");
+      RObjectEntry c = value("c");
+      index.add(a);
+      index.add(b);
+      index.add(c);
+
+      Assert.assertEquals(1, index.remove(b));
+      Assert.assertEquals("a c", namesOf(entries));
+      Assert.assertNull(index.get("b"));
+      Assert.assertEquals(1, index.indexOf(c));
+
+      // removing an entry that isn't there leaves the list alone
+      Assert.assertEquals(-1, index.remove(b));
+      Assert.assertEquals(-1, index.remove(value("a")));
+      Assert.assertEquals("a c", namesOf(entries));
+      Assert.assertSame(a, index.get("a"));
+   }
+
+   public void testReplaceMovesEntryOutOfOrder()
+   {
+      ArrayList<RObjectEntry> entries = new ArrayList<RObjectEntry>();
+      RObjectEntryIndex index = new RObjectEntryIndex(entries,
+                                                      new RObjectEntrySort());
+      index.add(value("a"));
+      index.add(value("b"));
+      index.add(value("c"));
+
+      // a value which becomes a function moves to the end
+      RObjectEntry b = function("b");
+      Assert.assertEquals(2, index.replace(1, b));
+      Assert.assertEquals("a c b", namesOf(entries));
+      Assert.assertSame(b, index.get("b"));
+
+      // one which still sorts in the same place is replaced in place
+      RObjectEntry c = value("c");
+      Assert.assertEquals(1, index.replace(1, c));
+      Assert.assertSame(c, entries.get(1));
+   }
+
+   private static String namesOf(ArrayList<RObjectEntry> entries)
+   {
+      StringBuilder names = new StringBuilder();
+      for (RObjectEntry entry : entries)
+      {
+         if (names.length() > 0)
+            names.append(' ');
+         names.append(entry.rObject.getName());
+      }
+      return names.toString();
+   }
+
+   private static RObjectEntry value(String name)
+   {
+      return new RObjectEntry(createObject(name, "numeric", false), true);
+   }
+
+   private static RObjectEntry data(String name)
+   {
+      return new RObjectEntry(createObject(name, "data.frame", true), true);
+   }
+
+   private static RObjectEntry function(String name)
+   {
+      return new RObjectEntry(createObject(name, "function", false), true);
+   }
+
+   private static native RObject createObject(String name,
+                                              String type,
+                                              boolean isData) /*-{
+      return {
+         name: name,
+         type: type,
+         is_data: isData,
+         value: "",
+         contents: [],
+         length: 1,
+         size: 0,
+         contents_deferred: false
+      };
+   }-*/;
+}
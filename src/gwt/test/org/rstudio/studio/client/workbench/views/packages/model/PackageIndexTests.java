@@ -0,0 +1,161 @@
+/*
+ * PackageIndexTests.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.packages.model;
+
+import java.util.List;
+
+import junit.framework.Assert;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.junit.client.GWTTestCase;
+import org.rstudio.studio.client.workbench.model.Session;
+
+public class PackageIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudio";
+   }
+
+   public void testEmptyFilterReturnsAllInLibraryOrder()
+   {
+      PackageIndex index = createIndex();
+      Assert.assertEquals("dplyr ggplot2 plyr zoo MASS plotrix plyr rpart",
+                          namesOf(index.filter("")));
+   }
+
+   public void testPrefixMatchesBeforeContainsMatches()
+   {
+      PackageIndex index = createIndex();
+
+      // within each library, names starting with the filter come first,
+      // then names or descriptions containing it
+      Assert.assertEquals("plyr dplyr plyr",
+                          namesOf(index.filter("ply")));
+      Assert.assertEquals("ggplot2 plotrix",
+                          namesOf(index.filter("plot")));
+
+      // filters too short to have a trigram are matched against everything
+      Assert.assertEquals("plyr dplyr ggplot2 plotrix plyr",
+                          namesOf(index.filter("pl")));
+   }
+
+   public void testDescriptionMatches()
+   {
+      PackageIndex index = createIndex();
+      Assert.assertEquals("zoo rpart", namesOf(index.filter("series")));
+   }
+
+   public void testNoMatchingTrigram()
+   {
+      PackageIndex index = createIndex();
+      Assert.assertEquals("", namesOf(index.filter("xyz")));
+      Assert.assertEquals("", namesOf(index.filter("plyx")));
+   }
+
+   public void testUpdateStatus()
+   {
+      PackageIndex index = createIndex();
+
+      index.updateStatus(createStatus("rpart", SYSTEM_LIBRARY, true));
+      Assert.assertTrue(find(index, "rpart", SYSTEM_LIBRARY).isLoaded());
+
+      // loading a package from one library unloads it from the others
+      index.updateStatus(createStatus("plyr", USER_LIBRARY, true));
+      index.updateStatus(createStatus("plyr", SYSTEM_LIBRARY, true));
+      Assert.assertFalse(find(index, "plyr", USER_LIBRARY).isLoaded());
+      Assert.assertTrue(find(index, "plyr", SYSTEM_LIBRARY).isLoaded());
+
+      // packages which aren't installed are ignored
+      index.updateStatus(createStatus("shiny", USER_LIBRARY, true));
+      Assert.assertEquals(8, index.getPackages().size());
+   }
+
+   private static PackageIndex createIndex()
+   {
+      JsArray<PackageInfo> packages = JsArray.createArray().cast();
+      packages.push(createPackage("rpart", SYSTEM_LIBRARY,
+                                  "Recursive Partitioning and Time Series"));
+      packages.push(createPackage("zoo", USER_LIBRARY,
+                                  "Infrastructure for Regular Time Series"));
+      packages.push(createPackage("plyr", USER_LIBRARY,
+                                  "Tools for Splitting and Combining Data"));
+      packages.push(createPackage("MASS", SYSTEM_LIBRARY,
+                                  "Support Functions and Datasets"));
+      packages.push(createPackage("ggplot2", USER_LIBRARY,
+                                  "Create Elegant Data Visualisations"));
+      packages.push(createPackage("plotrix", SYSTEM_LIBRARY,
+                                  "Various Plotting Functions"));
+      packages.push(createPackage("dplyr", USER_LIBRARY,
+                                  "A Grammar of Data Manipulation"));
+      packages.push(createPackage("plyr", SYSTEM_LIBRARY,
+                                  "Tools for Splitting and Combining Data"));
+
+      return new PackageIndex(packages, new Session(null));
+   }
+
+   private static PackageInfo find(PackageIndex index,
+                                   String name,
+                                   String library)
+   {
+      for (PackageInfo pkgInfo : index.getPackages())
+      {
+         if (pkgInfo.getName().equals(name) &&
+             pkgInfo.getLibrary().equals(library))
+            return pkgInfo;
+      }
+      Assert.fail("no package " + name + " in " + library);
+      return null;
+   }
+
+   private static String namesOf(List<PackageInfo> packages)
+   {
+      StringBuilder names = new StringBuilder();
+      for (PackageInfo pkgInfo : packages)
+      {
+         if (names.length() > 0)
+            names.append(' ');
+         names.append(pkgInfo.getName());
+      }
+      return names.toString();
+   }
+
+   private static native PackageInfo createPackage(String name,
+                                                   String library,
+                                                   String desc) /*-{
+      return {
+         name: name,
+         library: library,
+         version: "1.0",
+         desc: desc,
+         loaded: false
+      };
+   }-*/;
+
+   // package status events carry R vectors, hence the arrays
+   private static native PackageStatus createStatus(String name,
+                                                    String lib,
+                                                    boolean loaded) /*-{
+      return {
+         name: [name],
+         lib: lib,
+         loaded: [loaded]
+      };
+   }-*/;
+
+   private static final String USER_LIBRARY = "~/R/library";
+   private static final String SYSTEM_LIBRARY = "/usr/lib/R/library";
+}
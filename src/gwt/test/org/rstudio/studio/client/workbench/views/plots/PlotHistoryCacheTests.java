@@ -0,0 +1,97 @@
+/*
+ * PlotHistoryCacheTests.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.plots;
+
+import junit.framework.Assert;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class PlotHistoryCacheTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudio";
+   }
+
+   public void testGetBySize()
+   {
+      PlotHistoryCache cache = new PlotHistoryCache();
+      cache.put(0, 400, 300, "plot0.png", "graphics/plot0.png");
+
+      Assert.assertEquals("plot0.png", cache.get(0, 400, 300));
+      Assert.assertNull(cache.get(0, 800, 600));
+      Assert.assertNull(cache.get(1, 400, 300));
+   }
+
+   public void testEvictsLeastRecentlyUsed()
+   {
+      // each of these images takes a quarter of the cache's budget
+      PlotHistoryCache cache = new PlotHistoryCache();
+      for (int i = 0; i < 4; i++)
+         cache.put(i, SIZE, SIZE, "plot" + i + ".png", "plot" + i + ".png");
+
+      // showing the oldest plot again makes the second oldest the least
+      // recently used, so it's the one dropped to make room for a fifth
+      Assert.assertNotNull(cache.get(0, SIZE, SIZE));
+      cache.put(4, SIZE, SIZE, "plot4.png", "plot4.png");
+
+      Assert.assertNull(cache.get(1, SIZE, SIZE));
+      Assert.assertEquals("plot0.png", cache.get(0, SIZE, SIZE));
+      for (int i = 2; i < 5; i++)
+         Assert.assertEquals("plot" + i + ".png", cache.get(i, SIZE, SIZE));
+   }
+
+   public void testReplacingEntryDoesNotEvict()
+   {
+      PlotHistoryCache cache = new PlotHistoryCache();
+      for (int i = 0; i < 4; i++)
+         cache.put(i, SIZE, SIZE, "plot" + i + ".png", "plot" + i + ".png");
+
+      // putting the same plot and size again replaces its entry (rather
+      // than counting its size twice)
+      cache.put(3, SIZE, SIZE, "plot3b.png", "plot3b.png");
+      Assert.assertEquals("plot3b.png", cache.get(3, SIZE, SIZE));
+      for (int i = 0; i < 3; i++)
+         Assert.assertEquals("plot" + i + ".png", cache.get(i, SIZE, SIZE));
+   }
+
+   public void testKeepsNewestEntry()
+   {
+      PlotHistoryCache cache = new PlotHistoryCache();
+      cache.put(0, 400, 300, "plot0.png", "plot0.png");
+
+      // an image larger than the whole budget evicts everything else, but
+      // is kept itself
+      cache.put(1, 2 * SIZE, 2 * SIZE + 1, "plot1.png", "plot1.png");
+      Assert.assertNull(cache.get(0, 400, 300));
+      Assert.assertEquals("plot1.png", cache.get(1, 2 * SIZE, 2 * SIZE + 1));
+   }
+
+   public void testClearStartsNewGeneration()
+   {
+      PlotHistoryCache cache = new PlotHistoryCache();
+      cache.put(0, 400, 300, "plot0.png", "plot0.png");
+      int generation = cache.getGeneration();
+
+      cache.clear();
+
+      Assert.assertNull(cache.get(0, 400, 300));
+      Assert.assertEquals(generation + 1, cache.getGeneration());
+   }
+
+   // 2048 x 2048 pixels at 4 bytes each is 16MB, a quarter of the budget
+   private static final int SIZE = 2048;
+}
@@ -62,11 +62,76 @@ public class UnifiedParserTest extends TestCase
       testFile("diff2");
    }
 
+   public void testAppendChunkSplitAcrossPages() throws Exception
+   {
+      String diff = readFileResource("diff1.txt");
+      String expected = parseInPages(diff, diff.length());
+      assertTrue(expected.length() > 0);
+
+      // split at every line boundary after the file header, including
+      // those in the middle of a chunk
+      for (int split = firstChunkStart(diff); split < diff.length(); split++)
+      {
+         if (diff.charAt(split - 1) == '\n')
+            assertEquals("split at " + split,
+                         expected,
+                         parseInPages(diff, split));
+      }
+   }
+
+   public void testAppendSplitWithinLine() throws Exception
+   {
+      String diff = readFileResource("diff1.txt");
+      String expected = parseInPages(diff, diff.length());
+
+      for (int split = firstChunkStart(diff); split < diff.length(); split++)
+      {
+         if (diff.charAt(split - 1) != '\n')
+            assertEquals("split at " + split,
+                         expected,
+                         parseInPages(diff, split));
+      }
+   }
+
+   private int firstChunkStart(String diff)
+   {
+      return diff.indexOf("\n@@") + 1;
+   }
+
+   // parses the diff as a first page ending at split and a second page with
+   // the rest of it
+   private String parseInPages(String diff, int split)
+   {
+      StringWriter stringWriter = new StringWriter();
+      PrintWriter output = new PrintWriter(stringWriter);
+
+      UnifiedParser parser = new UnifiedParser(diff.substring(0, split));
+      parser.setPartial(split < diff.length());
+      parser.nextFilePair();
+      printChunks(parser, output);
+
+      if (split < diff.length())
+      {
+         parser.append(diff.substring(split));
+         parser.setPartial(false);
+         printChunks(parser, output);
+      }
+
+      output.flush();
+      return stringWriter.toString();
+   }
+
    private void testFile(String testName) throws Exception
    {
       StringWriter stringWriter = new StringWriter();
       PrintWriter output = new PrintWriter(stringWriter);
       UnifiedParser parser = new UnifiedParser(readFileResource(testName + ".txt"));
+      printChunks(parser, output);
+      assertEquals(readFileResource(testName + ".out.txt"), stringWriter.toString());
+   }
+
+   private void printChunks(UnifiedParser parser, PrintWriter output)
+   {
       DiffChunk chunk;
       while (null != (chunk = parser.nextChunk()))
       {
@@ -97,6 +162,5 @@ public class UnifiedParserTest extends TestCase
             output.println(line.getText());
          }
       }
-      assertEquals(readFileResource(testName + ".out.txt"), stringWriter.toString());
    }
 }
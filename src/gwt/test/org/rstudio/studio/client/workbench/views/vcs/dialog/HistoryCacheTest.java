@@ -0,0 +1,72 @@
+/*
+ * HistoryCacheTest.java
+ *
+ * Copyright (C) 2009-16 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.dialog;
+
+import junit.framework.TestCase;
+
+public class HistoryCacheTest extends TestCase
+{
+   public void testSameKeyReturnsSameHistory()
+   {
+      HistoryCache cache = new HistoryCache();
+      HistoryCache.History history = cache.get("HEAD", null, "");
+
+      assertSame(history, cache.get("HEAD", null, ""));
+      assertNotSame(history, cache.get("HEAD", null, "fix"));
+      assertNotSame(history, cache.get("master", null, ""));
+   }
+
+   public void testEvictsLeastRecentlyUsed()
+   {
+      HistoryCache cache = new HistoryCache();
+      HistoryCache.History[] histories = new HistoryCache.History[8];
+      for (int i = 0; i < histories.length; i++)
+         histories[i] = cache.get("HEAD", null, "search " + i);
+
+      // using the oldest history makes the second oldest the least recently
+      // used, so it's the one dropped when a ninth history is added
+      assertSame(histories[0], cache.get("HEAD", null, "search 0"));
+      cache.get("HEAD", null, "search 8");
+
+      assertSame(histories[0], cache.get("HEAD", null, "search 0"));
+      for (int i = 2; i < histories.length; i++)
+         assertSame(histories[i], cache.get("HEAD", null, "search " + i));
+      assertNotSame(histories[1], cache.get("HEAD", null, "search 1"));
+   }
+
+   public void testClear()
+   {
+      HistoryCache cache = new HistoryCache();
+      HistoryCache.History history = cache.get("HEAD", null, "");
+      history.setCount(10);
+
+      cache.clear();
+
+      HistoryCache.History cleared = cache.get("HEAD", null, "");
+      assertNotSame(history, cleared);
+      assertEquals(-1, cleared.getCount());
+   }
+
+   public void testCommitsNeedFetchingUntilPut()
+   {
+      HistoryCache.History history = new HistoryCache().get("HEAD", null, "");
+
+      assertNull(history.getCommits(0, 10));
+
+      // once the count is known, a range past the end is clipped to it
+      history.setCount(0);
+      assertEquals(0, history.getCommits(0, 10).size());
+   }
+}